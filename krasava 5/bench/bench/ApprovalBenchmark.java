@@ -0,0 +1,117 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+import company.projects.Project;
+import company.projects.Task;
+import company.projects.TimeEntry;
+import company.storage.CompanyDataService;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Approves time entries from a growing number of threads against a few hot
+ * projects and checks afterwards that no hours or entries were lost. Every
+ * thread also re-approves some entries concurrently with another thread to
+ * exercise the approve-once guarantee. Exits with status 1 on any lost update.
+ *
+ * <pre>java -cp bin bench.ApprovalBenchmark [entriesPerThread] [maxThreads]</pre>
+ */
+public class ApprovalBenchmark {
+    private static final int PROJECTS = 4;
+    private static final int TASKS_PER_PROJECT = 16;
+
+    public static void main(String[] args) throws Exception {
+        int perThread = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+        CompanyDataService service = CompanyDataService.getInstance();
+
+        Department dep = ObjectFactory.createDepartment("D001", "IT", "Information Technology Department");
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        Manager owner = ObjectFactory.createManager("M001", "Hot", "Owner", dep, pos, "2023-01-01", 50_000, ws);
+        Employee worker = ObjectFactory.createEmployee("E001", "Busy", "Worker", dep, pos, "2023-01-01", 40_000, ws);
+        service.registerEmployee(owner);
+        service.registerEmployee(worker);
+
+        boolean lost = false;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            List<Task> tasks = new ArrayList<>();
+            List<Project> projects = new ArrayList<>();
+            for (int p = 0; p < PROJECTS; p++) {
+                Project project = new Project("HOT-" + threads + "-" + p, "Hot project " + p, null,
+                    LocalDateTime.of(2024, 1, 1, 0, 0), null, owner);
+                service.registerProject(project);
+                projects.add(project);
+                for (int t = 0; t < TASKS_PER_PROJECT; t++) {
+                    tasks.add(ObjectFactory.createTask(project.getId() + "-T" + t, "Task " + t, project, worker));
+                }
+            }
+
+            // Entries are built up front so the timed section measures approval only.
+            // Thread i also approves the first tenth of thread (i + 1)'s entries.
+            List<List<TimeEntry>> work = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                List<TimeEntry> entries = new ArrayList<>(perThread);
+                LocalDateTime start = LocalDateTime.of(2024, 2, 1, 9, 0);
+                for (int n = 0; n < perThread; n++) {
+                    Task task = tasks.get((t + n) % tasks.size());
+                    TimeEntry entry = new TimeEntry("TE-" + t + "-" + n, worker, task.getProject(), task, start);
+                    entry.stopWork(start.plusMinutes(30));
+                    entries.add(entry);
+                }
+                work.add(entries);
+            }
+
+            CountDownLatch go = new CountDownLatch(1);
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                List<TimeEntry> own = work.get(t);
+                List<TimeEntry> neighbour = work.get((t + 1) % threads).subList(0, perThread / 10);
+                workers.add(new Thread(() -> {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int n = 0; n < own.size(); n++) {
+                        own.get(n).approve();
+                        if (n < neighbour.size()) {
+                            neighbour.get(n).approve();
+                        }
+                    }
+                }));
+            }
+            workers.forEach(Thread::start);
+            long started = System.nanoTime();
+            go.countDown();
+            for (Thread w : workers) {
+                w.join();
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            double expectedHours = threads * (double) perThread * 0.5;
+            double projectHours = projects.stream().mapToDouble(Project::getActualHours).sum();
+            double taskHours = tasks.stream().mapToDouble(Task::getActualHours).sum();
+            long loggedEntries = tasks.stream().mapToLong(t -> t.getTimeEntries().size()).sum();
+            boolean ok = projectHours == expectedHours && taskHours == expectedHours
+                && loggedEntries == (long) threads * perThread
+                && projects.stream().allMatch(p -> "IN_PROGRESS".equals(p.getStatus()));
+            lost |= !ok;
+            System.out.printf("%2d threads: %,12.0f approvals/s  project hours %.1f, task hours %.1f, entries %,d (expected %.1f / %,d)%s%n",
+                threads, threads * (double) perThread / seconds, projectHours, taskHours, loggedEntries,
+                expectedHours, (long) threads * perThread, ok ? "" : "  LOST UPDATES");
+        }
+        if (lost) {
+            System.exit(1);
+        }
+        System.out.println("OK: no lost hours or entries (" + Runtime.getRuntime().availableProcessors() + " cores)");
+    }
+}
@@ -0,0 +1,87 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+import company.projects.ApprovalResult;
+import company.projects.Project;
+import company.projects.Task;
+import company.projects.TimeEntry;
+import company.projects.TimeEntryApprovals;
+import company.storage.CompanyDataService;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Approves N time entries one by one and then N fresh entries as one batch,
+ * with a sprinkling of invalid entries, and compares the time taken and the
+ * resulting project hours.
+ *
+ * <pre>java -cp bin bench.BatchApprovalBenchmark [entries]</pre>
+ */
+public class BatchApprovalBenchmark {
+    public static void main(String[] args) {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        CompanyDataService service = CompanyDataService.getInstance();
+
+        Department dep = ObjectFactory.createDepartment("D001", "IT", "Information Technology Department");
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        Manager owner = ObjectFactory.createManager("M001", "Week", "Owner", dep, pos, "2023-01-01", 50_000, ws);
+        Employee worker = ObjectFactory.createEmployee("E001", "Busy", "Worker", dep, pos, "2023-01-01", 40_000, ws);
+        service.registerEmployee(owner);
+        service.registerEmployee(worker);
+
+        for (String mode : new String[] {"one by one", "batch"}) {
+            List<Project> projects = new ArrayList<>();
+            List<Task> tasks = new ArrayList<>();
+            for (int p = 0; p < 100; p++) {
+                Project project = new Project(mode + "-P" + p, "Project " + p, null, LocalDateTime.of(2024, 1, 1, 0, 0), null, owner);
+                service.registerProject(project);
+                projects.add(project);
+                for (int t = 0; t < 20; t++) {
+                    tasks.add(ObjectFactory.createTask(project.getId() + "-T" + t, "Task " + t, project, worker));
+                }
+            }
+            List<TimeEntry> week = new ArrayList<>(entries);
+            LocalDateTime start = LocalDateTime.of(2024, 2, 5, 9, 0);
+            int invalid = 0;
+            for (int n = 0; n < entries; n++) {
+                Task task = tasks.get(n % tasks.size());
+                TimeEntry entry = new TimeEntry("TE" + n, worker, task.getProject(), task, start);
+                if (n % 1000 == 999) {
+                    invalid++; // never stopped
+                } else {
+                    entry.stopWork(start.plusMinutes(15 + n % 4 * 15));
+                }
+                week.add(entry);
+            }
+
+            long started = System.nanoTime();
+            int failures;
+            if (mode.equals("batch")) {
+                ApprovalResult result = TimeEntryApprovals.approveAll(week);
+                failures = result.getFailures().size();
+            } else {
+                failures = 0;
+                for (TimeEntry entry : week) {
+                    try {
+                        entry.approve();
+                    } catch (IllegalStateException e) {
+                        failures++;
+                    }
+                }
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            double hours = projects.stream().mapToDouble(Project::getActualHours).sum();
+            System.out.printf("%-10s: %,d entries in %,d ms, %,d rejected (expected %,d), %.1f project hours%n",
+                mode, entries, millis, failures, invalid, hours);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.structure.BudgetMonitor;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies random raises, cuts, transfers and budget changes with a
+ * {@link BudgetMonitor} watching every department, and compares the cost per
+ * change with one full salary scan of all departments. At the end each
+ * department's reached threshold must match what a scan computes. Exits with
+ * status 1 if it does not.
+ *
+ * <pre>java -cp bin bench.BudgetMonitorBenchmark [employees] [changes]</pre>
+ */
+public class BudgetMonitorBenchmark {
+    private static final double[] THRESHOLDS = {0.9, 1.0};
+
+    public static void main(String[] args) {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int changes = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        Random random = new Random(7);
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 10_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        long[] alerts = new long[2];
+        BudgetMonitor monitor = new BudgetMonitor(BudgetMonitor.Scope.DEPARTMENT,
+            alert -> alerts[alert.isReached() ? 0 : 1]++, THRESHOLDS);
+
+        List<Department> departments = new ArrayList<>();
+        for (int d = 0; d < 500; d++) {
+            Department dep = ObjectFactory.createDepartment("D" + d, "Department " + d, "Department " + d);
+            dep.setBudget(30_000.0 * employees / 500);
+            departments.add(dep);
+        }
+        List<Employee> staff = new ArrayList<>();
+        for (int e = 0; e < employees; e++) {
+            Department dep = departments.get(e % departments.size());
+            Employee employee = ObjectFactory.createEmployee("E" + e, "First" + e, "Last" + e, dep, pos,
+                "2023-01-01", 25_000 + random.nextInt(10_000), ws);
+            employee.transferToDepartment(dep);
+            staff.add(employee);
+        }
+
+        long started = System.nanoTime();
+        for (int c = 0; c < changes; c++) {
+            int kind = random.nextInt(100);
+            Employee employee = staff.get(random.nextInt(staff.size()));
+            if (kind < 90) {
+                employee.adjustSalary(Math.max(-employee.getSalary() + 1_000, random.nextInt(4_000) - 1_900));
+            } else if (kind < 98) {
+                employee.transferToDepartment(departments.get(random.nextInt(departments.size())));
+            } else {
+                Department dep = departments.get(random.nextInt(departments.size()));
+                dep.setBudget(Math.max(0, dep.getBudget() + random.nextInt(200_000) - 100_000));
+            }
+        }
+        long monitoredNanos = System.nanoTime() - started;
+
+        started = System.nanoTime();
+        long mismatches = 0;
+        int overBudget = 0;
+        for (Department dep : departments) {
+            long salaryCents = 0;
+            for (Employee employee : dep.getEmployees()) {
+                salaryCents += Math.round(employee.getSalary() * 100);
+            }
+            double utilization = (double) salaryCents / Math.round(dep.getBudget() * 100);
+            double reached = 0.0;
+            for (double threshold : THRESHOLDS) {
+                reached = utilization >= threshold ? threshold : reached;
+            }
+            overBudget += utilization > 1.0 ? 1 : 0;
+            mismatches += monitor.getReachedThreshold(dep) == reached ? 0 : 1;
+        }
+        long scanMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+        monitor.close();
+
+        System.out.printf("%,d changes over %,d employees: %,d ns per change with the monitor; one full scan takes %,d us%n",
+            changes, employees, monitoredNanos / changes, scanMicros);
+        System.out.printf("%,d thresholds reached, %,d cleared; %,d departments over budget, %,d alerting, %,d mismatches%n",
+            alerts[0], alerts[1], overBudget, monitor.getAlertingCount(), mismatches);
+        if (mismatches > 0) {
+            System.out.println("VIOLATION: monitored thresholds disagree with a full scan");
+            System.exit(1);
+        }
+    }
+}
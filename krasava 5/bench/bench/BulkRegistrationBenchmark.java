@@ -0,0 +1,62 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.storage.BatchResult;
+import company.storage.CompanyDataService;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Registers batches of employees through {@link CompanyDataService#registerEmployees}
+ * with 1, 2, 4, ... worker threads and compares the batch path with
+ * one-at-a-time registration.
+ *
+ * <pre>java -cp bin bench.BulkRegistrationBenchmark [employees]</pre>
+ */
+public class BulkRegistrationBenchmark {
+    public static void main(String[] args) throws Exception {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+        CompanyDataService service = CompanyDataService.getInstance();
+
+        Department dep = ObjectFactory.createDepartment("D001", "IT", "Information Technology Department");
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+
+        List<Employee> single = batch("S", employees, dep, pos, ws);
+        long started = System.nanoTime();
+        for (Employee e : single) {
+            service.registerEmployee(e);
+        }
+        report("one at a time", employees, started);
+
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            List<Employee> batch = batch("B" + threads + "-", employees, dep, pos, ws);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            started = System.nanoTime();
+            BatchResult<Employee> result = pool.submit(() -> service.registerEmployees(batch)).get();
+            report("batch, " + threads + " thread(s)", result.getRegistered().size(), started);
+            pool.shutdown();
+        }
+    }
+
+    private static List<Employee> batch(String prefix, int count, Department dep, Position pos, WorkSchedule ws) {
+        List<Employee> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(new Employee(prefix + i, "First" + i, "Last" + i, "user" + i + "@company.com",
+                "+1" + (1_000_000_000L + i), dep, pos, "2023-01-01", 30_000, ws));
+        }
+        return batch;
+    }
+
+    private static void report(String label, int registered, long startedNanos) {
+        double seconds = (System.nanoTime() - startedNanos) / 1e9;
+        System.out.printf("%-22s %,10d employees in %6.2f s  (%,.0f/s)%n", label, registered, seconds, registered / seconds);
+    }
+}
@@ -0,0 +1,107 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.structure.Department;
+import company.structure.DepartmentCascade;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deactivates and then reactivates a division of nested departments with
+ * {@link Department#deactivateSubtree()}, timing how long the caller is held
+ * up, how long the cascade takes, and a serial loop over the same members for
+ * comparison. A reader samples members while the cascade runs; any member it
+ * sees in the old state, or any flag left behind afterwards, is a violation
+ * and exits with status 1, as is anything left inactive by a reactivation
+ * started while the deactivation was still running.
+ *
+ * <pre>java -cp bin bench.CascadeDeactivationBenchmark [employees]</pre>
+ */
+public class CascadeDeactivationBenchmark {
+    public static void main(String[] args) {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+
+        // A division with 8 groups of 8 teams each.
+        Department division = ObjectFactory.createDepartment("DIV", "Division", "Division");
+        List<Department> departments = new ArrayList<>(List.of(division));
+        for (int g = 0; g < 8; g++) {
+            Department group = ObjectFactory.createDepartment("G" + g, "Group " + g, "Group " + g);
+            division.addSubDepartment(group);
+            departments.add(group);
+            for (int t = 0; t < 8; t++) {
+                Department team = ObjectFactory.createDepartment("G" + g + "T" + t, "Team " + t, "Team " + t);
+                group.addSubDepartment(team);
+                departments.add(team);
+            }
+        }
+        List<Employee> staff = new ArrayList<>();
+        for (int e = 0; e < employees; e++) {
+            Department dep = departments.get(e % departments.size());
+            Employee employee = ObjectFactory.createEmployee("E" + e, "First" + e, "Last" + e, dep, pos, "2023-01-01", 30_000, ws);
+            employee.transferToDepartment(dep);
+            staff.add(employee);
+        }
+
+        long started = System.nanoTime();
+        for (Employee employee : staff) {
+            employee.deactivate();
+        }
+        for (Employee employee : staff) {
+            employee.reactivate();
+        }
+        long serialMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started) / 2;
+
+        long violations = 0;
+        for (boolean active : new boolean[] {false, true}) {
+            started = System.nanoTime();
+            DepartmentCascade cascade = active ? division.reactivateSubtree() : division.deactivateSubtree();
+            long returnedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+            Random random = new Random(active ? 2 : 1);
+            long samples = 0;
+            while (!cascade.isDone()) {
+                Employee employee = staff.get(random.nextInt(staff.size()));
+                Department dep = departments.get(random.nextInt(departments.size()));
+                violations += employee.isActive() == active && dep.isActive() == active ? 0 : 1;
+                samples++;
+            }
+            int changed = cascade.join();
+            long doneMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+            for (Employee employee : staff) {
+                violations += employee.isActive() == active ? 0 : 1;
+            }
+            for (Department dep : departments) {
+                violations += dep.isActive() == active ? 0 : 1;
+            }
+            System.out.printf("%s: caller held %,d us, %,d members in %,d departments done in %,d us, %,d reads sampled%n",
+                active ? "reactivate" : "deactivate", returnedMicros, changed, cascade.getDepartmentCount(), doneMicros, samples);
+        }
+
+        // A reactivation started while the deactivation still runs must win.
+        for (int round = 0; round < 5; round++) {
+            DepartmentCascade off = division.deactivateSubtree();
+            DepartmentCascade on = division.reactivateSubtree();
+            off.join();
+            on.join();
+            long left = staff.stream().filter(employee -> !employee.isActive()).count()
+                + departments.stream().filter(dep -> !dep.isActive()).count();
+            if (round == 0 || left > 0) {
+                System.out.printf("overlapping deactivate + reactivate: %,d units left inactive%n", left);
+            }
+            violations += left;
+        }
+        System.out.printf("serial loop: %,d us per pass over %,d members; %,d cores; %,d violations%n",
+            serialMicros, employees, Runtime.getRuntime().availableProcessors(), violations);
+        if (violations > 0) {
+            System.out.println("VIOLATION: readers saw a partly applied cascade, flags were left behind or an overlapping cascade lost");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.storage.ChangeEvent;
+import company.storage.ChangeSubscriber;
+import company.storage.ChangeSubscription;
+import company.storage.CompanyDataStore;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures writer throughput with no subscribers, with a fast subscriber and
+ * with a fast and a deliberately slow subscriber side by side. The slow one
+ * should drop events without slowing the writers or the fast one down. Exits
+ * with status 1 if a subscriber ever sees sequence numbers go backwards.
+ *
+ * <pre>java -cp bin bench.ChangeStreamBenchmark [writers] [seconds]</pre>
+ */
+public class ChangeStreamBenchmark {
+    private static volatile boolean outOfOrder;
+
+    /** Counts events and checks that sequence numbers only increase. */
+    private static final class CountingSubscriber implements ChangeSubscriber {
+        final AtomicLong events = new AtomicLong();
+        final AtomicLong batches = new AtomicLong();
+        final AtomicLong gaps = new AtomicLong();
+        final long pauseMillis;
+        long last;
+
+        CountingSubscriber(long pauseMillis) {
+            this.pauseMillis = pauseMillis;
+        }
+
+        @Override
+        public void onEvents(List<ChangeEvent> batch) {
+            for (ChangeEvent e : batch) {
+                if (e.getSequence() <= last) {
+                    outOfOrder = true;
+                } else if (last != 0 && e.getSequence() != last + 1) {
+                    gaps.incrementAndGet();
+                }
+                last = e.getSequence();
+            }
+            events.addAndGet(batch.size());
+            batches.incrementAndGet();
+            if (pauseMillis > 0) {
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        Department dep = ObjectFactory.createDepartment("D001", "IT", "Information Technology Department");
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 10_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        List<Employee> staff = new ArrayList<>();
+        for (int i = 0; i < writers * 100; i++) {
+            Employee e = ObjectFactory.createEmployee("E" + i, "First" + i, "Last" + i, dep, pos, "2023-01-01", 30_000, ws);
+            CompanyDataStore.addEmployee(e);
+            staff.add(e);
+        }
+
+        for (String scenario : new String[] {"no subscribers", "fast subscriber", "fast + slow subscriber"}) {
+            List<ChangeSubscription> subscriptions = new ArrayList<>();
+            List<CountingSubscriber> subscribers = new ArrayList<>();
+            if (!scenario.equals("no subscribers")) {
+                subscribers.add(new CountingSubscriber(0));
+                subscriptions.add(CompanyDataStore.subscribe(subscribers.get(0), 65_536, 512));
+            }
+            if (scenario.contains("slow")) {
+                subscribers.add(new CountingSubscriber(50));
+                subscriptions.add(CompanyDataStore.subscribe(subscribers.get(1), 4_096, 64));
+            }
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong writes = new AtomicLong();
+            List<Thread> threads = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                List<Employee> own = staff.subList(w * 100, (w + 1) * 100);
+                threads.add(new Thread(() -> {
+                    for (int n = 0; running.get(); n++) {
+                        own.get(n % own.size()).adjustSalary(n / own.size() % 2 == 0 ? 10 : -10);
+                        writes.incrementAndGet();
+                    }
+                }));
+            }
+            long started = System.nanoTime();
+            threads.forEach(Thread::start);
+            Thread.sleep(seconds * 1000L);
+            running.set(false);
+            for (Thread t : threads) {
+                t.join();
+            }
+            double elapsed = (System.nanoTime() - started) / 1e9;
+            for (ChangeSubscription s : subscriptions) {
+                s.close();
+            }
+            System.out.printf("%-24s %,.0f writes/s%n", scenario + ":", writes.get() / elapsed);
+            for (int i = 0; i < subscriptions.size(); i++) {
+                ChangeSubscription s = subscriptions.get(i);
+                CountingSubscriber c = subscribers.get(i);
+                System.out.printf("    subscriber %d: delivered %,d in %,d batches, dropped %,d, %,d sequence gaps%n",
+                    i, s.getDeliveredEvents(), c.batches.get(), s.getDroppedEvents(), c.gaps.get());
+            }
+        }
+        if (outOfOrder) {
+            System.out.println("VIOLATION: sequence numbers went backwards");
+            System.exit(1);
+        }
+        System.out.println("OK: every subscriber saw increasing sequence numbers");
+    }
+}
@@ -0,0 +1,157 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+import company.projects.ClockEventPipeline;
+import company.projects.Project;
+import company.projects.Task;
+import company.projects.TimeEntry;
+import company.storage.CompanyDataService;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulates shift changes: every employee clocks out of one 8-hour shift and
+ * straight into the next, from several request threads at once. Runs the burst
+ * once with direct {@code stopWork}/{@code approve} calls on the request
+ * threads and once through a {@link ClockEventPipeline}, and reports events/sec,
+ * request-thread latency and (for the pipeline) publish-to-approval latency.
+ * Exits with status 1 if either run logs the wrong number of task hours, the
+ * pipeline fails on an event or accepts one after it is closed.
+ *
+ * <pre>java -cp bin bench.ClockIngestionBenchmark [employees] [shifts] [threads]</pre>
+ */
+public class ClockIngestionBenchmark {
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 4, 6, 0);
+
+    public static void main(String[] args) throws Exception {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int shifts = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        CompanyDataService service = CompanyDataService.getInstance();
+
+        Department dep = ObjectFactory.createDepartment("D001", "OPS", "Operations");
+        Position pos = ObjectFactory.createPosition("P001", "Operator", "Floor", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Shifts");
+        Manager owner = ObjectFactory.createManager("M001", "Shift", "Lead", dep, pos, "2023-01-01", 50_000, ws);
+        service.registerEmployee(owner);
+        List<Employee> staff = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            staff.add(ObjectFactory.createEmployee("E" + i, "Badge", "Holder" + i, dep, pos, "2023-01-01", 40_000, ws));
+        }
+
+        boolean ok = true;
+        for (String mode : new String[] {"direct", "pipeline"}) {
+            Project project = new Project(mode + "-P", "Plant " + mode, null, DAY, null, owner);
+            service.registerProject(project);
+            List<Task> tasks = new ArrayList<>();
+            for (int t = 0; t < 50; t++) {
+                tasks.add(ObjectFactory.createTask(project.getId() + "-T" + t, "Line " + t, project, owner));
+            }
+
+            Map<Employee, TimeEntry> open = new ConcurrentHashMap<>();
+            AtomicLong ids = new AtomicLong();
+            ClockEventPipeline pipeline = mode.equals("pipeline") ? new ClockEventPipeline(1 << 16) : null;
+            long[][] latencies = new long[threads][];
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(threads);
+            for (int w = 0; w < threads; w++) {
+                int worker = w;
+                new Thread(() -> {
+                    long[] samples = new long[(employees / threads + 1) * (shifts + 1) * 2];
+                    int n = 0;
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int shift = 0; shift <= shifts; shift++) {
+                        LocalDateTime change = DAY.plusHours(8L * shift);
+                        for (int i = worker; i < employees; i += threads) {
+                            Employee e = staff.get(i);
+                            Task task = tasks.get((i + shift) % tasks.size());
+                            if (shift > 0) {
+                                long t0 = System.nanoTime();
+                                if (pipeline != null) {
+                                    pipeline.clockOut(e, change);
+                                } else {
+                                    TimeEntry entry = open.remove(e);
+                                    entry.stopWork(change);
+                                    entry.approve();
+                                }
+                                samples[n++] = System.nanoTime() - t0;
+                            }
+                            if (shift < shifts) {
+                                long t0 = System.nanoTime();
+                                if (pipeline != null) {
+                                    pipeline.clockIn(e, project, task, change);
+                                } else {
+                                    open.put(e, new TimeEntry("TE" + ids.incrementAndGet(), e, project, task, change));
+                                }
+                                samples[n++] = System.nanoTime() - t0;
+                            }
+                        }
+                    }
+                    latencies[worker] = Arrays.copyOf(samples, n);
+                    done.countDown();
+                }, "badge-reader-" + w).start();
+            }
+
+            long started = System.nanoTime();
+            start.countDown();
+            done.await();
+            if (pipeline != null) {
+                pipeline.flush();
+            }
+            long elapsed = System.nanoTime() - started;
+
+            long events = 2L * employees * shifts;
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+            double expected = 8.0 * employees * shifts;
+            double hours = tasks.stream().mapToDouble(Task::getActualHours).sum();
+            System.out.printf("%-8s: %,d events in %,d ms = %,.0f events/sec; request p50=%,dns p99=%,dns p99.9=%,dns max=%,dns%n",
+                mode, events, elapsed / 1_000_000, events * 1e9 / elapsed,
+                pct(all, 50), pct(all, 99), pct(all, 99.9), all[all.length - 1]);
+            if (pipeline != null) {
+                ClockEventPipeline.Stats stats = pipeline.getStats();
+                System.out.println("          " + stats);
+                pipeline.close();
+                if (stats.getFailed() > 0) {
+                    System.out.println("          VIOLATION: consumer failed on " + stats.getFailed() + " events: "
+                        + pipeline.getLastFailure());
+                    ok = false;
+                }
+                try {
+                    pipeline.clockOut(staff.get(0), LocalDateTime.now());
+                    System.out.println("          VIOLATION: closed pipeline accepted an event");
+                    ok = false;
+                } catch (IllegalStateException expectedClosed) {
+                    // Closed pipelines refuse new events.
+                }
+            }
+            if (Math.abs(hours - expected) > 1e-6) {
+                System.out.printf("          VIOLATION: %.1f task hours, expected %.1f%n", hours, expected);
+                ok = false;
+            }
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static long pct(long[] sorted, double percent) {
+        int index = (int) Math.ceil(sorted.length * percent / 100.0) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
@@ -0,0 +1,126 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spreads employees over a deep department tree, then times budget checks
+ * against the cached subtree totals and against recounting the whole tree,
+ * applies a round of raises, and checks every cached total against a full
+ * recount. Exits with status 1 if a check or total disagrees.
+ *
+ * <pre>java -cp bin bench.DepartmentRollupBenchmark [employees] [departments]</pre>
+ */
+public class DepartmentRollupBenchmark {
+    public static void main(String[] args) {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int departmentCount = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        Random random = new Random(42);
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+
+        // Each department hangs off one of the few created just before it, so depth grows with the count.
+        List<Department> departments = new ArrayList<>();
+        for (int d = 0; d < departmentCount; d++) {
+            Department dep = ObjectFactory.createDepartment("D" + d, "Department " + d, "Department " + d);
+            dep.setBudget(30_000.0 * employees / departmentCount * (0.9 + random.nextDouble() * 0.3));
+            if (d > 0) {
+                departments.get(Math.max(0, d - 1 - random.nextInt(4))).addSubDepartment(dep);
+            }
+            departments.add(dep);
+        }
+        List<Employee> staff = new ArrayList<>();
+        for (int e = 0; e < employees; e++) {
+            Department dep = departments.get(random.nextInt(departmentCount));
+            Employee employee = ObjectFactory.createEmployee("E" + e, "First" + e, "Last" + e, dep, pos,
+                "2023-01-01", 20_000 + random.nextInt(20_000), ws);
+            employee.transferToDepartment(dep);
+            staff.add(employee);
+        }
+        Department deepest = departments.get(0);
+        for (Department dep : departments) {
+            deepest = dep.getDepth() > deepest.getDepth() ? dep : deepest;
+        }
+
+        int checks = 200;
+        long mismatches = 0;
+        long cachedNanos = 0;
+        long recomputedNanos = 0;
+        for (int c = 0; c < checks; c++) {
+            Department dep = c % 2 == 0 ? deepest : departments.get(random.nextInt(departmentCount));
+            double raise = random.nextInt(200_000);
+            long started = System.nanoTime();
+            boolean cached = dep.isWithinBudgetAfter(raise);
+            cachedNanos += System.nanoTime() - started;
+            started = System.nanoTime();
+            boolean recomputed = recomputeWithinBudgetAfter(dep, raise);
+            recomputedNanos += System.nanoTime() - started;
+            mismatches += cached == recomputed ? 0 : 1;
+        }
+        System.out.printf("%,d employees in %,d departments, depth %,d: %,d ns per cached check, %,d ns per recomputed check%n",
+            employees, departmentCount, deepest.getDepth(), cachedNanos / checks, recomputedNanos / checks);
+
+        long started = System.nanoTime();
+        for (Employee employee : staff) {
+            employee.adjustSalary(random.nextInt(2_000) - 500);
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        Map<Department, long[]> totals = new IdentityHashMap<>();
+        totals(departments.get(0), totals);
+        long drift = 0;
+        for (Department dep : departments) {
+            long[] total = totals.get(dep);
+            drift += Math.round(dep.getSubtreeSalaries() * 100) == total[0]
+                && Math.round(dep.getSubtreeBudget() * 100) == total[1] ? 0 : 1;
+        }
+        System.out.printf("%,d raises propagated in %,d ms; %,d check mismatches, %,d departments with stale totals%n",
+            employees, millis, mismatches, drift);
+        if (mismatches > 0 || drift > 0) {
+            System.out.println("VIOLATION: cached roll-ups disagree with a full recount");
+            System.exit(1);
+        }
+    }
+
+    /** Recounts the whole tree above {@code dep} in one pass and checks every ancestor on the way back up. */
+    private static boolean recomputeWithinBudgetAfter(Department dep, double raise) {
+        Department root = dep;
+        while (root.getParentDepartment() != null) {
+            root = root.getParentDepartment();
+        }
+        Map<Department, long[]> totals = new IdentityHashMap<>();
+        totals(root, totals);
+        long delta = Math.round(raise * 100);
+        for (Department d = dep; d != null; d = d.getParentDepartment()) {
+            long[] total = totals.get(d);
+            if (total[0] + delta > total[1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Salary and budget cents of each department's subtree. */
+    private static long[] totals(Department dep, Map<Department, long[]> totals) {
+        long[] total = {0, Math.round(dep.getBudget() * 100)};
+        for (Employee employee : dep.getEmployees()) {
+            total[0] += Math.round(employee.getSalary() * 100);
+        }
+        for (Department child : dep.getSubDepartments()) {
+            long[] sub = totals(child, totals);
+            total[0] += sub[0];
+            total[1] += sub[1];
+        }
+        totals.put(dep, total);
+        return total;
+    }
+}
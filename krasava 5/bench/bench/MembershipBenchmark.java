@@ -0,0 +1,96 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+import company.util.MembershipSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds department rosters of doubling size by transferring every member in
+ * twice with {@link Employee#transferToDepartment}, and the same rosters as a bare
+ * {@link MembershipSet} and as the contains-then-add list it replaces, then
+ * removes every other member. Build time per member should stay flat as the
+ * roster doubles. Exits with status 1 if a roster loses, duplicates or reorders
+ * a member.
+ *
+ * <pre>java -cp bin bench.MembershipBenchmark [largest roster]</pre>
+ */
+public class MembershipBenchmark {
+    public static void main(String[] args) {
+        int largest = args.length > 0 ? Integer.parseInt(args[0]) : 160_000;
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        Department home = ObjectFactory.createDepartment("H", "Home", "Home");
+        List<Employee> staff = new ArrayList<>();
+        for (int e = 0; e < largest; e++) {
+            staff.add(ObjectFactory.createEmployee("E" + e, "First" + e, "Last" + e, home, pos, "2023-01-01", 30_000, ws));
+        }
+
+        long violations = 0;
+        // The first round only warms up the JIT.
+        for (int round = 0; round < 2; round++) {
+            for (int size = largest / 16; size <= largest; size *= 2) {
+                List<Employee> roster = staff.subList(0, size);
+                Department dep = ObjectFactory.createDepartment("D" + size, "Department " + size, "Department " + size);
+                long started = System.nanoTime();
+                for (Employee employee : roster) {
+                    employee.transferToDepartment(dep);
+                    employee.transferToDepartment(dep);
+                }
+                long departmentNanos = System.nanoTime() - started;
+
+                MembershipSet<Employee> set = new MembershipSet<>();
+                started = System.nanoTime();
+                for (Employee employee : roster) {
+                    set.add(employee);
+                    set.add(employee);
+                }
+                for (int i = 0; i < size; i += 2) {
+                    set.remove(roster.get(i));
+                }
+                List<Employee> snapshot = set.snapshot();
+                long setNanos = System.nanoTime() - started;
+
+                // The old list is quadratic; only time it while that stays bearable.
+                long listNanos = -1;
+                if (size <= 40_000) {
+                    List<Employee> list = new ArrayList<>();
+                    started = System.nanoTime();
+                    for (Employee employee : roster) {
+                        for (int twice = 0; twice < 2; twice++) {
+                            if (!list.contains(employee)) {
+                                list.add(employee);
+                            }
+                        }
+                    }
+                    for (int i = 0; i < size; i += 2) {
+                        list.remove(roster.get(i));
+                    }
+                    listNanos = System.nanoTime() - started;
+                }
+
+                List<Employee> members = dep.getEmployees();
+                violations += members.equals(roster) ? 0 : 1;
+                violations += snapshot.size() == size / 2 ? 0 : 1;
+                for (int i = 0; i < snapshot.size(); i++) {
+                    violations += snapshot.get(i) == roster.get(2 * i + 1) ? 0 : 1;
+                }
+                if (round == 1) {
+                    System.out.printf("%,7d members: department %,5d ns, set %,5d ns, list %s per member%n",
+                        size, departmentNanos / size, setNanos / size,
+                        listNanos < 0 ? "skipped" : String.format("%,d ns", listNanos / size));
+                }
+            }
+        }
+        System.out.printf("%,d roster violations%n", violations);
+        if (violations > 0) {
+            System.out.println("VIOLATION: a roster lost, duplicated or reordered members");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+import company.projects.Project;
+import company.projects.Task;
+import company.projects.TimeEntry;
+import company.projects.TimeEntryApprovals;
+import company.projects.TimeEntryOverlaps;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates hourly time entries for E employees with one double-booked entry
+ * every 200 slots, then counts overlaps with the pairwise comparison a nightly
+ * job would do, with {@link TimeEntryOverlaps#scanEntries} and with
+ * {@link TimeEntryOverlaps#scanTasks} over the approved history. Also times
+ * {@code stopWork} with checking off and in REJECT mode, then reads the history
+ * back in REJECT and FLAG mode. Exits with status 1 if any method finds a
+ * different number of overlaps, REJECT lets one through, reading the history
+ * throws or flags anything, or entries either side of 1970 are misordered.
+ *
+ * <pre>java -cp bin bench.OverlapScanBenchmark [employees] [entriesPerEmployee]</pre>
+ */
+public class OverlapScanBenchmark {
+    public static void main(String[] args) {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int perEmployee = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        Department dep = ObjectFactory.createDepartment("D001", "IT", "Information Technology Department");
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        Manager owner = ObjectFactory.createManager("M001", "Overlap", "Owner", dep, pos, "2023-01-01", 50_000, ws);
+        Project project = new Project("P1", "History", null, LocalDateTime.of(2020, 1, 1, 0, 0), null, owner);
+        List<Task> tasks = new ArrayList<>();
+        for (int t = 0; t < 50; t++) {
+            tasks.add(ObjectFactory.createTask("P1-T" + t, "Task " + t, project, owner));
+        }
+
+        LocalDateTime origin = LocalDateTime.of(2020, 1, 6, 0, 0);
+        List<List<TimeEntry>> byEmployee = new ArrayList<>();
+        List<TimeEntry> all = new ArrayList<>();
+        long injected = 0;
+        int id = 0;
+        for (int e = 0; e < employees; e++) {
+            Employee worker = ObjectFactory.createEmployee("E" + e, "First" + e, "Last" + e, dep, pos, "2023-01-01", 40_000, ws);
+            List<TimeEntry> own = new ArrayList<>(perEmployee);
+            for (int slot = 0; own.size() < perEmployee; slot++) {
+                LocalDateTime start = origin.plusHours(slot);
+                own.add(entry("TE" + id++, worker, tasks.get(slot % tasks.size()), start, start.plusMinutes(45)));
+                if (slot % 200 == 199 && own.size() < perEmployee) {
+                    own.add(entry("TE" + id++, worker, tasks.get(slot % tasks.size()), start.plusMinutes(10),
+                        start.plusMinutes(30)));
+                    injected++;
+                }
+            }
+            byEmployee.add(own);
+            all.addAll(own);
+        }
+        System.out.printf("%,d entries, %,d injected overlaps%n", all.size(), injected);
+        boolean ok = true;
+
+        long started = System.nanoTime();
+        long pairs = 0;
+        for (List<TimeEntry> own : byEmployee) {
+            for (int i = 0; i < own.size(); i++) {
+                TimeEntry a = own.get(i);
+                for (int j = i + 1; j < own.size(); j++) {
+                    TimeEntry b = own.get(j);
+                    if (a.getStartTime().isBefore(b.getEndTime()) && b.getStartTime().isBefore(a.getEndTime())) {
+                        pairs++;
+                    }
+                }
+            }
+        }
+        ok &= report("pairwise", pairs, injected, started);
+
+        started = System.nanoTime();
+        ok &= report("scanEntries", TimeEntryOverlaps.scanEntries(all).size(), injected, started);
+
+        for (int from = 0; from < all.size(); from += 100_000) {
+            TimeEntryApprovals.approveAll(all.subList(from, Math.min(all.size(), from + 100_000)));
+        }
+        started = System.nanoTime();
+        ok &= report("scanTasks", TimeEntryOverlaps.scanTasks(tasks).size(), injected, started);
+
+        for (TimeEntryOverlaps.Mode mode : new TimeEntryOverlaps.Mode[] {TimeEntryOverlaps.Mode.OFF, TimeEntryOverlaps.Mode.REJECT}) {
+            TimeEntryOverlaps.setMode(mode);
+            long rejected = 0;
+            started = System.nanoTime();
+            for (TimeEntry done : all) {
+                TimeEntry again = new TimeEntry(done.getId(), done.getEmployee(), project, null, done.getStartTime());
+                try {
+                    again.stopWork(done.getEndTime());
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                }
+            }
+            long nanos = (System.nanoTime() - started) / all.size();
+            System.out.printf("stopWork %-6s: %d ns/entry, %,d rejected%n", mode, nanos, rejected);
+            if (mode == TimeEntryOverlaps.Mode.REJECT && rejected != injected) {
+                System.out.printf("VIOLATION: REJECT refused %,d entries, expected %,d%n", rejected, injected);
+                ok = false;
+            }
+        }
+
+        // The index now holds every accepted entry; reading the history must not re-check it.
+        for (TimeEntryOverlaps.Mode mode : new TimeEntryOverlaps.Mode[] {TimeEntryOverlaps.Mode.REJECT, TimeEntryOverlaps.Mode.FLAG}) {
+            TimeEntryOverlaps.setMode(mode);
+            TimeEntryOverlaps.index(all);
+            long read = 0;
+            try {
+                for (Task task : tasks) {
+                    read += task.getTimeEntries().stream().filter(e -> e.getEndTime() != null).count();
+                }
+            } catch (IllegalArgumentException e) {
+                System.out.printf("VIOLATION: reading history in %s mode threw: %s%n", mode, e.getMessage());
+                ok = false;
+            }
+            List<?> flagged = TimeEntryOverlaps.drainFlagged();
+            System.out.printf("read %-6s : %,d entries, %,d flagged%n", mode, read, flagged.size());
+            if (!flagged.isEmpty()) {
+                System.out.printf("VIOLATION: reading history in %s mode flagged %,d overlaps%n", mode, flagged.size());
+                ok = false;
+            }
+        }
+        TimeEntryOverlaps.setMode(TimeEntryOverlaps.Mode.OFF);
+
+        // Back-to-back entries either side of the epoch must not be reported.
+        Task epoch = ObjectFactory.createTask("P1-EPOCH", "Epoch", project, owner);
+        LocalDateTime midnight = LocalDateTime.of(1970, 1, 1, 0, 0);
+        TimeEntryApprovals.approveAll(List.of(
+            entry("TE" + id++, owner, epoch, midnight.minusHours(1), midnight.minusMinutes(30)),
+            entry("TE" + id++, owner, epoch, midnight, midnight.plusMinutes(30))));
+        ok &= report("scanTasks 1970", TimeEntryOverlaps.scanTasks(List.of(epoch)).size(), 0, System.nanoTime());
+
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static TimeEntry entry(String id, Employee worker, Task task, LocalDateTime start, LocalDateTime end) {
+        TimeEntry entry = new TimeEntry(id, worker, task.getProject(), task, start);
+        entry.stopWork(end);
+        return entry;
+    }
+
+    private static boolean report(String method, long found, long expected, long started) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        System.out.printf("%-12s: %,d overlaps in %,d ms%n", method, found, millis);
+        if (found != expected) {
+            System.out.printf("VIOLATION: %s found %,d overlaps, expected %,d%n", method, found, expected);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,153 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.storage.CompanyDataLog;
+import company.storage.CompanyDataStore;
+import company.storage.CompanyPersistence;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Measures write-ahead log throughput for each sync mode and the time it takes
+ * to recover the store from the resulting snapshot and log.
+ *
+ * <pre>java -cp bin bench.PersistenceBenchmark [employees] [threads]</pre>
+ */
+public class PersistenceBenchmark {
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 2 && args[0].equals("--recover")) {
+            recover(Path.of(args[1]), args.length > 2 && args[2].equals("--checkpoint"));
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("--append")) {
+            appendAfterRecovery(Path.of(args[1]));
+            return;
+        }
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        Department dep = ObjectFactory.createDepartment("D001", "IT", "Information Technology Department");
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+
+        Path lastDir = null;
+        for (CompanyDataLog.SyncMode mode : CompanyDataLog.SyncMode.values()) {
+            Path dir = Files.createTempDirectory("company-wal-" + mode.name().toLowerCase());
+            CompanyDataStore.enablePersistence(dir, new CompanyDataLog.Options().syncMode(mode), 0);
+            String prefix = mode.ordinal() + "";
+            List<Employee> batch = new ArrayList<>(employees);
+            for (int i = 0; i < employees; i++) {
+                batch.add(newEmployee(prefix, i, dep, pos, ws));
+            }
+
+            long started = System.nanoTime();
+            runParallel(threads, employees, i -> CompanyDataStore.addEmployee(batch.get(i)));
+            double registerSeconds = (System.nanoTime() - started) / 1e9;
+
+            started = System.nanoTime();
+            runParallel(threads, employees, i -> batch.get(i).adjustSalary(1));
+            double updateSeconds = (System.nanoTime() - started) / 1e9;
+
+            CompanyDataStore.disablePersistence();
+            System.out.printf("%-16s register: %,10.0f ops/s   salary updates: %,10.0f ops/s%n",
+                mode, employees / registerSeconds, employees / updateSeconds);
+            recoverInChildJvm(dir, "log replay", true);
+            recoverInChildJvm(dir, "snapshot", false);
+            lastDir = dir;
+        }
+        checkTornTail(lastDir, employees);
+    }
+
+    /**
+     * Leaves garbage after the newest segment, as a crash in the middle of a write
+     * would, then appends once more. The appended record must survive the next recovery.
+     */
+    private static void checkTornTail(Path dir, int employees) throws Exception {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(dir)) {
+            segments = files.filter(f -> f.getFileName().toString().startsWith("wal-")).sorted().collect(Collectors.toList());
+        }
+        Files.write(segments.get(segments.size() - 1), new byte[] {0x7f, -1, -1, -1, 1, 2, 3},
+            StandardOpenOption.APPEND);
+        runChildJvm("--append", dir.toString());
+        String out = recoverInChildJvm(dir, "after torn tail", false);
+        long recovered = Long.parseLong(out.substring(0, out.indexOf(' ')).replace(",", ""));
+        if (recovered != employees + 1) {
+            System.out.println("VIOLATION: expected " + (employees + 1) + " employees after a torn tail, recovered " + recovered);
+            System.exit(1);
+        }
+    }
+
+    private static Employee newEmployee(String prefix, int i, Department dep, Position pos, WorkSchedule ws) {
+        return new Employee("E" + prefix + "-" + i, "First" + i, "Last" + i, "user" + i + "@company.com",
+            "+1" + (1_000_000_000L + i), dep, pos, "2023-01-01", 30_000 + i % 1000, ws);
+    }
+
+    private static void runParallel(int threads, int count, IntConsumer body) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int from = (int) ((long) count * t / threads);
+            int to = (int) ((long) count * (t + 1) / threads);
+            Thread w = new Thread(() -> {
+                for (int i = from; i < to; i++) {
+                    body.accept(i);
+                }
+            });
+            workers.add(w);
+            w.start();
+        }
+        for (Thread w : workers) {
+            w.join();
+        }
+    }
+
+    private static String recoverInChildJvm(Path dir, String label, boolean checkpoint) throws Exception {
+        String out = runChildJvm("--recover", dir.toString(), checkpoint ? "--checkpoint" : "");
+        System.out.println("  recovery (" + label + "): " + out);
+        return out;
+    }
+
+    private static String runChildJvm(String... args) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"),
+            PersistenceBenchmark.class.getName()));
+        command.addAll(List.of(args));
+        Process child = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .start();
+        String out = new String(child.getInputStream().readAllBytes()).trim();
+        child.waitFor(10, TimeUnit.MINUTES);
+        return out;
+    }
+
+    private static void recover(Path dir, boolean checkpoint) throws Exception {
+        CompanyPersistence p = CompanyDataStore.enablePersistence(dir, new CompanyDataLog.Options(), 0);
+        System.out.printf("%,d employees, %,d log records replayed in %d ms%n",
+            CompanyDataStore.getAllEmployees().size(), p.getRecoveredRecords(), p.getRecoveryMillis());
+        if (checkpoint) {
+            p.checkpoint();
+        }
+        CompanyDataStore.disablePersistence();
+    }
+
+    private static void appendAfterRecovery(Path dir) throws Exception {
+        CompanyDataStore.enablePersistence(dir, new CompanyDataLog.Options(), 0);
+        Department dep = ObjectFactory.createDepartment("D001", "IT", "Information Technology Department");
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        CompanyDataStore.addEmployee(newEmployee("torn", 0, dep, pos, ws));
+        CompanyDataStore.disablePersistence();
+    }
+}
@@ -0,0 +1,73 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.storage.CompanyDataService;
+import company.storage.CompanyDataStore;
+import company.storage.EmployeeQuery;
+import company.storage.QueryResult;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Compares planned queries with the equivalent hand-written stream over the
+ * whole store and prints the plan each query took.
+ *
+ * <pre>java -cp bin bench.QueryBenchmark [employees]</pre>
+ */
+public class QueryBenchmark {
+    public static void main(String[] args) {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        CompanyDataService service = CompanyDataService.getInstance();
+
+        Department[] departments = new Department[50];
+        for (int d = 0; d < departments.length; d++) {
+            departments[d] = ObjectFactory.createDepartment("D" + d, d == 0 ? "IT" : "Department " + d, "Generated");
+        }
+        Position[] positions = new Position[10];
+        for (int p = 0; p < positions.length; p++) {
+            positions[p] = ObjectFactory.createPosition("P" + p, p == 0 ? "Software Developer" : "Role " + p, "Generated", 0, 1_000_000);
+        }
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        for (int i = 0; i < employees; i++) {
+            LocalDate hired = LocalDate.of(2018, 1, 1).plusDays(i % 2500);
+            CompanyDataStore.addEmployee(new Employee("E" + i, "First" + i, "Last" + i, "user" + i + "@company.com",
+                "+1" + (1_000_000_000L + i), departments[i % departments.length], positions[i / 7 % positions.length],
+                hired.toString(), 30_000 + i % 70_000, ws));
+        }
+
+        LocalDate cutoff = LocalDate.of(2023, 1, 1);
+        run("indexed", () -> service.findEmployees(new EmployeeQuery()
+            .inDepartmentNamed("IT").withPositionTitled("Software Developer")
+            .active().hiredAfter(cutoff).salaryAbove(60_000)));
+        run("scan", () -> service.findEmployees(new EmployeeQuery()
+            .active().hiredAfter(cutoff).salaryAbove(99_000)));
+        for (int round = 0; round < 5; round++) {
+            long started = System.nanoTime();
+            List<Employee> manual = CompanyDataStore.EMPLOYEES.values().stream()
+                .filter(e -> e.getDepartment().getName().equals("IT"))
+                .filter(e -> e.getPosition().getName().equals("Software Developer"))
+                .filter(Employee::isActive)
+                .filter(e -> e.getHireDate().isAfter(cutoff))
+                .filter(e -> e.getSalary() > 60_000)
+                .collect(Collectors.toList());
+            if (round == 4) {
+                System.out.printf("hand-written stream: matched %d in %d us%n", manual.size(), (System.nanoTime() - started) / 1000);
+            }
+        }
+    }
+
+    private static void run(String name, Supplier<QueryResult<Employee>> query) {
+        QueryResult<Employee> result = null;
+        for (int round = 0; round < 5; round++) {
+            result = query.get();
+        }
+        System.out.println(name + ": " + result.explain());
+    }
+}
@@ -0,0 +1,164 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+import company.projects.Project;
+import company.storage.CompanyDataService;
+import company.storage.CompanyDataStore;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency regression check for registration. Many threads race to register
+ * and upsert the same IDs; afterwards every ID must be owned by exactly one
+ * winner, the secondary indexes must agree with the store, and the employee
+ * counter must not have lost increments. Exits with status 1 on any violation.
+ *
+ * <pre>java -cp bin bench.RegistrationStress [threads] [ids] [rounds]</pre>
+ */
+public class RegistrationStress {
+    private static final List<String> violations = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int ids = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        CompanyDataService service = CompanyDataService.getInstance();
+
+        Department dep = ObjectFactory.createDepartment("D001", "IT", "Information Technology Department");
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+
+        for (int round = 0; round < rounds; round++) {
+            String prefix = "R" + round + "-";
+            int countBefore = Employee.getEmployeeCount();
+            AtomicInteger constructed = new AtomicInteger();
+            AtomicInteger wins = new AtomicInteger();
+            AtomicInteger rejections = new AtomicInteger();
+
+            // Every thread tries to register every ID; exactly one attempt per ID may succeed.
+            long started = System.nanoTime();
+            race(threads, () -> {
+                for (int i = 0; i < ids; i++) {
+                    Employee e = employee(prefix + i, i, dep, pos, ws);
+                    constructed.incrementAndGet();
+                    try {
+                        service.registerEmployee(e);
+                        wins.incrementAndGet();
+                    } catch (IllegalArgumentException expected) {
+                        rejections.incrementAndGet();
+                    }
+                }
+            });
+            double seconds = (System.nanoTime() - started) / 1e9;
+            check(wins.get() == ids, "expected " + ids + " successful registrations, got " + wins.get());
+            check(rejections.get() == ids * (threads - 1), "expected " + ids * (threads - 1) + " rejections, got " + rejections.get());
+            check(Employee.getEmployeeCount() - countBefore == constructed.get(),
+                "employee counter lost updates: " + (Employee.getEmployeeCount() - countBefore) + " != " + constructed.get());
+
+            // Concurrent upserts of fresh instances, plus repeated upserts of the same instance.
+            race(threads, () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int n = 0; n < ids; n++) {
+                    int i = random.nextInt(ids);
+                    Employee e = employee(prefix + i, i, dep, pos, ws);
+                    check(service.upsertEmployee(e) != e, "upsert reported the new instance as replaced");
+                    check(service.upsertEmployee(e) != e, "repeated upsert reported the same instance as replaced");
+                }
+            });
+            checkIndexes(prefix, ids, dep);
+            Employee settled = CompanyDataStore.findEmployee(prefix + 0);
+            check(service.upsertEmployee(settled) == null, "upsert of the registered instance was not a no-op");
+
+            System.out.printf("round %d: %d threads x %,d IDs, %,.0f registration attempts/s%n",
+                round, threads, ids, (double) ids * threads / seconds);
+        }
+        checkProjects(threads, dep, pos, ws, service);
+
+        if (!violations.isEmpty()) {
+            violations.stream().distinct().limit(20).forEach(v -> System.out.println("VIOLATION: " + v));
+            System.exit(1);
+        }
+        System.out.println("OK: no lost or duplicated registrations");
+    }
+
+    private static void checkIndexes(String prefix, int ids, Department dep) {
+        Set<Employee> indexed = new HashSet<>(CompanyDataStore.findEmployeesByDepartmentCode(dep.getCode()));
+        for (int i = 0; i < ids; i++) {
+            Employee registered = CompanyDataStore.findEmployee(prefix + i);
+            check(registered != null, "ID " + prefix + i + " missing from the store");
+            check(indexed.contains(registered), "ID " + prefix + i + " missing from the department index");
+        }
+        long stale = indexed.stream()
+            .filter(e -> e.getEmployeeId().startsWith(prefix))
+            .filter(e -> CompanyDataStore.findEmployee(e.getEmployeeId()) != e)
+            .count();
+        check(stale == 0, stale + " replaced employees still in the department index");
+    }
+
+    private static void checkProjects(int threads, Department dep, Position pos, WorkSchedule ws,
+                                      CompanyDataService service) throws InterruptedException {
+        Manager owner = ObjectFactory.createManager("M900", "Stress", "Owner", dep, pos, "2023-01-01", 50_000, ws);
+        service.registerEmployee(owner);
+        int projects = 2_000;
+        AtomicInteger wins = new AtomicInteger();
+        race(threads, () -> {
+            for (int i = 0; i < projects; i++) {
+                try {
+                    service.registerProject(new Project("SP" + i, "Stress " + i, null, LocalDateTime.now(), null, owner));
+                    wins.incrementAndGet();
+                } catch (IllegalArgumentException expected) {
+                    // lost the race for this ID
+                }
+            }
+        });
+        check(wins.get() == projects, "expected " + projects + " project registrations, got " + wins.get());
+        check(service.findProjectsByManager(owner).size() == projects,
+            "owner index holds " + service.findProjectsByManager(owner).size() + " projects, expected " + projects);
+    }
+
+    private static Employee employee(String id, int i, Department dep, Position pos, WorkSchedule ws) {
+        return new Employee(id, "First" + i, "Last" + i, "user" + i + "@company.com",
+            "+1" + (1_000_000_000L + i), dep, pos, "2023-01-01", 30_000, ws);
+    }
+
+    private static void race(int threads, Runnable body) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread w = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                body.run();
+            });
+            workers.add(w);
+            w.start();
+        }
+        start.countDown();
+        for (Thread w : workers) {
+            w.join();
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            synchronized (violations) {
+                violations.add(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+import company.projects.Project;
+import company.projects.Task;
+import company.projects.TimeEntry;
+import company.projects.TimeEntryApprovals;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.Report;
+import company.structure.ReportResult;
+import company.structure.WorkSchedule;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates every report type over N time entries held in a list, over the
+ * same entries approved into task history, and over a lazily generated
+ * parallel stream of S entries that is never held in memory. Compares the
+ * hours with a single-threaded loop over the list. Exits with status 1 if any
+ * report's totals disagree.
+ *
+ * <pre>java -cp bin bench.ReportAggregationBenchmark [entries] [streamedEntries]</pre>
+ *
+ * Parallel speed-up follows the common fork/join pool, which by default has
+ * one thread fewer than the machine has cores.
+ */
+public class ReportAggregationBenchmark {
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    private static final List<Employee> STAFF = new ArrayList<>();
+    private static final List<Task> TASKS = new ArrayList<>();
+
+    public static void main(String[] args) {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        long streamed = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000L;
+        System.out.printf("%d cores, common pool parallelism %d%n", Runtime.getRuntime().availableProcessors(),
+            java.util.concurrent.ForkJoinPool.getCommonPoolParallelism());
+
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        List<Department> departments = new ArrayList<>();
+        for (int d = 0; d < 10; d++) {
+            departments.add(ObjectFactory.createDepartment("D" + d, "Department " + d, "Generated department"));
+        }
+        Manager owner = ObjectFactory.createManager("M001", "Report", "Owner", departments.get(0), pos, "2023-01-01", 50_000, ws);
+        for (int e = 0; e < 1_000; e++) {
+            STAFF.add(ObjectFactory.createEmployee("E" + e, "First" + e, "Last" + e, departments.get(e % 10), pos,
+                "2023-01-01", 40_000, ws));
+        }
+        for (int p = 0; p < 50; p++) {
+            Project project = new Project("P" + p, "Project " + p, null, LocalDateTime.of(2023, 1, 1, 0, 0), null, owner);
+            for (int t = 0; t < 20; t++) {
+                TASKS.add(ObjectFactory.createTask(project.getId() + "-T" + t, "Task " + t, project, owner));
+            }
+        }
+
+        List<TimeEntry> list = new ArrayList<>(entries);
+        for (int n = 0; n < entries; n++) {
+            list.add(entry(n));
+        }
+        // A quarter of the year, so part of the entries fall outside the period.
+        LocalDateTime from = ORIGIN.plusDays(30);
+        LocalDateTime to = from.plusDays(90);
+
+        long started = System.nanoTime();
+        Map<Employee, Long> byEmployee = new HashMap<>();
+        long expectedMinutes = 0;
+        for (TimeEntry entry : list) {
+            if (!entry.getStartTime().isBefore(from) && entry.getStartTime().isBefore(to)) {
+                long minutes = entry.getDuration().toMinutes();
+                byEmployee.merge(entry.getEmployee(), minutes, Long::sum);
+                expectedMinutes += minutes;
+            }
+        }
+        System.out.printf("%-28s: %,6d ms, %.1f hours%n", "sequential loop", millis(started), expectedMinutes / 60.0);
+
+        boolean ok = true;
+        for (Report.ReportType type : Report.ReportType.values()) {
+            Report report = new Report("R-" + type, type.name(), type, owner, from, to);
+            started = System.nanoTime();
+            ReportResult result = report.generateTimeReport(list);
+            ok &= check(type + " list", result, expectedMinutes, started);
+        }
+
+        for (int i = 0; i < list.size(); i += 100_000) {
+            TimeEntryApprovals.approveAll(list.subList(i, Math.min(list.size(), i + 100_000)));
+        }
+        list = null;
+        for (Report.ReportType type : Report.ReportType.values()) {
+            Report report = new Report("H-" + type, type.name(), type, owner, from, to);
+            started = System.nanoTime();
+            ok &= check(type + " tasks", report.generateFromTasks(TASKS), expectedMinutes, started);
+        }
+
+        // Entries are built on demand and dropped once counted; they repeat the list's pattern.
+        Report streamedReport = new Report("S", "Streamed", Report.ReportType.EMPLOYEE_PERFORMANCE, owner, from, to);
+        started = System.nanoTime();
+        Stream<TimeEntry> source = LongStream.range(0, streamed).parallel().mapToObj(n -> entry((int) (n % entries)));
+        ReportResult result = streamedReport.generateTimeReport(source);
+        long copies = streamed / entries;
+        long expectedStreamed = expectedMinutes * copies;
+        System.out.printf("%-28s: %,6d ms, %,d entries streamed, %s%n", "EMPLOYEE_PERFORMANCE stream",
+            millis(started), streamed, result);
+        if (streamed % entries == 0 && result.getTotalMinutes() != expectedStreamed) {
+            System.out.printf("VIOLATION: streamed report has %d minutes, expected %d%n", result.getTotalMinutes(),
+                expectedStreamed);
+            ok = false;
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static TimeEntry entry(int n) {
+        Task task = TASKS.get(n % TASKS.size());
+        LocalDateTime start = ORIGIN.plusMinutes(n % 525_600);
+        TimeEntry entry = new TimeEntry("TE" + n, STAFF.get(n % STAFF.size()), task.getProject(), task, start);
+        entry.stopWork(start.plusMinutes(15 + n % 8 * 15));
+        return entry;
+    }
+
+    private static boolean check(String label, ReportResult result, long expectedMinutes, long started) {
+        System.out.printf("%-28s: %,6d ms, %s%n", label, millis(started), result);
+        if (result.getTotalMinutes() != expectedMinutes) {
+            System.out.printf("VIOLATION: %s has %d minutes, expected %d%n", label, result.getTotalMinutes(),
+                expectedMinutes);
+            return false;
+        }
+        return true;
+    }
+
+    private static long millis(long started) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+}
@@ -0,0 +1,139 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+import company.projects.Project;
+import company.projects.Task;
+import company.projects.TimeEntry;
+import company.structure.ArchivedRow;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.Report;
+import company.structure.ReportArchive;
+import company.structure.ReportResult;
+import company.structure.ReportRow;
+import company.structure.WorkSchedule;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Generates a year-long time-tracking report from N streamed entries, archives
+ * it, and compares regenerating the report with re-opening the archive. Then
+ * runs range and dimension queries against the archive and checks them
+ * against the in-memory rows. Exits with status 1 on any mismatch.
+ *
+ * <pre>java -cp bin bench.ReportArchiveBenchmark [entries] [archiveFile]</pre>
+ */
+public class ReportArchiveBenchmark {
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2024, 1, 1, 8, 0);
+    private static final List<Employee> STAFF = new ArrayList<>();
+    private static final List<Task> TASKS = new ArrayList<>();
+    private static long entries;
+
+    public static void main(String[] args) throws Exception {
+        entries = args.length > 0 ? Long.parseLong(args[0]) : 5_000_000L;
+        Path file = args.length > 1 ? Path.of(args[1]) : Files.createTempFile("report", ".arc");
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        List<Department> departments = new ArrayList<>();
+        for (int d = 0; d < 10; d++) {
+            departments.add(ObjectFactory.createDepartment("D" + d, "Department " + d, "Generated department"));
+        }
+        Manager owner = ObjectFactory.createManager("M001", "Audit", "Owner", departments.get(0), pos, "2023-01-01", 50_000, ws);
+        for (int e = 0; e < 500; e++) {
+            STAFF.add(ObjectFactory.createEmployee("E" + e, "First" + e, "Last" + e, departments.get(e % 10), pos,
+                "2023-01-01", 40_000, ws));
+        }
+        for (int p = 0; p < 20; p++) {
+            Project project = new Project("P" + p, "Project " + p, null, LocalDateTime.of(2023, 1, 1, 0, 0), null, owner);
+            for (int t = 0; t < 10; t++) {
+                TASKS.add(ObjectFactory.createTask(project.getId() + "-T" + t, "Task " + t, project, owner));
+            }
+        }
+
+        Report report = new Report("R-2024", "Time 2024", Report.ReportType.TIME_TRACKING, owner,
+            ORIGIN.withHour(0), ORIGIN.withHour(0).plusYears(1));
+        long started = System.nanoTime();
+        ReportResult result = report.generateTimeReport(LongStream.range(0, entries).parallel().mapToObj(ReportArchiveBenchmark::entry));
+        long generateMillis = millis(started);
+        report.exportReport("CSV", new WritableByteChannel() {
+            public int write(ByteBuffer src) { int n = src.remaining(); src.position(src.limit()); return n; }
+            public boolean isOpen() { return true; }
+            public void close() { }
+        });
+        started = System.nanoTime();
+        report.archive(file);
+        long archiveMillis = millis(started);
+        System.out.printf("generate %,d entries into %,d rows: %,d ms; archive: %,d ms, %,d KB on disk%n",
+            entries, result.getRows().size(), generateMillis, archiveMillis, Files.size(file) >> 10);
+
+        boolean ok = true;
+        started = System.nanoTime();
+        try (ReportArchive archive = ReportArchive.open(file)) {
+            double openMillis = (System.nanoTime() - started) / 1e6;
+            System.out.printf("open: %.2f ms, %s%n", openMillis, archive);
+            ok &= archive.getRowCount() == result.getRows().size() && archive.getTotalMinutes() == result.getTotalMinutes();
+
+            LocalDate from = LocalDate.of(2024, 3, 1);
+            LocalDate to = LocalDate.of(2024, 3, 31);
+            ok &= check(archive, "March", new ReportArchive.Query().between(from, to), result, from, to, null, null);
+            ok &= check(archive, "March, project P7", new ReportArchive.Query().between(from, to).project("P7"),
+                result, from, to, null, "P7");
+            ok &= check(archive, "employee E42", new ReportArchive.Query().employee("E42"), result, null, null, "E42", null);
+            ok &= check(archive, "whole year", new ReportArchive.Query(), result, null, null, null, null);
+        }
+        if (args.length < 2) {
+            Files.delete(file);
+        }
+        if (!ok) {
+            System.out.println("VIOLATION: archive does not match the generated report");
+            System.exit(1);
+        }
+    }
+
+    private static boolean check(ReportArchive archive, String label, ReportArchive.Query query, ReportResult result,
+                                 LocalDate from, LocalDate to, String employee, String project) {
+        long readBefore = archive.getBlocksRead();
+        long started = System.nanoTime();
+        List<ArchivedRow> rows = archive.query(query);
+        double queryMillis = (System.nanoTime() - started) / 1e6;
+        long minutes = rows.stream().mapToLong(ArchivedRow::getMinutes).sum();
+
+        long expectedRows = 0;
+        long expectedMinutes = 0;
+        for (ReportRow row : result.getRows()) {
+            if ((from == null || !row.getDate().isBefore(from)) && (to == null || !row.getDate().isAfter(to))
+                    && (employee == null || row.getEmployee().getEmployeeId().equals(employee))
+                    && (project == null || row.getProject().getId().equals(project))) {
+                expectedRows++;
+                expectedMinutes += row.getMinutes();
+            }
+        }
+        System.out.printf("query %-18s: %,8d rows in %7.2f ms, %,d of %,d blocks inflated%n", label, rows.size(),
+            queryMillis, archive.getBlocksRead() - readBefore, archive.getBlockCount());
+        return rows.size() == expectedRows && minutes == expectedMinutes;
+    }
+
+    private static TimeEntry entry(long n) {
+        int i = (int) (n % 1_000_003);
+        Task task = TASKS.get(i % TASKS.size());
+        LocalDateTime start = ORIGIN.plusMinutes(n * 525_600 / entries);
+        TimeEntry entry = new TimeEntry("TE" + n, STAFF.get((int) (n % STAFF.size())), task.getProject(), task, start);
+        entry.stopWork(start.plusMinutes(15 + i % 8 * 15));
+        return entry;
+    }
+
+    private static long millis(long started) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+}
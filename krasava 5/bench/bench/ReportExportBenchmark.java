@@ -0,0 +1,141 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+import company.projects.Project;
+import company.projects.Task;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.ReportWriter;
+import company.structure.WorkSchedule;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports an R-row time-tracking report in CSV and JSON lines through
+ * {@link ReportWriter} into a channel that counts and discards the bytes, and
+ * reports time, throughput and peak heap. For comparison it also builds a CSV
+ * document in memory with {@code String.format} per row, capped at one million
+ * rows.
+ *
+ * <pre>java -cp bin bench.ReportExportBenchmark [rows]</pre>
+ */
+public class ReportExportBenchmark {
+    private static final int BASELINE_ROWS = 1_000_000;
+
+    /** Counts bytes and drops them. */
+    private static final class NullChannel implements WritableByteChannel {
+        long bytes;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            src.position(src.limit());
+            bytes += n;
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    public static void main(String[] args) {
+        long rows = args.length > 0 ? Long.parseLong(args[0]) : 50_000_000L;
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        List<Department> departments = new ArrayList<>();
+        for (int d = 0; d < 10; d++) {
+            departments.add(ObjectFactory.createDepartment("D" + d, "Department " + d, "Generated department"));
+        }
+        Manager owner = ObjectFactory.createManager("M001", "Export", "Owner", departments.get(0), pos, "2023-01-01", 50_000, ws);
+        List<Employee> staff = new ArrayList<>();
+        for (int e = 0; e < 1_000; e++) {
+            staff.add(ObjectFactory.createEmployee("E" + e, "First" + e, "Last" + e, departments.get(e % 10), pos,
+                "2023-01-01", 40_000, ws));
+        }
+        List<Task> tasks = new ArrayList<>();
+        for (int p = 0; p < 50; p++) {
+            Project project = new Project("P" + p, "Project " + p, null, LocalDateTime.of(2023, 1, 1, 0, 0), null, owner);
+            for (int t = 0; t < 20; t++) {
+                tasks.add(ObjectFactory.createTask(project.getId() + "-T" + t, "Task " + t, project, owner));
+            }
+        }
+        LocalDate[] days = new LocalDate[366];
+        for (int d = 0; d < days.length; d++) {
+            days[d] = LocalDate.of(2024, 1, 1).plusDays(d);
+        }
+
+        for (String format : new String[] {"CSV", "JSONL"}) {
+            NullChannel channel = new NullChannel();
+            resetPeaks();
+            long started = System.nanoTime();
+            try (ReportWriter writer = ReportWriter.forFormat(format, channel)) {
+                for (long r = 0; r < rows; r++) {
+                    int i = (int) (r % 1_000_003);
+                    Employee employee = staff.get(i % staff.size());
+                    Task task = tasks.get(i % tasks.size());
+                    writer.write(employee, employee.getDepartment(), task.getProject(), task, days[(int) (r / 137_000 % 366)],
+                        15 + i % 8 * 15, 1 + i % 3, 1, 1, 1);
+                }
+            }
+            report("ReportWriter " + format, rows, channel.bytes, started);
+        }
+
+        long baselineRows = Math.min(rows, BASELINE_ROWS);
+        resetPeaks();
+        long started = System.nanoTime();
+        StringBuilder document = new StringBuilder("employee,department,project,task,date,hours,entries,employees,projects,active_days\n");
+        for (long r = 0; r < baselineRows; r++) {
+            int i = (int) (r % 1_000_003);
+            Employee employee = staff.get(i % staff.size());
+            Task task = tasks.get(i % tasks.size());
+            document.append(String.format("%s,%s,%s,%s,%s,%.2f,%d,%d,%d,%d%n", employee.getEmployeeId(),
+                employee.getDepartment().getCode(), task.getProject().getId(), task.getId(),
+                days[(int) (r / 137_000 % 366)], (15 + i % 8 * 15) / 60.0, 1 + i % 3, 1, 1, 1));
+        }
+        byte[] encoded = document.toString().getBytes(StandardCharsets.UTF_8);
+        report("in-memory String.format", baselineRows, encoded.length, started);
+    }
+
+    private static void report(String label, long rows, long bytes, long started) {
+        long nanos = System.nanoTime() - started;
+        System.out.printf("%-24s: %,d rows, %,d MB in %,d ms (%,.0f rows/sec), peak heap %,d MB%n", label, rows,
+            bytes >> 20, TimeUnit.NANOSECONDS.toMillis(nanos), rows * 1e9 / nanos, peakHeap() >> 20);
+    }
+
+    private static void resetPeaks() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
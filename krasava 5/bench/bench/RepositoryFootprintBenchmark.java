@@ -0,0 +1,136 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.storage.EmployeeRepository;
+import company.storage.OffHeapEmployeeRepository;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads N employees into each repository backend in its own JVM and reports
+ * the heap and direct memory they retain, plus lookup latency. Then replaces
+ * half of them a few times over and checks that removed records are reclaimed
+ * and that lookups do not count as new employees.
+ *
+ * <pre>java -cp bin bench.RepositoryFootprintBenchmark [employees...]</pre>
+ *
+ * Runs one million and ten million employees by default. Ten million need
+ * roughly 1.2 GB of direct memory for the off-heap backend and several GB of
+ * heap for the map backend; pass {@code -XX:MaxDirectMemorySize=2g -Xmx6g} to
+ * the parent, they are forwarded to the child JVMs.
+ */
+public class RepositoryFootprintBenchmark {
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && args[0].equals("--run")) {
+            run(args[1], Integer.parseInt(args[2]));
+            return;
+        }
+        String[] sizes = args.length > 0 ? args : new String[] {"1000000", "10000000"};
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        int failed = 0;
+        for (String employees : sizes) {
+            for (String backend : new String[] {"map", "offheap"}) {
+                ProcessBuilder child = new ProcessBuilder(java);
+                child.command().addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+                child.command().addAll(List.of("-cp", System.getProperty("java.class.path"),
+                    RepositoryFootprintBenchmark.class.getName(), "--run", backend, employees));
+                if (child.inheritIO().start().waitFor() != 0) {
+                    failed++;
+                }
+            }
+        }
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void run(String backend, int employees) {
+        EmployeeRepository repository = backend.equals("offheap")
+            ? new OffHeapEmployeeRepository()
+            : EmployeeRepository.inMemory();
+        long heapBefore = usedHeap();
+
+        Department[] departments = new Department[20];
+        for (int d = 0; d < departments.length; d++) {
+            departments[d] = ObjectFactory.createDepartment("D" + d, "Department " + d, "Generated department");
+        }
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        long started = System.nanoTime();
+        for (int i = 0; i < employees; i++) {
+            repository.addIfAbsent(new Employee("E" + i, "First" + (i % 5000), "Last" + (i % 5000),
+                "user" + i + "@company.com", "+1" + (1_000_000_000L + i), departments[i % departments.length], pos,
+                "2023-01-01", 30_000 + i % 1000, ws));
+        }
+        long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        long heap = usedHeap() - heapBefore;
+        long direct = directMemory();
+        started = System.nanoTime();
+        int lookups = 1_000_000;
+        long found = 0;
+        for (int i = 0; i < lookups; i++) {
+            if (repository.find("E" + (i * 7919L % employees)) != null) {
+                found++;
+            }
+        }
+        long lookupNanos = (System.nanoTime() - started) / lookups;
+
+        System.out.printf("%-8s %,d employees: load %d ms, heap %,d MB, direct %,d MB, lookup %d ns (%,d found)%n",
+            backend, repository.size(), loadMillis, heap >> 20, direct >> 20, lookupNanos, found);
+        check(Employee.getEmployeeCount() == employees,
+            "lookups changed the employee count to " + Employee.getEmployeeCount());
+
+        // Replace every second employee, three times over.
+        int rounds = 3;
+        for (int round = 1; round <= rounds; round++) {
+            for (int i = 0; i < employees; i += 2) {
+                repository.remove(repository.find("E" + i));
+                repository.addIfAbsent(new Employee("E" + i, "First" + (i % 5000), "Last" + (i % 5000),
+                    "user" + i + "." + round + "@company.com", "+1" + (1_000_000_000L + i), departments[i % departments.length],
+                    pos, "2023-01-01", 30_000 + i % 1000, ws));
+            }
+        }
+        usedHeap(); // lets the cleaners free buffers dropped by arena compaction
+        long churnedDirect = directMemory();
+        System.out.printf("%-8s after replacing half %d times: size %,d, direct %,d MB%n",
+            backend, rounds, repository.size(), churnedDirect >> 20);
+        check(repository.size() == employees, "size after replacements is " + repository.size());
+        // Garbage may grow as large as the live strings before it is compacted
+        // away; without reuse, three rounds would add more than the initial footprint.
+        check(churnedDirect <= 2 * direct, "removed records were not reclaimed");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            System.out.println("VIOLATION: " + message);
+            System.exit(1);
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long directMemory() {
+        long total = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                total += pool.getMemoryUsed();
+            }
+        }
+        return total;
+    }
+}
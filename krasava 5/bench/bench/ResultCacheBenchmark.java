@@ -0,0 +1,116 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+import company.projects.Project;
+import company.storage.CompanyDataService;
+import company.storage.CompanyDataStore;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Repeats the read calls a UI makes while a writer keeps moving employees
+ * between departments and starting projects. After every change returns, the
+ * writer checks that the cached reads already reflect it. Runs once without
+ * and once with the cache; exits with status 1 if a stale result was served.
+ *
+ * <pre>java -cp bin bench.ResultCacheBenchmark [employees] [readers] [seconds]</pre>
+ */
+public class ResultCacheBenchmark {
+    public static void main(String[] args) throws Exception {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        CompanyDataService service = CompanyDataService.getInstance();
+
+        Department it = ObjectFactory.createDepartment("D0", "IT", "Information Technology Department");
+        Department ops = ObjectFactory.createDepartment("D1", "Operations", "Operations Department");
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        Manager owner = ObjectFactory.createManager("M001", "Project", "Owner", it, pos, "2023-01-01", 50_000, ws);
+        service.registerEmployee(owner);
+        List<Employee> staff = new ArrayList<>();
+        for (int i = 0; i < employees; i++) {
+            Employee e = ObjectFactory.createEmployee("E" + i, "First" + i, "Last" + i, i % 20 == 0 ? it : ops, pos,
+                "2023-01-01", 30_000, ws);
+            CompanyDataStore.addEmployee(e);
+            staff.add(e);
+        }
+        for (int i = 0; i < 2_000; i++) {
+            Project p = new Project("PR" + i, "Project " + i, null, LocalDateTime.now(), null, owner);
+            service.registerProject(p);
+            if (i % 4 == 0) {
+                p.start();
+            }
+        }
+
+        long stale = 0;
+        for (boolean caching : new boolean[] {false, true}) {
+            service.configureCache(caching ? 1024 : 0, Duration.ofSeconds(30));
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong reads = new AtomicLong();
+            List<Thread> threads = new ArrayList<>();
+            for (int r = 0; r < readers; r++) {
+                threads.add(new Thread(() -> {
+                    while (running.get()) {
+                        service.findEmployeesByDepartment("IT");
+                        service.findActiveProjects();
+                        service.findProjectsByManager(owner);
+                        reads.addAndGet(3);
+                    }
+                }));
+            }
+            long[] staleReads = new long[1];
+            long[] writes = new long[1];
+            threads.add(new Thread(() -> {
+                for (int n = 0; running.get(); n++) {
+                    Employee e = staff.get(n * 7919 % staff.size());
+                    Department target = e.getDepartment() == it ? ops : it;
+                    e.transferToDepartment(target);
+                    boolean listed = service.findEmployeesByDepartment("IT").contains(e);
+                    if (listed != (target == it)) {
+                        staleReads[0]++;
+                    }
+                    Project p = CompanyDataStore.findProject("PR" + (n % 2_000));
+                    if ("NEW".equals(p.getStatus())) {
+                        p.start();
+                        if (!service.findActiveProjects().contains(p)) {
+                            staleReads[0]++;
+                        }
+                    }
+                    writes[0]++;
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+            }));
+            long started = System.nanoTime();
+            threads.forEach(Thread::start);
+            Thread.sleep(seconds * 1000L);
+            running.set(false);
+            for (Thread t : threads) {
+                t.join();
+            }
+            double elapsed = (System.nanoTime() - started) / 1e9;
+            stale += staleReads[0];
+            System.out.printf("cache %s: %,.0f reads/s, %,d writes, %d stale reads, %s%n", caching ? "on " : "off",
+                reads.get() / elapsed, writes[0], staleReads[0], service.getCacheStats());
+        }
+        if (stale > 0) {
+            System.out.println("VIOLATION: stale results were served after a change returned");
+            System.exit(1);
+        }
+        System.out.println("OK: no stale results");
+    }
+}
@@ -0,0 +1,110 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+import company.projects.DailyTotal;
+import company.projects.Project;
+import company.projects.RetentionPolicy;
+import company.projects.RetentionResult;
+import company.projects.Task;
+import company.projects.TimeEntry;
+import company.projects.TimeEntryApprovals;
+import company.projects.TimeEntryCursor;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs two years of approved time entries, applies a three-month retention
+ * policy and reports the heap retained before and after, the roll-up time, and
+ * whether task hours and history totals still agree. Exits with status 1 if
+ * they do not, or if an entry older than the cutoff is still kept.
+ *
+ * <pre>java -cp bin bench.RetentionBenchmark [entries]</pre>
+ */
+public class RetentionBenchmark {
+    public static void main(String[] args) {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Department dep = ObjectFactory.createDepartment("D001", "IT", "Information Technology Department");
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        Manager owner = ObjectFactory.createManager("M001", "Long", "Runner", dep, pos, "2023-01-01", 50_000, ws);
+        List<Employee> staff = new ArrayList<>();
+        for (int e = 0; e < 200; e++) {
+            staff.add(ObjectFactory.createEmployee("E" + e, "First" + e, "Last" + e, dep, pos, "2023-01-01", 40_000, ws));
+        }
+        List<Task> tasks = new ArrayList<>();
+        for (int p = 0; p < 10; p++) {
+            Project project = new Project("P" + p, "Project " + p, null, LocalDateTime.of(2022, 1, 1, 0, 0), null, owner);
+            for (int t = 0; t < 20; t++) {
+                tasks.add(ObjectFactory.createTask(project.getId() + "-T" + t, "Task " + t, project, owner));
+            }
+        }
+
+        LocalDate today = LocalDate.of(2024, 1, 1);
+        LocalDateTime origin = today.minusYears(2).atTime(8, 0);
+        long span = 2L * 365 * 24 * 60;
+        long heapBefore = usedHeap();
+        List<TimeEntry> chunk = new ArrayList<>();
+        for (int n = 0; n < entries; n++) {
+            LocalDateTime start = origin.plusMinutes(span * n / entries);
+            Task task = tasks.get(n % tasks.size());
+            TimeEntry entry = new TimeEntry("TE" + n, staff.get(n % staff.size()), task.getProject(), task, start);
+            entry.stopWork(start.plusMinutes(15 + n % 8 * 15));
+            chunk.add(entry);
+            if (chunk.size() == 100_000 || n == entries - 1) {
+                TimeEntryApprovals.approveAll(chunk);
+                chunk.clear();
+            }
+        }
+        long heapLogged = usedHeap() - heapBefore;
+
+        RetentionPolicy policy = RetentionPolicy.keep(Period.ofMonths(3));
+        long started = System.nanoTime();
+        RetentionResult result = policy.apply(tasks, today);
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        long heapRolled = usedHeap() - heapBefore;
+
+        long cutoffMinute = policy.cutoff(today).atStartOfDay().toEpochSecond(ZoneOffset.UTC) / 60;
+        double taskHours = 0;
+        double historyHours = 0;
+        long days = 0;
+        long stale = 0;
+        for (Task task : tasks) {
+            taskHours += task.getActualHours();
+            for (DailyTotal total : task.getDailyTotals()) {
+                historyHours += total.getHours();
+                days++;
+            }
+            TimeEntryCursor cursor = task.scanTimeEntries();
+            while (cursor.next()) {
+                historyHours += cursor.getHours();
+                stale += cursor.getStartEpochMinute() < cutoffMinute ? 1 : 0;
+            }
+        }
+        System.out.printf("%,d entries: heap %,d MB before, %,d MB after roll-up in %,d ms; %s, %,d daily totals%n",
+            entries, heapLogged >> 20, heapRolled >> 20, millis, result, days);
+        System.out.printf("task hours %.1f, history hours %.1f, %,d stale entries%n", taskHours, historyHours, stale);
+        if (Math.abs(taskHours - historyHours) > 1e-6 * taskHours || stale > 0) {
+            System.out.println("VIOLATION: history no longer matches task hours or retention missed entries");
+            System.exit(1);
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,60 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.storage.CompanyDataStore;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a binary snapshot of N employees and measures how long a fresh JVM
+ * takes to load it into {@link CompanyDataStore}.
+ *
+ * <pre>java -cp bin bench.SnapshotBenchmark [employees]</pre>
+ */
+public class SnapshotBenchmark {
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("--load")) {
+            load(Path.of(args[1]));
+            return;
+        }
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        Department[] departments = new Department[20];
+        for (int d = 0; d < departments.length; d++) {
+            departments[d] = ObjectFactory.createDepartment("D" + d, "Department " + d, "Generated department");
+        }
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        for (int i = 0; i < employees; i++) {
+            CompanyDataStore.addEmployee(new Employee("E" + i, "First" + i, "Last" + i, "user" + i + "@company.com",
+                "+1" + (1_000_000_000L + i), departments[i % departments.length], pos, "2023-01-01", 30_000 + i % 1000, ws));
+        }
+
+        Path file = Files.createTempFile("company-snapshot", ".bin");
+        long started = System.nanoTime();
+        CompanyDataStore.writeSnapshot(file);
+        System.out.printf("wrote %,d employees (%,d bytes) in %d ms%n", employees, Files.size(file),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process child = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+            SnapshotBenchmark.class.getName(), "--load", file.toString())
+            .inheritIO()
+            .start();
+        child.waitFor();
+        Files.deleteIfExists(file);
+    }
+
+    private static void load(Path file) throws Exception {
+        long started = System.nanoTime();
+        CompanyDataStore.loadSnapshot(file);
+        System.out.printf("loaded %,d employees in %d ms (cold JVM)%n", CompanyDataStore.getAllEmployees().size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+}
@@ -0,0 +1,142 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+import company.projects.Project;
+import company.projects.Task;
+import company.projects.TimeEntry;
+import company.storage.CompanyDataService;
+import company.storage.CompanyDataStore;
+import company.storage.ReadView;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consistency check for point-in-time reads. Writer threads keep logging hours
+ * and changing salaries while reader threads open views and read every report
+ * twice; both reads of one view must agree, and totals must never go backwards
+ * from one view to the next. Exits with status 1 on any violation.
+ *
+ * <pre>java -cp bin bench.SnapshotReadStress [writers] [readers] [seconds]</pre>
+ */
+public class SnapshotReadStress {
+    private static final List<String> violations = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int projectsPerWriter = 200;
+        CompanyDataService service = CompanyDataService.getInstance();
+
+        Department dep = ObjectFactory.createDepartment("D001", "IT", "Information Technology Department");
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 10_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        Manager owner = ObjectFactory.createManager("M001", "Report", "Owner", dep, pos, "2023-01-01", 50_000, ws);
+        service.registerEmployee(owner);
+
+        List<List<Task>> tasks = new ArrayList<>();
+        List<Employee> staff = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            List<Task> own = new ArrayList<>();
+            for (int i = 0; i < projectsPerWriter; i++) {
+                Project p = new Project("P" + w + "-" + i, "Project " + w + "-" + i, null, LocalDateTime.now(), null, owner);
+                p.setEstimatedHours(1_000);
+                service.registerProject(p);
+                own.add(ObjectFactory.createTask("T" + w + "-" + i, "Work", p, owner));
+            }
+            tasks.add(own);
+            Employee e = ObjectFactory.createEmployee("E" + w, "First" + w, "Last" + w, dep, pos, "2023-01-01", 30_000, ws);
+            service.registerEmployee(e);
+            staff.add(e);
+        }
+
+        for (boolean versioned : new boolean[] {false, true}) {
+            if (versioned) {
+                CompanyDataStore.enableSnapshotReads();
+            }
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong logged = new AtomicLong();
+            AtomicLong views = new AtomicLong();
+            List<Thread> threads = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                List<Task> own = tasks.get(w);
+                Employee e = staff.get(w);
+                threads.add(new Thread(() -> {
+                    LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+                    for (long n = 0; running.get(); n++) {
+                        Task task = own.get((int) (n % own.size()));
+                        TimeEntry entry = new TimeEntry("TE" + n, e, task.getProject(), task, start);
+                        entry.stopWork(start.plusHours(1));
+                        entry.approve();
+                        e.adjustSalary(n % 2 == 0 ? 10 : -10);
+                        logged.incrementAndGet();
+                    }
+                }));
+            }
+            for (int r = 0; versioned && r < readers; r++) {
+                threads.add(new Thread(() -> {
+                    double lastHours = 0;
+                    while (running.get()) {
+                        try (ReadView view = service.openReadView()) {
+                            double hours = view.getTotalProjectHours();
+                            Map<String, Double> progress = view.getProjectProgressById();
+                            Map<String, Double> salaries = view.getDepartmentSalaryTotals();
+                            Thread.yield();
+                            check(hours == view.getTotalProjectHours(), "total hours changed within one view");
+                            check(progress.equals(view.getProjectProgressById()), "progress changed within one view");
+                            check(salaries.equals(view.getDepartmentSalaryTotals()), "salary totals changed within one view");
+                            check(hours >= lastHours, "total hours went backwards: " + lastHours + " -> " + hours);
+                            lastHours = hours;
+                            views.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            long started = System.nanoTime();
+            threads.forEach(Thread::start);
+            Thread.sleep(seconds * 1000L);
+            running.set(false);
+            for (Thread t : threads) {
+                t.join();
+            }
+            double elapsed = (System.nanoTime() - started) / 1e9;
+
+            if (versioned) {
+                try (ReadView view = service.openReadView()) {
+                    check(view.getTotalProjectHours() == service.calculateTotalProjectHours(),
+                        "settled view total " + view.getTotalProjectHours() + " != live total " + service.calculateTotalProjectHours());
+                    check(view.getProjectProgressById().equals(Map.copyOf(service.getProjectProgressById())),
+                        "settled view progress differs from live progress");
+                }
+            }
+            System.out.printf("%s: %,.0f hour entries/s from %d writers, %,d consistent views from %d readers%n",
+                versioned ? "snapshot reads on " : "snapshot reads off", logged.get() / elapsed, writers,
+                views.get(), versioned ? readers : 0);
+        }
+        CompanyDataStore.disableSnapshotReads();
+
+        if (!violations.isEmpty()) {
+            violations.stream().distinct().limit(20).forEach(v -> System.out.println("VIOLATION: " + v));
+            System.exit(1);
+        }
+        System.out.println("OK: every view was stable and totals never went backwards");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            synchronized (violations) {
+                violations.add(message);
+            }
+        }
+    }
+}
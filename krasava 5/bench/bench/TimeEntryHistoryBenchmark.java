@@ -0,0 +1,141 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+import company.projects.Project;
+import company.projects.Task;
+import company.projects.TimeEntry;
+import company.projects.TimeEntryApprovals;
+import company.projects.TimeEntryCursor;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds N approved time entries in its own JVM, once kept as per-task lists
+ * of {@link TimeEntry} objects (how tasks stored history before) and once in
+ * the tasks' columnar history, then reports the heap each retains and the
+ * time to total hours per employee over all of them.
+ *
+ * <pre>java -cp bin bench.TimeEntryHistoryBenchmark [entries]</pre>
+ *
+ * JVM options given to the parent, such as {@code -Xmx}, are forwarded to the
+ * child JVMs.
+ */
+public class TimeEntryHistoryBenchmark {
+    private static final int TASKS = 2_000;
+    private static final int EMPLOYEES = 500;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && args[0].equals("--run")) {
+            run(args[1], Integer.parseInt(args[2]));
+            return;
+        }
+        String entries = args.length > 0 ? args[0] : "2000000";
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        for (String layout : new String[] {"objects", "columns"}) {
+            ProcessBuilder child = new ProcessBuilder(java);
+            child.command().addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+            child.command().addAll(List.of("-cp", System.getProperty("java.class.path"),
+                TimeEntryHistoryBenchmark.class.getName(), "--run", layout, entries));
+            child.inheritIO().start().waitFor();
+        }
+    }
+
+    private static void run(String layout, int entries) {
+        Department dep = ObjectFactory.createDepartment("D001", "IT", "Information Technology Department");
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 1_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+        Manager owner = ObjectFactory.createManager("M001", "History", "Owner", dep, pos, "2023-01-01", 50_000, ws);
+        List<Employee> staff = new ArrayList<>();
+        for (int e = 0; e < EMPLOYEES; e++) {
+            staff.add(ObjectFactory.createEmployee("E" + e, "First" + e, "Last" + e, dep, pos, "2023-01-01", 40_000, ws));
+        }
+        List<Task> tasks = new ArrayList<>();
+        for (int p = 0; p < TASKS / 20; p++) {
+            Project project = new Project("P" + p, "Project " + p, null, LocalDateTime.of(2020, 1, 1, 0, 0), null, owner);
+            for (int t = 0; t < 20; t++) {
+                tasks.add(ObjectFactory.createTask(project.getId() + "-T" + t, "Task " + t, project, owner));
+            }
+        }
+        long heapBefore = usedHeap();
+
+        boolean objects = layout.equals("objects");
+        List<List<TimeEntry>> lists = new ArrayList<>();
+        for (int t = 0; objects && t < TASKS; t++) {
+            lists.add(new ArrayList<>());
+        }
+        LocalDateTime origin = LocalDateTime.of(2020, 1, 6, 8, 0);
+        List<TimeEntry> chunk = new ArrayList<>();
+        for (int n = 0; n < entries; n++) {
+            Task task = tasks.get(n % TASKS);
+            LocalDateTime start = origin.plusMinutes(n * 7L);
+            TimeEntry entry = new TimeEntry("TE" + n, staff.get(n % EMPLOYEES), task.getProject(), task, start);
+            entry.stopWork(start.plusMinutes(30 + n % 8 * 15));
+            if (objects) {
+                lists.get(n % TASKS).add(entry);
+            } else {
+                chunk.add(entry);
+                if (chunk.size() == 100_000 || n == entries - 1) {
+                    TimeEntryApprovals.approveAll(chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        long heap = usedHeap() - heapBefore;
+
+        double best = Double.MAX_VALUE;
+        Map<Employee, double[]> totals = new IdentityHashMap<>();
+        for (int round = 0; round < 5; round++) {
+            totals.clear();
+            long started = System.nanoTime();
+            for (int t = 0; t < TASKS; t++) {
+                if (objects) {
+                    for (TimeEntry entry : lists.get(t)) {
+                        totals.computeIfAbsent(entry.getEmployee(), k -> new double[1])[0] += entry.getHours();
+                    }
+                } else {
+                    TimeEntryCursor cursor = tasks.get(t).scanTimeEntries();
+                    while (cursor.next()) {
+                        totals.computeIfAbsent(cursor.getEmployee(), k -> new double[1])[0] += cursor.getHours();
+                    }
+                }
+            }
+            best = Math.min(best, (System.nanoTime() - started) / 1e6);
+        }
+        double hours = totals.values().stream().mapToDouble(h -> h[0]).sum();
+
+        long started = System.nanoTime();
+        long materialized = 0;
+        if (!objects) {
+            for (Task task : tasks) {
+                for (TimeEntry entry : task.getTimeEntries()) {
+                    materialized += entry.isApproved() ? 1 : 0;
+                }
+            }
+        }
+        long listMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        System.out.printf("%-8s %,d entries: heap %,d MB (%d bytes/entry), scan %.1f ms, %.1f hours%s%n",
+            layout, entries, heap >> 20, heap / entries, best, hours,
+            objects ? "" : String.format(", getTimeEntries over all tasks %,d ms (%,d entries)", listMillis, materialized));
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,128 @@
+package bench;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+import company.util.OptimisticTransaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs concurrent transfers and raises across a department tree with 1, 2, 4,
+ * ... threads, then checks that every employee sits on exactly the roster of
+ * the department they belong to and that every department's cached totals
+ * match a recount. Reports transfers per second and the share of transactions
+ * retried while another thread keeps reading rosters. Exits with status 1 on
+ * any mismatch or if reading a roster moves its department's version stamp.
+ *
+ * <pre>java -cp bin bench.TransferBenchmark [employees] [seconds per run]</pre>
+ */
+public class TransferBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int cores = Runtime.getRuntime().availableProcessors();
+        Position pos = ObjectFactory.createPosition("P001", "Software Developer", "Development", 0, 10_000_000);
+        WorkSchedule ws = ObjectFactory.createWorkSchedule("WS001", "Standard Schedule");
+
+        Department company = ObjectFactory.createDepartment("ROOT", "Company", "Company");
+        List<Department> departments = new ArrayList<>();
+        for (int d = 0; d < 64; d++) {
+            Department dep = ObjectFactory.createDepartment("D" + d, "Department " + d, "Department " + d);
+            (d < 8 ? company : departments.get(d % 8)).addSubDepartment(dep);
+            dep.setBudget(1_000_000);
+            departments.add(dep);
+        }
+        List<Employee> staff = new ArrayList<>();
+        for (int e = 0; e < employees; e++) {
+            Department dep = departments.get(e % departments.size());
+            Employee employee = ObjectFactory.createEmployee("E" + e, "First" + e, "Last" + e, dep, pos, "2023-01-01", 30_000, ws);
+            employee.transferToDepartment(dep);
+            staff.add(employee);
+        }
+
+        long violations = 0;
+        for (int threads = 1; threads <= Math.max(4, cores); threads *= 2) {
+            LongAdder transfers = new LongAdder();
+            long commitsBefore = OptimisticTransaction.getCommitCount();
+            long retriesBefore = OptimisticTransaction.getRetryCount();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Random random = new Random(t * 31L + threads);
+                workers.add(new Thread(() -> {
+                    while (System.nanoTime() < deadline) {
+                        // A small hot set makes several threads contend for the same employees.
+                        Employee employee = staff.get(random.nextInt(random.nextBoolean() ? 64 : staff.size()));
+                        if (random.nextInt(10) == 0) {
+                            employee.adjustSalary(random.nextInt(200) - 100);
+                        } else {
+                            employee.transferToDepartment(departments.get(random.nextInt(departments.size())));
+                            transfers.increment();
+                        }
+                    }
+                }));
+            }
+            // Roster reads run alongside and must not make transfers retry.
+            workers.add(new Thread(() -> {
+                for (int d = 0; System.nanoTime() < deadline; d = (d + 1) % departments.size()) {
+                    departments.get(d).getEmployees();
+                    departments.get(d).getEmployeeCount();
+                }
+            }));
+            workers.forEach(Thread::start);
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long commits = OptimisticTransaction.getCommitCount() - commitsBefore;
+            long retries = OptimisticTransaction.getRetryCount() - retriesBefore;
+            System.out.printf("%d threads: %,d transfers/s, %.2f%% of transactions retried%n",
+                threads, transfers.sum() / seconds, commits == 0 ? 0.0 : 100.0 * retries / (commits + retries));
+        }
+
+        Department probe = departments.get(0);
+        long version = probe.getVersion();
+        probe.getEmployees();
+        probe.getEmployeeCount();
+        if (probe.getVersion() != version) {
+            System.out.println("VIOLATION: reading a roster moved the department's version stamp");
+            violations++;
+        }
+
+        long misplaced = 0;
+        for (Department dep : departments) {
+            for (Employee employee : dep.getEmployees()) {
+                misplaced += employee.getDepartment() == dep ? 0 : 1;
+            }
+        }
+        int rostered = 0;
+        for (Department dep : departments) {
+            rostered += dep.getEmployeeCount();
+        }
+        long stale = 0;
+        long rootCents = 0;
+        for (Department dep : departments) {
+            long cents = 0;
+            for (Employee employee : dep.getEmployees()) {
+                cents += Math.round(employee.getSalary() * 100);
+            }
+            rootCents += cents;
+            stale += Math.round(dep.getTotalSalaries() * 100) == cents ? 0 : 1;
+        }
+        stale += Math.round(company.getSubtreeSalaries() * 100) == rootCents ? 0 : 1;
+        stale += company.getSubtreeHeadcount() == employees ? 0 : 1;
+        violations += misplaced + stale + (rostered == employees ? 0 : 1);
+        System.out.printf("%,d cores; %,d of %,d employees rostered, %,d misplaced, %,d stale totals%n",
+            cores, rostered, employees, misplaced, stale);
+        if (violations > 0) {
+            System.out.println("VIOLATION: rosters or totals drifted from the employees' departments");
+            System.exit(1);
+        }
+    }
+}
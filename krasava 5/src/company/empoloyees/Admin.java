@@ -24,6 +24,7 @@ public class Admin extends Employee {
                              " with level: " + accessLevel);
         }
     }
+    public String getAdminId() { return adminId; }
     public boolean hasFullAccess() { return fullAccess; }
     public String getLastLoginDate() { return lastLoginDate; }
 }
@@ -1,13 +1,19 @@
 package company.empoloyees;
 
 import company.structure.Department;
+import company.structure.EmployeeLink;
 import company.structure.Position;
 import company.structure.WorkSchedule;
+import company.util.VersionLock;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 
@@ -17,19 +23,37 @@ public class Employee {
     private static final Pattern PHONE_PATTERN = Pattern.compile("^\\+?[1-9]\\d{1,14}$");
     private static final double MIN_SALARY = 0.0;
     // Static counter to demonstrate use of static fields
-    private static int employeeCount = 0;
+    private static final AtomicInteger EMPLOYEE_COUNT = new AtomicInteger();
+    private static final List<EmployeeListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private static final EmployeeLink DEPARTMENTS;
+
+    static {
+        DEPARTMENTS = EmployeeLink.register(new EmployeeLink.Bridge() {
+            @Override
+            public void setDepartment(Employee employee, Department department) {
+                employee.department = department;
+            }
+
+            @Override
+            public void departmentChanged(Employee employee, Department oldDepartment, Department newDepartment) {
+                employee.fire(l -> l.onDepartmentChanged(employee, oldDepartment, newDepartment));
+            }
+        });
+    }
 
     private final String employeeId;
     private final String firstName;
     private final String lastName;
     private final LocalDate hireDate;
-    
+    private final VersionLock versionLock = new VersionLock();
 
     private String email;
     private String phoneNumber;
-    private Department department;
+    private volatile Department department;
     private Position position;
-    private double salary;
+    // Volatile so a department adding this employee sees a raise made at the same time, or is told of it.
+    private volatile double salary;
     private WorkSchedule workSchedule;
     private boolean isActive;
 
@@ -52,7 +76,7 @@ public class Employee {
         this.workSchedule = Objects.requireNonNull(workSchedule, "Work schedule cannot be null");
         this.isActive = true;
 
-        employeeCount++;
+        EMPLOYEE_COUNT.incrementAndGet();
     }
 
     public Employee(String employeeId, String firstName, String lastName, String email,
@@ -63,9 +87,76 @@ public class Employee {
 
     }
 
+    private Employee(String employeeId, String firstName, String lastName, String email,
+                     String phoneNumber, Department department, Position position,
+                     LocalDate hireDate, double salary, WorkSchedule workSchedule, boolean isActive,
+                     boolean counted) {
+        this.employeeId = employeeId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.phoneNumber = phoneNumber;
+        this.department = department;
+        this.position = position;
+        this.hireDate = hireDate;
+        this.salary = salary;
+        this.workSchedule = workSchedule;
+        this.isActive = isActive;
+
+        if (counted) {
+            EMPLOYEE_COUNT.incrementAndGet();
+        }
+    }
+
+    /**
+     * Recreates an employee from storage without re-running field validation.
+     * Reached through {@link StoredEmployees}.
+     */
+    static Employee restore(String employeeId, String firstName, String lastName, String email,
+                            String phoneNumber, Department department, Position position,
+                            LocalDate hireDate, double salary, WorkSchedule workSchedule, boolean isActive) {
+        return new Employee(employeeId, firstName, lastName, email, phoneNumber, department, position,
+                hireDate, salary, workSchedule, isActive, true);
+    }
+
+    /**
+     * Like {@link #restore}, for a short-lived view of an employee held in storage.
+     * The stored employee was counted when it was created, so the view is not.
+     */
+    static Employee view(String employeeId, String firstName, String lastName, String email,
+                         String phoneNumber, Department department, Position position,
+                         LocalDate hireDate, double salary, WorkSchedule workSchedule, boolean isActive) {
+        return new Employee(employeeId, firstName, lastName, email, phoneNumber, department, position,
+                hireDate, salary, workSchedule, isActive, false);
+    }
+
     public static int getEmployeeCount() {
-        return employeeCount;
+        return EMPLOYEE_COUNT.get();
     }
+
+    /** Version stamp; moves on with every change to this employee. */
+    public long getVersion() {
+        return versionLock.version();
+    }
+
+    /** The lock transactions take on this employee while they commit. */
+    public VersionLock getVersionLock() {
+        return versionLock;
+    }
+
+    public static void addListener(EmployeeListener listener) {
+        LISTENERS.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+
+    public static void removeListener(EmployeeListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    private void fire(Consumer<EmployeeListener> event) {
+        versionLock.bump();
+        LISTENERS.forEach(event);
+    }
+
     public String getEmployeeId() { return employeeId; }
     public String getFirstName() { return firstName; }
     public String getLastName() { return lastName; }
@@ -77,46 +168,77 @@ public class Employee {
     public LocalDate getHireDate() { return hireDate; }
     public double getSalary() { return salary; }
     public WorkSchedule getWorkSchedule() { return workSchedule; }
-    public boolean isActive() { return isActive; }
+    public boolean isActive() {
+        Boolean target = DEPARTMENTS.cascadeTarget(this);
+        return target != null ? target : isActive;
+    }
 
 
     public void updateEmail(String newEmail) {
+        String oldEmail = this.email;
+        String phoneNumber = this.phoneNumber;
         this.email = validateEmail(newEmail);
+        fire(l -> l.onContactChanged(this, oldEmail, phoneNumber));
     }
 
     public void updatePhoneNumber(String newPhoneNumber) {
+        String email = this.email;
+        String oldPhoneNumber = this.phoneNumber;
         this.phoneNumber = validatePhoneNumber(newPhoneNumber);
+        fire(l -> l.onContactChanged(this, email, oldPhoneNumber));
     }
 
+    /** Moves this employee, with their roster place, to another department; see {@link Department#transferEmployee}. */
     public void transferToDepartment(Department newDepartment) {
-        this.department = Objects.requireNonNull(newDepartment, "Department cannot be null");
+        Department.transferEmployee(this, newDepartment);
     }
 
     public void updatePosition(Position newPosition) {
-        this.position = Objects.requireNonNull(newPosition, "Position cannot be null");
+        Objects.requireNonNull(newPosition, "Position cannot be null");
+        Position oldPosition = this.position;
+        this.position = newPosition;
+        if (oldPosition != newPosition) {
+            fire(l -> l.onPositionChanged(this, oldPosition, newPosition));
+        }
     }
 
     public void adjustSalary(double amount) {
-        double newSalary = this.salary + amount;
-        this.salary = validateSalary(newSalary);
+        double oldSalary = this.salary;
+        double newSalary = validateSalary(oldSalary + amount);
+        this.salary = newSalary;
+        if (oldSalary != newSalary) {
+            DEPARTMENTS.salaryChanged(this);
+            fire(l -> l.onSalaryChanged(this, oldSalary, newSalary));
+        }
     }
 
     public void updateWorkSchedule(WorkSchedule newSchedule) {
-        this.workSchedule = Objects.requireNonNull(newSchedule, "Work schedule cannot be null");
+        Objects.requireNonNull(newSchedule, "Work schedule cannot be null");
+        WorkSchedule oldSchedule = this.workSchedule;
+        this.workSchedule = newSchedule;
+        if (oldSchedule != newSchedule) {
+            fire(l -> l.onScheduleChanged(this, oldSchedule, newSchedule));
+        }
     }
 
     public void deactivate() {
-        this.isActive = false;
+        if (isActive) {
+            this.isActive = false;
+            fire(l -> l.onActiveChanged(this, false));
+        }
     }
 
     public void reactivate() {
-        this.isActive = true;
+        if (!isActive) {
+            this.isActive = true;
+            fire(l -> l.onActiveChanged(this, true));
+        }
     }
 
     @Override
     public String toString() {
         return String.format("Employee{id='%s', name='%s', department=%s, position=%s, hireDate=%s, active=%b}",
-                employeeId, getFullName(), department.getName(), position.getName(), hireDate, isActive);
+                employeeId, getFullName(), department.getName(), position.getName(), hireDate, isActive());
     }
 
     private static String validateEmployeeId(String employeeId) {
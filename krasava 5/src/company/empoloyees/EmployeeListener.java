@@ -0,0 +1,33 @@
+package company.empoloyees;
+
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+/**
+ * Callback for changes made to {@link Employee} instances after construction.
+ * Listeners are registered globally through {@link Employee#addListener(EmployeeListener)}
+ * and are invoked synchronously on the thread that performed the change.
+ */
+public interface EmployeeListener {
+
+    default void onDepartmentChanged(Employee employee, Department oldDepartment, Department newDepartment) {}
+
+    default void onPositionChanged(Employee employee, Position oldPosition, Position newPosition) {}
+
+    default void onSalaryChanged(Employee employee, double oldSalary, double newSalary) {}
+
+    default void onActiveChanged(Employee employee, boolean active) {}
+
+    default void onContactChanged(Employee employee) {}
+
+    /**
+     * Like {@link #onContactChanged(Employee)}, with the contact details as they
+     * were before the change. By default it just calls the one-argument form.
+     */
+    default void onContactChanged(Employee employee, String oldEmail, String oldPhoneNumber) {
+        onContactChanged(employee);
+    }
+
+    default void onScheduleChanged(Employee employee, WorkSchedule oldSchedule, WorkSchedule newSchedule) {}
+}
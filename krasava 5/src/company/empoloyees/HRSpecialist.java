@@ -3,15 +3,15 @@ package company.empoloyees;
 import company.structure.Department;
 import company.structure.Position;
 import company.structure.WorkSchedule;
+import company.util.MembershipSet;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 public class HRSpecialist extends Employee {
-    private final List<String> accessPermissions;
-    private final List<Department> managedDepartments;
+    // Each guarded by its own monitor: MembershipSet is not thread-safe, and even snapshot() may compact it.
+    private final MembershipSet<String> accessPermissions;
+    private final MembershipSet<Department> managedDepartments;
 
     public HRSpecialist(String employeeId, String firstName, String lastName,
                        String email, String phoneNumber, Department department,
@@ -19,45 +19,59 @@ public class HRSpecialist extends Employee {
                        WorkSchedule workSchedule) {
         super(employeeId, firstName, lastName, email, phoneNumber,
               department, position, hireDate, salary, workSchedule, true);
-        this.accessPermissions = new ArrayList<>();
-        this.managedDepartments = new ArrayList<>();
+        this.accessPermissions = new MembershipSet<>();
+        this.managedDepartments = new MembershipSet<>();
         addDefaultPermissions();
     }
 
     void addManagedDepartment(Department department) {
         Objects.requireNonNull(department, "Department cannot be null");
-        if (!managedDepartments.contains(department)) {
+        synchronized (managedDepartments) {
             managedDepartments.add(department);
         }
     }
 
     void removeManagedDepartment(Department department) {
-        managedDepartments.remove(department);
+        synchronized (managedDepartments) {
+            managedDepartments.remove(department);
+        }
     }
 
     void grantPermission(String permission) {
-        if (permission != null && !permission.trim().isEmpty() && !accessPermissions.contains(permission)) {
-            accessPermissions.add(permission);
+        if (permission != null && !permission.trim().isEmpty()) {
+            synchronized (accessPermissions) {
+                accessPermissions.add(permission);
+            }
         }
     }
 
     void revokePermission(String permission) {
-        accessPermissions.remove(permission);
+        synchronized (accessPermissions) {
+            accessPermissions.remove(permission);
+        }
     }
     public List<Department> getManagedDepartments() {
-        return Collections.unmodifiableList(managedDepartments);
+        synchronized (managedDepartments) {
+            return managedDepartments.snapshot();
+        }
     }
 
     public List<String> getAccessPermissions() {
-        return Collections.unmodifiableList(accessPermissions);
+        synchronized (accessPermissions) {
+            return accessPermissions.snapshot();
+        }
     }
 
     public boolean canManageDepartment(Department department) {
-        return managedDepartments.contains(department);
+        synchronized (managedDepartments) {
+            return managedDepartments.contains(department);
+        }
     }
 
     public boolean hasPermission(String permission) {
-        return accessPermissions.contains(permission);
+        synchronized (accessPermissions) {
+            return accessPermissions.contains(permission);
+        }
     }
 
     public void createEmployeeProfile(String employeeId, String firstName, 
@@ -74,6 +88,7 @@ public class HRSpecialist extends Employee {
         employee.transferToDepartment(newDepartment);
     }
 
+    // Called from the constructor, before the set can be shared.
     private void addDefaultPermissions() {
         accessPermissions.add("VIEW_EMPLOYEE_PROFILES");
         accessPermissions.add("CREATE_EMPLOYEE_PROFILES");
@@ -103,8 +118,8 @@ public class HRSpecialist extends Employee {
     public String toString() {
         return "HRSpecialist{" +
                 "name='" + getFullName() + '\'' +
-                ", managedDepartments=" + managedDepartments.size() +
-                ", permissions=" + accessPermissions.size() +
+                ", managedDepartments=" + getManagedDepartments().size() +
+                ", permissions=" + getAccessPermissions().size() +
                 '}';
     }
 }
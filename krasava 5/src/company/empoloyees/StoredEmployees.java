@@ -0,0 +1,47 @@
+package company.empoloyees;
+
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.time.LocalDate;
+
+/**
+ * Builds employees from storage without re-running field validation. Only
+ * classes in {@code company.storage} can get an instance, and only for data
+ * that was written from valid {@link Employee} instances.
+ */
+public final class StoredEmployees {
+    private static final String STORAGE_PACKAGE = "company.storage";
+
+    private StoredEmployees() {
+
+    }
+
+    /**
+     * @throws IllegalStateException if the caller is not a storage class
+     */
+    public static StoredEmployees forStorage() {
+        Class<?> caller = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).getCallerClass();
+        if (!caller.getPackageName().equals(STORAGE_PACKAGE)) {
+            throw new IllegalStateException("Stored employees are only available to " + STORAGE_PACKAGE);
+        }
+        return new StoredEmployees();
+    }
+
+    /** Recreates a stored employee; counted like a newly created one. */
+    public Employee restore(String employeeId, String firstName, String lastName, String email,
+                            String phoneNumber, Department department, Position position,
+                            LocalDate hireDate, double salary, WorkSchedule workSchedule, boolean isActive) {
+        return Employee.restore(employeeId, firstName, lastName, email, phoneNumber, department, position,
+                hireDate, salary, workSchedule, isActive);
+    }
+
+    /** Short-lived view of an employee held in storage; not counted, since the stored one was. */
+    public Employee view(String employeeId, String firstName, String lastName, String email,
+                         String phoneNumber, Department department, Position position,
+                         LocalDate hireDate, double salary, WorkSchedule workSchedule, boolean isActive) {
+        return Employee.view(employeeId, firstName, lastName, email, phoneNumber, department, position,
+                hireDate, salary, workSchedule, isActive);
+    }
+}
@@ -0,0 +1,54 @@
+package company.projects;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of {@link TimeEntryApprovals#approveAll}: the entries that were
+ * approved and, for every rejected entry, its position in the input and why.
+ */
+public final class ApprovalResult {
+
+    public static final class Failure {
+        private final int index;
+        private final TimeEntry entry;
+        private final String reason;
+
+        Failure(int index, TimeEntry entry, String reason) {
+            this.index = index;
+            this.entry = entry;
+            this.reason = reason;
+        }
+
+        public int getIndex() { return index; }
+        public TimeEntry getEntry() { return entry; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return "Failure{index=" + index + ", reason='" + reason + "'}";
+        }
+    }
+
+    private final List<TimeEntry> approved;
+    private final List<Failure> failures;
+    private final double approvedHours;
+
+    ApprovalResult(List<TimeEntry> approved, List<Failure> failures, double approvedHours) {
+        this.approved = Collections.unmodifiableList(approved);
+        this.failures = Collections.unmodifiableList(failures);
+        this.approvedHours = approvedHours;
+    }
+
+    public List<TimeEntry> getApproved() { return approved; }
+    public List<Failure> getFailures() { return failures; }
+    /** Hours logged to tasks and projects; entries without a task log none. */
+    public double getApprovedHours() { return approvedHours; }
+    public boolean isSuccessful() { return failures.isEmpty(); }
+
+    @Override
+    public String toString() {
+        return "ApprovalResult{approved=" + approved.size() + ", failures=" + failures.size()
+            + ", hours=" + approvedHours + "}";
+    }
+}
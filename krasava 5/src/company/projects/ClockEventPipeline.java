@@ -0,0 +1,353 @@
+package company.projects;
+
+import company.empoloyees.Employee;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ingests badge clock-in and clock-out events off the request threads.
+ *
+ * <p>Producers claim a slot in a pre-allocated ring, fill it in place and
+ * publish it; nothing is allocated per event on the producer side. A single
+ * consumer thread owns the open-entry table: it turns clock-ins into
+ * {@link TimeEntry} instances, matches clock-outs to them by employee, and
+ * approves the completed entries of each drained batch in one
+ * {@link TimeEntryApprovals#approveAll} call. When the ring is full,
+ * {@link #clockIn} and {@link #clockOut} wait for space and the {@code try}
+ * variants return false. An event the consumer fails to apply is counted and
+ * skipped; the consumer carries on with the next one.
+ */
+public final class ClockEventPipeline implements AutoCloseable {
+    private static final int MAX_BATCH = 4096;
+    // Set in claimed once the pipeline is closed; the other bits stay the claim count.
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    /** One reusable ring slot; only written between claim and publish. */
+    private static final class Slot {
+        boolean clockIn;
+        Employee employee;
+        Project project;
+        Task task;
+        LocalDateTime time;
+        long publishedAt;
+    }
+
+    /** Counters and latency percentiles; latency runs from publish to approval. */
+    public static final class Stats {
+        private final long processed;
+        private final long batches;
+        private final long approved;
+        private final long unmatchedClockOuts;
+        private final long repeatedClockIns;
+        private final long rejected;
+        private final long failed;
+        private final int openEntries;
+        private final long[] latencyNanos;
+
+        Stats(long processed, long batches, long approved, long unmatchedClockOuts, long repeatedClockIns,
+              long rejected, long failed, int openEntries, long[] latencyNanos) {
+            this.processed = processed;
+            this.batches = batches;
+            this.approved = approved;
+            this.unmatchedClockOuts = unmatchedClockOuts;
+            this.repeatedClockIns = repeatedClockIns;
+            this.rejected = rejected;
+            this.failed = failed;
+            this.openEntries = openEntries;
+            this.latencyNanos = latencyNanos;
+        }
+
+        public long getProcessed() { return processed; }
+        public long getBatches() { return batches; }
+        public long getApproved() { return approved; }
+        public long getUnmatchedClockOuts() { return unmatchedClockOuts; }
+
+        /** Clock-ins for an employee who was already clocked in; the earlier entry stays open. */
+        public long getRepeatedClockIns() { return repeatedClockIns; }
+
+        /** Completed entries that approval rejected. */
+        public long getRejected() { return rejected; }
+
+        /** Events skipped because applying or approving them threw; see {@link #getLastFailure()}. */
+        public long getFailed() { return failed; }
+        public int getOpenEntries() { return openEntries; }
+        public long getP50Nanos() { return latencyNanos[0]; }
+        public long getP99Nanos() { return latencyNanos[1]; }
+        public long getP999Nanos() { return latencyNanos[2]; }
+        public long getMaxNanos() { return latencyNanos[3]; }
+
+        @Override
+        public String toString() {
+            return String.format("Stats{processed=%d, batches=%d, approved=%d, unmatched=%d, repeated=%d, rejected=%d, "
+                    + "failed=%d, open=%d, p50=%dus, p99=%dus, p99.9=%dus, max=%dus}", processed, batches, approved,
+                unmatchedClockOuts, repeatedClockIns, rejected, failed, openEntries, latencyNanos[0] / 1000,
+                latencyNanos[1] / 1000, latencyNanos[2] / 1000, latencyNanos[3] / 1000);
+        }
+    }
+
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final Thread consumer;
+
+    // Owned by the consumer thread.
+    private final Map<Employee, TimeEntry> open = new HashMap<>();
+    private long entrySequence;
+
+    // Written by the consumer, read by getStats().
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private volatile long processed;
+    private volatile long batches;
+    private volatile long approved;
+    private volatile long unmatchedClockOuts;
+    private volatile long repeatedClockIns;
+    private volatile long rejected;
+    private volatile long failed;
+    private volatile RuntimeException lastFailure;
+    private volatile int openEntries;
+
+    /**
+     * @param capacity Number of ring slots; rounded up to a power of two
+     */
+    public ClockEventPipeline(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.ring = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        this.consumer = new Thread(this::consume, "clock-event-consumer");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    public void clockIn(Employee employee, Project project, Task task, LocalDateTime time) {
+        Objects.requireNonNull(project, "Project cannot be null");
+        checkEvent(employee, time);
+        publish(claim(), true, employee, project, task, time);
+    }
+
+    public void clockOut(Employee employee, LocalDateTime time) {
+        checkEvent(employee, time);
+        publish(claim(), false, employee, null, null, time);
+    }
+
+    public boolean tryClockIn(Employee employee, Project project, Task task, LocalDateTime time) {
+        Objects.requireNonNull(project, "Project cannot be null");
+        checkEvent(employee, time);
+        long sequence = tryClaim();
+        if (sequence < 0) {
+            return false;
+        }
+        publish(sequence, true, employee, project, task, time);
+        return true;
+    }
+
+    public boolean tryClockOut(Employee employee, LocalDateTime time) {
+        checkEvent(employee, time);
+        long sequence = tryClaim();
+        if (sequence < 0) {
+            return false;
+        }
+        publish(sequence, false, employee, null, null, time);
+        return true;
+    }
+
+    /**
+     * Checked before claiming: once a sequence is claimed the consumer waits for
+     * it, so publishing must not fail.
+     */
+    private static void checkEvent(Employee employee, LocalDateTime time) {
+        Objects.requireNonNull(employee, "Employee cannot be null");
+        Objects.requireNonNull(time, "Time cannot be null");
+    }
+
+    private long claim() {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            checkOpen(sequence);
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        for (int spins = 0; sequence - consumed.get() >= ring.length; spins++) {
+            idle(spins);
+        }
+        return sequence;
+    }
+
+    private long tryClaim() {
+        while (true) {
+            long sequence = claimed.get();
+            checkOpen(sequence);
+            if (sequence - consumed.get() >= ring.length) {
+                return -1;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    private void publish(long sequence, boolean clockIn, Employee employee, Project project, Task task,
+                         LocalDateTime time) {
+        Slot slot = ring[(int) sequence & mask];
+        slot.clockIn = clockIn;
+        slot.employee = employee;
+        slot.project = project;
+        slot.task = task;
+        slot.time = time;
+        slot.publishedAt = System.nanoTime();
+        published.set((int) sequence & mask, sequence);
+    }
+
+    private void consume() {
+        List<TimeEntry> completed = new ArrayList<>();
+        long[] publishTimes = new long[MAX_BATCH];
+        long next = 0;
+        for (int idle = 0; ; ) {
+            int count = 0;
+            while (count < MAX_BATCH && published.get((int) (next + count) & mask) == next + count) {
+                Slot slot = ring[(int) (next + count) & mask];
+                publishTimes[count] = slot.publishedAt;
+                try {
+                    apply(slot, completed);
+                } catch (RuntimeException e) {
+                    fail(e, 1);
+                }
+                slot.employee = null;
+                slot.project = null;
+                slot.task = null;
+                count++;
+            }
+            if (count == 0) {
+                // Every claim before close is published, so the consumer stops only once all are applied.
+                long state = claimed.get();
+                if (state < 0 && next == (state & ~CLOSED)) {
+                    return;
+                }
+                idle(idle++);
+                continue;
+            }
+            idle = 0;
+            next += count;
+            consumed.set(next);
+            if (!completed.isEmpty()) {
+                try {
+                    ApprovalResult result = TimeEntryApprovals.approveAll(completed);
+                    approved += result.getApproved().size();
+                    rejected += result.getFailures().size();
+                } catch (RuntimeException e) {
+                    fail(e, completed.size());
+                }
+                completed.clear();
+            }
+            long now = System.nanoTime();
+            synchronized (latency) {
+                for (int i = 0; i < count; i++) {
+                    latency.record(now - publishTimes[i]);
+                }
+            }
+            processed += count;
+            batches++;
+            openEntries = open.size();
+        }
+    }
+
+    private void apply(Slot slot, List<TimeEntry> completed) {
+        if (slot.clockIn) {
+            TimeEntry entry = new TimeEntry("CLK-" + (++entrySequence), slot.employee, slot.project, slot.task, slot.time);
+            if (open.putIfAbsent(slot.employee, entry) != null) {
+                repeatedClockIns++;
+            }
+            return;
+        }
+        TimeEntry entry = open.remove(slot.employee);
+        if (entry == null) {
+            unmatchedClockOuts++;
+            return;
+        }
+        try {
+            entry.stopWork(slot.time);
+            completed.add(entry);
+        } catch (IllegalArgumentException e) {
+            // Clock-out before clock-in: drop the pair rather than poison the batch.
+            unmatchedClockOuts++;
+        }
+    }
+
+    private void fail(RuntimeException e, int events) {
+        failed += events;
+        lastFailure = e;
+    }
+
+    private static void idle(int round) {
+        if (round < 100) {
+            Thread.onSpinWait();
+        } else if (round < 200) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(50_000);
+        }
+    }
+
+    private static void checkOpen(long state) {
+        if (state < 0) {
+            throw new IllegalStateException("Pipeline is closed");
+        }
+    }
+
+    /** Waits until every event published so far has been applied. */
+    public void flush() {
+        long target = claimed.get() & ~CLOSED;
+        for (int spins = 0; consumed.get() < target; spins++) {
+            idle(spins);
+        }
+    }
+
+    public Stats getStats() {
+        long[] percentiles;
+        synchronized (latency) {
+            percentiles = new long[] {
+                latency.percentile(50), latency.percentile(99), latency.percentile(99.9), latency.max()
+            };
+        }
+        return new Stats(processed, batches, approved, unmatchedClockOuts, repeatedClockIns, rejected, failed,
+            openEntries, percentiles);
+    }
+
+    /** The most recent exception the consumer caught, or null. */
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Refuses further events, applies every event claimed before that, then stops
+     * the consumer. Open entries stay open. If the calling thread is interrupted
+     * while waiting, it returns early with its interrupt status set.
+     */
+    @Override
+    public void close() {
+        claimed.getAndUpdate(state -> state | CLOSED);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
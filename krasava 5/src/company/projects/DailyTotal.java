@@ -0,0 +1,33 @@
+package company.projects;
+
+import company.empoloyees.Employee;
+
+import java.time.LocalDate;
+
+/** Rolled-up work of one employee on one task and day, see {@link RetentionPolicy}. */
+public final class DailyTotal {
+    private final Employee employee;
+    private final LocalDate date;
+    private final long minutes;
+    private final int entryCount;
+
+    DailyTotal(Employee employee, LocalDate date, long minutes, int entryCount) {
+        this.employee = employee;
+        this.date = date;
+        this.minutes = minutes;
+        this.entryCount = entryCount;
+    }
+
+    public Employee getEmployee() { return employee; }
+    /** Day the rolled-up entries started on. */
+    public LocalDate getDate() { return date; }
+    public long getMinutes() { return minutes; }
+    public double getHours() { return minutes / 60.0; }
+    public int getEntryCount() { return entryCount; }
+
+    @Override
+    public String toString() {
+        return String.format("DailyTotal{employee=%s, date=%s, hours=%.2f, entries=%d}",
+            employee.getEmployeeId(), date, getHours(), entryCount);
+    }
+}
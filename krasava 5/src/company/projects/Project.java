@@ -2,18 +2,21 @@ package company.projects;
 
 import company.empoloyees.Manager;
 import company.empoloyees.Employee;
+import company.util.MembershipSet;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.DoubleAdder;
 
 
 public class Project extends ProjectEntity {
-    private final List<Task> tasks = new ArrayList<>();
-    private final List<Employee> team = new ArrayList<>();
-    private double estimatedHours;
-    private double actualHours;
+    private final List<Task> tasks = new CopyOnWriteArrayList<>();
+    private final MembershipSet<Employee> team = new MembershipSet<>();
+    // Hours are logged by many threads at once; the adder keeps that lock-free.
+    private final DoubleAdder actualHours = new DoubleAdder();
+    private volatile double estimatedHours;
 
     /**
      * Creates a new project with the given details.
@@ -29,7 +32,9 @@ public class Project extends ProjectEntity {
                   LocalDateTime startDate, LocalDateTime dueDate, Manager manager) {
         super(id, title, description, startDate, dueDate, manager);
         if (manager != null) {
-            team.add(manager);
+            synchronized (team) {
+                team.add(manager);
+            }
         }
     }
 
@@ -55,9 +60,17 @@ public class Project extends ProjectEntity {
         }
     }
 
+    /** A new owner joins the team in the same step; the previous owner stays on it. */
+    @Override
+    protected void onOwnerChanged(Employee oldOwner, Employee newOwner) {
+        if (newOwner != null) {
+            addTeamMember(newOwner);
+        }
+    }
+
     void addTeamMember(Employee member) {
         Objects.requireNonNull(member, "Team member cannot be null");
-        if (!team.contains(member)) {
+        synchronized (team) {
             team.add(member);
         }
     }
@@ -65,19 +78,16 @@ public class Project extends ProjectEntity {
     void addTask(Task task) {
         Objects.requireNonNull(task, "Task cannot be null");
         tasks.add(task);
-        if ("NEW".equals(getStatus())) {
-            markInProgress();
-        }
+        startIfNew();
     }
 
     void updateActualHours(double hours) {
         if (hours < 0) {
             throw new IllegalArgumentException("Hours cannot be negative");
         }
-        this.actualHours += hours;
-        if ("NEW".equals(getStatus())) {
-            markInProgress();
-        }
+        actualHours.add(hours);
+        fire(l -> l.onActualHoursAdded(this, hours));
+        startIfNew();
     }
 
     public List<Task> getTasks() {
@@ -85,7 +95,9 @@ public class Project extends ProjectEntity {
     }
 
     public List<Employee> getTeam() {
-        return Collections.unmodifiableList(team);
+        synchronized (team) {
+            return team.snapshot();
+        }
     }
 
     public double getEstimatedHours() {
@@ -96,15 +108,38 @@ public class Project extends ProjectEntity {
         if (hours < 0) {
             throw new IllegalArgumentException("Estimated hours cannot be negative");
         }
+        double oldHours = this.estimatedHours;
         this.estimatedHours = hours;
+        fire(l -> l.onEstimatedHoursChanged(this, oldHours, hours));
     }
 
     public double getActualHours() {
-        return actualHours;
+        return actualHours.sum();
+    }
+
+    /**
+     * Restores state loaded from persistent storage. Unlike {@link #start()} and
+     * friends this skips transition rules, since the state was valid when saved.
+     *
+     * @param status Status name as returned by {@link #getStatus()}
+     * @param estimatedHours Estimated hours
+     * @param actualHours Actual hours logged so far
+     */
+    public void restoreState(String status, double estimatedHours, double actualHours) {
+        restoreStatus(status);
+        if (estimatedHours != this.estimatedHours) {
+            setEstimatedHours(estimatedHours);
+        }
+        double delta = actualHours - this.actualHours.sum();
+        if (delta != 0) {
+            this.actualHours.add(delta);
+            fire(l -> l.onActualHoursAdded(this, delta));
+        }
     }
 
     public double getProgress() {
-        return estimatedHours > 0 ? (actualHours / estimatedHours) * 100 : 0.0;
+        double estimated = estimatedHours;
+        return estimated > 0 ? (actualHours.sum() / estimated) * 100 : 0.0;
     }
 
     public void start() {
@@ -2,17 +2,25 @@ package company.projects;
 
 import company.empoloyees.Employee;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
 public abstract class ProjectEntity {
     protected final String id;
     protected String title;
     protected String description;
     protected LocalDateTime startDate;
     protected LocalDateTime dueDate;
-    protected Employee owner;
+    protected volatile Employee owner;
 
     static enum Status { NEW, IN_PROGRESS, ON_HOLD, COMPLETED, CANCELLED }
 
-    Status status;
+    private static final List<ProjectListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    // Written only under the entity's monitor; volatile so readers need no lock.
+    volatile Status status;
 
     protected ProjectEntity(String id, String title, String description,
                           LocalDateTime startDate, LocalDateTime dueDate,
@@ -38,36 +46,82 @@ public abstract class ProjectEntity {
         }
     }
 
-    protected void markInProgress() {
+    protected synchronized void markInProgress() {
         if (status == Status.NEW || status == Status.ON_HOLD) {
-            status = Status.IN_PROGRESS;
-            onStatusChanged();
+            transitionTo(Status.IN_PROGRESS);
         }
     }
 
-    protected void markOnHold() {
+    protected synchronized void markOnHold() {
         if (status == Status.IN_PROGRESS) {
-            status = Status.ON_HOLD;
-            onStatusChanged();
+            transitionTo(Status.ON_HOLD);
         }
     }
 
-    protected void markCompleted() {
+    protected synchronized void markCompleted() {
         if (status == Status.IN_PROGRESS) {
-            status = Status.COMPLETED;
-            onStatusChanged();
+            transitionTo(Status.COMPLETED);
         }
     }
 
-    protected void markCancelled() {
+    protected synchronized void markCancelled() {
         if (status != Status.COMPLETED) {
-            status = Status.CANCELLED;
-            onStatusChanged();
+            transitionTo(Status.CANCELLED);
+        }
+    }
+
+    /**
+     * Moves a new entity to {@code IN_PROGRESS}; unlike {@link #markInProgress()} it
+     * leaves an entity that is on hold alone. Cheap when the entity has already started.
+     */
+    void startIfNew() {
+        if (status == Status.NEW) {
+            synchronized (this) {
+                if (status == Status.NEW) {
+                    transitionTo(Status.IN_PROGRESS);
+                }
+            }
+        }
+    }
+
+    private void transitionTo(Status newStatus) {
+        Status oldStatus = status;
+        status = newStatus;
+        if (oldStatus != newStatus) {
+            fire(l -> l.onStatusChanged(this, oldStatus.name(), newStatus.name()));
+        }
+        onStatusChanged();
+    }
+
+    /**
+     * Sets the status loaded from persistent storage without running the
+     * transition rules or {@link #onStatusChanged()} side effects.
+     */
+    synchronized void restoreStatus(String statusName) {
+        Status oldStatus = status;
+        status = Status.valueOf(statusName);
+        if (oldStatus != status) {
+            fire(l -> l.onStatusChanged(this, oldStatus.name(), statusName));
         }
     }
 
     protected abstract void onStatusChanged();
 
+    /** Called under the entity's monitor when the owner changes. */
+    protected void onOwnerChanged(Employee oldOwner, Employee newOwner) {}
+
+    public static void addListener(ProjectListener listener) {
+        LISTENERS.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+
+    public static void removeListener(ProjectListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    static void fire(Consumer<ProjectListener> event) {
+        LISTENERS.forEach(event);
+    }
+
     public String getId() { return id; }
     public String getTitle() { return title; }
     public String getDescription() { return description; }
@@ -80,11 +134,26 @@ public abstract class ProjectEntity {
         if (title == null || title.trim().isEmpty()) {
             throw new IllegalArgumentException("Title cannot be null or empty");
         }
+        String oldTitle = this.title;
         this.title = title;
+        if (!oldTitle.equals(title)) {
+            fire(l -> l.onTitleChanged(this, oldTitle, title));
+        }
     }
     public void setDescription(String description) { this.description = description; }
     public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; validateDates(); }
-    public void setOwner(Employee owner) { this.owner = owner; }
+    /**
+     * Reassigns the entity under its monitor, so {@link #onOwnerChanged} side
+     * effects and listeners see the new owner together with them.
+     */
+    public synchronized void setOwner(Employee owner) {
+        Employee oldOwner = this.owner;
+        this.owner = owner;
+        if (oldOwner != owner) {
+            onOwnerChanged(oldOwner, owner);
+            fire(l -> l.onOwnerChanged(this, oldOwner, owner));
+        }
+    }
 
     @Override
     public String toString() {
@@ -0,0 +1,23 @@
+package company.projects;
+
+import company.empoloyees.Employee;
+
+/**
+ * Callback for changes made to {@link ProjectEntity} instances (projects and tasks).
+ * Listeners are registered globally through {@link ProjectEntity#addListener(ProjectListener)}
+ * and are invoked synchronously on the thread that performed the change.
+ */
+public interface ProjectListener {
+
+    default void onOwnerChanged(ProjectEntity entity, Employee oldOwner, Employee newOwner) {}
+
+    default void onStatusChanged(ProjectEntity entity, String oldStatus, String newStatus) {}
+
+    default void onTitleChanged(ProjectEntity entity, String oldTitle, String newTitle) {}
+
+    default void onActualHoursAdded(Project project, double hours) {}
+
+    default void onEstimatedHoursChanged(Project project, double oldHours, double newHours) {}
+
+    default void onTimeEntryApproved(TimeEntry entry) {}
+}
@@ -0,0 +1,68 @@
+package company.projects;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Keeps approved time entries individually for a retention period and rolls
+ * older ones into per-employee daily totals of their task. Task and project
+ * hours are unaffected; {@link Task#getTimeEntries()} and
+ * {@link Task#scanTimeEntries()} then cover the retained entries and
+ * {@link Task#getDailyTotals()} the rolled-up days. Overlap checking forgets
+ * intervals that ended before the cutoff.
+ *
+ * <pre>
+ * RetentionPolicy.keep(Period.ofMonths(3)).apply(tasks);
+ * </pre>
+ */
+public final class RetentionPolicy {
+    private final Period retention;
+
+    private RetentionPolicy(Period retention) {
+        this.retention = retention;
+    }
+
+    /** Keeps entries that started within {@code retention} of the day the policy is applied. */
+    public static RetentionPolicy keep(Period retention) {
+        Objects.requireNonNull(retention, "Retention cannot be null");
+        if (retention.isNegative()) {
+            throw new IllegalArgumentException("Retention cannot be negative");
+        }
+        return new RetentionPolicy(retention);
+    }
+
+    public Period getRetention() {
+        return retention;
+    }
+
+    /** Start of the first retained day when applied on {@code today}. */
+    public LocalDate cutoff(LocalDate today) {
+        return today.minus(retention);
+    }
+
+    public RetentionResult apply(Collection<Task> tasks) {
+        return apply(tasks, LocalDate.now());
+    }
+
+    /** Rolls up approved entries of {@code tasks} that started before {@link #cutoff(LocalDate)}. */
+    public RetentionResult apply(Collection<Task> tasks, LocalDate today) {
+        LocalDateTime cutoff = cutoff(today).atStartOfDay();
+        long cutoffMinute = TimeEntryColumns.toEpochMinute(cutoff);
+        long rolled = 0;
+        long remaining = 0;
+        for (Task task : tasks) {
+            rolled += task.rollUpTimeEntries(cutoffMinute);
+            remaining += task.getTimeEntryCount();
+        }
+        TimeEntryOverlaps.forgetBefore(cutoff);
+        return new RetentionResult(tasks.size(), rolled, remaining);
+    }
+
+    @Override
+    public String toString() {
+        return "RetentionPolicy{keep=" + retention + "}";
+    }
+}
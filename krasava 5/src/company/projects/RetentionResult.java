@@ -0,0 +1,25 @@
+package company.projects;
+
+/** Outcome of {@link RetentionPolicy#apply}. */
+public final class RetentionResult {
+    private final int tasks;
+    private final long rolledEntries;
+    private final long remainingEntries;
+
+    RetentionResult(int tasks, long rolledEntries, long remainingEntries) {
+        this.tasks = tasks;
+        this.rolledEntries = rolledEntries;
+        this.remainingEntries = remainingEntries;
+    }
+
+    public int getTasks() { return tasks; }
+    /** Entries folded into daily totals and released. */
+    public long getRolledEntries() { return rolledEntries; }
+    /** Entries still kept individually across the tasks. */
+    public long getRemainingEntries() { return remainingEntries; }
+
+    @Override
+    public String toString() {
+        return "RetentionResult{tasks=" + tasks + ", rolled=" + rolledEntries + ", remaining=" + remainingEntries + "}";
+    }
+}
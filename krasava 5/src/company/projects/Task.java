@@ -2,28 +2,25 @@ package company.projects;
 
 import company.empoloyees.Employee;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.DoubleAdder;
 
 
 public class Task extends ProjectEntity {
     public enum TaskPriority { LOW, MEDIUM, HIGH, CRITICAL }
 
     private final Project project;
-    private final List<TimeEntry> timeEntries;
-    private double estimatedHours;
-    private double actualHours;
+    private final TimeEntryColumns timeEntries = new TimeEntryColumns();
+    private final DoubleAdder actualHours = new DoubleAdder();
+    private volatile double estimatedHours;
     private TaskPriority priority;
 
     public Task(String id, String title, Project project, Employee assignee, LocalDateTime dueDate) {
         super(id, title, "", LocalDateTime.now(), dueDate, assignee);
         this.project = Objects.requireNonNull(project, "Project cannot be null");
-        this.timeEntries = new ArrayList<>();
         this.priority = TaskPriority.MEDIUM;
         this.estimatedHours = 0;
-        this.actualHours = 0;
     }
 
     @Override
@@ -51,12 +48,22 @@ public class Task extends ProjectEntity {
         if (!entry.getTask().equals(this)) {
             throw new IllegalArgumentException("TimeEntry for different task");
         }
-        timeEntries.add(entry);
-        this.actualHours += entry.getHours();
-        project.updateActualHours(entry.getHours());
-        if ("NEW".equals(getStatus())) {
-            markInProgress();
-        }
+        timeEntries.append(entry);
+        // No lock is held from here on: the project may take its own monitor
+        // and cascade status changes into its tasks.
+        double hours = entry.getHours();
+        actualHours.add(hours);
+        project.updateActualHours(hours);
+        startIfNew();
+    }
+
+    /**
+     * Logs approved entries of this task in one step. The caller adds
+     * {@code hours} to the project and starts the task afterwards.
+     */
+    void logWork(List<TimeEntry> entries, double hours) {
+        timeEntries.appendAll(entries);
+        actualHours.add(hours);
     }
 
     public Project getProject() {
@@ -75,11 +82,40 @@ public class Task extends ProjectEntity {
     }
 
     public double getActualHours() {
-        return actualHours;
+        return actualHours.sum();
     }
 
+    /**
+     * Returns the logged entries as of this call, except those rolled up into
+     * {@link #getDailyTotals()}. These are the approved instances themselves
+     * while they are reachable; one that has been collected is rebuilt from
+     * the columnar history, in full, and reused while it is reachable.
+     */
     public List<TimeEntry> getTimeEntries() {
-        return Collections.unmodifiableList(timeEntries);
+        return timeEntrySnapshot().asList(this);
+    }
+
+    /** Cursor over the logged entries as of this call, for scans that need no {@link TimeEntry} objects. */
+    public TimeEntryCursor scanTimeEntries() {
+        return new TimeEntryCursor(timeEntrySnapshot());
+    }
+
+    TimeEntryColumns.Snapshot timeEntrySnapshot() {
+        return timeEntries.snapshot();
+    }
+
+    /** Number of entries kept individually, not counting rolled-up ones. */
+    public int getTimeEntryCount() {
+        return timeEntries.size();
+    }
+
+    /** Per-employee, per-day totals of entries rolled up by a {@link RetentionPolicy}. */
+    public List<DailyTotal> getDailyTotals() {
+        return timeEntries.dailyTotals();
+    }
+
+    int rollUpTimeEntries(long cutoffMinute) {
+        return timeEntries.rollUpBefore(cutoffMinute);
     }
 
     public TaskPriority getPriority() {
@@ -91,7 +127,8 @@ public class Task extends ProjectEntity {
     }
 
     public double getProgress() {
-        return estimatedHours > 0 ? (actualHours / estimatedHours) * 100 : 0.0;
+        double estimated = estimatedHours;
+        return estimated > 0 ? (actualHours.sum() / estimated) * 100 : 0.0;
     }
 
     public void start() {
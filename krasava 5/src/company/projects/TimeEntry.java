@@ -4,6 +4,7 @@ import company.empoloyees.Employee;
 import java.time.LocalDateTime;
 import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class TimeEntry {
     private final String id;
@@ -11,9 +12,9 @@ public class TimeEntry {
     private final Project project;
     private final Task task;
     private final LocalDateTime startTime;
-    private LocalDateTime endTime;
+    private volatile LocalDateTime endTime;
     private String description;
-    private boolean approved;
+    private final AtomicBoolean approved = new AtomicBoolean();
 
     /**
      * Creates a new time entry.
@@ -34,20 +35,24 @@ public class TimeEntry {
         this.project = project;
         this.task = task;
         this.startTime = startTime;
-        this.approved = false;
     }
 
     /**
      * Records when work ended.
      *
      * @param endTime When work stopped
-     * @throws IllegalArgumentException if end time is before start time
+     * @throws IllegalArgumentException if end time is before start time, or if
+     *         overlap checking rejects it (see {@link TimeEntryOverlaps})
      */
     public void stopWork(LocalDateTime endTime) {
         Objects.requireNonNull(endTime, "End time cannot be null");
         if (endTime.isBefore(startTime)) {
             throw new IllegalArgumentException("End time cannot be before start time");
         }
+        TimeEntryOverlaps.stop(this, endTime);
+    }
+
+    void setEndTime(LocalDateTime endTime) {
         this.endTime = endTime;
     }
 
@@ -78,14 +83,20 @@ public class TimeEntry {
         if (endTime == null) {
             throw new IllegalStateException("Cannot approve without end time");
         }
-        if (!approved) {
-            approved = true;
+        // Exactly one of any number of concurrent callers logs the hours.
+        if (approved.compareAndSet(false, true)) {
             if (task != null) {
                 task.logWork(this);
             }
+            ProjectEntity.fire(l -> l.onTimeEntryApproved(this));
         }
     }
 
+    /** Marks the entry approved without logging it; returns false if it already was. */
+    boolean claimApproval() {
+        return approved.compareAndSet(false, true);
+    }
+
     public String getId() {
         return id;
     }
@@ -115,7 +126,7 @@ public class TimeEntry {
     }
 
     public boolean isApproved() {
-        return approved;
+        return approved.get();
     }
 
     /**
@@ -125,7 +136,7 @@ public class TimeEntry {
      * @throws IllegalStateException if entry is already approved
      */
     public void updateDescription(String desc) {
-        if (!approved) {
+        if (!approved.get()) {
             this.description = desc;
         } else {
             throw new IllegalStateException("Cannot change approved entry");
@@ -135,6 +146,6 @@ public class TimeEntry {
     @Override
     public String toString() {
         return String.format("TimeEntry{id='%s', employee=%s, project=%s, hours=%.2f, approved=%b}",
-            id, employee.getFullName(), project.getTitle(), getHours(), approved);
+            id, employee.getFullName(), project.getTitle(), getHours(), approved.get());
     }
 }
@@ -0,0 +1,93 @@
+package company.projects;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Approves many time entries at once. Entries are validated up front, then
+ * grouped by task and project so that each task and each project receives its
+ * hours in a single update and starts at most once, instead of once per entry.
+ * Every entry is still reported to listeners as approved.
+ */
+public final class TimeEntryApprovals {
+
+    /** Approved entries of one task and the hours they add up to. */
+    private static final class TaskBatch {
+        final List<TimeEntry> entries = new ArrayList<>();
+        double hours;
+    }
+
+    private TimeEntryApprovals() {
+
+    }
+
+    /**
+     * Approves every valid entry in {@code entries}. An entry is rejected if it is
+     * null, has no end time, was already approved, or names a task of a different
+     * project; an entry listed twice is approved once and then rejected as already
+     * approved. Rejections do not affect other entries.
+     */
+    public static ApprovalResult approveAll(List<TimeEntry> entries) {
+        Objects.requireNonNull(entries, "Entries cannot be null");
+        List<ApprovalResult.Failure> failures = new ArrayList<>();
+        List<TimeEntry> approved = new ArrayList<>(entries.size());
+        double[] hours = new double[entries.size()];
+
+        for (int i = 0; i < entries.size(); i++) {
+            TimeEntry entry = entries.get(i);
+            String reason = validate(entry);
+            if (reason != null) {
+                failures.add(new ApprovalResult.Failure(i, entry, reason));
+            } else if (!entry.claimApproval()) {
+                // Approved concurrently, or an earlier occurrence in this batch.
+                failures.add(new ApprovalResult.Failure(i, entry, "Time entry is already approved"));
+            } else {
+                hours[approved.size()] = entry.getHours();
+                approved.add(entry);
+            }
+        }
+
+        Map<Task, TaskBatch> byTask = new HashMap<>();
+        Map<Project, Double> byProject = new HashMap<>();
+        double total = 0;
+        for (int i = 0; i < approved.size(); i++) {
+            Task task = approved.get(i).getTask();
+            if (task == null) {
+                continue;
+            }
+            TaskBatch batch = byTask.computeIfAbsent(task, t -> new TaskBatch());
+            batch.entries.add(approved.get(i));
+            batch.hours += hours[i];
+            byProject.merge(task.getProject(), hours[i], Double::sum);
+            total += hours[i];
+        }
+
+        byTask.forEach((task, batch) -> task.logWork(batch.entries, batch.hours));
+        byProject.forEach(Project::updateActualHours);
+        byTask.keySet().forEach(Task::startIfNew);
+        for (TimeEntry entry : approved) {
+            ProjectEntity.fire(l -> l.onTimeEntryApproved(entry));
+        }
+        return new ApprovalResult(approved, failures, total);
+    }
+
+    private static String validate(TimeEntry entry) {
+        if (entry == null) {
+            return "Time entry cannot be null";
+        }
+        if (entry.getEndTime() == null) {
+            return "Cannot approve without end time";
+        }
+        if (entry.isApproved()) {
+            return "Time entry is already approved";
+        }
+        Task task = entry.getTask();
+        if (task != null && task.getProject() != entry.getProject()) {
+            return "Task " + task.getId() + " belongs to a different project";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,439 @@
+package company.projects;
+
+import company.empoloyees.Employee;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only columnar history of the approved time entries of one task.
+ *
+ * <p>Each row is a start time in epoch seconds and nanoseconds, a duration
+ * in seconds and nanoseconds, a code from this task's employee dictionary,
+ * a code for the id prefix, the numeric id suffix and an approved bit.
+ * Project and task are implied by the owning task. Ids that do not split into
+ * a prefix and a plain number, and descriptions, live in sparse concurrent
+ * side maps that snapshots share. Scans read start and duration in whole
+ * minutes, the unit {@link TimeEntry#getHours()} is computed from.
+ *
+ * <p>Each row also refers weakly to the {@link TimeEntry} it was logged from,
+ * so {@link Task#getTimeEntries()} hands out the same instance for as long as
+ * anyone holds it and rebuilds it only once it has been collected.
+ *
+ * <p>{@link #rollUpBefore} folds old approved rows into per-employee daily
+ * totals (day, employee code, minutes, entry count) and drops them.
+ *
+ * <p>Appends synchronize on the columns object. Readers take a snapshot of the
+ * row count and column arrays under the same lock; rows below the count never
+ * change afterwards, and a roll-up swaps in fresh arrays and maps, so a
+ * snapshot can be read without locking.
+ */
+final class TimeEntryColumns {
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    // Prefix codes are shared by all tasks and never reused.
+    private static final Map<String, Integer> PREFIX_CODES = new ConcurrentHashMap<>();
+    private static volatile String[] prefixes = new String[16];
+
+    // Employee codes belong to this task, so the dictionary goes away with it.
+    private final Map<Employee, Integer> employeeCodeOf = new HashMap<>();
+    private Employee[] employees = new Employee[INITIAL_CAPACITY];
+
+    private int size;
+    private long[] startSeconds = new long[INITIAL_CAPACITY];
+    private int[] startNanos = new int[INITIAL_CAPACITY];
+    private long[] durationSeconds = new long[INITIAL_CAPACITY];
+    private int[] durationNanos = new int[INITIAL_CAPACITY];
+    private int[] employeeCodes = new int[INITIAL_CAPACITY];
+    private int[] prefixCodes = new int[INITIAL_CAPACITY];
+    private int[] idNumbers = new int[INITIAL_CAPACITY];
+    private long[] approvedBits = new long[1];
+    private Map<Integer, String> irregularIds;
+    private Map<Integer, String> descriptions;
+    private WeakReference<?>[] instances = new WeakReference<?>[INITIAL_CAPACITY];
+    // Bumped by each roll-up, which renumbers the rows.
+    private int generation;
+
+    // Daily totals ordered by day, then employee code; replaced wholesale on roll-up.
+    private int totalsSize;
+    private int[] totalDays = new int[0];
+    private int[] totalEmployees = new int[0];
+    private long[] totalMinutes = new long[0];
+    private int[] totalCounts = new int[0];
+
+    synchronized void append(TimeEntry entry) {
+        ensureCapacity(size + 1);
+        write(size, entry);
+        size++;
+    }
+
+    synchronized void appendAll(List<TimeEntry> entries) {
+        ensureCapacity(size + entries.size());
+        for (TimeEntry entry : entries) {
+            write(size, entry);
+            size++;
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /** Read-only view of the rows appended so far. */
+    synchronized Snapshot snapshot() {
+        return new Snapshot(this, generation, size, startSeconds, startNanos, durationSeconds, durationNanos,
+            employeeCodes, employees, prefixCodes, idNumbers, approvedBits,
+            irregularIds == null ? Map.of() : irregularIds, descriptions == null ? Map.of() : descriptions);
+    }
+
+    /**
+     * The instance row {@code row} of {@code rows} was logged from, or one
+     * rebuilt from the columns if that has been collected. The rebuilt one is
+     * kept in its place while it is reachable.
+     */
+    synchronized TimeEntry instance(Snapshot rows, int row, Task task) {
+        if (rows.generation != generation) {
+            // Rolled up since the snapshot was taken: the row may be gone from the columns.
+            return rows.materialize(row, task);
+        }
+        TimeEntry entry = instances[row] == null ? null : (TimeEntry) instances[row].get();
+        if (entry == null) {
+            entry = rows.materialize(row, task);
+            instances[row] = new WeakReference<>(entry);
+        }
+        return entry;
+    }
+
+    synchronized List<DailyTotal> dailyTotals() {
+        List<DailyTotal> totals = new ArrayList<>(totalsSize);
+        for (int i = 0; i < totalsSize; i++) {
+            totals.add(new DailyTotal(employees[totalEmployees[i]], LocalDate.ofEpochDay(totalDays[i]),
+                totalMinutes[i], totalCounts[i]));
+        }
+        return totals;
+    }
+
+    /**
+     * Folds approved rows that start before {@code cutoffMinute} into the daily
+     * totals of their start day and drops them, keeping the order of the rest.
+     *
+     * @return Number of rows rolled up
+     */
+    synchronized int rollUpBefore(long cutoffMinute) {
+        int rolled = 0;
+        for (int row = 0; row < size; row++) {
+            if (rollsUp(row, cutoffMinute)) {
+                rolled++;
+            }
+        }
+        if (rolled == 0) {
+            return 0;
+        }
+
+        // Keyed by day in the high half and employee code in the low half, so keys sort by day first.
+        Map<Long, long[]> totals = new HashMap<>();
+        for (int i = 0; i < totalsSize; i++) {
+            totals.put(dayKey(totalDays[i], totalEmployees[i]), new long[] {totalMinutes[i], totalCounts[i]});
+        }
+        int kept = size - rolled;
+        int capacity = Math.max(INITIAL_CAPACITY, kept);
+        long[] keptStartSeconds = new long[capacity];
+        int[] keptStartNanos = new int[capacity];
+        long[] keptDurationSeconds = new long[capacity];
+        int[] keptDurationNanos = new int[capacity];
+        int[] keptEmployees = new int[capacity];
+        int[] keptPrefixes = new int[capacity];
+        int[] keptNumbers = new int[capacity];
+        long[] keptApproved = new long[(capacity + 63) >>> 6];
+        Map<Integer, String> keptIds = irregularIds == null ? null : new ConcurrentHashMap<>();
+        Map<Integer, String> keptDescriptions = descriptions == null ? null : new ConcurrentHashMap<>();
+        WeakReference<?>[] keptInstances = new WeakReference<?>[capacity];
+        int next = 0;
+        for (int row = 0; row < size; row++) {
+            if (rollsUp(row, cutoffMinute)) {
+                long[] total = totals.computeIfAbsent(
+                    dayKey(Math.floorDiv(startMinute(row), MINUTES_PER_DAY), employeeCodes[row]), k -> new long[2]);
+                total[0] += durationSeconds[row] / 60;
+                total[1]++;
+                continue;
+            }
+            keptStartSeconds[next] = startSeconds[row];
+            keptStartNanos[next] = startNanos[row];
+            keptDurationSeconds[next] = durationSeconds[row];
+            keptDurationNanos[next] = durationNanos[row];
+            keptInstances[next] = instances[row];
+            keptEmployees[next] = employeeCodes[row];
+            keptPrefixes[next] = prefixCodes[row];
+            keptNumbers[next] = idNumbers[row];
+            if ((approvedBits[row >>> 6] & (1L << row)) != 0) {
+                keptApproved[next >>> 6] |= 1L << next;
+            }
+            if (keptIds != null && irregularIds.containsKey(row)) {
+                keptIds.put(next, irregularIds.get(row));
+            }
+            if (keptDescriptions != null && descriptions.containsKey(row)) {
+                keptDescriptions.put(next, descriptions.get(row));
+            }
+            next++;
+        }
+        startSeconds = keptStartSeconds;
+        startNanos = keptStartNanos;
+        durationSeconds = keptDurationSeconds;
+        durationNanos = keptDurationNanos;
+        instances = keptInstances;
+        generation++;
+        employeeCodes = keptEmployees;
+        prefixCodes = keptPrefixes;
+        idNumbers = keptNumbers;
+        approvedBits = keptApproved;
+        irregularIds = keptIds;
+        descriptions = keptDescriptions;
+        size = kept;
+
+        long[] keys = totals.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        totalDays = new int[keys.length];
+        totalEmployees = new int[keys.length];
+        totalMinutes = new long[keys.length];
+        totalCounts = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            long[] total = totals.get(keys[i]);
+            totalDays[i] = (int) (keys[i] >> 32);
+            totalEmployees[i] = (int) keys[i];
+            totalMinutes[i] = total[0];
+            totalCounts[i] = (int) total[1];
+        }
+        totalsSize = keys.length;
+        return rolled;
+    }
+
+    private boolean rollsUp(int row, long cutoffMinute) {
+        return startMinute(row) < cutoffMinute && (approvedBits[row >>> 6] & (1L << row)) != 0;
+    }
+
+    private long startMinute(int row) {
+        return Math.floorDiv(startSeconds[row], 60);
+    }
+
+    private static long dayKey(long epochDay, int employeeCode) {
+        return epochDay << 32 | employeeCode;
+    }
+
+    private void write(int row, TimeEntry entry) {
+        LocalDateTime start = entry.getStartTime();
+        Duration duration = entry.getDuration();
+        startSeconds[row] = start.toEpochSecond(ZoneOffset.UTC);
+        startNanos[row] = start.getNano();
+        durationSeconds[row] = duration.getSeconds();
+        durationNanos[row] = duration.getNano();
+        employeeCodes[row] = employeeCode(entry.getEmployee());
+        instances[row] = new WeakReference<>(entry);
+        String id = entry.getId();
+        int split = numericSuffixStart(id);
+        if (split >= 0) {
+            prefixCodes[row] = prefixCode(id.substring(0, split));
+            idNumbers[row] = Integer.parseInt(id, split, id.length(), 10);
+        } else {
+            prefixCodes[row] = -1;
+            if (irregularIds == null) {
+                irregularIds = new ConcurrentHashMap<>();
+            }
+            irregularIds.put(row, id);
+        }
+        if (entry.isApproved()) {
+            approvedBits[row >>> 6] |= 1L << row;
+        }
+        if (entry.getDescription() != null) {
+            if (descriptions == null) {
+                descriptions = new ConcurrentHashMap<>();
+            }
+            descriptions.put(row, entry.getDescription());
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= startSeconds.length) {
+            return;
+        }
+        int capacity = Math.max(needed, startSeconds.length + (startSeconds.length >> 1));
+        // Fresh arrays: snapshots keep reading the old ones.
+        startSeconds = Arrays.copyOf(startSeconds, capacity);
+        startNanos = Arrays.copyOf(startNanos, capacity);
+        durationSeconds = Arrays.copyOf(durationSeconds, capacity);
+        durationNanos = Arrays.copyOf(durationNanos, capacity);
+        instances = Arrays.copyOf(instances, capacity);
+        employeeCodes = Arrays.copyOf(employeeCodes, capacity);
+        prefixCodes = Arrays.copyOf(prefixCodes, capacity);
+        idNumbers = Arrays.copyOf(idNumbers, capacity);
+        approvedBits = Arrays.copyOf(approvedBits, (capacity + 63) >>> 6);
+    }
+
+    /** Index where a plain decimal int suffix starts, or -1 if the id has none. */
+    private static int numericSuffixStart(String id) {
+        int i = id.length();
+        while (i > 0 && Character.isDigit(id.charAt(i - 1)) && id.charAt(i - 1) < 128) {
+            i--;
+        }
+        int digits = id.length() - i;
+        if (digits == 0 || digits > 9 || (digits > 1 && id.charAt(i) == '0')) {
+            return -1;
+        }
+        return i;
+    }
+
+    static long toEpochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    static LocalDateTime fromEpochMinute(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private int employeeCode(Employee employee) {
+        Integer code = employeeCodeOf.get(employee);
+        if (code != null) {
+            return code;
+        }
+        int next = employeeCodeOf.size();
+        if (next == employees.length) {
+            // Fresh array: snapshots keep reading the old one.
+            employees = Arrays.copyOf(employees, next * 2);
+        }
+        employees[next] = employee;
+        employeeCodeOf.put(employee, next);
+        return next;
+    }
+
+    private static int prefixCode(String prefix) {
+        Integer code = PREFIX_CODES.get(prefix);
+        return code != null ? code : assignPrefixCode(prefix);
+    }
+
+    private static synchronized int assignPrefixCode(String prefix) {
+        Integer code = PREFIX_CODES.get(prefix);
+        if (code != null) {
+            return code;
+        }
+        int next = PREFIX_CODES.size();
+        String[] table = prefixes;
+        if (next == table.length) {
+            table = Arrays.copyOf(table, next * 2);
+        }
+        table[next] = prefix;
+        prefixes = table;
+        PREFIX_CODES.put(prefix, next);
+        return next;
+    }
+
+    /** Immutable view of the first {@code size} rows. */
+    static final class Snapshot {
+        private final TimeEntryColumns columns;
+        private final int generation;
+        final int size;
+        private final long[] startSeconds;
+        private final int[] startNanos;
+        private final long[] durationSeconds;
+        private final int[] durationNanos;
+        final int[] employeeCodes;
+        final Employee[] employees;
+        private final int[] prefixCodes;
+        private final int[] idNumbers;
+        private final long[] approvedBits;
+        private final Map<Integer, String> irregularIds;
+        private final Map<Integer, String> descriptions;
+
+        private Snapshot(TimeEntryColumns columns, int generation, int size, long[] startSeconds, int[] startNanos,
+                         long[] durationSeconds, int[] durationNanos, int[] employeeCodes, Employee[] employees,
+                         int[] prefixCodes, int[] idNumbers, long[] approvedBits, Map<Integer, String> irregularIds,
+                         Map<Integer, String> descriptions) {
+            this.columns = columns;
+            this.generation = generation;
+            this.size = size;
+            this.startSeconds = startSeconds;
+            this.startNanos = startNanos;
+            this.durationSeconds = durationSeconds;
+            this.durationNanos = durationNanos;
+            this.employeeCodes = employeeCodes;
+            this.employees = employees;
+            this.prefixCodes = prefixCodes;
+            this.idNumbers = idNumbers;
+            this.approvedBits = approvedBits;
+            this.irregularIds = irregularIds;
+            this.descriptions = descriptions;
+        }
+
+        Employee employee(int row) {
+            return employees[employeeCodes[row]];
+        }
+
+        long startMinute(int row) {
+            return Math.floorDiv(startSeconds[row], 60);
+        }
+
+        /** Whole minutes worked, as {@link TimeEntry#getHours()} counts them. */
+        long minutes(int row) {
+            return durationSeconds[row] / 60;
+        }
+
+        LocalDateTime startTime(int row) {
+            return LocalDateTime.ofEpochSecond(startSeconds[row], startNanos[row], ZoneOffset.UTC);
+        }
+
+        LocalDateTime endTime(int row) {
+            return startTime(row).plusSeconds(durationSeconds[row]).plusNanos(durationNanos[row]);
+        }
+
+        String id(int row) {
+            int prefix = prefixCodes[row];
+            return prefix < 0 ? irregularIds.get(row) : prefixes[prefix] + idNumbers[row];
+        }
+
+        boolean approved(int row) {
+            return (approvedBits[row >>> 6] & (1L << row)) != 0;
+        }
+
+        String description(int row) {
+            return descriptions.get(row);
+        }
+
+        /** Rebuilds row {@code row} as a standalone approved entry. */
+        TimeEntry materialize(int row, Task task) {
+            TimeEntry entry = new TimeEntry(id(row), employee(row), task.getProject(), task, startTime(row));
+            entry.updateDescription(description(row));
+            // Not stopWork: a read must not go through overlap checking again.
+            entry.setEndTime(endTime(row));
+            if (approved(row)) {
+                entry.claimApproval();
+            }
+            return entry;
+        }
+
+        /** The logged instances of these rows, see {@link TimeEntryColumns#instance}. */
+        List<TimeEntry> asList(Task task) {
+            return new AbstractList<>() {
+                @Override
+                public TimeEntry get(int index) {
+                    if (index < 0 || index >= size) {
+                        throw new IndexOutOfBoundsException(index);
+                    }
+                    return columns.instance(Snapshot.this, index, task);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+}
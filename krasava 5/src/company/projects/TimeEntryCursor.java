@@ -0,0 +1,105 @@
+package company.projects;
+
+import company.empoloyees.Employee;
+
+import java.time.LocalDateTime;
+
+/**
+ * Forward-only cursor over the logged time entries of a task, reading the
+ * columnar history directly. Scanning allocates nothing unless a caller asks
+ * for an id, a description or a {@link LocalDateTime}.
+ *
+ * <pre>
+ * TimeEntryCursor c = task.scanTimeEntries();
+ * while (c.next()) {
+ *     total.merge(c.getEmployee(), c.getHours(), Double::sum);
+ * }
+ * </pre>
+ */
+public final class TimeEntryCursor {
+    private final TimeEntryColumns.Snapshot rows;
+    private final int start;
+    private final int end;
+    private int row;
+
+    TimeEntryCursor(TimeEntryColumns.Snapshot rows) {
+        this(rows, 0, rows.size);
+    }
+
+    private TimeEntryCursor(TimeEntryColumns.Snapshot rows, int from, int to) {
+        this.rows = rows;
+        this.start = from;
+        this.end = to;
+        this.row = from - 1;
+    }
+
+    /** Moves to the next entry; returns false once all entries have been visited. */
+    public boolean next() {
+        if (row + 1 >= end) {
+            return false;
+        }
+        row++;
+        return true;
+    }
+
+    /** Number of entries in the history this cursor was taken from. */
+    public int size() {
+        return rows.size;
+    }
+
+    /**
+     * New cursor over entries {@code from} (inclusive) to {@code to} (exclusive) of
+     * the same point-in-time history, for splitting a scan across threads.
+     */
+    public TimeEntryCursor slice(int from, int to) {
+        if (from < 0 || to > rows.size || from > to) {
+            throw new IndexOutOfBoundsException("Slice [" + from + ", " + to + ") of " + rows.size);
+        }
+        return new TimeEntryCursor(rows, from, to);
+    }
+
+    public String getId() {
+        return rows.id(row());
+    }
+
+    public Employee getEmployee() {
+        return rows.employee(row());
+    }
+
+    /** Start time as minutes since 1970-01-01T00:00. */
+    public long getStartEpochMinute() {
+        return rows.startMinute(row());
+    }
+
+    /** Whole minutes worked, as {@link TimeEntry#getHours()} counts them. */
+    public long getMinutes() {
+        return rows.minutes(row());
+    }
+
+    public double getHours() {
+        return rows.minutes(row()) / 60.0;
+    }
+
+    public LocalDateTime getStartTime() {
+        return rows.startTime(row());
+    }
+
+    public LocalDateTime getEndTime() {
+        return rows.endTime(row());
+    }
+
+    public String getDescription() {
+        return rows.description(row());
+    }
+
+    public boolean isApproved() {
+        return rows.approved(row());
+    }
+
+    private int row() {
+        if (row < start) {
+            throw new IllegalStateException("Call next() first");
+        }
+        return row;
+    }
+}
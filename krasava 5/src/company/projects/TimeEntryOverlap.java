@@ -0,0 +1,44 @@
+package company.projects;
+
+import company.empoloyees.Employee;
+
+import java.time.LocalDateTime;
+
+/**
+ * Two time entries of one employee whose intervals intersect. Intervals are
+ * half-open, so an entry ending when the next one starts does not overlap it.
+ */
+public final class TimeEntryOverlap {
+    private final Employee employee;
+    private final String entryId;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final String conflictingId;
+    private final LocalDateTime conflictingStart;
+    private final LocalDateTime conflictingEnd;
+
+    TimeEntryOverlap(Employee employee, String entryId, LocalDateTime start, LocalDateTime end,
+                     String conflictingId, LocalDateTime conflictingStart, LocalDateTime conflictingEnd) {
+        this.employee = employee;
+        this.entryId = entryId;
+        this.start = start;
+        this.end = end;
+        this.conflictingId = conflictingId;
+        this.conflictingStart = conflictingStart;
+        this.conflictingEnd = conflictingEnd;
+    }
+
+    public Employee getEmployee() { return employee; }
+    public String getEntryId() { return entryId; }
+    public LocalDateTime getStart() { return start; }
+    public LocalDateTime getEnd() { return end; }
+    public String getConflictingId() { return conflictingId; }
+    public LocalDateTime getConflictingStart() { return conflictingStart; }
+    public LocalDateTime getConflictingEnd() { return conflictingEnd; }
+
+    @Override
+    public String toString() {
+        return String.format("TimeEntryOverlap{employee=%s, entry=%s [%s, %s), conflicting=%s [%s, %s)}",
+            employee.getEmployeeId(), entryId, start, end, conflictingId, conflictingStart, conflictingEnd);
+    }
+}
@@ -0,0 +1,322 @@
+package company.projects;
+
+import company.empoloyees.Employee;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Detects overlapping time entries of the same employee.
+ *
+ * <p>Outside {@link Mode#OFF}, {@link TimeEntry#stopWork} checks the new
+ * interval against a per-employee index of accepted intervals ordered by start
+ * time, which takes O(log n). {@link Mode#REJECT} refuses an overlapping end
+ * time; {@link Mode#FLAG} accepts it and records the overlap for
+ * {@link #drainFlagged()}. Flagged entries are left out of the index, so it
+ * always holds disjoint intervals. The index only knows entries stopped
+ * while checking was on; {@link #index} seeds it with earlier ones. It keeps
+ * each entry's ID and bounds rather than the entry itself, so entries can be
+ * collected; {@link #forgetBefore} drops old intervals.
+ *
+ * <p>{@link #scanEntries} and {@link #scanTasks} find overlaps in historical
+ * data with one sort and a sweep per employee instead of comparing pairs.
+ */
+public final class TimeEntryOverlaps {
+    public enum Mode { OFF, FLAG, REJECT }
+
+    private static volatile Mode mode = Mode.OFF;
+    private static final Map<Employee, TreeMap<LocalDateTime, Interval>> INDEX = new ConcurrentHashMap<>();
+    private static final ConcurrentLinkedQueue<TimeEntryOverlap> FLAGGED = new ConcurrentLinkedQueue<>();
+
+    /** What the index keeps of an accepted entry. */
+    private static final class Interval {
+        final String id;
+        final LocalDateTime start;
+        final LocalDateTime end;
+
+        Interval(TimeEntry entry, LocalDateTime end) {
+            this.id = entry.getId();
+            this.start = entry.getStartTime();
+            this.end = end;
+        }
+
+        boolean isOf(TimeEntry entry) {
+            return id.equals(entry.getId()) && start.equals(entry.getStartTime());
+        }
+    }
+
+    private TimeEntryOverlaps() {
+
+    }
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    /** Switches checking on or off; switching to {@link Mode#OFF} also clears the index. */
+    public static void setMode(Mode newMode) {
+        mode = Objects.requireNonNull(newMode, "Mode cannot be null");
+        if (newMode == Mode.OFF) {
+            INDEX.clear();
+        }
+    }
+
+    /**
+     * Adds already stopped entries to the index without checking them. Overlapping
+     * entries are skipped; run {@link #scanEntries} first to find them.
+     */
+    public static void index(Collection<TimeEntry> entries) {
+        for (TimeEntry entry : entries) {
+            if (entry.getEndTime() != null) {
+                TreeMap<LocalDateTime, Interval> intervals = intervalsOf(entry.getEmployee());
+                synchronized (intervals) {
+                    if (findConflict(intervals, entry, entry.getEndTime()) == null) {
+                        insert(intervals, entry, entry.getEndTime());
+                    }
+                }
+            }
+        }
+    }
+
+    /** Drops indexed intervals that ended at or before {@code cutoff}, for retention. */
+    public static void forgetBefore(LocalDateTime cutoff) {
+        for (TreeMap<LocalDateTime, Interval> intervals : INDEX.values()) {
+            synchronized (intervals) {
+                intervals.headMap(cutoff, false).values().removeIf(interval -> !interval.end.isAfter(cutoff));
+            }
+        }
+    }
+
+    /** Removes and returns the overlaps recorded in {@link Mode#FLAG} so far. */
+    public static List<TimeEntryOverlap> drainFlagged() {
+        List<TimeEntryOverlap> drained = new ArrayList<>();
+        for (TimeEntryOverlap overlap; (overlap = FLAGGED.poll()) != null; ) {
+            drained.add(overlap);
+        }
+        return drained;
+    }
+
+    /**
+     * Sets the end time of {@code entry} if checking allows it; called by
+     * {@link TimeEntry#stopWork} with the end time already validated.
+     */
+    static void stop(TimeEntry entry, LocalDateTime endTime) {
+        Mode current = mode;
+        if (current == Mode.OFF) {
+            entry.setEndTime(endTime);
+            return;
+        }
+        TreeMap<LocalDateTime, Interval> intervals = intervalsOf(entry.getEmployee());
+        Interval conflict;
+        synchronized (intervals) {
+            // Stopping again replaces the entry's previous interval.
+            Interval previous = intervals.get(entry.getStartTime());
+            if (previous != null && previous.isOf(entry)) {
+                intervals.remove(entry.getStartTime());
+            }
+            conflict = findConflict(intervals, entry, endTime);
+            if (conflict == null) {
+                entry.setEndTime(endTime);
+                insert(intervals, entry, endTime);
+                return;
+            }
+            if (current == Mode.REJECT) {
+                if (entry.getEndTime() != null) {
+                    insert(intervals, entry, entry.getEndTime());
+                }
+                throw new IllegalArgumentException("Time entry " + entry.getId() + " overlaps " + conflict.id);
+            }
+            entry.setEndTime(endTime);
+        }
+        FLAGGED.add(overlap(entry, conflict));
+    }
+
+    private static TreeMap<LocalDateTime, Interval> intervalsOf(Employee employee) {
+        return INDEX.computeIfAbsent(employee, e -> new TreeMap<>());
+    }
+
+    /** Any indexed entry intersecting [start, end) of {@code entry}; the index is disjoint, so two neighbours suffice. */
+    private static Interval findConflict(TreeMap<LocalDateTime, Interval> intervals, TimeEntry entry,
+                                         LocalDateTime end) {
+        LocalDateTime start = entry.getStartTime();
+        if (!start.isBefore(end)) {
+            return null;
+        }
+        Map.Entry<LocalDateTime, Interval> before = intervals.floorEntry(start);
+        if (before != null && before.getValue().end.isAfter(start)) {
+            return before.getValue();
+        }
+        Map.Entry<LocalDateTime, Interval> after = intervals.higherEntry(start);
+        if (after != null && after.getKey().isBefore(end)) {
+            return after.getValue();
+        }
+        return null;
+    }
+
+    private static void insert(TreeMap<LocalDateTime, Interval> intervals, TimeEntry entry, LocalDateTime end) {
+        // Empty intervals cannot overlap anything and would collide on their start.
+        if (entry.getStartTime().isBefore(end)) {
+            intervals.put(entry.getStartTime(), new Interval(entry, end));
+        }
+    }
+
+    private static TimeEntryOverlap overlap(TimeEntry entry, Interval conflict) {
+        return new TimeEntryOverlap(entry.getEmployee(), entry.getId(), entry.getStartTime(), entry.getEndTime(),
+            conflict.id, conflict.start, conflict.end);
+    }
+
+    private static TimeEntryOverlap overlap(TimeEntry entry, TimeEntry conflict) {
+        return new TimeEntryOverlap(entry.getEmployee(), entry.getId(), entry.getStartTime(), entry.getEndTime(),
+            conflict.getId(), conflict.getStartTime(), conflict.getEndTime());
+    }
+
+    /**
+     * Finds every stopped entry in {@code entries} that starts before an earlier-starting
+     * entry of the same employee has ended. Each such entry is reported once, against
+     * the overlapping entry that ends last. Unstopped entries are ignored.
+     */
+    public static List<TimeEntryOverlap> scanEntries(Collection<TimeEntry> entries) {
+        Map<Employee, List<TimeEntry>> byEmployee = new HashMap<>();
+        for (TimeEntry entry : entries) {
+            if (entry.getEndTime() != null) {
+                byEmployee.computeIfAbsent(entry.getEmployee(), e -> new ArrayList<>()).add(entry);
+            }
+        }
+        Comparator<TimeEntry> byStart = Comparator.comparing(TimeEntry::getStartTime);
+        List<TimeEntryOverlap> overlaps = new ArrayList<>();
+        for (List<TimeEntry> own : byEmployee.values()) {
+            own.sort(byStart);
+            TimeEntry latest = null;
+            for (TimeEntry entry : own) {
+                if (latest != null && entry.getStartTime().isBefore(latest.getEndTime())
+                        && entry.getStartTime().isBefore(entry.getEndTime())) {
+                    overlaps.add(overlap(entry, latest));
+                }
+                if (latest == null || entry.getEndTime().isAfter(latest.getEndTime())) {
+                    latest = entry;
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    /**
+     * Same as {@link #scanEntries} over the logged history of {@code tasks}, read
+     * through {@link TimeEntryCursor}s at minute precision. Only the reported
+     * overlaps allocate per entry.
+     */
+    public static List<TimeEntryOverlap> scanTasks(Collection<Task> tasks) {
+        // Employee codes are per task; give each employee one code for the whole scan.
+        List<TimeEntryColumns.Snapshot> snapshots = new ArrayList<>(tasks.size());
+        List<int[]> codeMaps = new ArrayList<>(tasks.size());
+        Map<Employee, Integer> codeOf = new HashMap<>();
+        List<Employee> employees = new ArrayList<>();
+        int total = 0;
+        for (Task task : tasks) {
+            TimeEntryColumns.Snapshot rows = task.timeEntrySnapshot();
+            int[] codeMap = new int[rows.employees.length];
+            for (int code = 0; code < codeMap.length && rows.employees[code] != null; code++) {
+                Employee employee = rows.employees[code];
+                codeMap[code] = codeOf.computeIfAbsent(employee, e -> {
+                    employees.add(e);
+                    return employees.size() - 1;
+                });
+            }
+            snapshots.add(rows);
+            codeMaps.add(codeMap);
+            total += rows.size;
+        }
+        int codes = employees.size();
+
+        // Flatten: row references hold the snapshot position in the high half, the row in the low half.
+        long[] refs = new long[total];
+        long[] starts = new long[total];
+        long[] ends = new long[total];
+        int[] owners = new int[total];
+        int[] offsets = new int[codes + 1];
+        long minStart = Long.MAX_VALUE;
+        long maxStart = Long.MIN_VALUE;
+        int next = 0;
+        for (int t = 0; t < snapshots.size(); t++) {
+            TimeEntryColumns.Snapshot rows = snapshots.get(t);
+            int[] codeMap = codeMaps.get(t);
+            for (int row = 0; row < rows.size; row++, next++) {
+                refs[next] = (long) t << 32 | row;
+                starts[next] = rows.startMinute(row);
+                ends[next] = starts[next] + rows.minutes(row);
+                owners[next] = codeMap[rows.employeeCodes[row]];
+                offsets[owners[next] + 1]++;
+                minStart = Math.min(minStart, starts[next]);
+                maxStart = Math.max(maxStart, starts[next]);
+            }
+        }
+
+        // Group by employee code, then sort each group by start minute with the
+        // row index as tiebreak. When all starts lie within 2^31 minutes of each
+        // other the offset from the earliest fills the high half of a sort key
+        // and the index the low half; otherwise indexes are sorted by comparator.
+        for (int c = 0; c < codes; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        boolean packed = total == 0 || maxStart - minStart <= Integer.MAX_VALUE;
+        int[] order = new int[total];
+        int[] fill = Arrays.copyOf(offsets, codes);
+        for (int i = 0; i < total; i++) {
+            order[fill[owners[i]]++] = i;
+        }
+        long[] keys = packed ? new long[total] : null;
+        for (int c = 0; c < codes; c++) {
+            if (packed) {
+                for (int k = offsets[c]; k < offsets[c + 1]; k++) {
+                    keys[k] = (starts[order[k]] - minStart) << 32 | order[k];
+                }
+                Arrays.sort(keys, offsets[c], offsets[c + 1]);
+                for (int k = offsets[c]; k < offsets[c + 1]; k++) {
+                    order[k] = (int) keys[k];
+                }
+            } else {
+                Integer[] group = new Integer[offsets[c + 1] - offsets[c]];
+                for (int k = 0; k < group.length; k++) {
+                    group[k] = order[offsets[c] + k];
+                }
+                Arrays.sort(group, Comparator.<Integer>comparingLong(i -> starts[i]).thenComparingInt(i -> i));
+                for (int k = 0; k < group.length; k++) {
+                    order[offsets[c] + k] = group[k];
+                }
+            }
+        }
+
+        List<TimeEntryOverlap> overlaps = new ArrayList<>();
+        for (int c = 0; c < codes; c++) {
+            int latest = -1;
+            for (int k = offsets[c]; k < offsets[c + 1]; k++) {
+                int i = order[k];
+                if (latest >= 0 && starts[i] < ends[latest] && starts[i] < ends[i]) {
+                    overlaps.add(new TimeEntryOverlap(employees.get(c),
+                        idOf(snapshots, refs[i]), TimeEntryColumns.fromEpochMinute(starts[i]),
+                        TimeEntryColumns.fromEpochMinute(ends[i]),
+                        idOf(snapshots, refs[latest]), TimeEntryColumns.fromEpochMinute(starts[latest]),
+                        TimeEntryColumns.fromEpochMinute(ends[latest])));
+                }
+                if (latest < 0 || ends[i] > ends[latest]) {
+                    latest = i;
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    private static String idOf(List<TimeEntryColumns.Snapshot> snapshots, long ref) {
+        return snapshots.get((int) (ref >>> 32)).id((int) ref);
+    }
+}
@@ -0,0 +1,111 @@
+package company.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Validates and publishes a batch of entities in parallel. The same steps
+ * apply to employees and projects; only the key and the store operations differ.
+ *
+ * <p>In {@link BatchResult.Mode#ROLLBACK_ON_FAILURE} a batch that fails validation
+ * publishes nothing. If a concurrent writer takes one of the IDs after
+ * validation, the items already inserted are removed again, so concurrent
+ * readers may briefly observe part of such a batch.
+ */
+final class BatchRegistration<T> {
+    private final String entityName;
+    private final Function<T, String> idOf;
+    private final Predicate<String> exists;
+    private final Predicate<T> insertIfAbsent;
+    private final Predicate<T> remove;
+
+    /**
+     * @param insertIfAbsent registers the item unless its ID is taken; returns whether it did
+     * @param remove removes a previously inserted item; used to roll back
+     */
+    BatchRegistration(String entityName, Function<T, String> idOf, Predicate<String> exists,
+                      Predicate<T> insertIfAbsent, Predicate<T> remove) {
+        this.entityName = entityName;
+        this.idOf = idOf;
+        this.exists = exists;
+        this.insertIfAbsent = insertIfAbsent;
+        this.remove = remove;
+    }
+
+    BatchResult<T> register(Collection<T> batch, BatchResult.Mode mode) {
+        @SuppressWarnings("unchecked")
+        T[] items = (T[]) batch.toArray();
+        String[] rejected = new String[items.length];
+
+        // One parallel pass: null checks, store lookups, and the lowest index per ID.
+        Map<String, Integer> firstIndex = new ConcurrentHashMap<>(Math.max(16, items.length * 4 / 3));
+        IntStream.range(0, items.length).parallel().forEach(i -> {
+            T item = items[i];
+            if (item == null) {
+                rejected[i] = entityName + " cannot be null";
+                return;
+            }
+            String id = idOf.apply(item);
+            if (exists.test(id)) {
+                rejected[i] = entityName + " with ID " + id + " already exists";
+            }
+            firstIndex.merge(id, i, Math::min);
+        });
+        IntStream.range(0, items.length).parallel().forEach(i -> {
+            if (items[i] != null && firstIndex.get(idOf.apply(items[i])) != i && rejected[i] == null) {
+                rejected[i] = "Duplicate " + entityName + " ID " + idOf.apply(items[i]) + " within batch";
+            }
+        });
+
+        boolean anyRejected = Arrays.stream(rejected).anyMatch(r -> r != null);
+        if (mode == BatchResult.Mode.ROLLBACK_ON_FAILURE && anyRejected) {
+            return new BatchResult<>(new ArrayList<>(), failures(items, rejected));
+        }
+
+        // Publish; another thread may still win an ID between validation and insert.
+        boolean[] inserted = new boolean[items.length];
+        IntStream.range(0, items.length).parallel()
+            .filter(i -> rejected[i] == null)
+            .forEach(i -> {
+                if (insertIfAbsent.test(items[i])) {
+                    inserted[i] = true;
+                } else {
+                    rejected[i] = entityName + " with ID " + idOf.apply(items[i]) + " already exists";
+                }
+            });
+
+        if (mode == BatchResult.Mode.ROLLBACK_ON_FAILURE && Arrays.stream(rejected).anyMatch(r -> r != null)) {
+            IntStream.range(0, items.length).parallel()
+                .filter(i -> inserted[i])
+                .forEach(i -> remove.test(items[i]));
+            return new BatchResult<>(new ArrayList<>(), failures(items, rejected));
+        }
+
+        List<T> registered = new ArrayList<>(items.length);
+        for (int i = 0; i < items.length; i++) {
+            if (inserted[i]) {
+                registered.add(items[i]);
+            }
+        }
+        return new BatchResult<>(registered, failures(items, rejected));
+    }
+
+    private List<BatchResult.Failure<T>> failures(T[] items, String[] rejected) {
+        ConcurrentLinkedQueue<BatchResult.Failure<T>> found = new ConcurrentLinkedQueue<>();
+        IntStream.range(0, items.length).parallel()
+            .filter(i -> rejected[i] != null)
+            .forEach(i -> found.add(new BatchResult.Failure<>(i, items[i], rejected[i])));
+        List<BatchResult.Failure<T>> failures = new ArrayList<>(found);
+        failures.sort(Comparator.comparingInt(BatchResult.Failure::getIndex));
+        return failures;
+    }
+}
@@ -0,0 +1,60 @@
+package company.storage;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk registration: the items that were registered and, for
+ * every rejected item, its position in the input and the reason.
+ */
+public final class BatchResult<T> {
+
+    public enum Mode {
+        /**
+         * Register every item or none of them. Items are published one by one and
+         * removed again if a concurrent writer takes one of the IDs, so readers may
+         * briefly see part of a batch that ends up registering nothing.
+         */
+        ROLLBACK_ON_FAILURE,
+        /** Register every valid item and report the rest. */
+        BEST_EFFORT
+    }
+
+    public static final class Failure<T> {
+        private final int index;
+        private final T item;
+        private final String reason;
+
+        Failure(int index, T item, String reason) {
+            this.index = index;
+            this.item = item;
+            this.reason = reason;
+        }
+
+        public int getIndex() { return index; }
+        public T getItem() { return item; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return "Failure{index=" + index + ", reason='" + reason + "'}";
+        }
+    }
+
+    private final List<T> registered;
+    private final List<Failure<T>> failures;
+
+    BatchResult(List<T> registered, List<Failure<T>> failures) {
+        this.registered = Collections.unmodifiableList(registered);
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    public List<T> getRegistered() { return registered; }
+    public List<Failure<T>> getFailures() { return failures; }
+    public boolean isSuccessful() { return failures.isEmpty(); }
+
+    @Override
+    public String toString() {
+        return "BatchResult{registered=" + registered.size() + ", failures=" + failures.size() + "}";
+    }
+}
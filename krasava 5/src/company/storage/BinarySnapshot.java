@@ -0,0 +1,448 @@
+package company.storage;
+
+import company.empoloyees.Admin;
+import company.empoloyees.Employee;
+import company.empoloyees.HRSpecialist;
+import company.empoloyees.Manager;
+import company.empoloyees.StoredEmployees;
+import company.projects.Project;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Compact, memory-mapped snapshot of {@link CompanyDataStore}.
+ *
+ * <p>Layout (little-endian):
+ * <pre>
+ * header      magic, version, replayFrom, counts of every section
+ * strings     int offsets[count + 1], then UTF-8 bytes; every distinct string once
+ * departments code, name, description                       (string refs)
+ * positions   code, name, description, minSalary, maxSalary
+ * schedules   id, name, days, hoursPerDay, start, end, break, flexible
+ * employees   fixed {@value #EMPLOYEE_BYTES}-byte records
+ * projects    fixed {@value #PROJECT_BYTES}-byte records
+ * </pre>
+ * Records reference strings and shared department/position/schedule entries by
+ * index, dates are stored as epoch numbers, and employees are rebuilt through
+ * {@link StoredEmployees#restore} so loading never re-runs parsing or validation.
+ */
+final class BinarySnapshot {
+    private static final StoredEmployees STORED = StoredEmployees.forStorage();
+    private static final int MAGIC = 0x43445332; // "CDS2"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 48;
+    private static final int DEPARTMENT_BYTES = 12;
+    private static final int POSITION_BYTES = 28;
+    private static final int SCHEDULE_BYTES = 37;
+    static final int EMPLOYEE_BYTES = 56;
+    static final int PROJECT_BYTES = 60;
+    private static final int NONE = -1;
+
+    private static final byte KIND_EMPLOYEE = 0;
+    private static final byte KIND_MANAGER = 1;
+    private static final byte KIND_HR_SPECIALIST = 2;
+    private static final byte KIND_ADMIN = 3;
+
+    private static final String[] STATUSES = { "NEW", "IN_PROGRESS", "ON_HOLD", "COMPLETED", "CANCELLED" };
+
+    private BinarySnapshot() {
+
+    }
+
+    /**
+     * Assigns dense indexes to strings and shared reference objects while writing.
+     * Shared objects have their strings resolved once, when first seen, and the
+     * write pass only replays what was captured here, so a rename that lands
+     * between the two passes cannot produce an index past the string table.
+     */
+    private static final class Dictionary {
+        final Map<String, Integer> strings = new HashMap<>();
+        final List<byte[]> stringBytes = new ArrayList<>();
+        long stringBytesTotal;
+        final Map<Department, Integer> departments = new IdentityHashMap<>();
+        final List<int[]> departmentRows = new ArrayList<>();
+        final Map<Position, Integer> positions = new IdentityHashMap<>();
+        final List<int[]> positionRows = new ArrayList<>();
+        final List<double[]> positionSalaries = new ArrayList<>();
+        final Map<WorkSchedule, Integer> schedules = new IdentityHashMap<>();
+        final List<WorkSchedule> scheduleList = new ArrayList<>();
+        final List<int[]> scheduleRows = new ArrayList<>();
+
+        int string(String s) {
+            if (s == null) {
+                return NONE;
+            }
+            return strings.computeIfAbsent(s, k -> {
+                byte[] bytes = k.getBytes(StandardCharsets.UTF_8);
+                stringBytes.add(bytes);
+                stringBytesTotal += bytes.length;
+                return stringBytes.size() - 1;
+            });
+        }
+
+        int department(Department d) {
+            if (d == null) {
+                return NONE;
+            }
+            Integer index = departments.get(d);
+            if (index == null) {
+                departmentRows.add(new int[] { string(d.getCode()), string(d.getName()), string(d.getDescription()) });
+                index = departments.size();
+                departments.put(d, index);
+            }
+            return index;
+        }
+
+        int position(Position p) {
+            Integer index = positions.get(p);
+            if (index == null) {
+                positionRows.add(new int[] { string(p.getCode()), string(p.getName()), string(p.getDescription()) });
+                positionSalaries.add(new double[] { p.getMinSalary(), p.getMaxSalary() });
+                index = positions.size();
+                positions.put(p, index);
+            }
+            return index;
+        }
+
+        int schedule(WorkSchedule ws) {
+            Integer index = schedules.get(ws);
+            if (index == null) {
+                scheduleRows.add(new int[] { string(ws.getScheduleId()), string(ws.getScheduleName()) });
+                scheduleList.add(ws);
+                index = schedules.size();
+                schedules.put(ws, index);
+            }
+            return index;
+        }
+    }
+
+    /** One employee record as captured in the dictionary pass. */
+    private static final class EmployeeRow {
+        byte kind = KIND_EMPLOYEE;
+        boolean active;
+        boolean fullAccess;
+        int id, firstName, lastName, email, phone, department, position, schedule, hireDay, extra = NONE;
+        double salary;
+    }
+
+    /** One project record as captured in the dictionary pass. */
+    private static final class ProjectRow {
+        int id, title, description, owner, status;
+        LocalDateTime start, due;
+        double estimatedHours, actualHours;
+    }
+
+    /**
+     * Writes a snapshot atomically: the file is built next to {@code target}, forced
+     * to disk and then renamed over it.
+     */
+    static void write(Path target, long replayFrom, Collection<Employee> employees, Collection<Project> projects) throws IOException {
+        Dictionary dict = new Dictionary();
+        // Everything is read once, here; the write pass below only copies these rows.
+        List<EmployeeRow> employeeRows = new ArrayList<>(employees.size());
+        for (Employee e : employees) {
+            EmployeeRow row = new EmployeeRow();
+            synchronized (e) {
+                row.active = e.isActive();
+                row.id = dict.string(e.getEmployeeId());
+                row.firstName = dict.string(e.getFirstName());
+                row.lastName = dict.string(e.getLastName());
+                row.email = dict.string(e.getEmail());
+                row.phone = dict.string(e.getPhoneNumber());
+                row.department = dict.department(e.getDepartment());
+                row.position = dict.position(e.getPosition());
+                row.schedule = dict.schedule(e.getWorkSchedule());
+                row.hireDay = (int) e.getHireDate().toEpochDay();
+                row.salary = e.getSalary();
+                if (e instanceof Manager) {
+                    row.kind = KIND_MANAGER;
+                    row.extra = dict.department(((Manager) e).getManagedDepartment());
+                } else if (e instanceof HRSpecialist) {
+                    row.kind = KIND_HR_SPECIALIST;
+                } else if (e instanceof Admin) {
+                    row.kind = KIND_ADMIN;
+                    row.extra = dict.string(((Admin) e).getAdminId());
+                    row.fullAccess = ((Admin) e).hasFullAccess();
+                }
+            }
+            employeeRows.add(row);
+        }
+        List<ProjectRow> projectRows = new ArrayList<>(projects.size());
+        for (Project p : projects) {
+            ProjectRow row = new ProjectRow();
+            synchronized (p) {
+                row.id = dict.string(p.getId());
+                row.title = dict.string(p.getTitle());
+                row.description = dict.string(p.getDescription());
+                row.owner = dict.string(p.getOwner() != null ? p.getOwner().getEmployeeId() : null);
+                row.status = statusIndex(p.getStatus());
+                row.start = p.getStartDate();
+                row.due = p.getDueDate();
+                row.estimatedHours = p.getEstimatedHours();
+                row.actualHours = p.getActualHours();
+            }
+            projectRows.add(row);
+        }
+
+        int stringCount = dict.stringBytes.size();
+        long size = HEADER_BYTES + 4L * (stringCount + 1) + dict.stringBytesTotal
+            + (long) DEPARTMENT_BYTES * dict.departments.size()
+            + (long) POSITION_BYTES * dict.positions.size()
+            + (long) SCHEDULE_BYTES * dict.schedules.size()
+            + (long) EMPLOYEE_BYTES * employeeRows.size()
+            + (long) PROJECT_BYTES * projectRows.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot larger than 2 GB is not supported");
+        }
+
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(MAGIC).putInt(VERSION).putLong(replayFrom)
+                .putInt(stringCount).putInt(dict.departments.size()).putInt(dict.positions.size())
+                .putInt(dict.schedules.size()).putInt(employeeRows.size()).putInt(projectRows.size())
+                .putLong(dict.stringBytesTotal);
+
+            int offset = 0;
+            for (byte[] bytes : dict.stringBytes) {
+                out.putInt(offset);
+                offset += bytes.length;
+            }
+            out.putInt(offset);
+            for (byte[] bytes : dict.stringBytes) {
+                out.put(bytes);
+            }
+
+            for (int[] d : dict.departmentRows) {
+                out.putInt(d[0]).putInt(d[1]).putInt(d[2]);
+            }
+            for (int i = 0; i < dict.positionRows.size(); i++) {
+                int[] p = dict.positionRows.get(i);
+                double[] salaries = dict.positionSalaries.get(i);
+                out.putInt(p[0]).putInt(p[1]).putInt(p[2]).putDouble(salaries[0]).putDouble(salaries[1]);
+            }
+            for (int i = 0; i < dict.scheduleRows.size(); i++) {
+                int[] names = dict.scheduleRows.get(i);
+                WorkSchedule ws = dict.scheduleList.get(i);
+                out.putInt(names[0]).putInt(names[1])
+                    .putInt(ws.getWorkDaysPerWeek()).putDouble(ws.getHoursPerDay())
+                    .putInt(ws.getStartTime().toSecondOfDay()).putInt(ws.getEndTime().toSecondOfDay())
+                    .putLong(ws.getBreakDuration().getSeconds()).put((byte) (ws.isFlexible() ? 1 : 0));
+            }
+
+            for (EmployeeRow e : employeeRows) {
+                out.put(e.kind).put((byte) (e.active ? 1 : 0)).put((byte) (e.fullAccess ? 1 : 0)).put((byte) 0)
+                    .putInt(e.id).putInt(e.firstName).putInt(e.lastName).putInt(e.email).putInt(e.phone)
+                    .putInt(e.department).putInt(e.position).putInt(e.schedule)
+                    .putInt(e.hireDay).putDouble(e.salary)
+                    .putInt(e.extra).putInt(0);
+            }
+            for (ProjectRow p : projectRows) {
+                out.putInt(p.id).putInt(p.title).putInt(p.description);
+                putDateTime(out, p.start);
+                putDateTime(out, p.due);
+                out.putInt(p.owner)
+                    .put((byte) p.status)
+                    .put((byte) (p.start != null ? 1 : 0)).put((byte) (p.due != null ? 1 : 0)).put((byte) 0)
+                    .putDouble(p.estimatedHours).putDouble(p.actualHours);
+            }
+            out.force();
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps {@code source} and registers its contents in {@link CompanyDataStore}.
+     * Entities whose ID is already registered are brought up to date in place.
+     *
+     * @return the first log sequence number not covered by the snapshot
+     */
+    static long load(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (in.getInt(0) != MAGIC || in.getInt(4) != VERSION) {
+                throw new IOException("Not a company data snapshot: " + source);
+            }
+            long replayFrom = in.getLong(8);
+            int stringCount = in.getInt(16);
+            int departmentCount = in.getInt(20);
+            int positionCount = in.getInt(24);
+            int scheduleCount = in.getInt(28);
+            int employeeCount = in.getInt(32);
+            int projectCount = in.getInt(36);
+            long stringBytes = in.getLong(40);
+
+            int offsets = HEADER_BYTES;
+            int bytesBase = offsets + 4 * (stringCount + 1);
+            String[] strings = new String[stringCount];
+            int chunk = 1 << 16;
+            IntStream.range(0, (stringCount + chunk - 1) / chunk).parallel().forEach(c -> {
+                byte[] scratch = new byte[256];
+                for (int i = c * chunk, end = Math.min(stringCount, i + chunk); i < end; i++) {
+                    int from = in.getInt(offsets + 4 * i);
+                    int length = in.getInt(offsets + 4 * (i + 1)) - from;
+                    if (length > scratch.length) {
+                        scratch = new byte[length];
+                    }
+                    in.get(bytesBase + from, scratch, 0, length);
+                    strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+                }
+            });
+
+            int pos = (int) (bytesBase + stringBytes);
+            CompanyRecordCodec.Resolver resolver = new CompanyRecordCodec.Resolver();
+            Department[] departments = new Department[departmentCount];
+            for (int i = 0; i < departmentCount; i++, pos += DEPARTMENT_BYTES) {
+                departments[i] = resolver.department(str(strings, in.getInt(pos)), str(strings, in.getInt(pos + 4)),
+                    str(strings, in.getInt(pos + 8)));
+            }
+            Position[] positions = new Position[positionCount];
+            for (int i = 0; i < positionCount; i++, pos += POSITION_BYTES) {
+                positions[i] = resolver.position(str(strings, in.getInt(pos)), str(strings, in.getInt(pos + 4)),
+                    str(strings, in.getInt(pos + 8)), in.getDouble(pos + 12), in.getDouble(pos + 20));
+            }
+            WorkSchedule[] schedules = new WorkSchedule[scheduleCount];
+            for (int i = 0; i < scheduleCount; i++, pos += SCHEDULE_BYTES) {
+                schedules[i] = resolver.schedule(str(strings, in.getInt(pos)), str(strings, in.getInt(pos + 4)),
+                    in.getInt(pos + 8), in.getDouble(pos + 12), LocalTime.ofSecondOfDay(in.getInt(pos + 20)),
+                    LocalTime.ofSecondOfDay(in.getInt(pos + 24)), Duration.ofSeconds(in.getLong(pos + 28)), in.get(pos + 36) != 0);
+            }
+
+            Employee[] employees = new Employee[employeeCount];
+            int employeesBase = pos;
+            for (int i = 0; i < employeeCount; i++) {
+                employees[i] = readEmployee(in, employeesBase + i * EMPLOYEE_BYTES, strings, departments, positions, schedules);
+            }
+            IntStream.range(0, employeeCount).parallel().forEach(i -> {
+                if (CompanyDataStore.EMPLOYEES.get(employees[i].getEmployeeId()) != employees[i]) {
+                    CompanyDataStore.addEmployee(employees[i]);
+                }
+            });
+            pos += employeeCount * EMPLOYEE_BYTES;
+
+            for (int i = 0; i < projectCount; i++, pos += PROJECT_BYTES) {
+                Project p = readProject(in, pos, strings);
+                if (CompanyDataStore.PROJECTS.get(p.getId()) != p) {
+                    CompanyDataStore.addProject(p);
+                }
+            }
+            return replayFrom;
+        }
+    }
+
+    private static Employee readEmployee(ByteBuffer in, int at, String[] strings, Department[] departments,
+                                         Position[] positions, WorkSchedule[] schedules) {
+        byte kind = in.get(at);
+        boolean active = in.get(at + 1) != 0;
+        String id = strings[in.getInt(at + 4)];
+        String firstName = strings[in.getInt(at + 8)];
+        String lastName = strings[in.getInt(at + 12)];
+        String email = strings[in.getInt(at + 16)];
+        String phone = strings[in.getInt(at + 20)];
+        Department department = departments[in.getInt(at + 24)];
+        Position position = positions[in.getInt(at + 28)];
+        WorkSchedule schedule = schedules[in.getInt(at + 32)];
+        LocalDate hireDate = LocalDate.ofEpochDay(in.getInt(at + 36));
+        double salary = in.getDouble(at + 40);
+        int extra = in.getInt(at + 48);
+
+        Employee existing = CompanyDataStore.EMPLOYEES.get(id);
+        if (existing != null) {
+            CompanyRecordCodec.applyEmployeeState(existing, email, phone, department, position, salary, schedule, active);
+            return existing;
+        }
+        // Subclasses are rare; they go through their validating constructors.
+        switch (kind) {
+            case KIND_MANAGER:
+                return new Manager(id, firstName, lastName, email, phone, department, position, hireDate.toString(),
+                    salary, schedule, active, extra == NONE ? null : departments[extra]);
+            case KIND_HR_SPECIALIST:
+                Employee hr = new HRSpecialist(id, firstName, lastName, email, phone, department, position,
+                    hireDate.toString(), salary, schedule);
+                if (!active) {
+                    hr.deactivate();
+                }
+                return hr;
+            case KIND_ADMIN:
+                return new Admin(id, firstName, lastName, email, phone, department, position, hireDate.toString(),
+                    salary, schedule, active, str(strings, extra), in.get(at + 2) != 0);
+            default:
+                return STORED.restore(id, firstName, lastName, email, phone, department, position, hireDate,
+                    salary, schedule, active);
+        }
+    }
+
+    private static Project readProject(ByteBuffer in, int at, String[] strings) {
+        String id = strings[in.getInt(at)];
+        String title = strings[in.getInt(at + 4)];
+        String description = str(strings, in.getInt(at + 8));
+        LocalDateTime start = in.get(at + 41) != 0 ? getDateTime(in, at + 12) : null;
+        LocalDateTime due = in.get(at + 42) != 0 ? getDateTime(in, at + 24) : null;
+        String ownerId = str(strings, in.getInt(at + 36));
+        String status = STATUSES[in.get(at + 40)];
+        double estimated = in.getDouble(at + 44);
+        double actual = in.getDouble(at + 52);
+
+        Employee owner = ownerId != null ? CompanyDataStore.EMPLOYEES.get(ownerId) : null;
+        Project p = CompanyDataStore.PROJECTS.get(id);
+        if (p == null) {
+            p = new Project(id, title, description, start, due, owner instanceof Manager ? (Manager) owner : null);
+        } else {
+            p.setTitle(title);
+            p.setDescription(description);
+        }
+        if (p.getOwner() != owner) {
+            p.setOwner(owner);
+        }
+        p.restoreState(status, estimated, actual);
+        return p;
+    }
+
+    private static String str(String[] strings, int index) {
+        return index == NONE ? null : strings[index];
+    }
+
+    private static int statusIndex(String status) {
+        for (int i = 0; i < STATUSES.length; i++) {
+            if (STATUSES[i].equals(status)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown status " + status);
+    }
+
+    private static void putDateTime(ByteBuffer out, LocalDateTime value) {
+        out.putLong(value != null ? value.toEpochSecond(ZoneOffset.UTC) : 0L);
+        out.putInt(value != null ? value.getNano() : 0);
+    }
+
+    private static LocalDateTime getDateTime(ByteBuffer in, int at) {
+        return LocalDateTime.ofEpochSecond(in.getLong(at), in.getInt(at + 8), ZoneOffset.UTC);
+    }
+}
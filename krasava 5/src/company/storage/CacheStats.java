@@ -0,0 +1,44 @@
+package company.storage;
+
+/** Counters of a {@link CompanyDataService} result cache since it was configured. */
+public final class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long invalidations;
+    private final int size;
+
+    CacheStats(long hits, long misses, long evictions, long expirations, long invalidations, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+        this.size = size;
+    }
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+
+    /** Entries dropped to stay within the size bound. */
+    public long getEvictions() { return evictions; }
+
+    /** Entries dropped because they outlived the time bound. */
+    public long getExpirations() { return expirations; }
+
+    /** Entries dropped because the entities they were computed from changed. */
+    public long getInvalidations() { return invalidations; }
+    public int getSize() { return size; }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats{hits=%d, misses=%d, hitRate=%.3f, evictions=%d, expirations=%d, invalidations=%d, size=%d}",
+            hits, misses, getHitRate(), evictions, expirations, invalidations, size);
+    }
+}
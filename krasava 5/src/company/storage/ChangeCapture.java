@@ -0,0 +1,146 @@
+package company.storage;
+
+import company.empoloyees.Employee;
+import company.empoloyees.EmployeeListener;
+import company.projects.Project;
+import company.projects.ProjectEntity;
+import company.projects.ProjectListener;
+import company.projects.TimeEntry;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Turns registrations in {@link CompanyDataStore} and mutations of registered
+ * entities into {@link ChangeEvent}s for every open {@link ChangeSubscription}.
+ * Capturing takes no lock shared between writers: each subscription numbers
+ * its own events and a writer stores its event in the subscription's ring
+ * without waiting for the subscriber. With no subscribers, capturing is skipped
+ * entirely.
+ */
+final class ChangeCapture {
+    private static final List<ChangeSubscription> SUBSCRIPTIONS = new CopyOnWriteArrayList<>();
+
+    static final EmployeeListener EMPLOYEE_EVENTS = new EmployeeListener() {
+        @Override
+        public void onDepartmentChanged(Employee employee, Department oldDepartment, Department newDepartment) {
+            employeeEvent(ChangeEvent.Type.DEPARTMENT_CHANGED, employee, oldDepartment.getCode(), newDepartment.getCode());
+        }
+
+        @Override
+        public void onPositionChanged(Employee employee, Position oldPosition, Position newPosition) {
+            employeeEvent(ChangeEvent.Type.POSITION_CHANGED, employee, oldPosition.getCode(), newPosition.getCode());
+        }
+
+        @Override
+        public void onSalaryChanged(Employee employee, double oldSalary, double newSalary) {
+            employeeEvent(ChangeEvent.Type.SALARY_CHANGED, employee, oldSalary, newSalary);
+        }
+
+        @Override
+        public void onActiveChanged(Employee employee, boolean active) {
+            employeeEvent(ChangeEvent.Type.ACTIVE_CHANGED, employee, !active, active);
+        }
+
+        @Override
+        public void onContactChanged(Employee employee, String oldEmail, String oldPhoneNumber) {
+            employeeEvent(ChangeEvent.Type.CONTACT_CHANGED, employee, List.of(oldEmail, oldPhoneNumber),
+                List.of(employee.getEmail(), employee.getPhoneNumber()));
+        }
+
+        @Override
+        public void onScheduleChanged(Employee employee, WorkSchedule oldSchedule, WorkSchedule newSchedule) {
+            employeeEvent(ChangeEvent.Type.SCHEDULE_CHANGED, employee, oldSchedule.getScheduleId(),
+                newSchedule.getScheduleId());
+        }
+    };
+
+    static final ProjectListener PROJECT_EVENTS = new ProjectListener() {
+        @Override
+        public void onOwnerChanged(ProjectEntity entity, Employee oldOwner, Employee newOwner) {
+            projectEvent(ChangeEvent.Type.OWNER_CHANGED, entity,
+                oldOwner != null ? oldOwner.getEmployeeId() : null, newOwner != null ? newOwner.getEmployeeId() : null);
+        }
+
+        @Override
+        public void onStatusChanged(ProjectEntity entity, String oldStatus, String newStatus) {
+            projectEvent(ChangeEvent.Type.STATUS_CHANGED, entity, oldStatus, newStatus);
+        }
+
+        @Override
+        public void onTitleChanged(ProjectEntity entity, String oldTitle, String newTitle) {
+            projectEvent(ChangeEvent.Type.TITLE_CHANGED, entity, oldTitle, newTitle);
+        }
+
+        @Override
+        public void onEstimatedHoursChanged(Project project, double oldHours, double newHours) {
+            projectEvent(ChangeEvent.Type.ESTIMATED_HOURS_CHANGED, project, oldHours, newHours);
+        }
+
+        @Override
+        public void onActualHoursAdded(Project project, double hours) {
+            projectEvent(ChangeEvent.Type.HOURS_LOGGED, project, null, hours);
+        }
+
+        @Override
+        public void onTimeEntryApproved(TimeEntry entry) {
+            projectEvent(ChangeEvent.Type.TIME_ENTRY_APPROVED, entry.getProject(), null, entry.getId());
+        }
+    };
+
+    private ChangeCapture() {
+
+    }
+
+    static ChangeSubscription subscribe(ChangeSubscriber subscriber, int capacity, int maxBatch) {
+        ChangeSubscription subscription = new ChangeSubscription(subscriber, capacity, maxBatch);
+        SUBSCRIPTIONS.add(subscription);
+        return subscription;
+    }
+
+    static void unsubscribe(ChangeSubscription subscription) {
+        SUBSCRIPTIONS.remove(subscription);
+    }
+
+    static void employeeRegistered(Employee employee) {
+        capture(ChangeEvent.Type.EMPLOYEE_REGISTERED, employee.getEmployeeId(), null, employee.getFullName());
+    }
+
+    static void employeeRemoved(Employee employee) {
+        capture(ChangeEvent.Type.EMPLOYEE_REMOVED, employee.getEmployeeId(), employee.getFullName(), null);
+    }
+
+    static void projectRegistered(Project project) {
+        capture(ChangeEvent.Type.PROJECT_REGISTERED, project.getId(), null, project.getTitle());
+    }
+
+    static void projectRemoved(Project project) {
+        capture(ChangeEvent.Type.PROJECT_REMOVED, project.getId(), project.getTitle(), null);
+    }
+
+    private static void employeeEvent(ChangeEvent.Type type, Employee employee, Object oldValue, Object newValue) {
+        if (!SUBSCRIPTIONS.isEmpty() && CompanyDataStore.EMPLOYEES.get(employee.getEmployeeId()) == employee) {
+            capture(type, employee.getEmployeeId(), oldValue, newValue);
+        }
+    }
+
+    private static void projectEvent(ChangeEvent.Type type, ProjectEntity entity, Object oldValue, Object newValue) {
+        if (!SUBSCRIPTIONS.isEmpty() && CompanyDataStore.PROJECTS.get(entity.getId()) == entity) {
+            capture(type, entity.getId(), oldValue, newValue);
+        }
+    }
+
+    private static void capture(ChangeEvent.Type type, String entityId, Object oldValue, Object newValue) {
+        if (SUBSCRIPTIONS.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        for (ChangeSubscription subscription : SUBSCRIPTIONS) {
+            subscription.offer(type, entityId, oldValue, newValue, now);
+        }
+    }
+}
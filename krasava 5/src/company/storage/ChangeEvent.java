@@ -0,0 +1,65 @@
+package company.storage;
+
+import java.time.Instant;
+
+/**
+ * One change to an entity registered in {@link CompanyDataStore}. Sequence
+ * numbers belong to the subscription: they are assigned in the order changes
+ * were captured for it and increase by one per event, so a subscriber can spot
+ * events it lost to a full buffer.
+ * Old and new values are immutable: numbers, booleans, strings or IDs.
+ */
+public final class ChangeEvent {
+
+    public enum Type {
+        EMPLOYEE_REGISTERED,
+        EMPLOYEE_REMOVED,
+        SALARY_CHANGED,
+        DEPARTMENT_CHANGED,
+        POSITION_CHANGED,
+        ACTIVE_CHANGED,
+        CONTACT_CHANGED,
+        SCHEDULE_CHANGED,
+        PROJECT_REGISTERED,
+        PROJECT_REMOVED,
+        STATUS_CHANGED,
+        OWNER_CHANGED,
+        TITLE_CHANGED,
+        ESTIMATED_HOURS_CHANGED,
+        HOURS_LOGGED,
+        TIME_ENTRY_APPROVED
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final String entityId;
+    private final Object oldValue;
+    private final Object newValue;
+    private final Instant timestamp;
+
+    ChangeEvent(long sequence, Type type, String entityId, Object oldValue, Object newValue, Instant timestamp) {
+        this.sequence = sequence;
+        this.type = type;
+        this.entityId = entityId;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.timestamp = timestamp;
+    }
+
+    public long getSequence() { return sequence; }
+    public Type getType() { return type; }
+
+    /**
+     * Employee or project ID. For {@link Type#TIME_ENTRY_APPROVED} it is the project
+     * ID and the new value is the time entry ID.
+     */
+    public String getEntityId() { return entityId; }
+    public Object getOldValue() { return oldValue; }
+    public Object getNewValue() { return newValue; }
+    public Instant getTimestamp() { return timestamp; }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{#" + sequence + " " + type + " " + entityId + ": " + oldValue + " -> " + newValue + "}";
+    }
+}
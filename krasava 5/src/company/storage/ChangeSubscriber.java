@@ -0,0 +1,14 @@
+package company.storage;
+
+import java.util.List;
+
+/**
+ * Receives captured changes in batches on a dispatcher thread of its own.
+ * Batches arrive in sequence order; a gap in sequence numbers means events were
+ * dropped because this subscriber fell behind.
+ */
+@FunctionalInterface
+public interface ChangeSubscriber {
+
+    void onEvents(List<ChangeEvent> batch);
+}
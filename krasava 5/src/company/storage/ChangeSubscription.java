@@ -0,0 +1,132 @@
+package company.storage;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A subscriber's bounded ring of events and the thread that drains it. A writer
+ * takes the next sequence number of this subscription, then stores its event in
+ * the slot for that number; it never takes a lock and never waits. The
+ * dispatcher reads the slots in sequence order, so events arrive in the order
+ * their numbers were taken even when writers store them out of order. Once the
+ * subscriber falls a whole ring behind, newer events overwrite the oldest
+ * undelivered ones, which are counted as dropped.
+ */
+public final class ChangeSubscription implements AutoCloseable {
+    private static final long IDLE_NANOS = 100_000_000L;
+
+    private final ChangeSubscriber subscriber;
+    private final AtomicReferenceArray<ChangeEvent> ring;
+    private final int mask;
+    private final int maxBatch;
+    private final Thread dispatcher;
+    // Last sequence number handed to a writer.
+    private final AtomicLong claimed = new AtomicLong();
+    // Next sequence number the dispatcher delivers; written by the dispatcher only.
+    private volatile long next = 1;
+    private volatile boolean idle;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private volatile boolean closed;
+
+    ChangeSubscription(ChangeSubscriber subscriber, int capacity, int maxBatch) {
+        this.subscriber = subscriber;
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.maxBatch = maxBatch;
+        this.dispatcher = new Thread(this::dispatch, "company-change-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    void offer(ChangeEvent.Type type, String entityId, Object oldValue, Object newValue, Instant timestamp) {
+        long sequence = claimed.incrementAndGet();
+        ChangeEvent event = new ChangeEvent(sequence, type, entityId, oldValue, newValue, timestamp);
+        int slot = (int) sequence & mask;
+        for (;;) {
+            ChangeEvent current = ring.get(slot);
+            // A writer a whole ring ahead got here first; this event is already counted as lost.
+            if (current != null && current.getSequence() >= sequence) {
+                break;
+            }
+            if (ring.compareAndSet(slot, current, event)) {
+                break;
+            }
+        }
+        if (idle) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    private void dispatch() {
+        long next = this.next;
+        while (!closed || next <= claimed.get()) {
+            List<ChangeEvent> batch = new ArrayList<>();
+            while (batch.size() < maxBatch) {
+                ChangeEvent event = ring.get((int) next & mask);
+                if (event == null || event.getSequence() < next) {
+                    // Numbered but not stored yet, or not numbered at all.
+                    break;
+                }
+                if (event.getSequence() == next) {
+                    batch.add(event);
+                } else {
+                    dropped.incrementAndGet();
+                }
+                next++;
+            }
+            this.next = next;
+            if (batch.isEmpty()) {
+                idle = true;
+                ChangeEvent event = ring.get((int) next & mask);
+                if (event == null || event.getSequence() < next) {
+                    LockSupport.parkNanos(this, IDLE_NANOS);
+                }
+                idle = false;
+                continue;
+            }
+            try {
+                subscriber.onEvents(Collections.unmodifiableList(batch));
+                delivered.addAndGet(batch.size());
+            } catch (RuntimeException e) {
+                failedBatches.incrementAndGet();
+            }
+        }
+    }
+
+    /** Events overwritten before the subscriber got to them. */
+    public long getDroppedEvents() { return dropped.get(); }
+    public long getDeliveredEvents() { return delivered.get(); }
+
+    /** Batches whose delivery threw; their events are not redelivered. */
+    public long getFailedBatches() { return failedBatches.get(); }
+    public int getBufferedEvents() { return (int) Math.min(mask + 1, Math.max(0, claimed.get() - next + 1)); }
+
+    /**
+     * Stops capturing for this subscriber, delivers what is already buffered and
+     * waits for the dispatcher to finish. If the calling thread is interrupted
+     * while waiting, it returns early with its interrupt status set.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            ChangeCapture.unsubscribe(this);
+            closed = true;
+            LockSupport.unpark(dispatcher);
+        }
+        if (Thread.currentThread() != dispatcher) {
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package company.storage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, segmented write-ahead log with group commit.
+ *
+ * <p>Appenders hand records to a single writer thread, which drains everything
+ * queued so far, writes it with one {@code write} call and (depending on the
+ * {@link SyncMode}) one {@code fsync}, then acknowledges the whole batch.
+ * Each record is framed as {@code [length][type][lsn][payload][crc32]}; a torn
+ * or corrupt tail is detected on replay and ignored.
+ */
+public final class CompanyDataLog implements Closeable {
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final byte ROTATE = 0;
+    // Largest [type][lsn][payload] body; a length field above it can only be corruption.
+    static final int MAX_RECORD_BYTES = 16 << 20;
+
+    public enum SyncMode {
+        /** Appenders wait until their batch has been written and forced to disk. */
+        SYNC_EACH_BATCH,
+        /** Appenders return immediately; the log is forced every {@code syncIntervalMillis}. */
+        SYNC_PERIODIC,
+        /** Appenders return immediately; the log is only forced on rotation and close. */
+        NO_SYNC
+    }
+
+    public static final class Options {
+        private SyncMode syncMode = SyncMode.SYNC_EACH_BATCH;
+        private long syncIntervalMillis = 50;
+        private int maxBatchRecords = 4096;
+        private int queueCapacity = 65536;
+
+        public Options syncMode(SyncMode mode) {
+            this.syncMode = Objects.requireNonNull(mode, "Sync mode cannot be null");
+            return this;
+        }
+
+        public Options syncIntervalMillis(long millis) {
+            if (millis <= 0) {
+                throw new IllegalArgumentException("Sync interval must be positive");
+            }
+            this.syncIntervalMillis = millis;
+            return this;
+        }
+
+        public Options maxBatchRecords(int records) {
+            if (records <= 0) {
+                throw new IllegalArgumentException("Batch size must be positive");
+            }
+            this.maxBatchRecords = records;
+            return this;
+        }
+
+        public Options queueCapacity(int capacity) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Queue capacity must be positive");
+            }
+            this.queueCapacity = capacity;
+            return this;
+        }
+
+        public SyncMode getSyncMode() { return syncMode; }
+    }
+
+    /** The valid records of one segment and the length of the prefix holding them. */
+    static final class Segment {
+        final List<Record> records;
+        final long validLength;
+        final long length;
+
+        Segment(List<Record> records, long validLength, long length) {
+            this.records = records;
+            this.validLength = validLength;
+            this.length = length;
+        }
+
+        /** Whether a truncated or corrupt tail follows the valid records. */
+        boolean isTorn() {
+            return validLength < length;
+        }
+    }
+
+    /** A record read back from the log. */
+    static final class Record {
+        final byte type;
+        final long lsn;
+        final byte[] payload;
+
+        Record(byte type, long lsn, byte[] payload) {
+            this.type = type;
+            this.lsn = lsn;
+            this.payload = payload;
+        }
+    }
+
+    private static final class Pending {
+        final byte type;
+        final byte[] payload;
+        final CompletableFuture<Long> done = new CompletableFuture<>();
+        long lsn;
+
+        Pending(byte type, byte[] payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+
+    private final Path directory;
+    private final Options options;
+    private final BlockingQueue<Pending> queue;
+    private final Thread writer;
+    private final ByteArrayOutputStream batchBytes = new ByteArrayOutputStream(1 << 16);
+    private final DataOutputStream batchOut = new DataOutputStream(batchBytes);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private long nextLsn;
+    private volatile boolean running = true;
+    private volatile IOException failure;
+
+    CompanyDataLog(Path directory, long firstLsn, Options options) throws IOException {
+        this.directory = directory;
+        this.options = options;
+        this.queue = new ArrayBlockingQueue<>(options.queueCapacity);
+        this.nextLsn = firstLsn;
+        this.channel = openSegment(firstLsn);
+        this.writer = new Thread(this::writeLoop, "company-data-log");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a record for the log. The returned future completes with the record's
+     * LSN once it has been written (and forced, in {@link SyncMode#SYNC_EACH_BATCH}).
+     */
+    CompletableFuture<Long> append(byte type, byte[] payload) {
+        if (payload != null && payload.length > MAX_RECORD_BYTES - 1 - Long.BYTES) {
+            throw new IllegalArgumentException("Log record of " + payload.length + " bytes is too large");
+        }
+        checkOpen();
+        Pending p = new Pending(type, payload);
+        try {
+            while (!queue.offer(p, options.syncIntervalMillis, TimeUnit.MILLISECONDS)) {
+                checkOpen();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while appending to the log", e);
+        }
+        // The writer may have stopped and drained the queue between the check and
+        // the offer. Whoever removes the record completes it: here, or the writer.
+        if (!running && queue.remove(p)) {
+            checkOpen();
+        }
+        return p.done;
+    }
+
+    private void checkOpen() {
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log has failed", failure);
+        }
+        if (!running) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+    }
+
+    /** Waits for a record appended with {@link #append} if the sync mode requires it. */
+    void awaitIfSynchronous(CompletableFuture<Long> appended) {
+        if (options.syncMode == SyncMode.SYNC_EACH_BATCH) {
+            appended.join();
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new one. Completes with the first
+     * LSN of the new segment; every record with a lower LSN is in older segments.
+     */
+    CompletableFuture<Long> rotate() {
+        return append(ROTATE, null);
+    }
+
+    /** Deletes segments that only contain records below {@code lsn}. */
+    void deleteSegmentsBefore(long lsn) throws IOException {
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (segmentStart(segments.get(i + 1)) <= lsn) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(options.maxBatchRecords);
+        long lastSync = System.nanoTime();
+        long syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(options.syncIntervalMillis);
+        boolean dirty = false;
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(options.syncIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, options.maxBatchRecords - 1);
+                    dirty |= writeBatch(batch);
+                }
+                boolean syncDue = options.syncMode == SyncMode.SYNC_PERIODIC && System.nanoTime() - lastSync >= syncIntervalNanos;
+                if (dirty && (options.syncMode == SyncMode.SYNC_EACH_BATCH || syncDue)) {
+                    channel.force(false);
+                    lastSync = System.nanoTime();
+                    dirty = false;
+                }
+                for (Pending p : batch) {
+                    p.done.complete(p.lsn);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (IOException e) {
+                failure = e;
+                running = false;
+                batch.forEach(p -> p.done.completeExceptionally(e));
+            }
+            batch.clear();
+        }
+        IOException cause = failure != null ? failure : new IOException("Write-ahead log is closed");
+        for (Pending p; (p = queue.poll()) != null; ) {
+            p.done.completeExceptionally(cause);
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /** Writes a drained batch; returns whether unforced data was written. */
+    private boolean writeBatch(List<Pending> batch) throws IOException {
+        batchBytes.reset();
+        boolean dirty = false;
+        for (Pending p : batch) {
+            if (p.type == ROTATE) {
+                flush();
+                channel.force(false);
+                channel.close();
+                channel = openSegment(nextLsn);
+                p.lsn = nextLsn;
+                dirty = false;
+                continue;
+            }
+            long lsn = nextLsn++;
+            crc.reset();
+            crc.update(p.type);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                crc.update((int) (lsn >>> shift));
+            }
+            crc.update(p.payload);
+            batchOut.writeInt(1 + Long.BYTES + p.payload.length);
+            batchOut.writeByte(p.type);
+            batchOut.writeLong(lsn);
+            batchOut.write(p.payload);
+            batchOut.writeInt((int) crc.getValue());
+            p.lsn = lsn;
+            dirty = true;
+        }
+        flush();
+        return dirty;
+    }
+
+    private void flush() throws IOException {
+        batchOut.flush();
+        ByteBuffer buffer = ByteBuffer.wrap(batchBytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        batchBytes.reset();
+    }
+
+    private FileChannel openSegment(long firstLsn) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(p -> {
+                    String name = p.getFileName().toString();
+                    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                })
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    static long segmentStart(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Reads the valid records of one segment in order. Reading stops silently at
+     * the first truncated or corrupt record, which can only be an unacknowledged tail.
+     * A length field is trusted only if the record it announces fits both
+     * {@link #MAX_RECORD_BYTES} and the bytes left in the file.
+     */
+    static Segment readSegment(Path segment) throws IOException {
+        List<Record> records = new ArrayList<>();
+        CRC32 check = new CRC32();
+        long size = Files.size(segment);
+        long valid = 0;
+        try (InputStream raw = Files.newInputStream(segment);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 1 << 16))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                long remaining = size - valid - Integer.BYTES;
+                if (length < 1 + Long.BYTES || length > MAX_RECORD_BYTES || length + (long) Integer.BYTES > remaining) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                int stored;
+                try {
+                    in.readFully(body);
+                    stored = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                check.reset();
+                check.update(body);
+                if ((int) check.getValue() != stored) {
+                    break;
+                }
+                ByteBuffer b = ByteBuffer.wrap(body);
+                byte type = b.get();
+                long lsn = b.getLong();
+                byte[] payload = new byte[b.remaining()];
+                b.get(payload);
+                records.add(new Record(type, lsn, payload));
+                valid += Integer.BYTES + length + Integer.BYTES;
+            }
+        }
+        return new Segment(records, valid, size);
+    }
+
+    /**
+     * Cuts a torn tail off a segment so that records appended to it later are
+     * not hidden behind the garbage on the next replay.
+     */
+    static void truncateTail(Path segment, long validLength) throws IOException {
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.truncate(validLength);
+            ch.force(true);
+        }
+    }
+}
@@ -2,65 +2,186 @@ package company.storage;
 
 import company.empoloyees.Employee;
 import company.projects.Project;
+import company.projects.RetentionPolicy;
+import company.projects.RetentionResult;
 import company.empoloyees.Manager;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 
 public class CompanyDataService {
+    private static final int DEFAULT_CACHE_ENTRIES = 1024;
+    private static final long DEFAULT_CACHE_TTL_MILLIS = 30_000;
+
     private static final CompanyDataService instance = new CompanyDataService();
     private final CompanyEntityManager entityManager;
+    private volatile ResultCache cache = new ResultCache(DEFAULT_CACHE_ENTRIES,
+        TimeUnit.MILLISECONDS.toNanos(DEFAULT_CACHE_TTL_MILLIS));
     
     private CompanyDataService() {
         this.entityManager = new CompanyEntityManager();
     }
+
+    private CompanyDataService(EmployeeRepository employees) {
+        this.entityManager = new CompanyEntityManager(employees);
+    }
     
     public static CompanyDataService getInstance() {
         return instance;
     }
+
+    /**
+     * Creates a service whose employees live in {@code employees} instead of the
+     * shared {@link CompanyDataStore}. Projects are still kept in the store.
+     */
+    public static CompanyDataService withEmployeeRepository(EmployeeRepository employees) {
+        return new CompanyDataService(employees);
+    }
     
     // Public methods for employee management
     public void registerEmployee(Employee employee) {
         entityManager.addEmployee(employee);
     }
+
+    /**
+     * Registers the employee, replacing any other instance with the same ID.
+     * Calling it again with the same instance is a no-op.
+     *
+     * @return the replaced employee, or null if there was none
+     */
+    public Employee upsertEmployee(Employee employee) {
+        return entityManager.upsertEmployee(employee);
+    }
     
+    /**
+     * Registers a batch of employees, validating it in parallel. Either every
+     * employee ends up registered or none does, but the batch is not published
+     * atomically; see {@link BatchResult.Mode#ROLLBACK_ON_FAILURE}.
+     */
+    public BatchResult<Employee> registerEmployees(Collection<Employee> employees) {
+        return entityManager.addEmployees(employees, BatchResult.Mode.ROLLBACK_ON_FAILURE);
+    }
+
+    public BatchResult<Employee> registerEmployees(Collection<Employee> employees, BatchResult.Mode mode) {
+        return entityManager.addEmployees(employees, mode);
+    }
+
     public Employee lookupEmployee(String employeeId) {
         return entityManager.findEmployee(employeeId);
     }
     
     public List<Employee> findEmployeesByDepartment(String departmentName) {
-        return entityManager.getAllEmployees().stream()
-            .filter(e -> e.getDepartment().getName().equals(departmentName))
-            .toList();
+        if (!entityManager.tracksEmployeeChanges()) {
+            return entityManager.findEmployeesByDepartmentName(departmentName);
+        }
+        return cached(List.of("employeesByDepartment", departmentName), EntityVersions.Kind.EMPLOYEES,
+            () -> List.copyOf(entityManager.findEmployeesByDepartmentName(departmentName)));
     }
     
     // Project management methods with business logic
     public void registerProject(Project project) {
         entityManager.addProject(project);
     }
+
+    public Project upsertProject(Project project) {
+        return entityManager.upsertProject(project);
+    }
     
+    public BatchResult<Project> registerProjects(Collection<Project> projects) {
+        return entityManager.addProjects(projects, BatchResult.Mode.ROLLBACK_ON_FAILURE);
+    }
+
+    public BatchResult<Project> registerProjects(Collection<Project> projects, BatchResult.Mode mode) {
+        return entityManager.addProjects(projects, mode);
+    }
+
     public List<Project> findProjectsByManager(Manager manager) {
-        return entityManager.getAllProjects().stream()
-            .filter(p -> p.getOwner().equals(manager))
-            .toList();
+        String ownerId = manager.getEmployeeId();
+        return cached(List.of("projectsByOwner", ownerId), EntityVersions.Kind.PROJECTS,
+            () -> entityManager.findProjectsByOwner(ownerId));
     }
     
     public List<Project> findActiveProjects() {
-        return entityManager.getAllProjects().stream()
-            .filter(p -> "IN_PROGRESS".equals(p.getStatus()))
-            .toList();
+        return cached(List.of("projectsByStatus", "IN_PROGRESS"), EntityVersions.Kind.PROJECTS,
+            () -> entityManager.findProjectsByStatus("IN_PROGRESS"));
     }
     
+    /**
+     * Bounds the cache behind {@link #findEmployeesByDepartment}, {@link #findProjectsByManager}
+     * and {@link #findActiveProjects}. Cached results are dropped as soon as an employee or
+     * project change has returned, so the bounds only limit memory and idle lifetime.
+     * Replaces the current cache and its statistics.
+     *
+     * @param maxEntries Maximum number of cached results, or 0 to disable caching
+     * @param ttl Maximum age of a cached result
+     */
+    public void configureCache(int maxEntries, Duration ttl) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative");
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache TTL must be positive");
+        }
+        cache = maxEntries == 0 ? null : new ResultCache(maxEntries, ttl.toNanos());
+    }
+
+    /** Statistics of the result cache, or all zeros if caching is disabled. */
+    public CacheStats getCacheStats() {
+        ResultCache c = cache;
+        return c != null ? c.stats() : new CacheStats(0, 0, 0, 0, 0, 0);
+    }
+
+    public void clearCache() {
+        ResultCache c = cache;
+        if (c != null) {
+            c.clear();
+        }
+    }
+
+    private <T> T cached(Object key, EntityVersions.Kind kind, Supplier<T> loader) {
+        ResultCache c = cache;
+        return c != null ? c.get(key, kind, loader) : loader.get();
+    }
+
+    /** Runs {@code query}; {@link QueryResult#explain()} shows the path it took. */
+    public QueryResult<Employee> findEmployees(EmployeeQuery query) {
+        return entityManager.findEmployees(query);
+    }
+
+    public QueryResult<Project> findProjects(ProjectQuery query) {
+        return entityManager.findProjects(query);
+    }
+
     public double calculateTotalProjectHours() {
-        return entityManager.getAllProjects().stream()
-            .mapToDouble(Project::getActualHours)
-            .sum();
+        return entityManager.getTotalProjectHours();
     }
     
+    /**
+     * Rolls approved time entries older than {@code policy} allows into daily
+     * totals across the tasks of all registered projects.
+     */
+    public RetentionResult applyRetention(RetentionPolicy policy) {
+        return entityManager.applyRetention(policy);
+    }
+
     public Map<String, Double> getProjectProgress() {
-        Map<String, Double> progress = new HashMap<>();
-        entityManager.getAllProjects().forEach(p -> 
-            progress.put(p.getTitle(), p.getProgress())
-        );
-        return Collections.unmodifiableMap(progress);
+        return entityManager.getProjectProgress();
+    }
+
+    // Live read-only view keyed by project id, kept current as project hours change
+    public Map<String, Double> getProjectProgressById() {
+        return entityManager.getProjectProgressById();
+    }
+
+    /**
+     * Opens a consistent point-in-time view for long reports, such as hours,
+     * progress and department totals computed together while hours are being
+     * logged. Requires {@link CompanyDataStore#enableSnapshotReads()}; employees
+     * of a custom {@link EmployeeRepository} are not covered.
+     */
+    public ReadView openReadView() {
+        return entityManager.openReadView();
     }
 }
\ No newline at end of file
@@ -1,24 +1,139 @@
 package company.storage;
 
 import company.empoloyees.Employee;
+import company.empoloyees.EmployeeListener;
 import company.projects.Project;
+import company.projects.ProjectEntity;
+import company.projects.ProjectListener;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 
 public final class CompanyDataStore {
-    // Public static maps - demonstrate static storage of application entities
+    // Public static maps - demonstrate static storage of application entities.
+    // Register through addEmployee/addProject so the secondary indexes stay in sync.
     public static final Map<String, Employee> EMPLOYEES = new ConcurrentHashMap<>();
     public static final Map<String, Project> PROJECTS = new ConcurrentHashMap<>();
 
+    private static final Object[] ID_LOCKS = new Object[256];
+    private static volatile CompanyPersistence persistence;
+    private static volatile SnapshotReads snapshotReads;
+    private static final StoreListeners LISTENERS = new StoreListeners();
+
+    static {
+        for (int i = 0; i < ID_LOCKS.length; i++) {
+            ID_LOCKS[i] = new Object();
+        }
+        LISTENERS.add(CompanyIndexes.EMPLOYEE_EVENTS, CompanyIndexes.PROJECT_EVENTS);
+        LISTENERS.add(null, ProjectHoursAggregates.PROJECT_EVENTS);
+        LISTENERS.add(EntityVersions.EMPLOYEE_EVENTS, EntityVersions.PROJECT_EVENTS);
+        LISTENERS.add(ChangeCapture.EMPLOYEE_EVENTS, ChangeCapture.PROJECT_EVENTS);
+        Employee.addListener(LISTENERS);
+        ProjectEntity.addListener(LISTENERS);
+    }
+
     private CompanyDataStore() {
 
     }
 
+    /**
+     * Registers {@code e}, replacing any other instance registered under the same ID.
+     * Prefer {@link CompanyDataService#registerEmployee}, which rejects duplicates.
+     */
     public static void addEmployee(Employee e) {
-        EMPLOYEES.put(e.getEmployeeId(), e);
+        upsertEmployee(e);
+    }
+
+    /**
+     * Registers {@code e}, replacing any other instance with the same ID. Registering
+     * the instance that is already registered changes nothing.
+     *
+     * @return the replaced instance, or null if there was none
+     */
+    static Employee upsertEmployee(Employee e) {
+        String id = e.getEmployeeId();
+        Employee previous;
+        CompletableFuture<Long> logged = null;
+        synchronized (lockFor(id)) {
+            previous = EMPLOYEES.put(id, e);
+            if (previous != e) {
+                if (previous != null) {
+                    CompanyIndexes.unindexEmployee(previous);
+                }
+                logged = employeeRegistered(e);
+            }
+        }
+        awaitLogged(logged);
+        return previous == e ? null : previous;
+    }
+
+    /** Registers {@code e} unless its ID is taken; returns whether it was registered. */
+    static boolean addEmployeeIfAbsent(Employee e) {
+        String id = e.getEmployeeId();
+        CompletableFuture<Long> logged;
+        synchronized (lockFor(id)) {
+            if (EMPLOYEES.putIfAbsent(id, e) != null) {
+                return false;
+            }
+            logged = employeeRegistered(e);
+        }
+        awaitLogged(logged);
+        return true;
+    }
+
+    /** Removes {@code e} if it is the instance registered under its ID. */
+    static boolean removeEmployee(Employee e) {
+        String id = e.getEmployeeId();
+        CompletableFuture<Long> logged = null;
+        synchronized (lockFor(id)) {
+            if (!EMPLOYEES.remove(id, e)) {
+                return false;
+            }
+            CompanyIndexes.unindexEmployee(e);
+            EntityVersions.Kind.EMPLOYEES.changed();
+            SnapshotReads reads = snapshotReads;
+            if (reads != null) {
+                reads.employeeRemoved(id);
+            }
+            ChangeCapture.employeeRemoved(e);
+            CompanyPersistence p = persistence;
+            if (p != null) {
+                logged = p.appendEmployeeRemoved(e);
+            }
+        }
+        awaitLogged(logged);
+        return true;
+    }
+
+    /**
+     * Has the store pass employee and project changes on to the given listeners,
+     * after its indexes, aggregates and change capture; either may be null.
+     */
+    static void addListeners(EmployeeListener employeeListener, ProjectListener projectListener) {
+        LISTENERS.add(employeeListener, projectListener);
+    }
+
+    static void removeListeners(EmployeeListener employeeListener, ProjectListener projectListener) {
+        LISTENERS.remove(employeeListener, projectListener);
+    }
+
+    private static CompletableFuture<Long> employeeRegistered(Employee e) {
+        CompanyIndexes.indexEmployee(e);
+        EntityVersions.Kind.EMPLOYEES.changed();
+        SnapshotReads reads = snapshotReads;
+        if (reads != null) {
+            reads.employeeChanged(e);
+        }
+        ChangeCapture.employeeRegistered(e);
+        CompanyPersistence p = persistence;
+        return p != null ? p.appendEmployee(e) : null;
     }
 
     public static Employee findEmployee(String id) {
@@ -29,8 +144,101 @@ public final class CompanyDataStore {
         return Collections.unmodifiableMap(EMPLOYEES);
     }
 
+    /**
+     * Registers {@code p}, replacing any other instance registered under the same ID.
+     * Prefer {@link CompanyDataService#registerProject}, which rejects duplicates.
+     */
     public static void addProject(Project p) {
-        PROJECTS.put(p.getId(), p);
+        upsertProject(p);
+    }
+
+    /**
+     * Registers {@code p}, replacing any other instance with the same ID. Registering
+     * the instance that is already registered changes nothing.
+     *
+     * @return the replaced instance, or null if there was none
+     */
+    static Project upsertProject(Project p) {
+        String id = p.getId();
+        Project previous;
+        CompletableFuture<Long> logged = null;
+        synchronized (lockFor(id)) {
+            previous = PROJECTS.put(id, p);
+            if (previous != p) {
+                if (previous != null) {
+                    CompanyIndexes.unindexProject(previous);
+                    ProjectHoursAggregates.untrack(previous);
+                }
+                logged = projectRegistered(p);
+            }
+        }
+        awaitLogged(logged);
+        return previous == p ? null : previous;
+    }
+
+    /** Registers {@code p} unless its ID is taken; returns whether it was registered. */
+    static boolean addProjectIfAbsent(Project p) {
+        String id = p.getId();
+        CompletableFuture<Long> logged;
+        synchronized (lockFor(id)) {
+            if (PROJECTS.putIfAbsent(id, p) != null) {
+                return false;
+            }
+            logged = projectRegistered(p);
+        }
+        awaitLogged(logged);
+        return true;
+    }
+
+    /** Removes {@code p} if it is the instance registered under its ID. */
+    static boolean removeProject(Project p) {
+        String id = p.getId();
+        CompletableFuture<Long> logged = null;
+        synchronized (lockFor(id)) {
+            if (!PROJECTS.remove(id, p)) {
+                return false;
+            }
+            CompanyIndexes.unindexProject(p);
+            ProjectHoursAggregates.untrack(p);
+            EntityVersions.Kind.PROJECTS.changed();
+            SnapshotReads reads = snapshotReads;
+            if (reads != null) {
+                reads.projectRemoved(id);
+            }
+            ChangeCapture.projectRemoved(p);
+            CompanyPersistence log = persistence;
+            if (log != null) {
+                logged = log.appendProjectRemoved(p);
+            }
+        }
+        awaitLogged(logged);
+        return true;
+    }
+
+    private static CompletableFuture<Long> projectRegistered(Project p) {
+        CompanyIndexes.indexProject(p);
+        ProjectHoursAggregates.track(p);
+        EntityVersions.Kind.PROJECTS.changed();
+        SnapshotReads reads = snapshotReads;
+        if (reads != null) {
+            reads.projectChanged(p);
+        }
+        ChangeCapture.projectRegistered(p);
+        CompanyPersistence log = persistence;
+        return log != null ? log.appendProject(p) : null;
+    }
+
+    // Registration, replacement and removal of one ID are serialized on a lock
+    // stripe so the map, the indexes and the log always agree; reads never lock.
+    private static Object lockFor(String id) {
+        return ID_LOCKS[(id.hashCode() & 0x7fffffff) % ID_LOCKS.length];
+    }
+
+    private static void awaitLogged(CompletableFuture<Long> logged) {
+        CompanyPersistence p = persistence;
+        if (logged != null && p != null) {
+            p.awaitLogged(logged);
+        }
     }
 
     public static Project findProject(String id) {
@@ -40,4 +248,134 @@ public final class CompanyDataStore {
     public static Map<String, Project> getAllProjects() {
         return Collections.unmodifiableMap(PROJECTS);
     }
+
+    public static List<Employee> findEmployeesByDepartmentCode(String departmentCode) {
+        return CompanyIndexes.employeesByDepartmentCode(departmentCode);
+    }
+
+    public static List<Employee> findEmployeesByDepartmentName(String departmentName) {
+        return CompanyIndexes.employeesByDepartmentName(departmentName);
+    }
+
+    public static List<Project> findProjectsByOwner(String ownerId) {
+        return CompanyIndexes.projectsByOwner(ownerId);
+    }
+
+    public static List<Project> findProjectsByStatus(String status) {
+        return CompanyIndexes.projectsByStatus(status);
+    }
+
+    public static double getTotalProjectHours() {
+        return ProjectHoursAggregates.totalActualHours();
+    }
+
+    /** Live read-only progress in percent keyed by project id. */
+    public static Map<String, Double> getProjectProgressById() {
+        return ProjectHoursAggregates.progressById();
+    }
+
+    /**
+     * When enabled, every aggregate read recomputes the totals from scratch and
+     * throws {@link IllegalStateException} if the running values disagree.
+     * Intended for tests; it makes aggregate reads O(N) again.
+     */
+    public static void setConsistencyChecks(boolean enabled) {
+        ProjectHoursAggregates.setConsistencyChecks(enabled);
+    }
+
+    public static void verifyAggregates() {
+        ProjectHoursAggregates.verify(PROJECTS.values());
+    }
+
+    /**
+     * Starts keeping versions of employee and project state so that
+     * {@link #openReadView()} can serve point-in-time reads. Writers pay for one
+     * small allocation per change while it is enabled; readers never block them.
+     */
+    public static synchronized void enableSnapshotReads() {
+        if (snapshotReads == null) {
+            snapshotReads = SnapshotReads.start();
+        }
+    }
+
+    /** Stops versioning. Views that are still open keep reading their pinned state. */
+    public static synchronized void disableSnapshotReads() {
+        SnapshotReads reads = snapshotReads;
+        snapshotReads = null;
+        if (reads != null) {
+            reads.stop();
+        }
+    }
+
+    /**
+     * Opens a view pinned to the latest committed state of the store.
+     *
+     * @throws IllegalStateException if snapshot reads are not enabled
+     */
+    public static ReadView openReadView() {
+        SnapshotReads reads = snapshotReads;
+        if (reads == null) {
+            throw new IllegalStateException("Snapshot reads are not enabled");
+        }
+        return new ReadView(reads);
+    }
+
+    /**
+     * Subscribes to changes of registered employees and projects, delivered in
+     * batches of at most {@code maxBatch} on a dedicated thread. Up to
+     * {@code capacity} undelivered events, rounded up to a power of two, are
+     * buffered; beyond that, the oldest undelivered events for this subscriber
+     * are overwritten rather than slowing down writers.
+     */
+    public static ChangeSubscription subscribe(ChangeSubscriber subscriber, int capacity, int maxBatch) {
+        Objects.requireNonNull(subscriber, "Subscriber cannot be null");
+        if (capacity <= 0 || maxBatch <= 0) {
+            throw new IllegalArgumentException("Capacity and batch size must be positive");
+        }
+        return ChangeCapture.subscribe(subscriber, capacity, maxBatch);
+    }
+
+    public static ChangeSubscription subscribe(ChangeSubscriber subscriber) {
+        return subscribe(subscriber, 65_536, 512);
+    }
+
+    /**
+     * Recovers the store from the snapshot and write-ahead log in {@code directory}
+     * and logs every later registration and mutation there.
+     *
+     * @param snapshotIntervalMillis Interval between automatic checkpoints, or 0 to disable
+     * @throws IllegalStateException if persistence is already enabled
+     */
+    public static synchronized CompanyPersistence enablePersistence(Path directory, CompanyDataLog.Options options,
+                                                                    long snapshotIntervalMillis) throws IOException {
+        if (persistence != null) {
+            throw new IllegalStateException("Persistence is already enabled");
+        }
+        persistence = CompanyPersistence.open(directory, options, snapshotIntervalMillis);
+        return persistence;
+    }
+
+    /**
+     * Writes the current contents of the store to {@code file} in the compact
+     * memory-mapped snapshot format.
+     */
+    public static void writeSnapshot(Path file) throws IOException {
+        BinarySnapshot.write(file, 0, EMPLOYEES.values(), PROJECTS.values());
+    }
+
+    /**
+     * Loads a snapshot written by {@link #writeSnapshot(Path)} without re-running
+     * per-field validation. Already registered IDs are updated in place.
+     */
+    public static void loadSnapshot(Path file) throws IOException {
+        BinarySnapshot.load(file);
+    }
+
+    public static synchronized void disablePersistence() throws IOException {
+        CompanyPersistence p = persistence;
+        persistence = null;
+        if (p != null) {
+            p.close();
+        }
+    }
 }
@@ -2,29 +2,81 @@ package company.storage;
 
 import company.empoloyees.Employee;
 import company.projects.Project;
+import company.projects.RetentionPolicy;
+import company.projects.RetentionResult;
+import company.projects.Task;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 
 class CompanyEntityManager {
+    private final EmployeeRepository employees;
 
-    CompanyEntityManager() {}
+    CompanyEntityManager() {
+        this(MapEmployeeRepository.INSTANCE);
+    }
+
+    CompanyEntityManager(EmployeeRepository employees) {
+        this.employees = Objects.requireNonNull(employees, "Employee repository cannot be null");
+    }
 
     void addEmployee(Employee employee) {
         validateEmployee(employee);
-        CompanyDataStore.addEmployee(employee);
+        if (!employees.addIfAbsent(employee)) {
+            throw new IllegalArgumentException("Employee with ID " + employee.getEmployeeId() + " already exists");
+        }
+    }
+
+    Employee upsertEmployee(Employee employee) {
+        validateEmployee(employee);
+        return employees.upsert(employee);
+    }
+
+    BatchResult<Employee> addEmployees(Collection<Employee> batch, BatchResult.Mode mode) {
+        Objects.requireNonNull(batch, "Employees cannot be null");
+        return new BatchRegistration<Employee>("Employee", Employee::getEmployeeId,
+            employees::contains, employees::addIfAbsent, employees::remove).register(batch, mode);
     }
 
     Employee findEmployee(String employeeId) {
-        return CompanyDataStore.findEmployee(employeeId);
+        return employees.find(employeeId);
     }
 
     Collection<Employee> getAllEmployees() {
-        return CompanyDataStore.getAllEmployees().values();
+        return employees.findAll();
+    }
+
+    /** Whether every change to the employee backend bumps {@link EntityVersions.Kind#EMPLOYEES}. */
+    boolean tracksEmployeeChanges() {
+        return employees == MapEmployeeRepository.INSTANCE || employees instanceof OffHeapEmployeeRepository;
     }
+
+    List<Employee> findEmployeesByDepartmentName(String departmentName) {
+        return employees.findByDepartmentName(departmentName);
+    }
+
     void addProject(Project project) {
         validateProject(project);
-        CompanyDataStore.addProject(project);
+        if (!CompanyDataStore.addProjectIfAbsent(project)) {
+            throw new IllegalArgumentException("Project with ID " + project.getId() + " already exists");
+        }
+    }
+
+    Project upsertProject(Project project) {
+        validateProject(project);
+        return CompanyDataStore.upsertProject(project);
+    }
+
+    BatchResult<Project> addProjects(Collection<Project> projects, BatchResult.Mode mode) {
+        Objects.requireNonNull(projects, "Projects cannot be null");
+        return new BatchRegistration<Project>("Project", Project::getId,
+            CompanyDataStore.PROJECTS::containsKey, CompanyDataStore::addProjectIfAbsent,
+            CompanyDataStore::removeProject).register(projects, mode);
     }
 
     Project findProject(String projectId) {
@@ -35,17 +87,60 @@ class CompanyEntityManager {
         return CompanyDataStore.getAllProjects().values();
     }
 
+    List<Project> findProjectsByOwner(String ownerId) {
+        return CompanyDataStore.findProjectsByOwner(ownerId);
+    }
+
+    List<Project> findProjectsByStatus(String status) {
+        return CompanyDataStore.findProjectsByStatus(status);
+    }
+
+    double getTotalProjectHours() {
+        return CompanyDataStore.getTotalProjectHours();
+    }
+
+    RetentionResult applyRetention(RetentionPolicy policy) {
+        List<Task> tasks = new ArrayList<>();
+        for (Project project : CompanyDataStore.PROJECTS.values()) {
+            tasks.addAll(project.getTasks());
+        }
+        return policy.apply(tasks);
+    }
+
+    Map<String, Double> getProjectProgress() {
+        Map<String, Double> progress = new HashMap<>();
+        CompanyDataStore.getProjectProgressById().forEach((id, percent) -> {
+            Project project = CompanyDataStore.PROJECTS.get(id);
+            if (project != null) {
+                progress.put(project.getTitle(), percent);
+            }
+        });
+        return Collections.unmodifiableMap(progress);
+    }
+
+    Map<String, Double> getProjectProgressById() {
+        return CompanyDataStore.getProjectProgressById();
+    }
+
+    QueryResult<Employee> findEmployees(EmployeeQuery query) {
+        Objects.requireNonNull(query, "Query cannot be null");
+        // Only the default backend keeps the secondary indexes up to date.
+        return employees == MapEmployeeRepository.INSTANCE ? query.execute() : query.scan(employees.findAll());
+    }
+
+    QueryResult<Project> findProjects(ProjectQuery query) {
+        return Objects.requireNonNull(query, "Query cannot be null").execute();
+    }
+
+    ReadView openReadView() {
+        return CompanyDataStore.openReadView();
+    }
+
     private void validateEmployee(Employee employee) {
         Objects.requireNonNull(employee, "Employee cannot be null");
-        if (CompanyDataStore.EMPLOYEES.containsKey(employee.getEmployeeId())) {
-            throw new IllegalArgumentException("Employee with ID " + employee.getEmployeeId() + " already exists");
-        }
     }
 
     private void validateProject(Project project) {
         Objects.requireNonNull(project, "Project cannot be null");
-        if (CompanyDataStore.PROJECTS.containsKey(project.getId())) {
-            throw new IllegalArgumentException("Project with ID " + project.getId() + " already exists");
-        }
     }
 }
\ No newline at end of file
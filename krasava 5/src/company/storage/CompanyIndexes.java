@@ -0,0 +1,233 @@
+package company.storage;
+
+import company.empoloyees.Employee;
+import company.empoloyees.EmployeeListener;
+import company.projects.Project;
+import company.projects.ProjectEntity;
+import company.projects.ProjectListener;
+import company.structure.Department;
+import company.structure.Position;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Secondary indexes over the entities kept in {@link CompanyDataStore}.
+ * Entries are added when an entity is registered in the store and are moved
+ * when the indexed attribute changes, so lookups cost time proportional to
+ * the result size instead of the store size.
+ */
+final class CompanyIndexes {
+    private static final Map<String, Set<Employee>> EMPLOYEES_BY_DEPARTMENT = new ConcurrentHashMap<>();
+    private static final Map<String, Department> DEPARTMENTS_BY_CODE = new ConcurrentHashMap<>();
+    private static final Map<String, Set<Employee>> EMPLOYEES_BY_POSITION = new ConcurrentHashMap<>();
+    private static final Map<String, Position> POSITIONS_BY_CODE = new ConcurrentHashMap<>();
+    private static final Map<String, Set<Project>> PROJECTS_BY_OWNER = new ConcurrentHashMap<>();
+    private static final Map<String, Set<Project>> PROJECTS_BY_STATUS = new ConcurrentHashMap<>();
+    // The bucket each employee currently sits in, so a move is computed from the index, not from the event.
+    private static final Map<Employee, String> INDEXED_DEPARTMENT = new ConcurrentHashMap<>();
+    private static final Map<Employee, String> INDEXED_POSITION = new ConcurrentHashMap<>();
+
+    static final EmployeeListener EMPLOYEE_EVENTS = new EmployeeListener() {
+        @Override
+        public void onDepartmentChanged(Employee employee, Department oldDepartment, Department newDepartment) {
+            // Concurrent transfers may report their changes out of order, so the
+            // bucket follows the employee's current department rather than newDepartment.
+            if (CompanyDataStore.EMPLOYEES.get(employee.getEmployeeId()) == employee) {
+                synchronized (employee) {
+                    if (INDEXED_DEPARTMENT.containsKey(employee)) {
+                        indexDepartment(employee, employee.getDepartment());
+                    }
+                }
+                EntityVersions.Kind.EMPLOYEES.changed();
+            }
+        }
+
+        @Override
+        public void onPositionChanged(Employee employee, Position oldPosition, Position newPosition) {
+            if (CompanyDataStore.EMPLOYEES.get(employee.getEmployeeId()) == employee) {
+                synchronized (employee) {
+                    if (INDEXED_POSITION.containsKey(employee)) {
+                        indexPosition(employee, employee.getPosition());
+                    }
+                }
+                EntityVersions.Kind.EMPLOYEES.changed();
+            }
+        }
+    };
+
+    static final ProjectListener PROJECT_EVENTS = new ProjectListener() {
+        @Override
+        public void onOwnerChanged(ProjectEntity entity, Employee oldOwner, Employee newOwner) {
+            Project project = registered(entity);
+            if (project != null) {
+                synchronized (project) {
+                    if (oldOwner != null) {
+                        bucket(PROJECTS_BY_OWNER, oldOwner.getEmployeeId()).remove(project);
+                    }
+                    if (newOwner != null) {
+                        bucket(PROJECTS_BY_OWNER, newOwner.getEmployeeId()).add(project);
+                    }
+                }
+                EntityVersions.Kind.PROJECTS.changed();
+            }
+        }
+
+        @Override
+        public void onStatusChanged(ProjectEntity entity, String oldStatus, String newStatus) {
+            Project project = registered(entity);
+            if (project != null) {
+                synchronized (project) {
+                    bucket(PROJECTS_BY_STATUS, oldStatus).remove(project);
+                    bucket(PROJECTS_BY_STATUS, newStatus).add(project);
+                }
+                EntityVersions.Kind.PROJECTS.changed();
+            }
+        }
+    };
+
+    private CompanyIndexes() {
+
+    }
+
+    static void indexEmployee(Employee employee) {
+        synchronized (employee) {
+            indexDepartment(employee, employee.getDepartment());
+            indexPosition(employee, employee.getPosition());
+        }
+    }
+
+    static void unindexEmployee(Employee employee) {
+        synchronized (employee) {
+            String departmentCode = INDEXED_DEPARTMENT.remove(employee);
+            if (departmentCode != null) {
+                bucket(EMPLOYEES_BY_DEPARTMENT, departmentCode).remove(employee);
+            }
+            String positionCode = INDEXED_POSITION.remove(employee);
+            if (positionCode != null) {
+                bucket(EMPLOYEES_BY_POSITION, positionCode).remove(employee);
+            }
+        }
+    }
+
+    static void indexProject(Project project) {
+        synchronized (project) {
+            if (project.getOwner() != null) {
+                bucket(PROJECTS_BY_OWNER, project.getOwner().getEmployeeId()).add(project);
+            }
+            bucket(PROJECTS_BY_STATUS, project.getStatus()).add(project);
+        }
+    }
+
+    static void unindexProject(Project project) {
+        synchronized (project) {
+            if (project.getOwner() != null) {
+                bucket(PROJECTS_BY_OWNER, project.getOwner().getEmployeeId()).remove(project);
+            }
+            bucket(PROJECTS_BY_STATUS, project.getStatus()).remove(project);
+        }
+    }
+
+    static List<Employee> employeesByDepartmentCode(String departmentCode) {
+        return snapshot(EMPLOYEES_BY_DEPARTMENT.get(departmentCode));
+    }
+
+    static List<Employee> employeesByDepartmentName(String departmentName) {
+        List<Employee> result = new ArrayList<>();
+        for (String code : departmentCodesNamed(departmentName)) {
+            result.addAll(employeesByDepartmentCode(code));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    static List<Project> projectsByOwner(String ownerId) {
+        return snapshot(PROJECTS_BY_OWNER.get(ownerId));
+    }
+
+    static List<Project> projectsByStatus(String status) {
+        return snapshot(PROJECTS_BY_STATUS.get(status));
+    }
+
+    // Live buckets for the query planner. They are read without copying, so callers
+    // must tolerate entries moving while they iterate and re-check what they need.
+
+    static Set<Employee> departmentBucket(String departmentCode) {
+        return liveBucket(EMPLOYEES_BY_DEPARTMENT, departmentCode);
+    }
+
+    static Set<Employee> positionBucket(String positionCode) {
+        return liveBucket(EMPLOYEES_BY_POSITION, positionCode);
+    }
+
+    static Set<Project> ownerBucket(String ownerId) {
+        return liveBucket(PROJECTS_BY_OWNER, ownerId);
+    }
+
+    static Set<Project> statusBucket(String status) {
+        return liveBucket(PROJECTS_BY_STATUS, status);
+    }
+
+    // Names are read from the department last indexed under each code, so a rename
+    // or a replacement department with the same code is seen at once.
+
+    static List<String> departmentCodesNamed(String departmentName) {
+        return DEPARTMENTS_BY_CODE.entrySet().stream()
+            .filter(e -> e.getValue().getName().equals(departmentName))
+            .map(Map.Entry::getKey)
+            .filter(code -> !departmentBucket(code).isEmpty())
+            .collect(Collectors.toList());
+    }
+
+    static List<String> positionCodesTitled(String title) {
+        return POSITIONS_BY_CODE.entrySet().stream()
+            .filter(e -> e.getValue().getName().equals(title))
+            .map(Map.Entry::getKey)
+            .filter(code -> !positionBucket(code).isEmpty())
+            .collect(Collectors.toList());
+    }
+
+    // Callers hold the employee's monitor.
+
+    private static void indexPosition(Employee employee, Position position) {
+        POSITIONS_BY_CODE.put(position.getCode(), position);
+        String previous = INDEXED_POSITION.put(employee, position.getCode());
+        if (previous != null && !previous.equals(position.getCode())) {
+            bucket(EMPLOYEES_BY_POSITION, previous).remove(employee);
+        }
+        bucket(EMPLOYEES_BY_POSITION, position.getCode()).add(employee);
+    }
+
+    private static void indexDepartment(Employee employee, Department department) {
+        DEPARTMENTS_BY_CODE.put(department.getCode(), department);
+        String previous = INDEXED_DEPARTMENT.put(employee, department.getCode());
+        if (previous != null && !previous.equals(department.getCode())) {
+            bucket(EMPLOYEES_BY_DEPARTMENT, previous).remove(employee);
+        }
+        bucket(EMPLOYEES_BY_DEPARTMENT, department.getCode()).add(employee);
+    }
+
+    private static Project registered(ProjectEntity entity) {
+        if (entity instanceof Project && CompanyDataStore.PROJECTS.get(entity.getId()) == entity) {
+            return (Project) entity;
+        }
+        return null;
+    }
+
+    private static <T> Set<T> bucket(Map<String, Set<T>> index, String key) {
+        return index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+    }
+
+    private static <T> Set<T> liveBucket(Map<String, Set<T>> index, String key) {
+        Set<T> bucket = index.get(key);
+        return bucket == null ? Set.of() : Collections.unmodifiableSet(bucket);
+    }
+
+    private static <T> List<T> snapshot(Set<T> bucket) {
+        return bucket == null ? List.of() : List.copyOf(bucket);
+    }
+}
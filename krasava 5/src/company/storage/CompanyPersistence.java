@@ -0,0 +1,315 @@
+package company.storage;
+
+import company.empoloyees.Employee;
+import company.empoloyees.EmployeeListener;
+import company.projects.Project;
+import company.projects.ProjectEntity;
+import company.projects.ProjectListener;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable persistence for {@link CompanyDataStore}: every registration and every
+ * mutation of a registered employee or project is appended to a
+ * {@link CompanyDataLog}, and the log is periodically compacted into a snapshot.
+ *
+ * <p>Snapshots use the memory-mapped {@link BinarySnapshot} format. On
+ * {@link #open} the latest snapshot is loaded and the log records written
+ * after it are replayed. Snapshots are fuzzy (taken while writers run); this is
+ * safe because each log record carries an entity's full state, so replaying a
+ * record that the snapshot already reflects changes nothing.
+ */
+public final class CompanyPersistence implements Closeable {
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+
+    private final Path directory;
+    private final CompanyDataLog log;
+    private final ScheduledExecutorService checkpointer;
+    private final EmployeeListener employeeListener;
+    private final ProjectListener projectListener;
+    private final long recoveredRecords;
+    private final long recoveryMillis;
+    // Held for a whole checkpoint, so close() waits for one that is running.
+    private final Object checkpointLock = new Object();
+    private boolean closed;
+    private volatile Exception checkpointFailure;
+    private final AtomicLong failedCheckpoints = new AtomicLong();
+
+    private CompanyPersistence(Path directory, CompanyDataLog log, long snapshotIntervalMillis,
+                               long recoveredRecords, long recoveryMillis) {
+        this.directory = directory;
+        this.log = log;
+        this.recoveredRecords = recoveredRecords;
+        this.recoveryMillis = recoveryMillis;
+        this.employeeListener = new EmployeeListener() {
+            @Override
+            public void onDepartmentChanged(Employee employee, Department oldDepartment, Department newDepartment) {
+                logIfRegistered(employee);
+            }
+
+            @Override
+            public void onPositionChanged(Employee employee, Position oldPosition, Position newPosition) {
+                logIfRegistered(employee);
+            }
+
+            @Override
+            public void onSalaryChanged(Employee employee, double oldSalary, double newSalary) {
+                logIfRegistered(employee);
+            }
+
+            @Override
+            public void onActiveChanged(Employee employee, boolean active) {
+                logIfRegistered(employee);
+            }
+
+            @Override
+            public void onContactChanged(Employee employee) {
+                logIfRegistered(employee);
+            }
+
+            @Override
+            public void onScheduleChanged(Employee employee, WorkSchedule oldSchedule, WorkSchedule newSchedule) {
+                logIfRegistered(employee);
+            }
+        };
+        this.projectListener = new ProjectListener() {
+            @Override
+            public void onOwnerChanged(ProjectEntity entity, Employee oldOwner, Employee newOwner) {
+                logIfRegistered(entity);
+            }
+
+            @Override
+            public void onStatusChanged(ProjectEntity entity, String oldStatus, String newStatus) {
+                logIfRegistered(entity);
+            }
+
+            @Override
+            public void onTitleChanged(ProjectEntity entity, String oldTitle, String newTitle) {
+                logIfRegistered(entity);
+            }
+
+            @Override
+            public void onActualHoursAdded(Project project, double hours) {
+                logIfRegistered(project);
+            }
+
+            @Override
+            public void onEstimatedHoursChanged(Project project, double oldHours, double newHours) {
+                logIfRegistered(project);
+            }
+        };
+        CompanyDataStore.addListeners(employeeListener, projectListener);
+        if (snapshotIntervalMillis > 0) {
+            this.checkpointer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "company-data-checkpoint");
+                t.setDaemon(true);
+                return t;
+            });
+            checkpointer.scheduleWithFixedDelay(this::checkpointQuietly,
+                snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.checkpointer = null;
+        }
+    }
+
+    /**
+     * Recovers the store from {@code directory} and starts logging.
+     *
+     * @param directory Directory holding the snapshot and log segments; created if missing
+     * @param options Log batching and fsync options
+     * @param snapshotIntervalMillis Interval between automatic checkpoints, or 0 to disable
+     * @throws IOException if the directory cannot be read or the log cannot be opened
+     */
+    static CompanyPersistence open(Path directory, CompanyDataLog.Options options, long snapshotIntervalMillis) throws IOException {
+        Files.createDirectories(directory);
+        long started = System.nanoTime();
+        long replayFrom = readSnapshot(directory.resolve(SNAPSHOT_FILE));
+        long lastLsn = replayFrom - 1;
+        long replayed = 0;
+        CompanyRecordCodec.Resolver resolver = new CompanyRecordCodec.Resolver();
+        List<Path> segments = CompanyDataLog.listSegments(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            CompanyDataLog.Segment contents = CompanyDataLog.readSegment(segments.get(i));
+            for (CompanyDataLog.Record r : contents.records) {
+                if (r.lsn < replayFrom) {
+                    continue;
+                }
+                apply(r.type, r.payload, resolver);
+                lastLsn = Math.max(lastLsn, r.lsn);
+                replayed++;
+            }
+            // Only the newest segment can end in a torn write; the log may reopen it for appending.
+            if (i == segments.size() - 1 && contents.isTorn()) {
+                CompanyDataLog.truncateTail(segments.get(i), contents.validLength);
+            }
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        CompanyDataLog log = new CompanyDataLog(directory, lastLsn + 1, options);
+        return new CompanyPersistence(directory, log, snapshotIntervalMillis, replayed, millis);
+    }
+
+    public long getRecoveredRecords() { return recoveredRecords; }
+    public long getRecoveryMillis() { return recoveryMillis; }
+
+    /** Why the latest automatic checkpoint failed, or null if it succeeded or none has run. */
+    public Exception getCheckpointFailure() { return checkpointFailure; }
+    public long getFailedCheckpointCount() { return failedCheckpoints.get(); }
+
+    CompletableFuture<Long> appendEmployee(Employee employee) {
+        synchronized (employee) {
+            return log.append(CompanyRecordCodec.EMPLOYEE, encode(employee));
+        }
+    }
+
+    CompletableFuture<Long> appendProject(Project project) {
+        synchronized (project) {
+            return log.append(CompanyRecordCodec.PROJECT, encode(project));
+        }
+    }
+
+    CompletableFuture<Long> appendEmployeeRemoved(Employee employee) {
+        return log.append(CompanyRecordCodec.EMPLOYEE_REMOVED, encodeId(employee.getEmployeeId()));
+    }
+
+    CompletableFuture<Long> appendProjectRemoved(Project project) {
+        return log.append(CompanyRecordCodec.PROJECT_REMOVED, encodeId(project.getId()));
+    }
+
+    /** Blocks until an appended record is durable, if the sync mode promises that. */
+    void awaitLogged(CompletableFuture<Long> appended) {
+        log.awaitIfSynchronous(appended);
+    }
+
+    private void logIfRegistered(Employee employee) {
+        if (CompanyDataStore.EMPLOYEES.get(employee.getEmployeeId()) == employee) {
+            awaitLogged(appendEmployee(employee));
+        }
+    }
+
+    private void logIfRegistered(ProjectEntity entity) {
+        if (entity instanceof Project && CompanyDataStore.PROJECTS.get(entity.getId()) == entity) {
+            awaitLogged(appendProject((Project) entity));
+        }
+    }
+
+    /**
+     * Writes a snapshot of the store and drops the log segments it supersedes.
+     * Writers are not blocked while the snapshot is taken.
+     *
+     * @throws IllegalStateException if persistence has been closed
+     */
+    public void checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            if (closed) {
+                throw new IllegalStateException("Persistence is closed");
+            }
+            long replayFrom = log.rotate().join();
+            BinarySnapshot.write(directory.resolve(SNAPSHOT_FILE), replayFrom,
+                CompanyDataStore.EMPLOYEES.values(), CompanyDataStore.PROJECTS.values());
+            log.deleteSegmentsBefore(replayFrom);
+        }
+    }
+
+    /** Runs a scheduled checkpoint; a failure is kept for {@link #getCheckpointFailure()}. */
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+            checkpointFailure = null;
+        } catch (IOException | RuntimeException e) {
+            checkpointFailure = e;
+            failedCheckpoints.incrementAndGet();
+        }
+    }
+
+    /** Stops checkpointing, waiting for a checkpoint in progress, then closes the log. */
+    @Override
+    public void close() throws IOException {
+        if (checkpointer != null) {
+            checkpointer.shutdown();
+        }
+        synchronized (checkpointLock) {
+            closed = true;
+        }
+        CompanyDataStore.removeListeners(employeeListener, projectListener);
+        log.close();
+    }
+
+    /** Loads the snapshot into the store; returns the first LSN that must be replayed. */
+    private static long readSnapshot(Path snapshot) throws IOException {
+        return Files.exists(snapshot) ? BinarySnapshot.load(snapshot) : 0;
+    }
+
+    private static void apply(byte type, byte[] payload, CompanyRecordCodec.Resolver resolver) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        if (type == CompanyRecordCodec.EMPLOYEE) {
+            Employee e = CompanyRecordCodec.readEmployee(in, resolver, CompanyDataStore.EMPLOYEES);
+            if (CompanyDataStore.EMPLOYEES.get(e.getEmployeeId()) != e) {
+                CompanyDataStore.addEmployee(e);
+            }
+        } else if (type == CompanyRecordCodec.PROJECT) {
+            Project p = CompanyRecordCodec.readProject(in, CompanyDataStore.EMPLOYEES, CompanyDataStore.PROJECTS);
+            if (CompanyDataStore.PROJECTS.get(p.getId()) != p) {
+                CompanyDataStore.addProject(p);
+            }
+        } else if (type == CompanyRecordCodec.EMPLOYEE_REMOVED) {
+            Employee e = CompanyDataStore.EMPLOYEES.get(in.readUTF());
+            if (e != null) {
+                CompanyDataStore.removeEmployee(e);
+            }
+        } else if (type == CompanyRecordCodec.PROJECT_REMOVED) {
+            Project p = CompanyDataStore.PROJECTS.get(in.readUTF());
+            if (p != null) {
+                CompanyDataStore.removeProject(p);
+            }
+        } else {
+            throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    private static byte[] encode(Employee employee) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            CompanyRecordCodec.writeEmployee(out, employee);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeId(String id) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encode(Project project) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            CompanyRecordCodec.writeProject(out, project);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
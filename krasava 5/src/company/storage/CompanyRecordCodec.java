@@ -0,0 +1,274 @@
+package company.storage;
+
+import company.empoloyees.Admin;
+import company.empoloyees.Employee;
+import company.empoloyees.HRSpecialist;
+import company.empoloyees.Manager;
+import company.projects.Project;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary encoding of employee and project state used by the write-ahead log.
+ * Every record carries the full current state of one entity (or just its ID for
+ * removals), so replaying a record is idempotent: it either creates the entity,
+ * brings an existing one up to date, or removes it.
+ */
+final class CompanyRecordCodec {
+    static final byte EMPLOYEE = 1;
+    static final byte PROJECT = 2;
+    static final byte EMPLOYEE_REMOVED = 3;
+    static final byte PROJECT_REMOVED = 4;
+
+    private static final byte KIND_EMPLOYEE = 0;
+    private static final byte KIND_MANAGER = 1;
+    private static final byte KIND_HR_SPECIALIST = 2;
+    private static final byte KIND_ADMIN = 3;
+
+    private CompanyRecordCodec() {
+
+    }
+
+    /**
+     * Shares department, position and schedule instances between recovered
+     * employees, so that everyone in "D001" points at the same Department.
+     */
+    static final class Resolver {
+        private final Map<String, Department> departments = new HashMap<>();
+        private final Map<String, Position> positions = new HashMap<>();
+        private final Map<String, WorkSchedule> schedules = new HashMap<>();
+
+        Resolver() {
+            CompanyDataStore.EMPLOYEES.values().forEach(e -> {
+                departments.putIfAbsent(e.getDepartment().getCode(), e.getDepartment());
+                positions.putIfAbsent(e.getPosition().getCode(), e.getPosition());
+                schedules.putIfAbsent(e.getWorkSchedule().getScheduleId(), e.getWorkSchedule());
+            });
+        }
+
+        Department department(String code, String name, String description) {
+            return departments.computeIfAbsent(code, c -> new Department(c, name, description));
+        }
+
+        Position position(String code, String name, String description, double minSalary, double maxSalary) {
+            return positions.computeIfAbsent(code, c -> new Position(c, name, description, minSalary, maxSalary));
+        }
+
+        WorkSchedule schedule(String id, String name, int days, double hours, LocalTime start, LocalTime end,
+                              Duration breakDuration, boolean flexible) {
+            return schedules.computeIfAbsent(id, i -> new WorkSchedule(i, name, days, hours, start, end, breakDuration, flexible));
+        }
+    }
+
+    static void writeEmployee(DataOutput out, Employee e) throws IOException {
+        byte kind = e instanceof Manager ? KIND_MANAGER
+            : e instanceof HRSpecialist ? KIND_HR_SPECIALIST
+            : e instanceof Admin ? KIND_ADMIN
+            : KIND_EMPLOYEE;
+        out.writeByte(kind);
+        out.writeUTF(e.getEmployeeId());
+        out.writeUTF(e.getFirstName());
+        out.writeUTF(e.getLastName());
+        out.writeUTF(e.getEmail());
+        out.writeUTF(e.getPhoneNumber());
+        writeDepartment(out, e.getDepartment());
+        Position p = e.getPosition();
+        out.writeUTF(p.getCode());
+        out.writeUTF(p.getName());
+        writeNullableString(out, p.getDescription());
+        out.writeDouble(p.getMinSalary());
+        out.writeDouble(p.getMaxSalary());
+        out.writeLong(e.getHireDate().toEpochDay());
+        out.writeDouble(e.getSalary());
+        WorkSchedule ws = e.getWorkSchedule();
+        out.writeUTF(ws.getScheduleId());
+        out.writeUTF(ws.getScheduleName());
+        out.writeByte(ws.getWorkDaysPerWeek());
+        out.writeDouble(ws.getHoursPerDay());
+        out.writeInt(ws.getStartTime().toSecondOfDay());
+        out.writeInt(ws.getEndTime().toSecondOfDay());
+        out.writeLong(ws.getBreakDuration().getSeconds());
+        out.writeBoolean(ws.isFlexible());
+        out.writeBoolean(e.isActive());
+        if (kind == KIND_MANAGER) {
+            Department managed = ((Manager) e).getManagedDepartment();
+            out.writeBoolean(managed != null);
+            if (managed != null) {
+                writeDepartment(out, managed);
+            }
+        } else if (kind == KIND_ADMIN) {
+            Admin admin = (Admin) e;
+            writeNullableString(out, admin.getAdminId());
+            out.writeBoolean(admin.hasFullAccess());
+        }
+    }
+
+    /**
+     * Decodes an employee record. If {@code existing} is non-null its mutable
+     * state is updated in place and it is returned; otherwise a new instance is built.
+     */
+    static Employee readEmployee(DataInput in, Resolver resolver, Map<String, Employee> existing) throws IOException {
+        byte kind = in.readByte();
+        String id = in.readUTF();
+        String firstName = in.readUTF();
+        String lastName = in.readUTF();
+        String email = in.readUTF();
+        String phone = in.readUTF();
+        Department department = readDepartment(in, resolver);
+        Position position = resolver.position(in.readUTF(), in.readUTF(), readNullableString(in), in.readDouble(), in.readDouble());
+        LocalDate hireDate = LocalDate.ofEpochDay(in.readLong());
+        double salary = in.readDouble();
+        WorkSchedule schedule = resolver.schedule(in.readUTF(), in.readUTF(), in.readByte(), in.readDouble(),
+            LocalTime.ofSecondOfDay(in.readInt()), LocalTime.ofSecondOfDay(in.readInt()),
+            Duration.ofSeconds(in.readLong()), in.readBoolean());
+        boolean active = in.readBoolean();
+        Department managed = null;
+        String adminId = null;
+        boolean fullAccess = false;
+        if (kind == KIND_MANAGER) {
+            managed = in.readBoolean() ? readDepartment(in, resolver) : null;
+        } else if (kind == KIND_ADMIN) {
+            adminId = readNullableString(in);
+            fullAccess = in.readBoolean();
+        }
+
+        Employee e = existing.get(id);
+        if (e != null) {
+            applyEmployeeState(e, email, phone, department, position, salary, schedule, active);
+            return e;
+        }
+        String hire = hireDate.toString();
+        switch (kind) {
+            case KIND_MANAGER:
+                return new Manager(id, firstName, lastName, email, phone, department, position, hire, salary, schedule, active, managed);
+            case KIND_HR_SPECIALIST:
+                e = new HRSpecialist(id, firstName, lastName, email, phone, department, position, hire, salary, schedule);
+                if (!active) {
+                    e.deactivate();
+                }
+                return e;
+            case KIND_ADMIN:
+                return new Admin(id, firstName, lastName, email, phone, department, position, hire, salary, schedule, active, adminId, fullAccess);
+            default:
+                return new Employee(id, firstName, lastName, email, phone, department, position, hire, salary, schedule, active);
+        }
+    }
+
+    static void applyEmployeeState(Employee e, String email, String phone, Department department,
+                                   Position position, double salary, WorkSchedule schedule, boolean active) {
+        if (!e.getEmail().equals(email)) {
+            e.updateEmail(email);
+        }
+        if (!e.getPhoneNumber().equals(phone)) {
+            e.updatePhoneNumber(phone);
+        }
+        if (e.getDepartment() != department) {
+            e.transferToDepartment(department);
+        }
+        if (e.getPosition() != position) {
+            e.updatePosition(position);
+        }
+        if (e.getSalary() != salary) {
+            e.adjustSalary(salary - e.getSalary());
+        }
+        if (e.getWorkSchedule() != schedule) {
+            e.updateWorkSchedule(schedule);
+        }
+        if (active) {
+            e.reactivate();
+        } else {
+            e.deactivate();
+        }
+    }
+
+    static void writeProject(DataOutput out, Project p) throws IOException {
+        out.writeUTF(p.getId());
+        out.writeUTF(p.getTitle());
+        writeNullableString(out, p.getDescription());
+        writeNullableDateTime(out, p.getStartDate());
+        writeNullableDateTime(out, p.getDueDate());
+        writeNullableString(out, p.getOwner() != null ? p.getOwner().getEmployeeId() : null);
+        out.writeUTF(p.getStatus());
+        out.writeDouble(p.getEstimatedHours());
+        out.writeDouble(p.getActualHours());
+    }
+
+    /**
+     * Decodes a project record, updating {@code existing} in place when present.
+     * The owner is looked up among {@code employees}; an unknown owner id leaves
+     * the project unassigned.
+     */
+    static Project readProject(DataInput in, Map<String, Employee> employees, Map<String, Project> existing) throws IOException {
+        String id = in.readUTF();
+        String title = in.readUTF();
+        String description = readNullableString(in);
+        LocalDateTime start = readNullableDateTime(in);
+        LocalDateTime due = readNullableDateTime(in);
+        String ownerId = readNullableString(in);
+        String status = in.readUTF();
+        double estimated = in.readDouble();
+        double actual = in.readDouble();
+
+        Employee owner = ownerId != null ? employees.get(ownerId) : null;
+        Project p = existing.get(id);
+        if (p == null) {
+            p = new Project(id, title, description, start, due, owner instanceof Manager ? (Manager) owner : null);
+        } else {
+            p.setTitle(title);
+            p.setDescription(description);
+            if (due != null) {
+                p.setDueDate(due);
+            }
+        }
+        if (p.getOwner() != owner) {
+            p.setOwner(owner);
+        }
+        p.restoreState(status, estimated, actual);
+        return p;
+    }
+
+    private static void writeDepartment(DataOutput out, Department d) throws IOException {
+        out.writeUTF(d.getCode());
+        out.writeUTF(d.getName());
+        writeNullableString(out, d.getDescription());
+    }
+
+    private static Department readDepartment(DataInput in, Resolver resolver) throws IOException {
+        return resolver.department(in.readUTF(), in.readUTF(), readNullableString(in));
+    }
+
+    private static void writeNullableString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullableDateTime(DataOutput out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readNullableDateTime(DataInput in) throws IOException {
+        return in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+    }
+}
@@ -0,0 +1,119 @@
+package company.storage;
+
+import company.empoloyees.Employee;
+import company.structure.Department;
+import company.structure.Position;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Composable query over registered employees. Conditions are combined with AND;
+ * department and position conditions can be answered from the secondary indexes,
+ * the rest are checked on every candidate.
+ *
+ * <pre>
+ * QueryResult&lt;Employee&gt; developers = new EmployeeQuery()
+ *     .inDepartmentNamed("IT")
+ *     .withPositionTitled("Software Developer")
+ *     .active()
+ *     .hiredAfter(LocalDate.of(2023, 1, 1))
+ *     .salaryAbove(50_000)
+ *     .execute();
+ * System.out.println(developers.explain());
+ * </pre>
+ */
+public final class EmployeeQuery {
+    private final QueryEngine<Employee> engine = new QueryEngine<>();
+
+    public EmployeeQuery inDepartment(Department department) {
+        return inDepartmentCode(Objects.requireNonNull(department, "Department cannot be null").getCode());
+    }
+
+    public EmployeeQuery inDepartmentCode(String departmentCode) {
+        Objects.requireNonNull(departmentCode, "Department code cannot be null");
+        engine.filter("department=" + departmentCode, e -> e.getDepartment().getCode().equals(departmentCode));
+        engine.index("department=" + departmentCode, () -> List.of(CompanyIndexes.departmentBucket(departmentCode)));
+        return this;
+    }
+
+    public EmployeeQuery inDepartmentNamed(String departmentName) {
+        Objects.requireNonNull(departmentName, "Department name cannot be null");
+        engine.filter("department name='" + departmentName + "'", e -> e.getDepartment().getName().equals(departmentName));
+        engine.index("department name='" + departmentName + "'", () -> CompanyIndexes.departmentCodesNamed(departmentName)
+            .stream().map(CompanyIndexes::departmentBucket).collect(Collectors.toList()));
+        return this;
+    }
+
+    public EmployeeQuery withPosition(Position position) {
+        String code = Objects.requireNonNull(position, "Position cannot be null").getCode();
+        engine.filter("position=" + code, e -> e.getPosition().getCode().equals(code));
+        engine.index("position=" + code, () -> List.of(CompanyIndexes.positionBucket(code)));
+        return this;
+    }
+
+    public EmployeeQuery withPositionTitled(String title) {
+        Objects.requireNonNull(title, "Position title cannot be null");
+        engine.filter("position title='" + title + "'", e -> e.getPosition().getName().equals(title));
+        engine.index("position title='" + title + "'", () -> CompanyIndexes.positionCodesTitled(title)
+            .stream().map(CompanyIndexes::positionBucket).collect(Collectors.toList()));
+        return this;
+    }
+
+    public EmployeeQuery active() {
+        engine.filter("active", Employee::isActive);
+        return this;
+    }
+
+    public EmployeeQuery inactive() {
+        engine.filter("inactive", e -> !e.isActive());
+        return this;
+    }
+
+    public EmployeeQuery salaryAbove(double amount) {
+        engine.filter("salary > " + amount, e -> e.getSalary() > amount);
+        return this;
+    }
+
+    public EmployeeQuery salaryAtMost(double amount) {
+        engine.filter("salary <= " + amount, e -> e.getSalary() <= amount);
+        return this;
+    }
+
+    public EmployeeQuery hiredAfter(LocalDate date) {
+        Objects.requireNonNull(date, "Date cannot be null");
+        engine.filter("hired after " + date, e -> e.getHireDate().isAfter(date));
+        return this;
+    }
+
+    public EmployeeQuery hiredBefore(LocalDate date) {
+        Objects.requireNonNull(date, "Date cannot be null");
+        engine.filter("hired before " + date, e -> e.getHireDate().isBefore(date));
+        return this;
+    }
+
+    /** Adds an arbitrary condition; {@code description} is shown in the plan. */
+    public EmployeeQuery where(String description, Predicate<Employee> condition) {
+        engine.filter(description, Objects.requireNonNull(condition, "Condition cannot be null"));
+        return this;
+    }
+
+    /** Plans the query against {@link CompanyDataStore} without running it. */
+    public QueryPlan explain() {
+        return engine.plan(CompanyDataStore.EMPLOYEES.values());
+    }
+
+    /** Runs the query against the employees registered in {@link CompanyDataStore}. */
+    public QueryResult<Employee> execute() {
+        return engine.execute(CompanyDataStore.EMPLOYEES.values(), true);
+    }
+
+    /** Runs the query as a scan over {@code employees}, which have no indexes. */
+    QueryResult<Employee> scan(Collection<Employee> employees) {
+        return engine.execute(employees, false);
+    }
+}
@@ -0,0 +1,42 @@
+package company.storage;
+
+import company.empoloyees.Employee;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Storage backend for employees used by {@link CompanyEntityManager}.
+ * The default backend keeps live objects in {@link CompanyDataStore};
+ * {@link OffHeapEmployeeRepository} keeps compact records outside the heap.
+ */
+public interface EmployeeRepository {
+
+    /** The shared default backend over {@link CompanyDataStore}. */
+    static EmployeeRepository inMemory() {
+        return MapEmployeeRepository.INSTANCE;
+    }
+
+    /** Stores {@code employee} unless its ID is taken; returns whether it was stored. */
+    boolean addIfAbsent(Employee employee);
+
+    /**
+     * Stores {@code employee}, replacing any other employee with the same ID.
+     *
+     * @return the replaced employee, or null if there was none
+     */
+    Employee upsert(Employee employee);
+
+    /** Removes the employee stored under the ID of {@code employee}, if it is that employee. */
+    boolean remove(Employee employee);
+
+    boolean contains(String employeeId);
+
+    Employee find(String employeeId);
+
+    Collection<Employee> findAll();
+
+    List<Employee> findByDepartmentName(String departmentName);
+
+    int size();
+}
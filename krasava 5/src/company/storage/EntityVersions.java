@@ -0,0 +1,105 @@
+package company.storage;
+
+import company.empoloyees.Employee;
+import company.empoloyees.EmployeeListener;
+import company.projects.Project;
+import company.projects.ProjectEntity;
+import company.projects.ProjectListener;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Change counters per entity type. Every registration, removal or field change
+ * of an employee or project bumps its counter before the call that made the
+ * change returns, so a value computed before that call can be recognized as
+ * stale afterwards. Counters only grow; compare them, never subtract them.
+ *
+ * <p>The store passes each change to its indexes and aggregates before these
+ * counters, but to repositories and snapshot reads after them. Structures that
+ * are updated from listeners therefore bump the counter again once they have.
+ */
+final class EntityVersions {
+
+    enum Kind {
+        EMPLOYEES, PROJECTS;
+
+        private final LongAdder changes = new LongAdder();
+
+        long current() {
+            return changes.sum();
+        }
+
+        void changed() {
+            changes.increment();
+        }
+    }
+
+    // Changes to instances that are not registered bump the counters too. That
+    // costs a spurious cache miss at worst and covers off-heap employees, whose
+    // stored records are updated from the same events.
+    static final EmployeeListener EMPLOYEE_EVENTS = new EmployeeListener() {
+        @Override
+        public void onDepartmentChanged(Employee employee, Department oldDepartment, Department newDepartment) {
+            Kind.EMPLOYEES.changed();
+        }
+
+        @Override
+        public void onPositionChanged(Employee employee, Position oldPosition, Position newPosition) {
+            Kind.EMPLOYEES.changed();
+        }
+
+        @Override
+        public void onSalaryChanged(Employee employee, double oldSalary, double newSalary) {
+            Kind.EMPLOYEES.changed();
+        }
+
+        @Override
+        public void onActiveChanged(Employee employee, boolean active) {
+            Kind.EMPLOYEES.changed();
+        }
+
+        @Override
+        public void onContactChanged(Employee employee) {
+            Kind.EMPLOYEES.changed();
+        }
+
+        @Override
+        public void onScheduleChanged(Employee employee, WorkSchedule oldSchedule, WorkSchedule newSchedule) {
+            Kind.EMPLOYEES.changed();
+        }
+    };
+
+    static final ProjectListener PROJECT_EVENTS = new ProjectListener() {
+        @Override
+        public void onOwnerChanged(ProjectEntity entity, Employee oldOwner, Employee newOwner) {
+            Kind.PROJECTS.changed();
+        }
+
+        @Override
+        public void onStatusChanged(ProjectEntity entity, String oldStatus, String newStatus) {
+            Kind.PROJECTS.changed();
+        }
+
+        @Override
+        public void onTitleChanged(ProjectEntity entity, String oldTitle, String newTitle) {
+            Kind.PROJECTS.changed();
+        }
+
+        @Override
+        public void onActualHoursAdded(Project project, double hours) {
+            Kind.PROJECTS.changed();
+        }
+
+        @Override
+        public void onEstimatedHoursChanged(Project project, double oldHours, double newHours) {
+            Kind.PROJECTS.changed();
+        }
+    };
+
+    private EntityVersions() {
+
+    }
+}
@@ -0,0 +1,55 @@
+package company.storage;
+
+import company.empoloyees.Employee;
+
+import java.util.Collection;
+import java.util.List;
+
+/** Default backend: live {@link Employee} objects in {@link CompanyDataStore}. */
+final class MapEmployeeRepository implements EmployeeRepository {
+    static final MapEmployeeRepository INSTANCE = new MapEmployeeRepository();
+
+    private MapEmployeeRepository() {
+
+    }
+
+    @Override
+    public boolean addIfAbsent(Employee employee) {
+        return CompanyDataStore.addEmployeeIfAbsent(employee);
+    }
+
+    @Override
+    public Employee upsert(Employee employee) {
+        return CompanyDataStore.upsertEmployee(employee);
+    }
+
+    @Override
+    public boolean remove(Employee employee) {
+        return CompanyDataStore.removeEmployee(employee);
+    }
+
+    @Override
+    public boolean contains(String employeeId) {
+        return CompanyDataStore.EMPLOYEES.containsKey(employeeId);
+    }
+
+    @Override
+    public Employee find(String employeeId) {
+        return CompanyDataStore.findEmployee(employeeId);
+    }
+
+    @Override
+    public Collection<Employee> findAll() {
+        return CompanyDataStore.getAllEmployees().values();
+    }
+
+    @Override
+    public List<Employee> findByDepartmentName(String departmentName) {
+        return CompanyDataStore.findEmployeesByDepartmentName(departmentName);
+    }
+
+    @Override
+    public int size() {
+        return CompanyDataStore.EMPLOYEES.size();
+    }
+}
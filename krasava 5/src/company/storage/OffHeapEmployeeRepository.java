@@ -0,0 +1,600 @@
+package company.storage;
+
+import company.empoloyees.Employee;
+import company.empoloyees.EmployeeListener;
+import company.empoloyees.StoredEmployees;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Employee backend that keeps records outside the Java heap.
+ *
+ * <p>Each employee is a fixed {@value #RECORD_BYTES}-byte record in direct
+ * buffers. Unique strings (ID, email, phone) live in an off-heap arena; names
+ * and the shared department, position and schedule objects are
+ * dictionary-encoded to small ints. Lookups by ID go through an open-addressing
+ * table of record slots. {@link #find} materializes a fresh {@link Employee}
+ * view on every call; changes made through any employee with a stored ID are
+ * written back to its record. Records have no identity, so removal goes by ID.
+ *
+ * <p>Removal frees the record slot for the next insert. Strings replaced or
+ * removed stay in the arena as garbage until it outweighs the live strings;
+ * arena chunks that are then mostly garbage have their live strings moved out
+ * and are dropped.
+ *
+ * <p>Plain {@code Employee} instances are stored off-heap. Subclasses such as
+ * managers carry extra state and are few, so they are kept on the heap as is.
+ */
+public final class OffHeapEmployeeRepository implements EmployeeRepository, Closeable {
+    static final int RECORD_BYTES = 64;
+    private static final StoredEmployees STORED = StoredEmployees.forStorage();
+    private static final int RECORDS_PER_CHUNK = 1 << 16;
+    private static final int ARENA_CHUNK_BYTES = 1 << 24;
+
+    private static final int ID = 0;
+    private static final int EMAIL = 8;
+    private static final int PHONE = 16;
+    private static final int FIRST_NAME = 24;
+    private static final int LAST_NAME = 28;
+    private static final int DEPARTMENT = 32;
+    private static final int POSITION = 36;
+    private static final int SCHEDULE = 40;
+    private static final int HIRE_DAY = 44;
+    private static final int SALARY = 48;
+    private static final int ID_HASH = 56;
+    private static final int FLAGS = 60;
+
+    private static final int[] STRING_FIELDS = { ID, EMAIL, PHONE };
+
+    private static final byte LIVE = 1;
+    private static final byte ACTIVE = 2;
+
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+
+    /** Assigns dense ints to values that repeat across many employees. */
+    private static final class Dictionary<T> {
+        private final Map<T, Integer> codes = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+
+        int encode(T value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        T decode(int code) {
+            return values.get(code);
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<ByteBuffer> records = new ArrayList<>();
+    // Chunks are addressed by index from string references; dropped chunks leave a null.
+    private final List<ByteBuffer> arena = new ArrayList<>();
+    private final Dictionary<String> names = new Dictionary<>();
+    private final Dictionary<Department> departments = new Dictionary<>();
+    private final Dictionary<Position> positions = new Dictionary<>();
+    private final Dictionary<WorkSchedule> schedules = new Dictionary<>();
+    private final Map<String, Employee> onHeap = new ConcurrentHashMap<>();
+    private final EmployeeListener writeBack;
+
+    private int[] table = new int[1024];
+    private int slots;
+    private int live;
+    private int tableUsed;
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+    private int arenaChunk = -1;
+    private int arenaPosition = ARENA_CHUNK_BYTES;
+    // Per chunk: bytes written, and bytes still referenced by a record.
+    private int[] chunkUsed = new int[8];
+    private int[] chunkLive = new int[8];
+    private long arenaBytes;
+    private long arenaGarbage;
+
+    public OffHeapEmployeeRepository() {
+        this.writeBack = new EmployeeListener() {
+            @Override
+            public void onDepartmentChanged(Employee employee, Department oldDepartment, Department newDepartment) {
+                // Transfers report after releasing their locks, possibly out of order; store the current one.
+                update(employee, (r, at) -> r.putInt(at + DEPARTMENT, departments.encode(employee.getDepartment())));
+            }
+
+            @Override
+            public void onPositionChanged(Employee employee, Position oldPosition, Position newPosition) {
+                update(employee, (r, at) -> r.putInt(at + POSITION, positions.encode(newPosition)));
+            }
+
+            @Override
+            public void onSalaryChanged(Employee employee, double oldSalary, double newSalary) {
+                update(employee, (r, at) -> r.putDouble(at + SALARY, newSalary));
+            }
+
+            @Override
+            public void onActiveChanged(Employee employee, boolean active) {
+                update(employee, (r, at) -> r.put(at + FLAGS, (byte) (LIVE | (active ? ACTIVE : 0))));
+            }
+
+            @Override
+            public void onContactChanged(Employee employee) {
+                update(employee, (r, at) -> {
+                    release(r.getLong(at + EMAIL));
+                    r.putLong(at + EMAIL, store(employee.getEmail()));
+                    release(r.getLong(at + PHONE));
+                    r.putLong(at + PHONE, store(employee.getPhoneNumber()));
+                });
+            }
+
+            @Override
+            public void onScheduleChanged(Employee employee, WorkSchedule oldSchedule, WorkSchedule newSchedule) {
+                update(employee, (r, at) -> r.putInt(at + SCHEDULE, schedules.encode(newSchedule)));
+            }
+        };
+        CompanyDataStore.addListeners(writeBack, null);
+    }
+
+    private interface RecordUpdate {
+        void apply(ByteBuffer chunk, int offset);
+    }
+
+    @Override
+    public boolean addIfAbsent(Employee employee) {
+        lock.writeLock().lock();
+        try {
+            if (containsUnlocked(employee.getEmployeeId())) {
+                return false;
+            }
+            insertUnlocked(employee);
+            EntityVersions.Kind.EMPLOYEES.changed();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Employee upsert(Employee employee) {
+        lock.writeLock().lock();
+        try {
+            String id = employee.getEmployeeId();
+            Employee previous = onHeap.remove(id);
+            int slot = findSlot(id);
+            if (slot >= 0) {
+                previous = materialize(slot);
+                deleteSlot(id, slot);
+            }
+            insertUnlocked(employee);
+            compactArenaIfWasteful();
+            EntityVersions.Kind.EMPLOYEES.changed();
+            return previous == employee ? null : previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Employee employee) {
+        lock.writeLock().lock();
+        try {
+            String id = employee.getEmployeeId();
+            if (onHeap.remove(id, employee)) {
+                EntityVersions.Kind.EMPLOYEES.changed();
+                return true;
+            }
+            int slot = findSlot(id);
+            if (slot < 0) {
+                return false;
+            }
+            deleteSlot(id, slot);
+            compactArenaIfWasteful();
+            EntityVersions.Kind.EMPLOYEES.changed();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(String employeeId) {
+        lock.readLock().lock();
+        try {
+            return containsUnlocked(employeeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Employee find(String employeeId) {
+        lock.readLock().lock();
+        try {
+            Employee special = onHeap.get(employeeId);
+            if (special != null) {
+                return special;
+            }
+            int slot = findSlot(employeeId);
+            return slot >= 0 ? materialize(slot) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Materializes every stored employee; intended for exports, not hot paths. */
+    @Override
+    public Collection<Employee> findAll() {
+        lock.readLock().lock();
+        try {
+            List<Employee> all = new ArrayList<>(live + onHeap.size());
+            for (int slot = 0; slot < slots; slot++) {
+                if (isLive(slot)) {
+                    all.add(materialize(slot));
+                }
+            }
+            all.addAll(onHeap.values());
+            return all;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Scans the department column, materializing only the matching records. */
+    @Override
+    public List<Employee> findByDepartmentName(String departmentName) {
+        lock.readLock().lock();
+        try {
+            boolean[] wanted = new boolean[departments.values.size()];
+            boolean any = false;
+            for (int code = 0; code < wanted.length; code++) {
+                wanted[code] = departments.decode(code).getName().equals(departmentName);
+                any |= wanted[code];
+            }
+            List<Employee> result = new ArrayList<>();
+            for (int slot = 0; any && slot < slots; slot++) {
+                ByteBuffer chunk = chunk(slot);
+                int at = offset(slot);
+                if ((chunk.get(at + FLAGS) & LIVE) != 0 && wanted[chunk.getInt(at + DEPARTMENT)]) {
+                    result.add(materialize(slot));
+                }
+            }
+            onHeap.values().stream()
+                .filter(e -> e.getDepartment().getName().equals(departmentName))
+                .forEach(result::add);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live + onHeap.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Direct memory held by records and the string arena, in bytes. */
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            long arenaChunks = arena.stream().filter(c -> c != null).count();
+            return (long) records.size() * RECORDS_PER_CHUNK * RECORD_BYTES + arenaChunks * ARENA_CHUNK_BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Bytes of string data in the arena, including superseded values not yet compacted away. */
+    public long arenaBytesUsed() {
+        return arenaBytes;
+    }
+
+    @Override
+    public void close() {
+        CompanyDataStore.removeListeners(writeBack, null);
+    }
+
+    private boolean containsUnlocked(String id) {
+        return onHeap.containsKey(id) || findSlot(id) >= 0;
+    }
+
+    private void insertUnlocked(Employee e) {
+        if (e.getClass() != Employee.class) {
+            onHeap.put(e.getEmployeeId(), e);
+            return;
+        }
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = slots++;
+            if (slot / RECORDS_PER_CHUNK == records.size()) {
+                records.add(ByteBuffer.allocateDirect(RECORDS_PER_CHUNK * RECORD_BYTES));
+            }
+        }
+        ByteBuffer chunk = chunk(slot);
+        int at = offset(slot);
+        int hash = hash(e.getEmployeeId());
+        chunk.putLong(at + ID, store(e.getEmployeeId()));
+        chunk.putLong(at + EMAIL, store(e.getEmail()));
+        chunk.putLong(at + PHONE, store(e.getPhoneNumber()));
+        chunk.putInt(at + FIRST_NAME, names.encode(e.getFirstName()));
+        chunk.putInt(at + LAST_NAME, names.encode(e.getLastName()));
+        chunk.putInt(at + DEPARTMENT, departments.encode(e.getDepartment()));
+        chunk.putInt(at + POSITION, positions.encode(e.getPosition()));
+        chunk.putInt(at + SCHEDULE, schedules.encode(e.getWorkSchedule()));
+        chunk.putInt(at + HIRE_DAY, (int) e.getHireDate().toEpochDay());
+        chunk.putDouble(at + SALARY, e.getSalary());
+        chunk.putInt(at + ID_HASH, hash);
+        chunk.put(at + FLAGS, (byte) (LIVE | (e.isActive() ? ACTIVE : 0)));
+        live++;
+
+        if ((tableUsed + 1) * 2 > table.length) {
+            rehash();
+        }
+        int mask = table.length - 1;
+        int i = hash & mask;
+        while (table[i] != EMPTY && table[i] != DELETED) {
+            i = (i + 1) & mask;
+        }
+        if (table[i] == EMPTY) {
+            tableUsed++;
+        }
+        table[i] = slot + 1;
+    }
+
+    /**
+     * Writes a change back if the employee is stored here. The listener sees every
+     * employee in the JVM, so the lookup runs under the shared read lock and only
+     * employees actually stored here take the write lock.
+     */
+    private void update(Employee employee, RecordUpdate change) {
+        if (employee.getClass() != Employee.class) {
+            return;
+        }
+        String id = employee.getEmployeeId();
+        lock.readLock().lock();
+        try {
+            if (findSlot(id) < 0) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(id);
+            if (slot >= 0) {
+                change.apply(chunk(slot), offset(slot));
+                compactArenaIfWasteful();
+                EntityVersions.Kind.EMPLOYEES.changed();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Employee materialize(int slot) {
+        ByteBuffer chunk = chunk(slot);
+        int at = offset(slot);
+        return STORED.view(load(chunk.getLong(at + ID)),
+            names.decode(chunk.getInt(at + FIRST_NAME)), names.decode(chunk.getInt(at + LAST_NAME)),
+            load(chunk.getLong(at + EMAIL)), load(chunk.getLong(at + PHONE)),
+            departments.decode(chunk.getInt(at + DEPARTMENT)), positions.decode(chunk.getInt(at + POSITION)),
+            LocalDate.ofEpochDay(chunk.getInt(at + HIRE_DAY)), chunk.getDouble(at + SALARY),
+            schedules.decode(chunk.getInt(at + SCHEDULE)), (chunk.get(at + FLAGS) & ACTIVE) != 0);
+    }
+
+    private int findSlot(String id) {
+        int hash = hash(id);
+        byte[] key = null;
+        int mask = table.length - 1;
+        for (int i = hash & mask; table[i] != EMPTY; i = (i + 1) & mask) {
+            if (table[i] == DELETED) {
+                continue;
+            }
+            int slot = table[i] - 1;
+            ByteBuffer chunk = chunk(slot);
+            int at = offset(slot);
+            if (chunk.getInt(at + ID_HASH) == hash) {
+                if (key == null) {
+                    key = id.getBytes(StandardCharsets.UTF_8);
+                }
+                if (equalsStored(chunk.getLong(at + ID), key)) {
+                    return slot;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void deleteSlot(String id, int slot) {
+        int mask = table.length - 1;
+        for (int i = hash(id) & mask; table[i] != EMPTY; i = (i + 1) & mask) {
+            if (table[i] == slot + 1) {
+                table[i] = DELETED;
+                break;
+            }
+        }
+        ByteBuffer chunk = chunk(slot);
+        int at = offset(slot);
+        chunk.put(at + FLAGS, (byte) 0);
+        release(chunk.getLong(at + ID));
+        release(chunk.getLong(at + EMAIL));
+        release(chunk.getLong(at + PHONE));
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        live--;
+    }
+
+    private void rehash() {
+        int capacity = Integer.highestOneBit(Math.max(1024, live * 4) - 1) << 1;
+        int[] fresh = new int[capacity];
+        int mask = capacity - 1;
+        for (int slot = 0; slot < slots; slot++) {
+            if (isLive(slot)) {
+                int i = chunk(slot).getInt(offset(slot) + ID_HASH) & mask;
+                while (fresh[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                fresh[i] = slot + 1;
+            }
+        }
+        table = fresh;
+        tableUsed = live;
+    }
+
+    private boolean isLive(int slot) {
+        return (chunk(slot).get(offset(slot) + FLAGS) & LIVE) != 0;
+    }
+
+    private ByteBuffer chunk(int slot) {
+        return records.get(slot / RECORDS_PER_CHUNK);
+    }
+
+    private static int offset(int slot) {
+        return (slot % RECORDS_PER_CHUNK) * RECORD_BYTES;
+    }
+
+    private static int hash(String id) {
+        int h = id.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /** Appends a length-prefixed UTF-8 string to the arena and returns its reference. */
+    private long store(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for off-heap storage");
+        }
+        return storeBytes(bytes);
+    }
+
+    private long storeBytes(byte[] bytes) {
+        int size = 2 + bytes.length;
+        if (arenaPosition + size > ARENA_CHUNK_BYTES) {
+            arenaChunk = arena.indexOf(null);
+            if (arenaChunk < 0) {
+                arenaChunk = arena.size();
+                arena.add(null);
+                if (arenaChunk == chunkUsed.length) {
+                    chunkUsed = Arrays.copyOf(chunkUsed, arenaChunk * 2);
+                    chunkLive = Arrays.copyOf(chunkLive, arenaChunk * 2);
+                }
+            }
+            arena.set(arenaChunk, ByteBuffer.allocateDirect(ARENA_CHUNK_BYTES));
+            chunkUsed[arenaChunk] = 0;
+            chunkLive[arenaChunk] = 0;
+            arenaPosition = 0;
+        }
+        ByteBuffer chunk = arena.get(arenaChunk);
+        long ref = ((long) arenaChunk << 32) | arenaPosition;
+        chunk.putShort(arenaPosition, (short) bytes.length);
+        chunk.put(arenaPosition + 2, bytes);
+        arenaPosition += size;
+        chunkUsed[arenaChunk] += size;
+        chunkLive[arenaChunk] += size;
+        arenaBytes += size;
+        return ref;
+    }
+
+    private String load(long ref) {
+        return new String(loadBytes(ref), StandardCharsets.UTF_8);
+    }
+
+    private byte[] loadBytes(long ref) {
+        ByteBuffer chunk = arena.get((int) (ref >>> 32));
+        int at = (int) ref;
+        byte[] bytes = new byte[chunk.getShort(at) & 0xFFFF];
+        chunk.get(at + 2, bytes);
+        return bytes;
+    }
+
+    /** Marks a string that no record refers to any more as garbage. */
+    private void release(long ref) {
+        int chunk = (int) (ref >>> 32);
+        int size = 2 + (arena.get(chunk).getShort((int) ref) & 0xFFFF);
+        chunkLive[chunk] -= size;
+        arenaGarbage += size;
+    }
+
+    /**
+     * Once garbage makes up more than half of the arena, moves the live strings
+     * out of every chunk that is mostly garbage and drops those chunks. Only the
+     * moved strings need new space, so compaction never needs a second arena,
+     * and amortized over the changes that produced the garbage it is O(1) each.
+     */
+    private void compactArenaIfWasteful() {
+        if (arenaGarbage < ARENA_CHUNK_BYTES || arenaGarbage * 2 < arenaBytes) {
+            return;
+        }
+        boolean[] evacuate = new boolean[arena.size()];
+        boolean any = false;
+        for (int c = 0; c < arena.size(); c++) {
+            evacuate[c] = arena.get(c) != null && c != arenaChunk && chunkLive[c] * 2 < chunkUsed[c];
+            any |= evacuate[c];
+        }
+        if (!any) {
+            return;
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            if (isLive(slot)) {
+                ByteBuffer chunk = chunk(slot);
+                int at = offset(slot);
+                for (int field : STRING_FIELDS) {
+                    long ref = chunk.getLong(at + field);
+                    if (evacuate[(int) (ref >>> 32)]) {
+                        chunk.putLong(at + field, storeBytes(loadBytes(ref)));
+                    }
+                }
+            }
+        }
+        for (int c = 0; c < evacuate.length; c++) {
+            if (evacuate[c]) {
+                arena.set(c, null);
+                arenaBytes -= chunkUsed[c];
+                arenaGarbage -= chunkUsed[c] - chunkLive[c];
+                chunkUsed[c] = 0;
+                chunkLive[c] = 0;
+            }
+        }
+    }
+
+    private boolean equalsStored(long ref, byte[] key) {
+        ByteBuffer chunk = arena.get((int) (ref >>> 32));
+        int at = (int) ref;
+        if ((chunk.getShort(at) & 0xFFFF) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (chunk.get(at + 2 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
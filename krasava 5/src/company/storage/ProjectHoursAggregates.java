@@ -0,0 +1,135 @@
+package company.storage;
+
+import company.projects.Project;
+import company.projects.ProjectListener;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Running totals of project hours for the projects kept in {@link CompanyDataStore}.
+ * Every hours change on a registered project reconciles only that project's
+ * contribution, so reads never rescan the store. Progress is keyed by project id:
+ * titles need not be unique, and keying by them let one project's rename or
+ * removal drop another's entry.
+ */
+final class ProjectHoursAggregates {
+    private static final double TOLERANCE = 1e-6;
+
+    private static final DoubleAdder TOTAL_ACTUAL_HOURS = new DoubleAdder();
+    private static final Map<Project, Contribution> CONTRIBUTIONS = new ConcurrentHashMap<>();
+    private static final Map<String, Double> PROGRESS_BY_ID = new ConcurrentHashMap<>();
+
+    private static volatile boolean consistencyChecks = false;
+
+    /** Values of one project as last folded into the totals. */
+    private static final class Contribution {
+        double actualHours;
+    }
+
+    static final ProjectListener PROJECT_EVENTS = new ProjectListener() {
+        @Override
+        public void onActualHoursAdded(Project project, double hours) {
+            reconcile(project);
+        }
+
+        @Override
+        public void onEstimatedHoursChanged(Project project, double oldHours, double newHours) {
+            reconcile(project);
+        }
+    };
+
+    private ProjectHoursAggregates() {
+
+    }
+
+    static void track(Project project) {
+        synchronized (project) {
+            CONTRIBUTIONS.putIfAbsent(project, new Contribution());
+            reconcile(project);
+        }
+    }
+
+    static void untrack(Project project) {
+        synchronized (project) {
+            Contribution c = CONTRIBUTIONS.remove(project);
+            if (c != null) {
+                TOTAL_ACTUAL_HOURS.add(-c.actualHours);
+                PROGRESS_BY_ID.remove(project.getId());
+            }
+        }
+    }
+
+    /**
+     * Folds the current values of {@code project} into the totals. Called after the
+     * project's fields have changed; recomputing the delta from the last folded value
+     * keeps the totals exact however registration and updates interleave.
+     */
+    private static void reconcile(Project project) {
+        synchronized (project) {
+            Contribution c = CONTRIBUTIONS.get(project);
+            if (c == null) {
+                return;
+            }
+            double actual = project.getActualHours();
+            TOTAL_ACTUAL_HOURS.add(actual - c.actualHours);
+            c.actualHours = actual;
+            PROGRESS_BY_ID.put(project.getId(), project.getProgress());
+        }
+    }
+
+    static double totalActualHours() {
+        double total = TOTAL_ACTUAL_HOURS.sum();
+        if (consistencyChecks) {
+            verify(CompanyDataStore.PROJECTS.values());
+        }
+        return total;
+    }
+
+    static Map<String, Double> progressById() {
+        if (consistencyChecks) {
+            verify(CompanyDataStore.PROJECTS.values());
+        }
+        return Collections.unmodifiableMap(PROGRESS_BY_ID);
+    }
+
+    static void setConsistencyChecks(boolean enabled) {
+        consistencyChecks = enabled;
+    }
+
+    /**
+     * Recomputes the aggregates from scratch and compares them with the running values.
+     *
+     * @throws IllegalStateException if the running values have drifted
+     */
+    static void verify(Collection<Project> projects) {
+        double expectedTotal = 0;
+        Map<String, Double> expectedProgress = new HashMap<>();
+        for (Project p : projects) {
+            expectedTotal += p.getActualHours();
+            expectedProgress.put(p.getId(), p.getProgress());
+        }
+        double actualTotal = TOTAL_ACTUAL_HOURS.sum();
+        if (!closeEnough(expectedTotal, actualTotal)) {
+            throw new IllegalStateException("Total project hours drifted: expected " + expectedTotal + ", found " + actualTotal);
+        }
+        if (!expectedProgress.keySet().equals(PROGRESS_BY_ID.keySet())) {
+            throw new IllegalStateException("Project progress ids drifted: expected " + expectedProgress.keySet()
+                + ", found " + PROGRESS_BY_ID.keySet());
+        }
+        expectedProgress.forEach((id, expected) -> {
+            Double found = PROGRESS_BY_ID.get(id);
+            if (found == null || !closeEnough(expected, found)) {
+                throw new IllegalStateException("Progress of project '" + id + "' drifted: expected " + expected + ", found " + found);
+            }
+        });
+    }
+
+    private static boolean closeEnough(double expected, double actual) {
+        return Math.abs(expected - actual) <= TOLERANCE * Math.max(1.0, Math.abs(expected));
+    }
+}
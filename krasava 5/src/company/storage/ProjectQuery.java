@@ -0,0 +1,80 @@
+package company.storage;
+
+import company.empoloyees.Employee;
+import company.projects.Project;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Composable query over registered projects. Conditions are combined with AND;
+ * status and owner conditions can be answered from the secondary indexes, the
+ * rest are checked on every candidate.
+ */
+public final class ProjectQuery {
+    private final QueryEngine<Project> engine = new QueryEngine<>();
+
+    public ProjectQuery withStatus(String status) {
+        Objects.requireNonNull(status, "Status cannot be null");
+        engine.filter("status=" + status, p -> p.getStatus().equals(status));
+        engine.index("status=" + status, () -> List.of(CompanyIndexes.statusBucket(status)));
+        return this;
+    }
+
+    public ProjectQuery ownedBy(Employee owner) {
+        return ownedById(Objects.requireNonNull(owner, "Owner cannot be null").getEmployeeId());
+    }
+
+    public ProjectQuery ownedById(String ownerId) {
+        Objects.requireNonNull(ownerId, "Owner ID cannot be null");
+        engine.filter("owner=" + ownerId, p -> p.getOwner() != null && p.getOwner().getEmployeeId().equals(ownerId));
+        engine.index("owner=" + ownerId, () -> List.of(CompanyIndexes.ownerBucket(ownerId)));
+        return this;
+    }
+
+    public ProjectQuery titleContains(String text) {
+        Objects.requireNonNull(text, "Text cannot be null");
+        engine.filter("title contains '" + text + "'", p -> p.getTitle().contains(text));
+        return this;
+    }
+
+    public ProjectQuery startedAfter(LocalDateTime time) {
+        Objects.requireNonNull(time, "Time cannot be null");
+        engine.filter("started after " + time, p -> p.getStartDate() != null && p.getStartDate().isAfter(time));
+        return this;
+    }
+
+    public ProjectQuery dueBefore(LocalDateTime time) {
+        Objects.requireNonNull(time, "Time cannot be null");
+        engine.filter("due before " + time, p -> p.getDueDate() != null && p.getDueDate().isBefore(time));
+        return this;
+    }
+
+    public ProjectQuery actualHoursAbove(double hours) {
+        engine.filter("actual hours > " + hours, p -> p.getActualHours() > hours);
+        return this;
+    }
+
+    public ProjectQuery progressAtLeast(double percent) {
+        engine.filter("progress >= " + percent, p -> p.getProgress() >= percent);
+        return this;
+    }
+
+    /** Adds an arbitrary condition; {@code description} is shown in the plan. */
+    public ProjectQuery where(String description, Predicate<Project> condition) {
+        engine.filter(description, Objects.requireNonNull(condition, "Condition cannot be null"));
+        return this;
+    }
+
+    /** Plans the query against {@link CompanyDataStore} without running it. */
+    public QueryPlan explain() {
+        return engine.plan(CompanyDataStore.PROJECTS.values());
+    }
+
+    /** Runs the query against the projects registered in {@link CompanyDataStore}. */
+    public QueryResult<Project> execute() {
+        return engine.execute(CompanyDataStore.PROJECTS.values(), true);
+    }
+}
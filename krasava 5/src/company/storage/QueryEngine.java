@@ -0,0 +1,115 @@
+package company.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Conjunctive filters plus the index lookups that could answer some of them.
+ * Planning resolves each candidate index to its live buckets and picks the one
+ * with the fewest entries; with no usable index the whole table is scanned, in
+ * parallel once it is large enough. Every filter is re-checked on every
+ * candidate, since entries may move between buckets while the query runs.
+ */
+final class QueryEngine<T> {
+    static final int PARALLEL_SCAN_THRESHOLD = 10_000;
+
+    private static final class Index<T> {
+        final String description;
+        final Supplier<List<? extends Collection<T>>> buckets;
+
+        Index(String description, Supplier<List<? extends Collection<T>>> buckets) {
+            this.description = description;
+            this.buckets = buckets;
+        }
+    }
+
+    /** A plan together with the collections it will read. */
+    private static final class Choice<T> {
+        final QueryPlan plan;
+        final List<? extends Collection<T>> source;
+
+        Choice(QueryPlan plan, List<? extends Collection<T>> source) {
+            this.plan = plan;
+            this.source = source;
+        }
+    }
+
+    private final List<String> filterDescriptions = new ArrayList<>();
+    private final List<Index<T>> indexes = new ArrayList<>();
+    private Predicate<T> filter = t -> true;
+
+    void filter(String description, Predicate<T> condition) {
+        filterDescriptions.add(description);
+        filter = filter.and(condition);
+    }
+
+    /** Registers an index lookup that yields a superset of the matches. */
+    void index(String description, Supplier<List<? extends Collection<T>>> buckets) {
+        indexes.add(new Index<>(description, buckets));
+    }
+
+    QueryPlan plan(Collection<T> table) {
+        return choose(table, true).plan;
+    }
+
+    QueryResult<T> execute(Collection<T> table, boolean useIndexes) {
+        long started = System.nanoTime();
+        Choice<T> choice = choose(table, useIndexes);
+        List<T> results;
+        long touched;
+        if (!choice.plan.isIndexed()) {
+            touched = table.size();
+            results = (choice.plan.isParallel() ? table.parallelStream() : table.stream())
+                .filter(filter)
+                .collect(Collectors.toList());
+        } else {
+            touched = 0;
+            results = new ArrayList<>();
+            // A union of buckets can meet an entry twice if it moves mid-query.
+            Set<T> seen = choice.source.size() > 1 ? new HashSet<>() : null;
+            for (Collection<T> bucket : choice.source) {
+                for (T candidate : bucket) {
+                    touched++;
+                    if (filter.test(candidate) && (seen == null || seen.add(candidate))) {
+                        results.add(candidate);
+                    }
+                }
+            }
+        }
+        return new QueryResult<>(results, choice.plan, touched, System.nanoTime() - started);
+    }
+
+    private Choice<T> choose(Collection<T> table, boolean useIndexes) {
+        long tableSize = table.size();
+        String bestPath = QueryPlan.FULL_SCAN;
+        long bestRows = tableSize;
+        List<? extends Collection<T>> bestSource = null;
+        List<String> rejected = new ArrayList<>();
+        for (Index<T> index : useIndexes ? indexes : List.<Index<T>>of()) {
+            List<? extends Collection<T>> buckets = index.buckets.get();
+            long rows = buckets.stream().mapToLong(Collection::size).sum();
+            if (rows < bestRows) {
+                if (bestSource != null) {
+                    rejected.add(bestPath + " (" + bestRows + ")");
+                }
+                bestPath = "index " + index.description;
+                bestRows = rows;
+                bestSource = buckets;
+            } else {
+                rejected.add("index " + index.description + " (" + rows + ")");
+            }
+        }
+        if (bestSource == null && !indexes.isEmpty() && !useIndexes) {
+            indexes.forEach(i -> rejected.add("index " + i.description + " (unavailable)"));
+        }
+        boolean parallel = bestSource == null && tableSize >= PARALLEL_SCAN_THRESHOLD;
+        QueryPlan plan = new QueryPlan(bestPath, bestRows, parallel, List.copyOf(filterDescriptions), rejected);
+        return new Choice<>(plan, bestSource);
+    }
+}
@@ -0,0 +1,42 @@
+package company.storage;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * How a query will be or was answered: the access path the planner chose, how
+ * many records it expected that path to yield, and the filters applied to them.
+ */
+public final class QueryPlan {
+    public static final String FULL_SCAN = "full scan";
+
+    private final String accessPath;
+    private final long estimatedRows;
+    private final boolean parallel;
+    private final List<String> filters;
+    private final List<String> rejected;
+
+    QueryPlan(String accessPath, long estimatedRows, boolean parallel, List<String> filters, List<String> rejected) {
+        this.accessPath = accessPath;
+        this.estimatedRows = estimatedRows;
+        this.parallel = parallel;
+        this.filters = Collections.unmodifiableList(filters);
+        this.rejected = Collections.unmodifiableList(rejected);
+    }
+
+    /** {@link #FULL_SCAN} or a description of the index used, such as {@code index department=D001}. */
+    public String getAccessPath() { return accessPath; }
+    public long getEstimatedRows() { return estimatedRows; }
+    public boolean isParallel() { return parallel; }
+    public boolean isIndexed() { return !FULL_SCAN.equals(accessPath); }
+    public List<String> getFilters() { return filters; }
+
+    /** Other access paths the planner considered, with their estimates. */
+    public List<String> getRejectedPaths() { return rejected; }
+
+    @Override
+    public String toString() {
+        return accessPath + (parallel ? " (parallel)" : "") + ", estimated " + estimatedRows + " rows"
+            + ", filters " + filters + (rejected.isEmpty() ? "" : ", rejected " + rejected);
+    }
+}
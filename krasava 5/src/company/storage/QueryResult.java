@@ -0,0 +1,36 @@
+package company.storage;
+
+import java.util.Collections;
+import java.util.List;
+
+/** Matches of a query together with the plan it ran and how much work it did. */
+public final class QueryResult<T> {
+    private final List<T> results;
+    private final QueryPlan plan;
+    private final long touched;
+    private final long elapsedNanos;
+
+    QueryResult(List<T> results, QueryPlan plan, long touched, long elapsedNanos) {
+        this.results = Collections.unmodifiableList(results);
+        this.plan = plan;
+        this.touched = touched;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public List<T> getResults() { return results; }
+    public QueryPlan getPlan() { return plan; }
+
+    /** Number of records read to answer the query, matched or not. */
+    public long getTouched() { return touched; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public String explain() {
+        return plan + "; touched " + touched + ", matched " + results.size()
+            + " in " + elapsedNanos / 1000 + " us";
+    }
+
+    @Override
+    public String toString() {
+        return "QueryResult{matched=" + results.size() + ", touched=" + touched + ", path='" + plan.getAccessPath() + "'}";
+    }
+}
@@ -0,0 +1,110 @@
+package company.storage;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A point-in-time view of the registered employees and projects. Every read on
+ * the view sees the state as of the version pinned when it was opened, however
+ * long the report runs and whatever writers do meanwhile. Close the view when
+ * done so the versions it pins can be reclaimed.
+ *
+ * <pre>
+ * try (ReadView view = CompanyDataStore.openReadView()) {
+ *     double hours = view.getTotalProjectHours();
+ *     Map&lt;String, Double&gt; progress = view.getProjectProgressById();
+ * }
+ * </pre>
+ */
+public final class ReadView implements AutoCloseable {
+    private final SnapshotReads reads;
+    private final long version;
+    private volatile boolean closed;
+
+    ReadView(SnapshotReads reads) {
+        this.reads = reads;
+        this.version = reads.pin();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public double getTotalProjectHours() {
+        checkOpen();
+        double total = 0;
+        for (SnapshotReads.ProjectVersion head : reads.projects.values()) {
+            SnapshotReads.ProjectVersion v = SnapshotReads.visible(head, version);
+            if (v != null) {
+                total += v.actualHours;
+            }
+        }
+        return total;
+    }
+
+    /** Progress in percent keyed by project id, like {@link CompanyDataStore#getProjectProgressById()}. */
+    public Map<String, Double> getProjectProgressById() {
+        checkOpen();
+        Map<String, Double> progress = new HashMap<>();
+        for (Map.Entry<String, SnapshotReads.ProjectVersion> e : reads.projects.entrySet()) {
+            SnapshotReads.ProjectVersion v = SnapshotReads.visible(e.getValue(), version);
+            if (v != null) {
+                progress.put(e.getKey(), v.progress());
+            }
+        }
+        return progress;
+    }
+
+    /** Number of projects per status name. */
+    public Map<String, Integer> getProjectCountsByStatus() {
+        checkOpen();
+        Map<String, Integer> counts = new HashMap<>();
+        for (SnapshotReads.ProjectVersion head : reads.projects.values()) {
+            SnapshotReads.ProjectVersion v = SnapshotReads.visible(head, version);
+            if (v != null) {
+                counts.merge(v.status, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /** Sum of salaries of all registered employees keyed by department code. */
+    public Map<String, Double> getDepartmentSalaryTotals() {
+        checkOpen();
+        Map<String, Double> totals = new HashMap<>();
+        for (SnapshotReads.EmployeeVersion head : reads.employees.values()) {
+            SnapshotReads.EmployeeVersion v = SnapshotReads.visible(head, version);
+            if (v != null) {
+                totals.merge(v.departmentCode, v.salary, Double::sum);
+            }
+        }
+        return totals;
+    }
+
+    /** Number of active registered employees keyed by department code. */
+    public Map<String, Integer> getActiveHeadcounts() {
+        checkOpen();
+        Map<String, Integer> counts = new HashMap<>();
+        for (SnapshotReads.EmployeeVersion head : reads.employees.values()) {
+            SnapshotReads.EmployeeVersion v = SnapshotReads.visible(head, version);
+            if (v != null && v.active) {
+                counts.merge(v.departmentCode, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Read view is closed");
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            reads.unpin(version);
+        }
+    }
+}
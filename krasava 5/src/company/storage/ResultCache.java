@@ -0,0 +1,101 @@
+package company.storage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded least-recently-used cache of read results. Each entry remembers the
+ * change counter of the entity type it was computed from, read before computing,
+ * and is only served while that counter is unchanged and the entry is younger
+ * than the time bound. A result is therefore never served once a change to its
+ * entity type has returned to the caller that made it.
+ */
+final class ResultCache {
+
+    private static final class Entry {
+        final Object value;
+        final long version;
+        final long expiresAt;
+
+        Entry(Object value, long version, long expiresAt) {
+            this.value = value;
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<Object, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    ResultCache(int maxEntries, long ttlNanos) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlNanos;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() > ResultCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached result for {@code key}, or computes, caches and returns it.
+     * {@code loader} runs without holding the cache lock.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T get(Object key, EntityVersions.Kind kind, Supplier<T> loader) {
+        long version = kind.current();
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.version != version) {
+                    entries.remove(key);
+                    invalidations.increment();
+                } else if (now - entry.expiresAt >= 0) {
+                    entries.remove(key);
+                    expirations.increment();
+                } else {
+                    hits.increment();
+                    return (T) entry.value;
+                }
+            }
+        }
+        misses.increment();
+        T value = loader.get();
+        synchronized (entries) {
+            Entry current = entries.get(key);
+            // Keep a result computed from a newer version if another reader got there first.
+            if (current == null || current.version <= version) {
+                entries.put(key, new Entry(value, version, now + ttlNanos));
+            }
+        }
+        return value;
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), invalidations.sum(), size);
+    }
+}
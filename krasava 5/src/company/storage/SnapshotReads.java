@@ -0,0 +1,274 @@
+package company.storage;
+
+import company.empoloyees.Employee;
+import company.empoloyees.EmployeeListener;
+import company.projects.Project;
+import company.projects.ProjectEntity;
+import company.projects.ProjectListener;
+import company.structure.Department;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Multi-version copies of the report-relevant state of registered employees and
+ * projects. Every change installs an immutable version stamped with a commit
+ * number; {@link ReadView} pins the newest committed number and reads,
+ * for every ID, the newest version not newer than its pin. Writers never wait
+ * for readers or take a shared lock, and versions no pinned view can reach are
+ * unlinked as new ones are installed.
+ */
+final class SnapshotReads {
+
+    /** Project state as of one commit. {@code older} is cut once unreachable. */
+    static final class ProjectVersion {
+        final long version;
+        final boolean removed;
+        final String title;
+        final String status;
+        final double estimatedHours;
+        final double actualHours;
+        volatile ProjectVersion older;
+
+        ProjectVersion(long version, Project project, ProjectVersion older) {
+            this.version = version;
+            this.removed = project == null;
+            this.title = removed ? null : project.getTitle();
+            this.status = removed ? null : project.getStatus();
+            this.estimatedHours = removed ? 0 : project.getEstimatedHours();
+            this.actualHours = removed ? 0 : project.getActualHours();
+            this.older = older;
+        }
+
+        double progress() {
+            return estimatedHours > 0 ? (actualHours / estimatedHours) * 100 : 0.0;
+        }
+    }
+
+    /** Employee state as of one commit. {@code older} is cut once unreachable. */
+    static final class EmployeeVersion {
+        final long version;
+        final boolean removed;
+        final String departmentCode;
+        final double salary;
+        final boolean active;
+        volatile EmployeeVersion older;
+
+        EmployeeVersion(long version, Employee employee, EmployeeVersion older) {
+            this.version = version;
+            this.removed = employee == null;
+            this.departmentCode = removed ? null : employee.getDepartment().getCode();
+            this.salary = removed ? 0 : employee.getSalary();
+            this.active = !removed && employee.isActive();
+            this.older = older;
+        }
+    }
+
+    final Map<String, ProjectVersion> projects = new ConcurrentHashMap<>();
+    final Map<String, EmployeeVersion> employees = new ConcurrentHashMap<>();
+
+    // A commit takes its number inside the map update of its ID, so each chain is
+    // ordered newest first, then marks it installed. stableVersion advances over
+    // every run of installed numbers, whichever writer finds it. Pins take a lock
+    // of their own; writers never do.
+    private static final int INSTALLED_SLOTS = 4096;
+    private final AtomicLong nextVersion = new AtomicLong();
+    private final AtomicLong stableVersion = new AtomicLong();
+    private final AtomicLongArray installed = new AtomicLongArray(INSTALLED_SLOTS);
+    private final Object pinLock = new Object();
+    private final TreeMap<Long, Integer> pins = new TreeMap<>();
+    private volatile long oldestPin = Long.MAX_VALUE;
+    // Bumped before each pin reads stableVersion; see reachableFloor().
+    private volatile long pinCount;
+
+    private final EmployeeListener employeeListener = new EmployeeListener() {
+        @Override
+        public void onDepartmentChanged(Employee employee, Department oldDepartment, Department newDepartment) {
+            employeeChanged(employee);
+        }
+
+        @Override
+        public void onSalaryChanged(Employee employee, double oldSalary, double newSalary) {
+            employeeChanged(employee);
+        }
+
+        @Override
+        public void onActiveChanged(Employee employee, boolean active) {
+            employeeChanged(employee);
+        }
+    };
+
+    private final ProjectListener projectListener = new ProjectListener() {
+        @Override
+        public void onStatusChanged(ProjectEntity entity, String oldStatus, String newStatus) {
+            if (entity instanceof Project) {
+                projectChanged((Project) entity);
+            }
+        }
+
+        @Override
+        public void onTitleChanged(ProjectEntity entity, String oldTitle, String newTitle) {
+            if (entity instanceof Project) {
+                projectChanged((Project) entity);
+            }
+        }
+
+        @Override
+        public void onActualHoursAdded(Project project, double hours) {
+            projectChanged(project);
+        }
+
+        @Override
+        public void onEstimatedHoursChanged(Project project, double oldHours, double newHours) {
+            projectChanged(project);
+        }
+    };
+
+    /** Starts versioning and seeds it with the current contents of the store. */
+    static SnapshotReads start() {
+        SnapshotReads reads = new SnapshotReads();
+        CompanyDataStore.addListeners(reads.employeeListener, reads.projectListener);
+        CompanyDataStore.EMPLOYEES.values().forEach(reads::employeeChanged);
+        CompanyDataStore.PROJECTS.values().forEach(reads::projectChanged);
+        return reads;
+    }
+
+    void stop() {
+        CompanyDataStore.removeListeners(employeeListener, projectListener);
+    }
+
+    /**
+     * Installs the current state of {@code employee} if it is the instance registered
+     * under its ID. The check runs under the chain's map lock, which registration also
+     * takes after publishing a new instance, so a replaced instance can never install
+     * over its successor.
+     */
+    void employeeChanged(Employee employee) {
+        long[] version = new long[1];
+        employees.compute(employee.getEmployeeId(), (id, current) -> {
+            version[0] = nextVersion.incrementAndGet();
+            return CompanyDataStore.EMPLOYEES.get(id) == employee
+                ? prune(new EmployeeVersion(version[0], employee, current)) : current;
+        });
+        publish(version[0]);
+    }
+
+    void employeeRemoved(String employeeId) {
+        long[] version = new long[1];
+        employees.computeIfPresent(employeeId, (id, current) -> {
+            version[0] = nextVersion.incrementAndGet();
+            return prune(new EmployeeVersion(version[0], null, current));
+        });
+        publish(version[0]);
+    }
+
+    void projectChanged(Project project) {
+        long[] version = new long[1];
+        projects.compute(project.getId(), (id, current) -> {
+            version[0] = nextVersion.incrementAndGet();
+            return CompanyDataStore.PROJECTS.get(id) == project
+                ? prune(new ProjectVersion(version[0], project, current)) : current;
+        });
+        publish(version[0]);
+    }
+
+    void projectRemoved(String projectId) {
+        long[] version = new long[1];
+        projects.computeIfPresent(projectId, (id, current) -> {
+            version[0] = nextVersion.incrementAndGet();
+            return prune(new ProjectVersion(version[0], null, current));
+        });
+        publish(version[0]);
+    }
+
+    /**
+     * Marks {@code version} installed and makes it visible to new views once all
+     * earlier versions are; publishing any earlier would let a view pin a version
+     * whose chain head is not in the map yet. Numbers taken without installing
+     * anything are published the same way.
+     */
+    private void publish(long version) {
+        if (version == 0) {
+            return;
+        }
+        while (version - INSTALLED_SLOTS > stableVersion.get()) {
+            // Its slot still holds an unpublished number; rare, and only under heavy contention.
+            Thread.yield();
+        }
+        installed.set((int) (version % INSTALLED_SLOTS), version);
+        for (long stable = stableVersion.get();
+             installed.get((int) ((stable + 1) % INSTALLED_SLOTS)) == stable + 1; stable = stableVersion.get()) {
+            stableVersion.compareAndSet(stable, stable + 1);
+        }
+    }
+
+    /**
+     * Returns the oldest pinned version, or the last published version when nothing
+     * older is pinned; -1 if a view pinned meanwhile and the chain must not be cut.
+     * A view pins after bumping pinCount, so when the count is unchanged any view
+     * not yet in {@code pins} read stableVersion after this did, and pins no lower.
+     */
+    private long reachableFloor() {
+        long pinsBefore = pinCount;
+        long floor = Math.min(stableVersion.get(), oldestPin);
+        return pinCount == pinsBefore ? floor : -1;
+    }
+
+    private ProjectVersion prune(ProjectVersion head) {
+        long floor = reachableFloor();
+        for (ProjectVersion v = head; v != null && floor >= 0; v = v.older) {
+            if (v.version <= floor) {
+                v.older = null;
+                break;
+            }
+        }
+        return head;
+    }
+
+    private EmployeeVersion prune(EmployeeVersion head) {
+        long floor = reachableFloor();
+        for (EmployeeVersion v = head; v != null && floor >= 0; v = v.older) {
+            if (v.version <= floor) {
+                v.older = null;
+                break;
+            }
+        }
+        return head;
+    }
+
+    long pin() {
+        synchronized (pinLock) {
+            pinCount++;
+            long version = stableVersion.get();
+            pins.merge(version, 1, Integer::sum);
+            oldestPin = pins.firstKey();
+            return version;
+        }
+    }
+
+    void unpin(long version) {
+        synchronized (pinLock) {
+            pins.computeIfPresent(version, (v, count) -> count == 1 ? null : count - 1);
+            oldestPin = pins.isEmpty() ? Long.MAX_VALUE : pins.firstKey();
+        }
+    }
+
+    static ProjectVersion visible(ProjectVersion head, long pin) {
+        ProjectVersion v = head;
+        while (v != null && v.version > pin) {
+            v = v.older;
+        }
+        return v == null || v.removed ? null : v;
+    }
+
+    static EmployeeVersion visible(EmployeeVersion head, long pin) {
+        EmployeeVersion v = head;
+        while (v != null && v.version > pin) {
+            v = v.older;
+        }
+        return v == null || v.removed ? null : v;
+    }
+}
@@ -0,0 +1,131 @@
+package company.storage;
+
+import company.empoloyees.Employee;
+import company.empoloyees.EmployeeListener;
+import company.projects.Project;
+import company.projects.ProjectEntity;
+import company.projects.ProjectListener;
+import company.projects.TimeEntry;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The one employee and project listener {@link CompanyDataStore} registers.
+ * It passes each change on to the store's parts in the order they were added,
+ * so an index is always up to date before the version counters move and the
+ * counters before change capture, snapshot reads or the log see the change.
+ */
+final class StoreListeners implements EmployeeListener, ProjectListener {
+    private final List<EmployeeListener> employees = new CopyOnWriteArrayList<>();
+    private final List<ProjectListener> projects = new CopyOnWriteArrayList<>();
+
+    /** Adds either listener unless it is null. */
+    void add(EmployeeListener employeeListener, ProjectListener projectListener) {
+        if (employeeListener != null) {
+            employees.add(employeeListener);
+        }
+        if (projectListener != null) {
+            projects.add(projectListener);
+        }
+    }
+
+    void remove(EmployeeListener employeeListener, ProjectListener projectListener) {
+        employees.remove(employeeListener);
+        projects.remove(projectListener);
+    }
+
+    @Override
+    public void onDepartmentChanged(Employee employee, Department oldDepartment, Department newDepartment) {
+        for (EmployeeListener l : employees) {
+            l.onDepartmentChanged(employee, oldDepartment, newDepartment);
+        }
+    }
+
+    @Override
+    public void onPositionChanged(Employee employee, Position oldPosition, Position newPosition) {
+        for (EmployeeListener l : employees) {
+            l.onPositionChanged(employee, oldPosition, newPosition);
+        }
+    }
+
+    @Override
+    public void onSalaryChanged(Employee employee, double oldSalary, double newSalary) {
+        for (EmployeeListener l : employees) {
+            l.onSalaryChanged(employee, oldSalary, newSalary);
+        }
+    }
+
+    @Override
+    public void onActiveChanged(Employee employee, boolean active) {
+        for (EmployeeListener l : employees) {
+            l.onActiveChanged(employee, active);
+        }
+    }
+
+    @Override
+    public void onContactChanged(Employee employee) {
+        for (EmployeeListener l : employees) {
+            l.onContactChanged(employee);
+        }
+    }
+
+    @Override
+    public void onContactChanged(Employee employee, String oldEmail, String oldPhoneNumber) {
+        for (EmployeeListener l : employees) {
+            l.onContactChanged(employee, oldEmail, oldPhoneNumber);
+        }
+    }
+
+    @Override
+    public void onScheduleChanged(Employee employee, WorkSchedule oldSchedule, WorkSchedule newSchedule) {
+        for (EmployeeListener l : employees) {
+            l.onScheduleChanged(employee, oldSchedule, newSchedule);
+        }
+    }
+
+    @Override
+    public void onOwnerChanged(ProjectEntity entity, Employee oldOwner, Employee newOwner) {
+        for (ProjectListener l : projects) {
+            l.onOwnerChanged(entity, oldOwner, newOwner);
+        }
+    }
+
+    @Override
+    public void onStatusChanged(ProjectEntity entity, String oldStatus, String newStatus) {
+        for (ProjectListener l : projects) {
+            l.onStatusChanged(entity, oldStatus, newStatus);
+        }
+    }
+
+    @Override
+    public void onTitleChanged(ProjectEntity entity, String oldTitle, String newTitle) {
+        for (ProjectListener l : projects) {
+            l.onTitleChanged(entity, oldTitle, newTitle);
+        }
+    }
+
+    @Override
+    public void onActualHoursAdded(Project project, double hours) {
+        for (ProjectListener l : projects) {
+            l.onActualHoursAdded(project, hours);
+        }
+    }
+
+    @Override
+    public void onEstimatedHoursChanged(Project project, double oldHours, double newHours) {
+        for (ProjectListener l : projects) {
+            l.onEstimatedHoursChanged(project, oldHours, newHours);
+        }
+    }
+
+    @Override
+    public void onTimeEntryApproved(TimeEntry entry) {
+        for (ProjectListener l : projects) {
+            l.onTimeEntryApproved(entry);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package company.structure;
+
+import java.time.LocalDate;
+
+/**
+ * A row read back from a {@link ReportArchive}. Entities are referred to by id,
+ * since they may have changed or been removed since the report was archived.
+ */
+public final class ArchivedRow {
+    private final String employeeId;
+    private final String departmentCode;
+    private final String projectId;
+    private final String taskId;
+    private final LocalDate date;
+    private final long minutes;
+    private final long entries;
+    private final int employees;
+    private final int projects;
+    private final int days;
+
+    ArchivedRow(String employeeId, String departmentCode, String projectId, String taskId, LocalDate date,
+                long minutes, long entries, int employees, int projects, int days) {
+        this.employeeId = employeeId;
+        this.departmentCode = departmentCode;
+        this.projectId = projectId;
+        this.taskId = taskId;
+        this.date = date;
+        this.minutes = minutes;
+        this.entries = entries;
+        this.employees = employees;
+        this.projects = projects;
+        this.days = days;
+    }
+
+    public String getEmployeeId() { return employeeId; }
+    public String getDepartmentCode() { return departmentCode; }
+    public String getProjectId() { return projectId; }
+    public String getTaskId() { return taskId; }
+    public LocalDate getDate() { return date; }
+    public long getMinutes() { return minutes; }
+    public double getHours() { return minutes / 60.0; }
+    public long getEntryCount() { return entries; }
+    public int getEmployeeCount() { return employees; }
+    public int getProjectCount() { return projects; }
+    public int getActiveDays() { return days; }
+
+    @Override
+    public String toString() {
+        return String.format("ArchivedRow{employee=%s, department=%s, project=%s, task=%s, date=%s, hours=%.2f, entries=%d}",
+            employeeId, departmentCode, projectId, taskId, date, getHours(), entries);
+    }
+}
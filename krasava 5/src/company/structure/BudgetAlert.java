@@ -0,0 +1,40 @@
+package company.structure;
+
+/**
+ * A department's budget utilization moving past one of a monitor's thresholds,
+ * upwards when it is reached and downwards when it is cleared again.
+ */
+public final class BudgetAlert {
+    private final Department department;
+    private final BudgetMonitor.Scope scope;
+    private final double threshold;
+    private final double utilization;
+    private final double headroom;
+    private final boolean reached;
+
+    BudgetAlert(Department department, BudgetMonitor.Scope scope, double threshold,
+                double utilization, double headroom, boolean reached) {
+        this.department = department;
+        this.scope = scope;
+        this.threshold = threshold;
+        this.utilization = utilization;
+        this.headroom = headroom;
+        this.reached = reached;
+    }
+
+    public Department getDepartment() { return department; }
+    public BudgetMonitor.Scope getScope() { return scope; }
+    public double getThreshold() { return threshold; }
+    public double getUtilization() { return utilization; }
+    /** Budget left after salaries; negative once the budget is exceeded. */
+    public double getHeadroom() { return headroom; }
+    /** True when the threshold was reached, false when utilization dropped back below it. */
+    public boolean isReached() { return reached; }
+
+    @Override
+    public String toString() {
+        return String.format("BudgetAlert{department='%s', scope=%s, threshold=%.0f%%, utilization=%.1f%%, headroom=%.2f, %s}",
+                department.getCode(), scope, threshold * 100, utilization * 100, headroom,
+                reached ? "reached" : "cleared");
+    }
+}
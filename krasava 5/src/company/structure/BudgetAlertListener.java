@@ -0,0 +1,16 @@
+package company.structure;
+
+/**
+ * Receives the alerts of a {@link BudgetMonitor}. Alerts are delivered on the
+ * thread that changed a salary, membership, budget or the department tree,
+ * while the tree is read-locked: a listener may read and change rosters, but
+ * must not add or remove sub-departments, and should hand slow work to another
+ * thread. Alerts of one department arrive in the order its thresholds were
+ * crossed, possibly on the thread of an earlier change that is still
+ * delivering; alerts of different departments may interleave.
+ */
+@FunctionalInterface
+public interface BudgetAlertListener {
+
+    void onAlert(BudgetAlert alert);
+}
@@ -0,0 +1,163 @@
+package company.structure;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Raises an alert as soon as a department's salaries reach or drop back below a
+ * fraction of its budget, for example 0.9 and 1.0. The monitor is driven by the
+ * totals {@link Department} already keeps current: each salary change, transfer,
+ * membership change, budget change or tree change hands it the departments whose
+ * totals moved, and it compares only those against the thresholds, so there is
+ * no periodic scan. A change costs O(1) for {@link Scope#DEPARTMENT} and O(depth)
+ * for {@link Scope#SUBTREE}, one step per ancestor whose totals moved.
+ *
+ * <p>A department that is already past a threshold when the monitor is created
+ * is reported on its first change after that.
+ */
+public final class BudgetMonitor implements AutoCloseable {
+
+    /** Which totals a monitor compares against the thresholds. */
+    public enum Scope {
+        /** A department's own members against its own budget. */
+        DEPARTMENT,
+        /** A department and all its sub-departments against their combined budget. */
+        SUBTREE
+    }
+
+    private final Scope scope;
+    private final double[] thresholds;
+    private final BudgetAlertListener listener;
+    // Number of thresholds each department has reached; departments below all of them are left out.
+    private final Map<Department, Integer> levels = new IdentityHashMap<>();
+    // Alerts not yet delivered, per department that some thread is delivering for.
+    private final Map<Department, Deque<BudgetAlert>> undelivered = new IdentityHashMap<>();
+    private final AtomicLong alerts = new AtomicLong();
+    private final AtomicLong failedAlerts = new AtomicLong();
+
+    /**
+     * @param thresholds utilization fractions to alert on, in any order
+     * @throws IllegalArgumentException if no threshold is given or one is not positive
+     */
+    public BudgetMonitor(Scope scope, BudgetAlertListener listener, double... thresholds) {
+        this.scope = Objects.requireNonNull(scope, "Scope cannot be null");
+        this.listener = Objects.requireNonNull(listener, "Listener cannot be null");
+        if (thresholds == null || thresholds.length == 0) {
+            throw new IllegalArgumentException("At least one threshold is required");
+        }
+        this.thresholds = thresholds.clone();
+        Arrays.sort(this.thresholds);
+        if (!(this.thresholds[0] > 0) || Double.isInfinite(this.thresholds[this.thresholds.length - 1])) {
+            throw new IllegalArgumentException("Thresholds must be positive and finite");
+        }
+        Department.watch(this);
+    }
+
+    /**
+     * Called by {@link Department} after it applied a change, possibly from
+     * several threads at once. The totals are read under this monitor's lock, so
+     * whichever call comes last leaves the level matching the latest totals.
+     * The alerts are queued under the same lock and delivered, outside it, by
+     * one thread per department at a time, so they arrive in the order the
+     * levels changed.
+     */
+    void changed(Department department, boolean direct) {
+        if (scope == Scope.DEPARTMENT && !direct) {
+            return;
+        }
+        long salary;
+        long budget;
+        double utilization;
+        int level = 0;
+        int previous;
+        Deque<BudgetAlert> queue;
+        synchronized (this) {
+            if (scope == Scope.DEPARTMENT) {
+                salary = department.salaryCents();
+                budget = department.budgetCents();
+            } else {
+                salary = department.subtreeSalaryCents();
+                budget = department.subtreeBudgetCents();
+            }
+            utilization = Department.utilization(salary, budget);
+            while (level < thresholds.length && utilization >= thresholds[level]) {
+                level++;
+            }
+            Integer stored = level == 0 ? levels.remove(department) : levels.put(department, level);
+            previous = stored == null ? 0 : stored;
+            if (previous == level) {
+                return;
+            }
+            double headroom = (budget - salary) / 100.0;
+            queue = undelivered.get(department);
+            boolean delivering = queue != null;
+            if (!delivering) {
+                queue = new ArrayDeque<>();
+                undelivered.put(department, queue);
+            }
+            for (int i = previous; i < level; i++) {
+                queue.add(new BudgetAlert(department, scope, thresholds[i], utilization, headroom, true));
+            }
+            for (int i = previous - 1; i >= level; i--) {
+                queue.add(new BudgetAlert(department, scope, thresholds[i], utilization, headroom, false));
+            }
+            if (delivering) {
+                return;
+            }
+        }
+        while (true) {
+            BudgetAlert next;
+            synchronized (this) {
+                next = queue.poll();
+                if (next == null) {
+                    undelivered.remove(department);
+                    return;
+                }
+            }
+            alert(next);
+        }
+    }
+
+    private void alert(BudgetAlert alert) {
+        alerts.incrementAndGet();
+        try {
+            listener.onAlert(alert);
+        } catch (RuntimeException e) {
+            // The caller is midway through updating department totals; a failing listener must not interrupt it.
+            failedAlerts.incrementAndGet();
+        }
+    }
+
+    public Scope getScope() { return scope; }
+
+    /** Highest threshold the department has reached as of its last change, or 0 if none. */
+    public synchronized double getReachedThreshold(Department department) {
+        Integer level = levels.get(department);
+        return level == null ? 0.0 : thresholds[level - 1];
+    }
+
+    /** Budget left after salaries for the monitored scope; negative once exceeded. */
+    public double getHeadroom(Department department) {
+        return department.headroomCents(scope == Scope.SUBTREE) / 100.0;
+    }
+
+    /** Departments currently past at least one threshold. */
+    public synchronized int getAlertingCount() {
+        return levels.size();
+    }
+
+    public long getAlertCount() { return alerts.get(); }
+    /** Alerts whose listener threw; the exception is dropped so department totals stay consistent. */
+    public long getFailedAlertCount() { return failedAlerts.get(); }
+
+    /** Stops the monitor; changes that start after this returns raise no alerts. */
+    @Override
+    public void close() {
+        Department.unwatch(this);
+    }
+}
@@ -2,44 +2,339 @@ package company.structure;
 
 import company.empoloyees.Employee;
 import company.empoloyees.Manager;
+import company.util.MembershipSet;
+import company.util.OptimisticTransaction;
+import company.util.VersionLock;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * A department and its place in the org tree. Salary, headcount and budget
+ * totals are kept in cents for the department and its subtree, and every change
+ * adds its difference up the ancestors, so totals cost O(depth).
+ */
 public class Department extends OrganizationalUnit {
-    private Manager manager;
+    private static final ReentrantReadWriteLock TREE = new ReentrantReadWriteLock();
+    // Departments of each employee, held weakly; each list is replaced, never changed.
+    private static final Map<Employee, List<Membership>> MEMBERSHIPS = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Department> STALE_MEMBERSHIPS = new ReferenceQueue<>();
+    private static final List<BudgetMonitor> MONITORS = new CopyOnWriteArrayList<>();
+    private static final Object CASCADE_LOCK = new Object();
+    // Cascades in progress, oldest first.
+    private static volatile List<DepartmentCascade> CASCADES = List.of();
+    // Guarded by CASCADE_LOCK.
+    private static DepartmentCascade LAST_CASCADE;
+
+    private static final class Membership extends WeakReference<Department> {
+        final Employee employee;
+
+        Membership(Department department, Employee employee) {
+            super(department, STALE_MEMBERSHIPS);
+            this.employee = employee;
+        }
+    }
+
+    private final VersionLock versionLock = new VersionLock();
+    private volatile Manager manager;
+    // Guarded by the tree lock.
     private Department parentDepartment;
     private final List<Department> subDepartments;
-    private final List<Employee> employees;
-    private double budget;
+    // Guarded by its own monitor, and changed only with versionLock held.
+    private final MembershipSet<Employee> members;
+    // Guarded by members.
+    private final Map<Employee, Long> countedCents;
+    private volatile double budget;
+    private volatile long salaryCents;
+    private final AtomicLong subtreeHeadcount = new AtomicLong();
+    private final AtomicLong subtreeSalaryCents = new AtomicLong();
+    private final AtomicLong subtreeBudgetCents = new AtomicLong();
+    // Members the last subtree deactivation switched off; guarded by members.
+    private Set<Employee> cascadeDeactivated;
 
     public Department(String code, String name, String description) {
         super(code, name, description);
         this.subDepartments = new ArrayList<>();
-        this.employees = new ArrayList<>();
+        this.members = new MembershipSet<>();
+        this.countedCents = new HashMap<>();
         this.budget = 0.0;
     }
 
     public void setManager(Manager manager) {
-        this.manager = Objects.requireNonNull(manager, "Manager cannot be null");
-        if (!employees.contains(manager)) {
-            employees.add(manager);
+        Objects.requireNonNull(manager, "Manager cannot be null");
+        long joined;
+        versionLock.lock();
+        try {
+            this.manager = manager;
+            joined = join(manager);
+        } finally {
+            versionLock.unlock();
+        }
+        if (joined >= 0) {
+            propagate(1, joined, 0);
         }
     }
 
     void addEmployee(Employee employee) {
         Objects.requireNonNull(employee, "Employee cannot be null");
-        if (!employees.contains(employee)) {
-            employees.add(employee);
+        long joined;
+        versionLock.lock();
+        try {
+            joined = join(employee);
+        } finally {
+            versionLock.unlock();
+        }
+        if (joined >= 0) {
+            propagate(1, joined, 0);
         }
     }
 
     void removeEmployee(Employee employee) {
-        if (employee.equals(manager)) {
-            throw new IllegalStateException("Cannot remove department manager");
+        long left;
+        versionLock.lock();
+        try {
+            if (employee.equals(manager)) {
+                throw new IllegalStateException("Cannot remove department manager");
+            }
+            left = leave(employee);
+        } finally {
+            versionLock.unlock();
+        }
+        if (left >= 0) {
+            propagate(-1, -left, 0);
+        }
+    }
+
+    /**
+     * Moves {@code employee} to {@code to} in one optimistic transaction over the
+     * employee and both rosters. The manager of the old department stays on its
+     * roster and keeps the role. Listeners are told after the locks are released,
+     * so they should follow {@link Employee#getDepartment()}.
+     *
+     * @return the number of attempts, 1 unless a concurrent change forced a retry
+     */
+    public static int transferEmployee(Employee employee, Department to) {
+        Objects.requireNonNull(employee, "Employee cannot be null");
+        Objects.requireNonNull(to, "Department cannot be null");
+        int[] attempts = new int[1];
+        Move move = OptimisticTransaction.execute(transaction -> {
+            attempts[0] = transaction.getAttempts();
+            transaction.read(employee.getVersionLock());
+            Department from = employee.getDepartment();
+            if (from != null) {
+                transaction.read(from.versionLock);
+            }
+            transaction.read(to.versionLock);
+            return () -> {
+                boolean leaving = from != null && from != to && !employee.equals(from.manager);
+                long left = leaving ? from.leave(employee) : -1;
+                long joined = to.join(employee);
+                EmployeeLink.employees().setDepartment(employee, to);
+                return new Move(from, left, joined);
+            };
+        });
+        if (move.left >= 0) {
+            move.from.propagate(-1, -move.left, 0);
+        }
+        if (move.joined >= 0) {
+            to.propagate(1, move.joined, 0);
+        }
+        if (move.from != to) {
+            EmployeeLink.employees().departmentChanged(employee, move.from, to);
+        }
+        return attempts[0];
+    }
+
+    // -1 where the roster did not change.
+    private static final class Move {
+        final Department from;
+        final long left;
+        final long joined;
+
+        Move(Department from, long left, long joined) {
+            this.from = from;
+            this.left = left;
+            this.joined = joined;
+        }
+    }
+
+    /** Returns the cents added, or -1 if already a member. Needs the version lock. */
+    private long join(Employee employee) {
+        synchronized (members) {
+            if (!members.add(employee)) {
+                return -1;
+            }
+            expungeStaleMemberships();
+            MEMBERSHIPS.compute(employee, (e, memberships) -> {
+                List<Membership> joined = memberships == null ? new ArrayList<>(1) : new ArrayList<>(memberships);
+                joined.add(new Membership(this, employee));
+                return List.copyOf(joined);
+            });
+            long cents = cents(employee.getSalary());
+            countedCents.put(employee, cents);
+            salaryCents += cents;
+            return cents;
+        }
+    }
+
+    /** Returns the cents removed, or -1 if not a member. Needs the version lock. */
+    private long leave(Employee employee) {
+        synchronized (members) {
+            if (!members.remove(employee)) {
+                return -1;
+            }
+            expungeStaleMemberships();
+            MEMBERSHIPS.computeIfPresent(employee, (e, memberships) -> {
+                List<Membership> remaining = new ArrayList<>(memberships);
+                remaining.removeIf(membership -> membership.get() == this);
+                return remaining.isEmpty() ? null : List.copyOf(remaining);
+            });
+            long cents = countedCents.remove(employee);
+            salaryCents -= cents;
+            return cents;
+        }
+    }
+
+    private static void expungeStaleMemberships() {
+        for (Reference<? extends Department> polled; (polled = STALE_MEMBERSHIPS.poll()) != null; ) {
+            Membership stale = (Membership) polled;
+            MEMBERSHIPS.computeIfPresent(stale.employee, (e, memberships) -> {
+                List<Membership> remaining = new ArrayList<>(memberships);
+                remaining.remove(stale);
+                return remaining.isEmpty() ? null : List.copyOf(remaining);
+            });
+        }
+    }
+
+    static void salaryChanged(Employee employee) {
+        List<Membership> memberships = MEMBERSHIPS.get(employee);
+        if (memberships != null) {
+            for (Membership membership : memberships) {
+                Department department = membership.get();
+                if (department != null) {
+                    department.recount(employee);
+                }
+            }
+        }
+    }
+
+    // Takes only the roster's monitor, so a raise does not fail transfers.
+    private void recount(Employee employee) {
+        long delta;
+        synchronized (members) {
+            Long counted = countedCents.get(employee);
+            if (counted == null) {
+                return;
+            }
+            long cents = cents(employee.getSalary());
+            countedCents.put(employee, cents);
+            delta = cents - counted;
+            salaryCents += delta;
+        }
+        propagate(0, delta, 0);
+    }
+
+    /**
+     * Makes {@code child} a sub-department of this one.
+     *
+     * @throws IllegalStateException if {@code child} already has a parent or is this
+     *         department or one of its ancestors
+     */
+    public void addSubDepartment(Department child) {
+        Objects.requireNonNull(child, "Sub-department cannot be null");
+        TREE.writeLock().lock();
+        try {
+            if (child.parentDepartment != null) {
+                throw new IllegalStateException("Department " + child.getCode() + " already has a parent");
+            }
+            for (Department d = this; d != null; d = d.parentDepartment) {
+                if (d == child) {
+                    throw new IllegalStateException("Department " + child.getCode() + " cannot be its own ancestor");
+                }
+            }
+            subDepartments.add(child);
+            child.parentDepartment = this;
+            propagate(child.subtreeHeadcount.get(), child.subtreeSalaryCents.get(), child.subtreeBudgetCents.get());
+        } finally {
+            TREE.writeLock().unlock();
+        }
+        updateLastModified();
+    }
+
+    public void removeSubDepartment(Department child) {
+        Objects.requireNonNull(child, "Sub-department cannot be null");
+        TREE.writeLock().lock();
+        try {
+            if (child.parentDepartment != this) {
+                throw new IllegalArgumentException("Department " + child.getCode() + " is not a sub-department of " + getCode());
+            }
+            subDepartments.remove(child);
+            child.parentDepartment = null;
+            propagate(-child.subtreeHeadcount.get(), -child.subtreeSalaryCents.get(), -child.subtreeBudgetCents.get());
+        } finally {
+            TREE.writeLock().unlock();
+        }
+        updateLastModified();
+    }
+
+    // Called without the version lock, so monitors may read other departments.
+    private void propagate(long headcount, long salary, long budgetCents) {
+        if (headcount == 0 && salary == 0 && budgetCents == 0) {
+            return;
+        }
+        TREE.readLock().lock();
+        try {
+            for (Department d = this; d != null; d = d.parentDepartment) {
+                d.subtreeHeadcount.addAndGet(headcount);
+                d.subtreeSalaryCents.addAndGet(salary);
+                d.subtreeBudgetCents.addAndGet(budgetCents);
+                for (BudgetMonitor monitor : MONITORS) {
+                    monitor.changed(d, d == this);
+                }
+            }
+        } finally {
+            TREE.readLock().unlock();
+        }
+    }
+
+    static void watch(BudgetMonitor monitor) {
+        MONITORS.add(monitor);
+    }
+
+    static void unwatch(BudgetMonitor monitor) {
+        MONITORS.remove(monitor);
+    }
+
+    long salaryCents() { return salaryCents; }
+    long budgetCents() { return cents(budget); }
+    long subtreeSalaryCents() { return subtreeSalaryCents.get(); }
+    long subtreeBudgetCents() { return subtreeBudgetCents.get(); }
+
+    long headroomCents(boolean subtree) {
+        return subtree ? subtreeBudgetCents.get() - subtreeSalaryCents.get() : cents(budget) - salaryCents;
+    }
+
+    static double utilization(long salaryCents, long budgetCents) {
+        if (budgetCents == 0) {
+            return salaryCents == 0 ? 0.0 : Double.POSITIVE_INFINITY;
         }
-        employees.remove(employee);
+        return (double) salaryCents / budgetCents;
+    }
+
+    private static long cents(double amount) {
+        return Math.round(amount * 100);
     }
 
     @Override
@@ -55,13 +350,17 @@ public class Department extends OrganizationalUnit {
         }
     }
 
+    /**
+     * Deactivates this department and its direct members on the calling thread.
+     * Sub-departments are left alone; see {@link #deactivateSubtree()}.
+     */
     @Override
     public void deactivate() {
         if (isActive) {
             isActive = false;
             updateLastModified();
    
-            employees.forEach(employee -> {
+            getEmployees().forEach(employee -> {
                 if (employee.isActive()) {
                     employee.deactivate();
                 }
@@ -70,27 +369,217 @@ public class Department extends OrganizationalUnit {
     }
 
 
+    @Override
+    public boolean isActive() {
+        Boolean target = cascadeTarget(this);
+        return target != null ? target : isActive;
+    }
+
+    /**
+     * Deactivates this department, its sub-departments and all their members in
+     * the background. Readers see the whole subtree inactive as soon as this returns.
+     */
+    public DepartmentCascade deactivateSubtree() {
+        return cascade(false);
+    }
+
+    /**
+     * Reactivates this department, its sub-departments and the members subtree
+     * deactivations switched off, in the background.
+     */
+    public DepartmentCascade reactivateSubtree() {
+        return cascade(true);
+    }
+
+    private DepartmentCascade cascade(boolean active) {
+        List<Department> departments = new ArrayList<>();
+        TREE.readLock().lock();
+        try {
+            departments.add(this);
+            for (int i = 0; i < departments.size(); i++) {
+                departments.addAll(departments.get(i).subDepartments);
+            }
+        } finally {
+            TREE.readLock().unlock();
+        }
+        DepartmentCascade cascade;
+        DepartmentCascade previous;
+        synchronized (CASCADE_LOCK) {
+            List<Employee> employees = new ArrayList<>();
+            Set<Employee> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Department department : departments) {
+                department.collectForCascade(active, employees, seen);
+            }
+            cascade = new DepartmentCascade(this, active, departments, employees);
+            List<DepartmentCascade> published = new ArrayList<>(CASCADES);
+            published.add(cascade);
+            CASCADES = List.copyOf(published);
+            previous = LAST_CASCADE;
+            LAST_CASCADE = cascade;
+        }
+        cascade.startAfter(previous);
+        return cascade;
+    }
+
+    private void collectForCascade(boolean active, List<Employee> employees, Set<Employee> seen) {
+        synchronized (members) {
+            if (active) {
+                if (cascadeDeactivated != null) {
+                    for (Employee employee : cascadeDeactivated) {
+                        if (members.contains(employee) && seen.add(employee)) {
+                            employees.add(employee);
+                        }
+                    }
+                    cascadeDeactivated = null;
+                }
+                return;
+            }
+            for (Employee employee : members) {
+                if (employee.isActive() && seen.add(employee)) {
+                    employees.add(employee);
+                    if (cascadeDeactivated == null) {
+                        cascadeDeactivated = Collections.newSetFromMap(new IdentityHashMap<>());
+                    }
+                    cascadeDeactivated.add(employee);
+                }
+            }
+        }
+    }
+
+    static void finish(DepartmentCascade cascade) {
+        synchronized (CASCADE_LOCK) {
+            for (Department department : cascade.departments()) {
+                department.isActive = cascade.isActivating();
+                department.updateLastModified();
+            }
+            List<DepartmentCascade> remaining = new ArrayList<>(CASCADES);
+            remaining.remove(cascade);
+            CASCADES = List.copyOf(remaining);
+            if (LAST_CASCADE == cascade) {
+                LAST_CASCADE = null;
+            }
+        }
+    }
+
+    /** The state a running cascade sets for an employee or department, or {@code null}. */
+    static Boolean cascadeTarget(Object unit) {
+        List<DepartmentCascade> cascades = CASCADES;
+        for (int i = cascades.size() - 1; i >= 0; i--) {
+            DepartmentCascade cascade = cascades.get(i);
+            if (cascade.covers(unit)) {
+                return cascade.isActivating();
+            }
+        }
+        return null;
+    }
+
     public Manager getManager() { return manager; }
-    public List<Employee> getEmployees() { return Collections.unmodifiableList(employees); }
     public double getBudget() { return budget; }
-    public int getEmployeeCount() { return employees.size(); }
+
+    public long getVersion() { return versionLock.version(); }
+
+    public List<Employee> getEmployees() {
+        synchronized (members) {
+            return members.snapshot();
+        }
+    }
+
+    public int getEmployeeCount() {
+        synchronized (members) {
+            return members.size();
+        }
+    }
 
     public void setBudget(double newBudget) {
         if (newBudget < 0) {
             throw new IllegalArgumentException("Budget cannot be negative");
         }
-        this.budget = newBudget;
+        long delta;
+        versionLock.lock();
+        try {
+            delta = cents(newBudget) - cents(budget);
+            this.budget = newBudget;
+        } finally {
+            versionLock.unlock();
+        }
+        propagate(0, 0, delta);
         updateLastModified();
     }
 
     public double getTotalSalaries() {
-        return employees.stream()
-                       .mapToDouble(Employee::getSalary)
-                       .sum();
+        return salaryCents / 100.0;
     }
 
     public boolean isWithinBudget() {
-        return getTotalSalaries() <= budget;
+        return salaryCents <= cents(budget);
+    }
+
+    public Department getParentDepartment() {
+        TREE.readLock().lock();
+        try {
+            return parentDepartment;
+        } finally {
+            TREE.readLock().unlock();
+        }
+    }
+
+    public List<Department> getSubDepartments() {
+        TREE.readLock().lock();
+        try {
+            return List.copyOf(subDepartments);
+        } finally {
+            TREE.readLock().unlock();
+        }
+    }
+
+    /** An employee in two departments of the subtree counts twice. */
+    public int getSubtreeHeadcount() {
+        return (int) subtreeHeadcount.get();
+    }
+
+    public double getSubtreeSalaries() {
+        return subtreeSalaryCents.get() / 100.0;
+    }
+
+    public double getSubtreeBudget() {
+        return subtreeBudgetCents.get() / 100.0;
+    }
+
+    public double getBudgetUtilization() {
+        return utilization(subtreeSalaryCents.get(), subtreeBudgetCents.get());
+    }
+
+    public boolean isSubtreeWithinBudget() {
+        return subtreeSalaryCents.get() <= subtreeBudgetCents.get();
+    }
+
+    /** Whether this subtree and every ancestor's would stay within budget after {@code salaryDelta}. */
+    public boolean isWithinBudgetAfter(double salaryDelta) {
+        long delta = cents(salaryDelta);
+        TREE.readLock().lock();
+        try {
+            for (Department d = this; d != null; d = d.parentDepartment) {
+                if (d.subtreeSalaryCents.get() + delta > d.subtreeBudgetCents.get()) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            TREE.readLock().unlock();
+        }
+    }
+
+    public int getDepth() {
+        TREE.readLock().lock();
+        try {
+            int depth = 0;
+            for (Department d = parentDepartment; d != null; d = d.parentDepartment) {
+                depth++;
+            }
+            return depth;
+        } finally {
+            TREE.readLock().unlock();
+        }
     }
 
     @Override
@@ -98,7 +587,7 @@ public class Department extends OrganizationalUnit {
         return String.format("Department{id='%s', name='%s', manager=%s, employees=%d, budget=%.2f}",
                 getCode(), getName(), 
                 (manager != null ? manager.getFullName() : "None"),
-                employees.size(), budget);
+                getEmployeeCount(), budget);
     }
 
     @Override
@@ -0,0 +1,125 @@
+package company.structure;
+
+import company.empoloyees.Employee;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A deactivation or reactivation of a department, its sub-departments and their
+ * members, applied in parallel on the common fork/join pool. Before any flag is
+ * written the cascade is published as one overlay: from then on
+ * {@link Department#isActive()} and {@link Employee#isActive()} already report
+ * the target state for everything it covers. Only those two getters see the
+ * sub-tree switch at once; the flags themselves, the {@code onActiveChanged}
+ * listeners and whatever they feed catch up member by member. The overlay is
+ * withdrawn once every flag matches it.
+ *
+ * <p>Cascades apply their flags one after another, in the order they were
+ * started, so a reactivation started while a deactivation is still running
+ * cannot be overtaken by it. Started by {@link Department#deactivateSubtree()}
+ * and {@link Department#reactivateSubtree()}.
+ */
+public final class DepartmentCascade {
+    private static final int THRESHOLD = 1_024;
+
+    private final Department root;
+    private final boolean active;
+    private final List<Department> departments;
+    private final List<Employee> employees;
+    private final Set<Object> covered;
+    private final AtomicInteger completed = new AtomicInteger();
+    private final CompletableFuture<Integer> done = new CompletableFuture<>();
+
+    DepartmentCascade(Department root, boolean active, List<Department> departments, List<Employee> employees) {
+        this.root = root;
+        this.active = active;
+        this.departments = departments;
+        this.employees = employees;
+        this.covered = Collections.newSetFromMap(new IdentityHashMap<>(departments.size() + employees.size()));
+        this.covered.addAll(departments);
+        this.covered.addAll(employees);
+    }
+
+    /** Applies this cascade once {@code previous}, if any, has finished, however it finished. */
+    void startAfter(DepartmentCascade previous) {
+        CompletableFuture<?> before = previous != null ? previous.done : CompletableFuture.completedFuture(null);
+        before.whenCompleteAsync((result, failure) -> {
+            try {
+                ForkJoinPool.commonPool().invoke(new Apply(this, 0, employees.size()));
+                Department.finish(this);
+                done.complete(employees.size());
+            } catch (RuntimeException | Error e) {
+                Department.finish(this);
+                done.completeExceptionally(e);
+            }
+        }, ForkJoinPool.commonPool());
+    }
+
+    private static final class Apply extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final DepartmentCascade cascade;
+        private final int from;
+        private final int to;
+
+        Apply(DepartmentCascade cascade, int from, int to) {
+            this.cascade = cascade;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    Employee employee = cascade.employees.get(i);
+                    if (cascade.active) {
+                        employee.reactivate();
+                    } else {
+                        employee.deactivate();
+                    }
+                }
+                cascade.completed.addAndGet(to - from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Apply(cascade, from, mid), new Apply(cascade, mid, to));
+        }
+    }
+
+    boolean covers(Object unit) {
+        return covered.contains(unit);
+    }
+
+    boolean isActivating() { return active; }
+    List<Department> departments() { return departments; }
+
+    public Department getRoot() { return root; }
+    public int getDepartmentCount() { return departments.size(); }
+    /** Members whose flag this cascade changes. */
+    public int getTotal() { return employees.size(); }
+    public int getCompleted() { return completed.get(); }
+    public boolean isDone() { return done.isDone(); }
+
+    /** Waits for the cascade and returns the number of members it changed. */
+    public int join() {
+        return done.join();
+    }
+
+    public CompletableFuture<Integer> toCompletableFuture() {
+        return done.copy();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DepartmentCascade{root='%s', %s, departments=%d, employees=%d/%d}",
+                root.getCode(), active ? "reactivate" : "deactivate", departments.size(), completed.get(), employees.size());
+    }
+}
@@ -0,0 +1,58 @@
+package company.structure;
+
+import company.empoloyees.Employee;
+
+import java.util.Objects;
+
+/**
+ * Connects {@link Department} with the parts of {@link Employee} that are not
+ * public. Only Employee can register, which it does when it is initialized,
+ * before any employee exists; the instance it gets back is how it reads the
+ * cascade overlay and reports salary changes. Not for use by other classes.
+ */
+public final class EmployeeLink {
+    private static volatile Bridge bridge;
+
+    /** What departments need from an employee. */
+    public interface Bridge {
+        /** Sets the employee's department without notifying listeners. */
+        void setDepartment(Employee employee, Department department);
+
+        /** Notifies listeners of a change made through {@link #setDepartment}. */
+        void departmentChanged(Employee employee, Department oldDepartment, Department newDepartment);
+    }
+
+    private EmployeeLink() {
+
+    }
+
+    /**
+     * @throws IllegalStateException if not called by {@link Employee}, or called twice
+     */
+    public static synchronized EmployeeLink register(Bridge employees) {
+        Objects.requireNonNull(employees, "Bridge cannot be null");
+        if (StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).getCallerClass() != Employee.class) {
+            throw new IllegalStateException("Only Employee can register");
+        }
+        if (bridge != null) {
+            throw new IllegalStateException("Employee bridge is already registered");
+        }
+        bridge = employees;
+        return new EmployeeLink();
+    }
+
+    /** The active state a cascade in progress has published for {@code employee}, or {@code null}. */
+    public Boolean cascadeTarget(Employee employee) {
+        return Department.cascadeTarget(employee);
+    }
+
+    /** Recounts the totals of every department {@code employee} is a member of. */
+    public void salaryChanged(Employee employee) {
+        Department.salaryChanged(employee);
+    }
+
+    // Set by the time any Employee exists, so callers holding one can rely on it.
+    static Bridge employees() {
+        return bridge;
+    }
+}
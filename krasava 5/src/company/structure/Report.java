@@ -1,12 +1,16 @@
 package company.structure;
 
 import company.empoloyees.Employee;
+import company.projects.Task;
 import company.projects.TimeEntry;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
-import java.util.List;
-import java.util.Objects;
+import java.util.stream.Stream;
 
 public class Report {
     private final String reportId;
@@ -18,6 +22,7 @@ public class Report {
     private final LocalDateTime periodEnd;
     private String format;
     private ReportStatus status;
+    private ReportResult result;
 
     public enum ReportType {
         TIME_TRACKING,
@@ -67,16 +72,99 @@ public class Report {
     public LocalDateTime getPeriodEnd() { return periodEnd; }
     public String getFormat() { return format; }
     public ReportStatus getStatus() { return status; }
+    /** Result of the last generation, or null while the report is a draft. */
+    public ReportResult getResult() { return result; }
 
-    public void generateTimeReport(List<TimeEntry> entries) {
+    /**
+     * Aggregates {@code entries} that start within the report period into the
+     * rows of this report's type, in parallel for large lists.
+     */
+    public ReportResult generateTimeReport(List<TimeEntry> entries) {
         Objects.requireNonNull(entries, "Entries list cannot be null");
-        if (type != ReportType.TIME_TRACKING) {
-            throw new IllegalStateException("This report is not configured for time tracking");
-        }
-        
-        System.out.println("Generating time report: " + title);
+        ReportAggregator aggregator = new ReportAggregator(periodStart, periodEnd);
+        return generated(aggregator.result(type, aggregator.aggregate(entries)));
+    }
+
+    /**
+     * Same as {@link #generateTimeReport(List)} for inputs too large to hold in
+     * memory; entries are consumed as the stream produces them, and a parallel
+     * stream is reduced on all cores.
+     */
+    public ReportResult generateTimeReport(Stream<TimeEntry> entries) {
+        Objects.requireNonNull(entries, "Entries stream cannot be null");
+        ReportAggregator aggregator = new ReportAggregator(periodStart, periodEnd);
+        return generated(aggregator.result(type, aggregator.aggregate(entries)));
+    }
+
+    /**
+     * Aggregates the logged history of {@code tasks}, including days rolled up by
+     * a retention policy (counted if the day starts within the period).
+     */
+    public ReportResult generateFromTasks(Collection<Task> tasks) {
+        Objects.requireNonNull(tasks, "Tasks cannot be null");
+        ReportAggregator aggregator = new ReportAggregator(periodStart, periodEnd);
+        return generated(aggregator.result(type, aggregator.aggregateTasks(tasks)));
+    }
 
+    private ReportResult generated(ReportResult generated) {
+        result = generated;
         status = ReportStatus.GENERATED;
+        return generated;
+    }
+
+    /**
+     * Writes the generated rows to {@code channel} in {@code format} ({@code CSV} or
+     * {@code JSONL}) through a {@link ReportWriter}, without building the document
+     * in memory. The channel is left open.
+     *
+     * @return Number of rows written
+     */
+    public long exportReport(String format, WritableByteChannel channel) {
+        Objects.requireNonNull(format, "Format cannot be null");
+        if (status != ReportStatus.GENERATED) {
+            throw new IllegalStateException("Report must be generated before export");
+        }
+        try (ReportWriter writer = ReportWriter.forFormat(format, channel)) {
+            for (ReportRow row : result.getRows()) {
+                writer.write(row);
+            }
+            exported(format);
+            return writer.getRowsWritten();
+        }
+    }
+
+    /**
+     * Aggregates {@code entries} like {@link #generateTimeReport(Stream)} and writes
+     * each row to {@code channel} as it is rolled up, without keeping the rows. The
+     * returned result, also kept on the report, has the totals but no rows.
+     */
+    public ReportResult exportTimeReport(Stream<TimeEntry> entries, String format, WritableByteChannel channel) {
+        Objects.requireNonNull(entries, "Entries stream cannot be null");
+        ReportAggregator aggregator = new ReportAggregator(periodStart, periodEnd);
+        return streamed(aggregator, aggregator.aggregate(entries), format, channel);
+    }
+
+    /** Streaming counterpart of {@link #generateFromTasks(Collection)}, see {@link #exportTimeReport}. */
+    public ReportResult exportFromTasks(Collection<Task> tasks, String format, WritableByteChannel channel) {
+        Objects.requireNonNull(tasks, "Tasks cannot be null");
+        ReportAggregator aggregator = new ReportAggregator(periodStart, periodEnd);
+        return streamed(aggregator, aggregator.aggregateTasks(tasks), format, channel);
+    }
+
+    private ReportResult streamed(ReportAggregator aggregator, ReportAggregator.Partial partial, String format,
+                                  WritableByteChannel channel) {
+        Objects.requireNonNull(format, "Format cannot be null");
+        try (ReportWriter writer = ReportWriter.forFormat(format, channel)) {
+            aggregator.emit(type, partial, writer::write);
+        }
+        result = aggregator.summary(type, partial, List.of());
+        exported(format);
+        return result;
+    }
+
+    private void exported(String format) {
+        this.format = format.toUpperCase();
+        status = ReportStatus.EXPORTED;
     }
 
     public void exportReport(String format) {
@@ -97,6 +185,25 @@ public class Report {
         status = ReportStatus.ARCHIVED;
     }
 
+    /**
+     * Archives the report and persists its rows to {@code file}, which
+     * {@link ReportArchive#open} maps back without regenerating the report.
+     *
+     * @throws IllegalStateException if the report is not exported, or its rows
+     *         were streamed by {@link #exportTimeReport} and not kept
+     */
+    public void archive(Path file) throws IOException {
+        Objects.requireNonNull(file, "Archive file cannot be null");
+        if (status != ReportStatus.EXPORTED) {
+            throw new IllegalStateException("Report must be exported before archiving");
+        }
+        if (result.getRows().isEmpty() && result.getTotalEntries() > 0) {
+            throw new IllegalStateException("Report rows were streamed and not kept; generate it to archive");
+        }
+        ReportArchive.write(this, result, file);
+        status = ReportStatus.ARCHIVED;
+    }
+
     @Override
     public String toString() {
         return "Report{" +
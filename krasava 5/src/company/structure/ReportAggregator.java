@@ -0,0 +1,370 @@
+package company.structure;
+
+import company.empoloyees.Employee;
+import company.projects.DailyTotal;
+import company.projects.Project;
+import company.projects.Task;
+import company.projects.TimeEntry;
+import company.projects.TimeEntryCursor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Aggregates time entries for {@link Report}. Entries are reduced in parallel
+ * on the common fork/join pool into partial results keyed by employee,
+ * project, task and day; partials merge by adding minutes and entry counts, so
+ * the outcome does not depend on how the input was split. Memory grows with
+ * the number of distinct keys, not with the number of entries. The merged
+ * cells are then rolled up into the rows of the requested report type.
+ *
+ * <p>An entry is counted if it has an end time and starts in
+ * [{@code periodStart}, {@code periodEnd}); durations are whole minutes, as in
+ * {@link TimeEntry#getHours()}.
+ */
+final class ReportAggregator {
+    private static final int LIST_THRESHOLD = 8_192;
+    private static final int SLICE_ROWS = 65_536;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final LocalDateTime periodStart;
+    private final LocalDateTime periodEnd;
+    private final long fromMinute;
+    private final long toMinute;
+
+    ReportAggregator(LocalDateTime periodStart, LocalDateTime periodEnd) {
+        this.periodStart = periodStart;
+        this.periodEnd = periodEnd;
+        this.fromMinute = ceilMinute(periodStart);
+        this.toMinute = ceilMinute(periodEnd);
+    }
+
+    /** Employee, project, task and day of a group of entries, with the totals gathered for it. */
+    private static final class Cell {
+        Employee employee;
+        Project project;
+        Task task;
+        long day;
+        int hash;
+        long minutes;
+        long entries;
+
+        Cell set(Employee employee, Project project, Task task, long day) {
+            this.employee = employee;
+            this.project = project;
+            this.task = task;
+            this.day = day;
+            this.hash = ((System.identityHashCode(employee) * 31 + System.identityHashCode(project)) * 31
+                + System.identityHashCode(task)) * 31 + Long.hashCode(day);
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Cell)) {
+                return false;
+            }
+            Cell other = (Cell) o;
+            return employee == other.employee && project == other.project && task == other.task && day == other.day;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /** Mergeable partial result of one slice of the input. */
+    final class Partial {
+        private final Map<Cell, Cell> cells = new HashMap<>();
+        private final Cell probe = new Cell();
+        private long skipped;
+
+        void add(TimeEntry entry) {
+            LocalDateTime start = entry.getStartTime();
+            if (entry.getEndTime() == null || start.isBefore(periodStart) || !start.isBefore(periodEnd)) {
+                skipped++;
+                return;
+            }
+            long day = start.toLocalDate().toEpochDay();
+            add(entry.getEmployee(), entry.getProject(), entry.getTask(), day, entry.getDuration().toMinutes(), 1);
+        }
+
+        void add(Task task, TimeEntryCursor cursor) {
+            Project project = task.getProject();
+            while (cursor.next()) {
+                long start = cursor.getStartEpochMinute();
+                if (start < fromMinute || start >= toMinute) {
+                    skipped++;
+                    continue;
+                }
+                add(cursor.getEmployee(), project, task, Math.floorDiv(start, MINUTES_PER_DAY), cursor.getMinutes(), 1);
+            }
+        }
+
+        void add(Task task, DailyTotal total) {
+            LocalDateTime day = total.getDate().atStartOfDay();
+            if (day.isBefore(periodStart) || !day.isBefore(periodEnd)) {
+                skipped += total.getEntryCount();
+                return;
+            }
+            add(total.getEmployee(), task.getProject(), task, total.getDate().toEpochDay(), total.getMinutes(),
+                total.getEntryCount());
+        }
+
+        private void add(Employee employee, Project project, Task task, long day, long minutes, long entries) {
+            Cell cell = cells.get(probe.set(employee, project, task, day));
+            if (cell == null) {
+                cell = new Cell().set(employee, project, task, day);
+                cells.put(cell, cell);
+            }
+            cell.minutes += minutes;
+            cell.entries += entries;
+        }
+
+        /** Adds the cells of {@code other} to this partial. */
+        void absorb(Partial other) {
+            for (Cell cell : other.cells.values()) {
+                Cell into = cells.putIfAbsent(cell, cell);
+                if (into != null) {
+                    into.minutes += cell.minutes;
+                    into.entries += cell.entries;
+                }
+            }
+            skipped += other.skipped;
+        }
+
+        /** Merges the smaller of the two partials into the larger and returns it. */
+        Partial merge(Partial other) {
+            Partial large = cells.size() >= other.cells.size() ? this : other;
+            large.absorb(large == this ? other : this);
+            return large;
+        }
+    }
+
+    private static final class ListReduction extends RecursiveTask<Partial> {
+        private static final long serialVersionUID = 1L;
+
+        private final ReportAggregator aggregator;
+        private final List<TimeEntry> entries;
+        private final int from;
+        private final int to;
+
+        ListReduction(ReportAggregator aggregator, List<TimeEntry> entries, int from, int to) {
+            this.aggregator = aggregator;
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= LIST_THRESHOLD) {
+                Partial partial = aggregator.new Partial();
+                for (int i = from; i < to; i++) {
+                    partial.add(entries.get(i));
+                }
+                return partial;
+            }
+            int mid = (from + to) >>> 1;
+            ListReduction left = new ListReduction(aggregator, entries, from, mid);
+            left.fork();
+            Partial right = new ListReduction(aggregator, entries, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /** A slice of one task's history, or its daily totals when {@code cursor} is null. */
+    private static final class Unit {
+        final Task task;
+        final TimeEntryCursor cursor;
+
+        Unit(Task task, TimeEntryCursor cursor) {
+            this.task = task;
+            this.cursor = cursor;
+        }
+    }
+
+    private static final class UnitReduction extends RecursiveTask<Partial> {
+        private static final long serialVersionUID = 1L;
+
+        private final ReportAggregator aggregator;
+        private final List<Unit> units;
+        private final int from;
+        private final int to;
+
+        UnitReduction(ReportAggregator aggregator, List<Unit> units, int from, int to) {
+            this.aggregator = aggregator;
+            this.units = units;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from == 1) {
+                Partial partial = aggregator.new Partial();
+                Unit unit = units.get(from);
+                if (unit.cursor != null) {
+                    partial.add(unit.task, unit.cursor);
+                } else {
+                    for (DailyTotal total : unit.task.getDailyTotals()) {
+                        partial.add(unit.task, total);
+                    }
+                }
+                return partial;
+            }
+            int mid = (from + to) >>> 1;
+            UnitReduction left = new UnitReduction(aggregator, units, from, mid);
+            left.fork();
+            Partial right = new UnitReduction(aggregator, units, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    Partial aggregate(List<TimeEntry> entries) {
+        List<TimeEntry> indexed = entries instanceof RandomAccess ? entries : new ArrayList<>(entries);
+        return ForkJoinPool.commonPool().invoke(new ListReduction(this, indexed, 0, indexed.size()));
+    }
+
+    /** Pulls entries from {@code entries} lazily; a parallel stream is reduced on the common pool. */
+    Partial aggregate(Stream<TimeEntry> entries) {
+        return entries.collect(Partial::new, Partial::add, Partial::absorb);
+    }
+
+    /** Reads the columnar history and daily totals of {@code tasks}, split into slices of bounded size. */
+    Partial aggregateTasks(Iterable<Task> tasks) {
+        List<Unit> units = new ArrayList<>();
+        for (Task task : tasks) {
+            TimeEntryCursor history = task.scanTimeEntries();
+            for (int from = 0; from < history.size(); from += SLICE_ROWS) {
+                units.add(new Unit(task, history.slice(from, Math.min(history.size(), from + SLICE_ROWS))));
+            }
+            units.add(new Unit(task, null));
+        }
+        if (units.isEmpty()) {
+            return new Partial();
+        }
+        return ForkJoinPool.commonPool().invoke(new UnitReduction(this, units, 0, units.size()));
+    }
+
+    /** Receives report rows field by field, in report order. */
+    interface RowSink {
+        void row(Employee employee, Department department, Project project, Task task, LocalDate date,
+                 long minutes, long entries, int employees, int projects, int days);
+    }
+
+    /** Distinct members and totals of one output group. */
+    private static final class Group {
+        final Employee employee;
+        final Department department;
+        final Project project;
+        final String sortKey;
+        long minutes;
+        long entries;
+        final Set<Employee> employees = new HashSet<>();
+        final Set<Project> projects = new HashSet<>();
+        final Set<Long> days = new HashSet<>();
+
+        Group(Employee employee, Department department, Project project, String sortKey) {
+            this.employee = employee;
+            this.department = department;
+            this.project = project;
+            this.sortKey = sortKey;
+        }
+
+        void add(Cell cell) {
+            minutes += cell.minutes;
+            entries += cell.entries;
+            employees.add(cell.employee);
+            projects.add(cell.project);
+            days.add(cell.day);
+        }
+    }
+
+    /** Collects the rows of {@code partial} into a result. */
+    ReportResult result(Report.ReportType type, Partial partial) {
+        List<ReportRow> rows = new ArrayList<>();
+        emit(type, partial, (employee, department, project, task, date, minutes, entries, employees, projects, days) ->
+            rows.add(new ReportRow(employee, department, project, task, date, minutes, entries, employees, projects,
+                days)));
+        return summary(type, partial, rows);
+    }
+
+    /** Result with the totals of {@code partial} and the given rows, which may be empty if they were streamed. */
+    ReportResult summary(Report.ReportType type, Partial partial, List<ReportRow> rows) {
+        long minutes = 0;
+        long entries = 0;
+        for (Cell cell : partial.cells.values()) {
+            minutes += cell.minutes;
+            entries += cell.entries;
+        }
+        return new ReportResult(type, periodStart, periodEnd, rows, minutes, entries, partial.skipped);
+    }
+
+    /** Rolls the cells of {@code partial} up for {@code type} and hands each row to {@code sink}, sorted. */
+    void emit(Report.ReportType type, Partial partial, RowSink sink) {
+        switch (type) {
+            case TIME_TRACKING:
+                List<Cell> cells = new ArrayList<>(partial.cells.values());
+                cells.sort(Comparator.<Cell>comparingLong(c -> c.day)
+                    .thenComparing(c -> c.employee.getEmployeeId())
+                    .thenComparing(c -> c.project.getId())
+                    .thenComparing(c -> c.task == null ? "" : c.task.getId()));
+                for (Cell c : cells) {
+                    sink.row(c.employee, c.employee.getDepartment(), c.project, c.task, LocalDate.ofEpochDay(c.day),
+                        c.minutes, c.entries, 1, 1, 1);
+                }
+                break;
+            case PROJECT_PROGRESS:
+                rollUp(partial, c -> c.project, c -> new Group(null, null, c.project, c.project.getId()), sink);
+                break;
+            case DEPARTMENT_SUMMARY:
+                rollUp(partial, c -> c.employee.getDepartment(), c -> {
+                    Department department = c.employee.getDepartment();
+                    return new Group(null, department, null, department == null ? "" : department.getCode());
+                }, sink);
+                break;
+            case EMPLOYEE_PERFORMANCE:
+                rollUp(partial, c -> c.employee,
+                    c -> new Group(c.employee, c.employee.getDepartment(), null, c.employee.getEmployeeId()), sink);
+                break;
+            default:
+                throw new IllegalStateException("Unsupported report type: " + type);
+        }
+    }
+
+    private static void rollUp(Partial partial, Function<Cell, Object> key, Function<Cell, Group> newGroup,
+                               RowSink sink) {
+        Map<Object, Group> groups = new HashMap<>();
+        for (Cell cell : partial.cells.values()) {
+            Object k = key.apply(cell);
+            // Null departments group together under a sentinel key.
+            groups.computeIfAbsent(k == null ? ReportAggregator.class : k, x -> newGroup.apply(cell)).add(cell);
+        }
+        List<Group> ordered = new ArrayList<>(groups.values());
+        ordered.sort(Comparator.comparing(g -> g.sortKey));
+        for (Group g : ordered) {
+            sink.row(g.employee, g.department, g.project, null, null, g.minutes, g.entries, g.employees.size(),
+                g.projects.size(), g.days.size());
+        }
+    }
+
+    // Every LocalDateTime is well inside the long range in epoch seconds, so this cannot overflow.
+    private static long ceilMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC) + 59, 60);
+    }
+}
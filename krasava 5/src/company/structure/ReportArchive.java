@@ -0,0 +1,618 @@
+package company.structure;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only, memory-mapped file holding the rows of an archived report.
+ *
+ * <p>Layout: a header with the report's metadata and totals, a dictionary of
+ * the ids and codes the rows use, blocks of up to {@value #BLOCK_ROWS} rows
+ * compressed with {@link Deflater}, a block index and a fixed-size trailer
+ * pointing at the index. Each index entry holds the block's offset, sizes, day
+ * range, whether it has undated rows and a 1024-bit Bloom filter of the ids in
+ * the block. Rows are varint-encoded; days are stored relative to the period
+ * start. A {@link Query} inflates only the blocks whose day range and filter
+ * can match, and opening an archive reads just the header, dictionary and
+ * index.
+ *
+ * <pre>
+ * try (ReportArchive archive = ReportArchive.open(path)) {
+ *     List&lt;ArchivedRow&gt; march = archive.query(new ReportArchive.Query()
+ *         .between(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31))
+ *         .project("P7"));
+ * }
+ * </pre>
+ *
+ * <p>Rows without a date, as in the summary report types, match every day
+ * range that intersects the report period.
+ */
+public final class ReportArchive implements Closeable {
+    private static final long MAGIC = 0x5250544152433031L; // "RPTARC01"
+    private static final int BLOCK_ROWS = 4096;
+    private static final int BLOOM_WORDS = 16;
+    private static final int INDEX_ENTRY_BYTES = 8 + 4 + 4 + 4 + 4 + 4 + 4 + BLOOM_WORDS * 8;
+    private static final int TRAILER_BYTES = 8 + 4 + 8;
+    private static final int NO_DAY = Integer.MIN_VALUE;
+
+    // Bloom filter dimension tags.
+    private static final int EMPLOYEE = 1;
+    private static final int DEPARTMENT = 2;
+    private static final int PROJECT = 3;
+    private static final int TASK = 4;
+
+    /** Day range and id conditions; all set conditions must hold. */
+    public static final class Query {
+        private LocalDate from;
+        private LocalDate to;
+        private String employeeId;
+        private String departmentCode;
+        private String projectId;
+        private String taskId;
+
+        /** Rows dated from {@code from} to {@code to}, both inclusive. */
+        public Query between(LocalDate from, LocalDate to) {
+            Objects.requireNonNull(from, "From date cannot be null");
+            Objects.requireNonNull(to, "To date cannot be null");
+            if (to.isBefore(from)) {
+                throw new IllegalArgumentException("To date cannot be before from date");
+            }
+            this.from = from;
+            this.to = to;
+            return this;
+        }
+
+        public Query employee(String employeeId) {
+            this.employeeId = Objects.requireNonNull(employeeId, "Employee id cannot be null");
+            return this;
+        }
+
+        public Query department(String departmentCode) {
+            this.departmentCode = Objects.requireNonNull(departmentCode, "Department code cannot be null");
+            return this;
+        }
+
+        public Query project(String projectId) {
+            this.projectId = Objects.requireNonNull(projectId, "Project id cannot be null");
+            return this;
+        }
+
+        public Query task(String taskId) {
+            this.taskId = Objects.requireNonNull(taskId, "Task id cannot be null");
+            return this;
+        }
+    }
+
+    private final FileChannel channel;
+    private final ByteBuffer mapped;
+    private final String reportId;
+    private final String title;
+    private final Report.ReportType type;
+    private final String generatedBy;
+    private final LocalDateTime generationDate;
+    private final LocalDateTime periodStart;
+    private final LocalDateTime periodEnd;
+    private final long totalMinutes;
+    private final long totalEntries;
+    private final long rowCount;
+    private final String[] dictionary;
+    private final Map<String, Integer> codes;
+    private final long[] blockOffsets;
+    private final int[] compressedSizes;
+    private final int[] rawSizes;
+    private final int[] blockRows;
+    private final int[] minDays;
+    private final int[] maxDays;
+    private final boolean[] undated;
+    private final int baseDay;
+    private final long[] blooms;
+    private final LongAdder blocksRead = new LongAdder();
+
+    private ReportArchive(FileChannel channel, ByteBuffer mapped) throws IOException {
+        this.channel = channel;
+        this.mapped = mapped;
+        int size = mapped.capacity();
+        if (size < 8 + TRAILER_BYTES || mapped.getLong(0) != MAGIC || mapped.getLong(size - 8) != MAGIC) {
+            throw new IOException("Not a report archive");
+        }
+        long indexOffset = mapped.getLong(size - TRAILER_BYTES);
+        int blocks = mapped.getInt(size - TRAILER_BYTES + 8);
+
+        DataInputStream header = new DataInputStream(new ByteBufferInput(mapped.duplicate().position(8)));
+        this.reportId = header.readUTF();
+        this.title = header.readUTF();
+        this.type = Report.ReportType.valueOf(header.readUTF());
+        this.generatedBy = header.readUTF();
+        this.generationDate = LocalDateTime.parse(header.readUTF());
+        this.periodStart = LocalDateTime.parse(header.readUTF());
+        this.periodEnd = LocalDateTime.parse(header.readUTF());
+        this.baseDay = Math.toIntExact(periodStart.toLocalDate().toEpochDay());
+        this.totalMinutes = header.readLong();
+        this.totalEntries = header.readLong();
+        this.rowCount = header.readLong();
+        this.dictionary = new String[header.readInt()];
+        this.codes = new HashMap<>(dictionary.length * 2);
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = header.readUTF();
+            codes.put(dictionary[i], i);
+        }
+
+        this.blockOffsets = new long[blocks];
+        this.compressedSizes = new int[blocks];
+        this.rawSizes = new int[blocks];
+        this.blockRows = new int[blocks];
+        this.minDays = new int[blocks];
+        this.maxDays = new int[blocks];
+        this.undated = new boolean[blocks];
+        this.blooms = new long[blocks * BLOOM_WORDS];
+        for (int b = 0; b < blocks; b++) {
+            int at = Math.toIntExact(indexOffset + (long) b * INDEX_ENTRY_BYTES);
+            blockOffsets[b] = mapped.getLong(at);
+            compressedSizes[b] = mapped.getInt(at + 8);
+            rawSizes[b] = mapped.getInt(at + 12);
+            blockRows[b] = mapped.getInt(at + 16);
+            minDays[b] = mapped.getInt(at + 20);
+            maxDays[b] = mapped.getInt(at + 24);
+            undated[b] = mapped.getInt(at + 28) != 0;
+            for (int w = 0; w < BLOOM_WORDS; w++) {
+                blooms[b * BLOOM_WORDS + w] = mapped.getLong(at + 32 + w * 8);
+            }
+        }
+    }
+
+    /** Maps {@code file} read-only and loads its header, dictionary and block index. */
+    public static ReportArchive open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Report archive larger than 2 GB: " + file);
+            }
+            return new ReportArchive(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the rows of {@code report}'s result to {@code file}, replacing it
+     * atomically where the file system allows.
+     */
+    static void write(Report report, ReportResult result, Path file) throws IOException {
+        List<ReportRow> rows = result.getRows();
+        int baseDay = Math.toIntExact(report.getPeriodStart().toLocalDate().toEpochDay());
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> words = new ArrayList<>();
+        for (ReportRow row : rows) {
+            code(dictionary, words, employeeId(row));
+            code(dictionary, words, departmentCode(row));
+            code(dictionary, words, projectId(row));
+            code(dictionary, words, taskId(row));
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        boolean moved = false;
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                CountingOutput counting = new CountingOutput(Channels.newOutputStream(out));
+                DataOutputStream data = new DataOutputStream(counting);
+                data.writeLong(MAGIC);
+                data.writeUTF(report.getReportId());
+                data.writeUTF(report.getTitle());
+                data.writeUTF(report.getType().name());
+                data.writeUTF(report.getGeneratedBy().getEmployeeId());
+                data.writeUTF(report.getGenerationDate().toString());
+                data.writeUTF(report.getPeriodStart().toString());
+                data.writeUTF(report.getPeriodEnd().toString());
+                data.writeLong(result.getTotalMinutes());
+                data.writeLong(result.getTotalEntries());
+                data.writeLong(rows.size());
+                data.writeInt(words.size());
+                for (String word : words) {
+                    data.writeUTF(word);
+                }
+
+                int blocks = (rows.size() + BLOCK_ROWS - 1) / BLOCK_ROWS;
+                ByteBuffer index = ByteBuffer.allocate(blocks * INDEX_ENTRY_BYTES);
+                Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                Varints raw = new Varints();
+                byte[] compressed = new byte[64 * 1024];
+                try {
+                    for (int b = 0; b < blocks; b++) {
+                        raw.reset();
+                        long[] bloom = new long[BLOOM_WORDS];
+                        int minDay = Integer.MAX_VALUE;
+                        int maxDay = NO_DAY;
+                        boolean hasUndated = false;
+                        int end = Math.min(rows.size(), (b + 1) * BLOCK_ROWS);
+                        for (int r = b * BLOCK_ROWS; r < end; r++) {
+                            ReportRow row = rows.get(r);
+                            int employee = code(dictionary, words, employeeId(row));
+                            int department = code(dictionary, words, departmentCode(row));
+                            int project = code(dictionary, words, projectId(row));
+                            int task = code(dictionary, words, taskId(row));
+                            int day = row.getDate() == null ? NO_DAY : Math.toIntExact(row.getDate().toEpochDay());
+                            if (day != NO_DAY) {
+                                minDay = Math.min(minDay, day);
+                                maxDay = Math.max(maxDay, day);
+                            } else {
+                                hasUndated = true;
+                            }
+                            addBloom(bloom, EMPLOYEE, employee);
+                            addBloom(bloom, DEPARTMENT, department);
+                            addBloom(bloom, PROJECT, project);
+                            addBloom(bloom, TASK, task);
+                            // Codes are stored plus one so that zero means absent.
+                            raw.put(employee + 1);
+                            raw.put(department + 1);
+                            raw.put(project + 1);
+                            raw.put(task + 1);
+                            raw.put(day == NO_DAY ? 0 : zigzag((long) day - baseDay) + 1);
+                            raw.putSigned(row.getMinutes());
+                            raw.putSigned(row.getEntryCount());
+                            raw.put(row.getEmployeeCount());
+                            raw.put(row.getProjectCount());
+                            raw.put(row.getActiveDays());
+                        }
+
+                        deflater.reset();
+                        deflater.setInput(raw.bytes, 0, raw.length);
+                        deflater.finish();
+                        long offset = counting.count;
+                        int compressedSize = 0;
+                        while (!deflater.finished()) {
+                            int n = deflater.deflate(compressed);
+                            data.write(compressed, 0, n);
+                            compressedSize += n;
+                        }
+                        index.putLong(offset).putInt(compressedSize).putInt(raw.length).putInt(end - b * BLOCK_ROWS)
+                            .putInt(minDay == Integer.MAX_VALUE ? NO_DAY : minDay).putInt(maxDay)
+                            .putInt(hasUndated ? 1 : 0);
+                        for (long word : bloom) {
+                            index.putLong(word);
+                        }
+                    }
+                } finally {
+                    deflater.end();
+                }
+                data.flush();
+                long indexOffset = counting.count;
+                data.write(index.array());
+                data.writeLong(indexOffset);
+                data.writeInt(blocks);
+                data.writeLong(MAGIC);
+                data.flush();
+                // The rename must not reach the disk before the contents it publishes.
+                out.force(true);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            moved = true;
+        } finally {
+            if (!moved) {
+                // A failed write must not leave a partial file behind.
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    // The failure that got here is the one to report.
+                }
+            }
+        }
+        syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+    /** Makes a rename in {@code dir} durable; not every platform can open a directory, so this is best effort. */
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms, Windows among them, cannot open a directory for reading.
+        }
+    }
+
+    public String getReportId() { return reportId; }
+    public String getTitle() { return title; }
+    public Report.ReportType getType() { return type; }
+    public String getGeneratedBy() { return generatedBy; }
+    public LocalDateTime getGenerationDate() { return generationDate; }
+    public LocalDateTime getPeriodStart() { return periodStart; }
+    public LocalDateTime getPeriodEnd() { return periodEnd; }
+    public long getTotalMinutes() { return totalMinutes; }
+    public long getTotalEntries() { return totalEntries; }
+    public long getRowCount() { return rowCount; }
+    public int getBlockCount() { return blockOffsets.length; }
+    /** Blocks inflated by queries so far, to see how much a query could skip. */
+    public long getBlocksRead() { return blocksRead.sum(); }
+
+    /** Rows matching {@code query}, in archived order. */
+    public List<ArchivedRow> query(Query query) {
+        List<ArchivedRow> rows = new ArrayList<>();
+        scan(query, (r, day) -> rows.add(new ArchivedRow(word(r[0]), word(r[1]), word(r[2]), word(r[3]),
+            day == NO_DAY ? null : LocalDate.ofEpochDay(day), r[5], r[6], (int) r[7], (int) r[8], (int) r[9])));
+        return rows;
+    }
+
+    /** Writes rows matching {@code query} to {@code writer} without building them; returns how many. */
+    public long export(Query query, ReportWriter writer) {
+        long before = writer.getRowsWritten();
+        scan(query, (r, day) -> writer.writeEncoded(word(r[0]), word(r[1]), word(r[2]), word(r[3]),
+            day == NO_DAY ? null : LocalDate.ofEpochDay(day), r[5], r[6], (int) r[7], (int) r[8], (int) r[9]));
+        return writer.getRowsWritten() - before;
+    }
+
+    /** Decoded row fields: codes plus one for the four ids, then the day slot, minutes, entries and counts. */
+    private interface RowVisitor {
+        void visit(long[] fields, int day);
+    }
+
+    private void scan(Query query, RowVisitor visitor) {
+        Objects.requireNonNull(query, "Query cannot be null");
+        int[] wanted = {
+            wanted(query.employeeId), wanted(query.departmentCode), wanted(query.projectId), wanted(query.taskId)
+        };
+        for (int code : wanted) {
+            if (code == -2) {
+                return; // An id the archive never saw matches nothing.
+            }
+        }
+        int from = query.from == null ? Integer.MIN_VALUE : Math.toIntExact(query.from.toEpochDay());
+        int to = query.to == null ? Integer.MAX_VALUE : Math.toIntExact(query.to.toEpochDay());
+        boolean undatedMatch = query.from == null
+            || (!query.from.isAfter(periodEnd.toLocalDate()) && !query.to.isBefore(periodStart.toLocalDate()));
+
+        Inflater inflater = new Inflater();
+        byte[] raw = new byte[0];
+        long[] fields = new long[10];
+        try {
+            for (int b = 0; b < blockOffsets.length; b++) {
+                boolean daysMatch = minDays[b] != NO_DAY && minDays[b] <= to && maxDays[b] >= from;
+                if (!daysMatch && !(undatedMatch && undated[b])) {
+                    continue;
+                }
+                if (!mayContain(b, EMPLOYEE, wanted[0]) || !mayContain(b, DEPARTMENT, wanted[1])
+                        || !mayContain(b, PROJECT, wanted[2]) || !mayContain(b, TASK, wanted[3])) {
+                    continue;
+                }
+                if (raw.length < rawSizes[b]) {
+                    raw = new byte[rawSizes[b]];
+                }
+                inflate(inflater, b, raw);
+                blocksRead.increment();
+                int at = 0;
+                for (int r = 0; r < blockRows[b]; r++) {
+                    for (int f = 0; f < 10; f++) {
+                        long value = 0;
+                        int shift = 0;
+                        byte next;
+                        do {
+                            next = raw[at++];
+                            value |= (long) (next & 0x7F) << shift;
+                            shift += 7;
+                        } while (next < 0);
+                        fields[f] = f == 5 || f == 6 ? unzigzag(value) : value;
+                    }
+                    for (int f = 0; f < 4; f++) {
+                        fields[f]--;
+                    }
+                    int day = fields[4] == 0 ? NO_DAY : (int) (baseDay + unzigzag(fields[4] - 1));
+                    boolean matches = day == NO_DAY ? undatedMatch : day >= from && day <= to;
+                    for (int f = 0; f < 4 && matches; f++) {
+                        matches = wanted[f] < 0 || fields[f] == wanted[f];
+                    }
+                    if (matches) {
+                        visitor.visit(fields, day);
+                    }
+                }
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private void inflate(Inflater inflater, int block, byte[] raw) {
+        ByteBuffer compressed = mapped.duplicate();
+        compressed.limit(Math.toIntExact(blockOffsets[block] + compressedSizes[block]));
+        compressed.position(Math.toIntExact(blockOffsets[block]));
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int n = 0;
+            while (n < rawSizes[block] && !inflater.finished()) {
+                n += inflater.inflate(raw, n, rawSizes[block] - n);
+            }
+            if (n != rawSizes[block]) {
+                throw new UncheckedIOException(new IOException("Truncated archive block " + block));
+            }
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt archive block " + block, e));
+        }
+    }
+
+    /** Dictionary code for a query id: -1 if not queried, -2 if the archive does not contain it. */
+    private int wanted(String id) {
+        if (id == null) {
+            return -1;
+        }
+        Integer code = codes.get(id);
+        return code == null ? -2 : code;
+    }
+
+    private boolean mayContain(int block, int dimension, int code) {
+        if (code < 0) {
+            return true;
+        }
+        int h1 = bloomBit(dimension, code, 0);
+        int h2 = bloomBit(dimension, code, 1);
+        return (blooms[block * BLOOM_WORDS + (h1 >>> 6)] & (1L << h1)) != 0
+            && (blooms[block * BLOOM_WORDS + (h2 >>> 6)] & (1L << h2)) != 0;
+    }
+
+    private static void addBloom(long[] bloom, int dimension, int code) {
+        if (code < 0) {
+            return;
+        }
+        int h1 = bloomBit(dimension, code, 0);
+        int h2 = bloomBit(dimension, code, 1);
+        bloom[h1 >>> 6] |= 1L << h1;
+        bloom[h2 >>> 6] |= 1L << h2;
+    }
+
+    private static int bloomBit(int dimension, int code, int seed) {
+        int h = (code * 31 + dimension) * 0x9E3779B9 + seed * 0x85EBCA6B;
+        h ^= h >>> 15;
+        h *= 0x2C1B3C6D;
+        h ^= h >>> 13;
+        return h & (BLOOM_WORDS * 64 - 1);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private String word(long code) {
+        return code < 0 ? null : dictionary[(int) code];
+    }
+
+    private static int code(Map<String, Integer> dictionary, List<String> words, String word) {
+        if (word == null) {
+            return -1;
+        }
+        Integer code = dictionary.get(word);
+        if (code == null) {
+            code = words.size();
+            dictionary.put(word, code);
+            words.add(word);
+        }
+        return code;
+    }
+
+    private static String employeeId(ReportRow row) {
+        return row.getEmployee() == null ? null : row.getEmployee().getEmployeeId();
+    }
+
+    private static String departmentCode(ReportRow row) {
+        return row.getDepartment() == null ? null : row.getDepartment().getCode();
+    }
+
+    private static String projectId(ReportRow row) {
+        return row.getProject() == null ? null : row.getProject().getId();
+    }
+
+    private static String taskId(ReportRow row) {
+        return row.getTask() == null ? null : row.getTask().getId();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "ReportArchive{id='" + reportId + "', type=" + type + ", rows=" + rowCount
+            + ", blocks=" + blockOffsets.length + "}";
+    }
+
+    /** Growable buffer of unsigned and zigzag varints. */
+    private static final class Varints {
+        byte[] bytes = new byte[BLOCK_ROWS * 16];
+        int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        void putSigned(long value) {
+            put(zigzag(value));
+        }
+
+        void put(long value) {
+            if (length + 10 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+    }
+
+    private static final class CountingOutput extends FilterOutputStream {
+        long count;
+
+        CountingOutput(OutputStream out) {
+            super(new BufferedOutputStream(out, 64 * 1024));
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private static final class ByteBufferInput extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+}
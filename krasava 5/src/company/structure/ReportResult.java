@@ -0,0 +1,43 @@
+package company.structure;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/** Aggregated rows of a generated {@link Report} and the totals they add up to. */
+public final class ReportResult {
+    private final Report.ReportType type;
+    private final LocalDateTime periodStart;
+    private final LocalDateTime periodEnd;
+    private final List<ReportRow> rows;
+    private final long totalMinutes;
+    private final long totalEntries;
+    private final long skippedEntries;
+
+    ReportResult(Report.ReportType type, LocalDateTime periodStart, LocalDateTime periodEnd, List<ReportRow> rows,
+                 long totalMinutes, long totalEntries, long skippedEntries) {
+        this.type = type;
+        this.periodStart = periodStart;
+        this.periodEnd = periodEnd;
+        this.rows = Collections.unmodifiableList(rows);
+        this.totalMinutes = totalMinutes;
+        this.totalEntries = totalEntries;
+        this.skippedEntries = skippedEntries;
+    }
+
+    public Report.ReportType getType() { return type; }
+    public LocalDateTime getPeriodStart() { return periodStart; }
+    public LocalDateTime getPeriodEnd() { return periodEnd; }
+    public List<ReportRow> getRows() { return rows; }
+    public long getTotalMinutes() { return totalMinutes; }
+    public double getTotalHours() { return totalMinutes / 60.0; }
+    public long getTotalEntries() { return totalEntries; }
+    /** Entries left out because they started outside the period or were never stopped. */
+    public long getSkippedEntries() { return skippedEntries; }
+
+    @Override
+    public String toString() {
+        return String.format("ReportResult{type=%s, rows=%d, hours=%.2f, entries=%d, skipped=%d}",
+            type, rows.size(), getTotalHours(), totalEntries, skippedEntries);
+    }
+}
@@ -0,0 +1,70 @@
+package company.structure;
+
+import company.empoloyees.Employee;
+import company.projects.Project;
+import company.projects.Task;
+
+import java.time.LocalDate;
+
+/**
+ * One group of a {@link ReportResult}. Which grouping fields are set depends on
+ * the report type:
+ * <ul>
+ *   <li>{@code TIME_TRACKING}: employee, project, task (null for entries without one) and date</li>
+ *   <li>{@code PROJECT_PROGRESS}: project</li>
+ *   <li>{@code DEPARTMENT_SUMMARY}: department (null for employees without one)</li>
+ *   <li>{@code EMPLOYEE_PERFORMANCE}: employee and department</li>
+ * </ul>
+ * The distinct counts are over the entries of the group.
+ */
+public final class ReportRow {
+    private final Employee employee;
+    private final Department department;
+    private final Project project;
+    private final Task task;
+    private final LocalDate date;
+    private final long minutes;
+    private final long entries;
+    private final int employees;
+    private final int projects;
+    private final int days;
+
+    ReportRow(Employee employee, Department department, Project project, Task task, LocalDate date,
+              long minutes, long entries, int employees, int projects, int days) {
+        this.employee = employee;
+        this.department = department;
+        this.project = project;
+        this.task = task;
+        this.date = date;
+        this.minutes = minutes;
+        this.entries = entries;
+        this.employees = employees;
+        this.projects = projects;
+        this.days = days;
+    }
+
+    public Employee getEmployee() { return employee; }
+    public Department getDepartment() { return department; }
+    public Project getProject() { return project; }
+    public Task getTask() { return task; }
+    public LocalDate getDate() { return date; }
+    public long getMinutes() { return minutes; }
+    public double getHours() { return minutes / 60.0; }
+    public long getEntryCount() { return entries; }
+    public int getEmployeeCount() { return employees; }
+    public int getProjectCount() { return projects; }
+    /** Distinct days with work in the group. */
+    public int getActiveDays() { return days; }
+    public double getHoursPerActiveDay() { return days > 0 ? getHours() / days : 0.0; }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ReportRow{");
+        if (employee != null) sb.append("employee=").append(employee.getEmployeeId()).append(", ");
+        if (department != null) sb.append("department=").append(department.getCode()).append(", ");
+        if (project != null) sb.append("project=").append(project.getId()).append(", ");
+        if (task != null) sb.append("task=").append(task.getId()).append(", ");
+        if (date != null) sb.append("date=").append(date).append(", ");
+        return sb.append(String.format("hours=%.2f, entries=%d}", getHours(), entries)).toString();
+    }
+}
@@ -0,0 +1,327 @@
+package company.structure;
+
+import company.empoloyees.Employee;
+import company.projects.Project;
+import company.projects.Task;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Writes report rows to a channel as they are produced. Rows are encoded into
+ * one reused buffer that is written out whenever it fills, so memory does not
+ * grow with the size of the export. Numbers and dates are encoded by hand;
+ * strings are escaped for the format and written as UTF-8.
+ *
+ * <p>Every row has the same columns: employee, department, project and task
+ * ids, date, hours with two decimals, entries, employees, projects and active
+ * days. Fields a report type does not group by are empty in CSV and left out in
+ * JSON lines. {@link #close()} flushes but leaves the channel open.
+ */
+public abstract class ReportWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_NUMBER_BYTES = 24;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long rows;
+    private long bytes;
+
+    ReportWriter(WritableByteChannel channel) {
+        this.channel = Objects.requireNonNull(channel, "Channel cannot be null");
+    }
+
+    public static ReportWriter csv(WritableByteChannel channel) {
+        return new Csv(channel);
+    }
+
+    public static ReportWriter jsonLines(WritableByteChannel channel) {
+        return new JsonLines(channel);
+    }
+
+    /** Writer for {@code CSV}, or for {@code JSONL}/{@code JSON} (one object per line). */
+    public static ReportWriter forFormat(String format, WritableByteChannel channel) {
+        switch (format.toUpperCase(Locale.ROOT)) {
+            case "CSV":
+                return csv(channel);
+            case "JSONL":
+            case "JSON":
+                return jsonLines(channel);
+            default:
+                throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+
+    public void write(ReportRow row) {
+        write(row.getEmployee(), row.getDepartment(), row.getProject(), row.getTask(), row.getDate(),
+            row.getMinutes(), row.getEntryCount(), row.getEmployeeCount(), row.getProjectCount(), row.getActiveDays());
+    }
+
+    /** Writes one row from its fields, without building a {@link ReportRow}; null fields are empty. */
+    public void write(Employee employee, Department department, Project project, Task task, LocalDate date,
+                      long minutes, long entries, int employees, int projects, int days) {
+        encode(employee == null ? null : employee.getEmployeeId(), department == null ? null : department.getCode(),
+            project == null ? null : project.getId(), task == null ? null : task.getId(), date, minutes, entries,
+            employees, projects, days);
+        rows++;
+    }
+
+    /** Writes one row of already resolved ids, as read back from an archive. */
+    void writeEncoded(String employee, String department, String project, String task, LocalDate date,
+                      long minutes, long entries, int employees, int projects, int days) {
+        encode(employee, department, project, task, date, minutes, entries, employees, projects, days);
+        rows++;
+    }
+
+    abstract void encode(String employee, String department, String project, String task, LocalDate date,
+                         long minutes, long entries, int employees, int projects, int days);
+
+    public long getRowsWritten() {
+        return rows;
+    }
+
+    /** Bytes handed to the channel so far, not counting what is still buffered. */
+    public long getBytesWritten() {
+        return bytes;
+    }
+
+    public void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                bytes += channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Report export failed", e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    // Encoding helpers; each makes room for what it writes.
+
+    final void ascii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            put((byte) s.charAt(i));
+        }
+    }
+
+    final void put(byte b) {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put(b);
+    }
+
+    /**
+     * Writes {@code c}, the char at {@code i} of {@code s}, as UTF-8 and returns the
+     * index of the last char used; a surrogate pair uses two, a lone surrogate becomes '?'.
+     */
+    final int utf8(char c, String s, int i) {
+        if (c < 0x80) {
+            put((byte) c);
+        } else if (c < 0x800) {
+            put((byte) (0xC0 | c >> 6));
+            put((byte) (0x80 | c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+            int cp = Character.toCodePoint(c, s.charAt(i + 1));
+            put((byte) (0xF0 | cp >> 18));
+            put((byte) (0x80 | cp >> 12 & 0x3F));
+            put((byte) (0x80 | cp >> 6 & 0x3F));
+            put((byte) (0x80 | cp & 0x3F));
+            return i + 1;
+        } else if (Character.isSurrogate(c)) {
+            put((byte) '?');
+        } else {
+            put((byte) (0xE0 | c >> 12));
+            put((byte) (0x80 | c >> 6 & 0x3F));
+            put((byte) (0x80 | c & 0x3F));
+        }
+        return i;
+    }
+
+    final void number(long value) {
+        if (buffer.remaining() < MAX_NUMBER_BYTES) {
+            flush();
+        }
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                ascii(Long.toString(value));
+                return;
+            }
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int start = buffer.position();
+        do {
+            buffer.put((byte) ('0' + value % 10));
+            value /= 10;
+        } while (value != 0);
+        reverse(start, buffer.position() - 1);
+    }
+
+    /** Minutes as hours with two decimals, rounded half up. */
+    final void hours(long minutes) {
+        long hundredths = Math.floorDiv(minutes * 100 + 30, 60);
+        if (hundredths < 0) {
+            put((byte) '-');
+            hundredths = -hundredths;
+        }
+        number(hundredths / 100);
+        put((byte) '.');
+        put((byte) ('0' + hundredths / 10 % 10));
+        put((byte) ('0' + hundredths % 10));
+    }
+
+    /** ISO date, {@code yyyy-MM-dd}, for years 0 to 9999. */
+    final void date(LocalDate date) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            ascii(date.toString());
+            return;
+        }
+        if (buffer.remaining() < 10) {
+            flush();
+        }
+        buffer.put((byte) ('0' + year / 1000)).put((byte) ('0' + year / 100 % 10))
+            .put((byte) ('0' + year / 10 % 10)).put((byte) ('0' + year % 10)).put((byte) '-')
+            .put((byte) ('0' + date.getMonthValue() / 10)).put((byte) ('0' + date.getMonthValue() % 10))
+            .put((byte) '-').put((byte) ('0' + date.getDayOfMonth() / 10)).put((byte) ('0' + date.getDayOfMonth() % 10));
+    }
+
+    private void reverse(int from, int to) {
+        while (from < to) {
+            byte b = buffer.get(from);
+            buffer.put(from++, buffer.get(to));
+            buffer.put(to--, b);
+        }
+    }
+
+    /** RFC 4180 CSV with a header line; fields with commas, quotes or line breaks are quoted. */
+    private static final class Csv extends ReportWriter {
+        Csv(WritableByteChannel channel) {
+            super(channel);
+            ascii("employee,department,project,task,date,hours,entries,employees,projects,active_days\n");
+        }
+
+        @Override
+        void encode(String employee, String department, String project, String task, LocalDate date,
+                    long minutes, long entries, int employees, int projects, int days) {
+            text(employee);
+            put((byte) ',');
+            text(department);
+            put((byte) ',');
+            text(project);
+            put((byte) ',');
+            text(task);
+            put((byte) ',');
+            if (date != null) {
+                date(date);
+            }
+            put((byte) ',');
+            hours(minutes);
+            put((byte) ',');
+            number(entries);
+            put((byte) ',');
+            number(employees);
+            put((byte) ',');
+            number(projects);
+            put((byte) ',');
+            number(days);
+            put((byte) '\n');
+        }
+
+        private void text(String s) {
+            if (s == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < s.length() && !quote; i++) {
+                char c = s.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (quote) {
+                put((byte) '"');
+            }
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '"') {
+                    put((byte) '"');
+                }
+                i = utf8(c, s, i);
+            }
+            if (quote) {
+                put((byte) '"');
+            }
+        }
+    }
+
+    /** One JSON object per line. */
+    private static final class JsonLines extends ReportWriter {
+        private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+        JsonLines(WritableByteChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        void encode(String employee, String department, String project, String task, LocalDate date,
+                    long minutes, long entries, int employees, int projects, int days) {
+            put((byte) '{');
+            field("employee", employee);
+            field("department", department);
+            field("project", project);
+            field("task", task);
+            if (date != null) {
+                ascii("\"date\":\"");
+                date(date);
+                ascii("\",");
+            }
+            ascii("\"hours\":");
+            hours(minutes);
+            ascii(",\"entries\":");
+            number(entries);
+            ascii(",\"employees\":");
+            number(employees);
+            ascii(",\"projects\":");
+            number(projects);
+            ascii(",\"activeDays\":");
+            number(days);
+            ascii("}\n");
+        }
+
+        private void field(String name, String value) {
+            if (value == null) {
+                return;
+            }
+            put((byte) '"');
+            ascii(name);
+            ascii("\":\"");
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    put((byte) '\\');
+                    put((byte) c);
+                } else if (c < 0x20) {
+                    ascii("\\u00");
+                    put(HEX[c >> 4]);
+                    put(HEX[c & 0xF]);
+                } else {
+                    i = utf8(c, value, i);
+                }
+            }
+            ascii("\",");
+        }
+    }
+}
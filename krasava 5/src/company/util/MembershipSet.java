@@ -0,0 +1,158 @@
+package company.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * An insertion-ordered set of members for rosters, teams and permission lists.
+ * Members sit in an array in the order they were added, with a hash index from
+ * member to slot, so {@link #add}, {@link #contains} and {@link #remove} are
+ * O(1). A removal leaves a hole that is closed up once holes outnumber members.
+ *
+ * <p>{@link #snapshot()} hands out an immutable list that shares the array
+ * rather than copying it. Adding only writes past the end a snapshot can see,
+ * so it stays cheap; the first removal after a snapshot copies the array once.
+ *
+ * <p>Not thread-safe; owners guard it with their own lock.
+ */
+public final class MembershipSet<E> implements Iterable<E> {
+    private static final Object[] EMPTY = {};
+    private static final int MIN_CAPACITY = 8;
+
+    private final Map<E, Integer> slotOf = new HashMap<>();
+    private Object[] slots = EMPTY;
+    // Slots in use, holes included.
+    private int end;
+    private int holes;
+    // Set once a snapshot refers to slots[0, end); cleared when the array is replaced.
+    private boolean shared;
+
+    /** Adds {@code member} at the end unless it is already present. */
+    public boolean add(E member) {
+        Objects.requireNonNull(member, "Member cannot be null");
+        if (slotOf.putIfAbsent(member, end) != null) {
+            return false;
+        }
+        if (end == slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(MIN_CAPACITY, end + (end >> 1)));
+            shared = false;
+        }
+        slots[end++] = member;
+        return true;
+    }
+
+    public boolean remove(Object member) {
+        Integer slot = slotOf.remove(member);
+        if (slot == null) {
+            return false;
+        }
+        if (shared) {
+            slots = slots.clone();
+            shared = false;
+        }
+        slots[slot] = null;
+        if (slot == end - 1) {
+            end--;
+        } else {
+            holes++;
+            if (holes > end - holes) {
+                compact();
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(Object member) {
+        return slotOf.containsKey(member);
+    }
+
+    public int size() {
+        return slotOf.size();
+    }
+
+    public boolean isEmpty() {
+        return slotOf.isEmpty();
+    }
+
+    public void clear() {
+        slotOf.clear();
+        slots = EMPTY;
+        end = 0;
+        holes = 0;
+        shared = false;
+    }
+
+    /**
+     * The current members in insertion order, as an immutable list that later
+     * changes do not affect. O(1) unless members were removed since the last
+     * snapshot, in which case the holes are closed first.
+     */
+    public List<E> snapshot() {
+        if (holes > 0) {
+            compact();
+        }
+        if (end == 0) {
+            return List.of();
+        }
+        shared = true;
+        return new Snapshot<>(slots, end);
+    }
+
+    /** Iterates over a snapshot, so the set may be changed while iterating. */
+    @Override
+    public Iterator<E> iterator() {
+        return snapshot().iterator();
+    }
+
+    /** Moves the members into a fresh array without holes. */
+    @SuppressWarnings("unchecked")
+    private void compact() {
+        Object[] packed = new Object[Math.max(MIN_CAPACITY, slotOf.size() + (slotOf.size() >> 1))];
+        int next = 0;
+        for (int i = 0; i < end; i++) {
+            if (slots[i] != null) {
+                if (next != i) {
+                    slotOf.put((E) slots[i], next);
+                }
+                packed[next++] = slots[i];
+            }
+        }
+        slots = packed;
+        end = next;
+        holes = 0;
+        shared = false;
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    private static final class Snapshot<E> extends AbstractList<E> implements RandomAccess {
+        private final Object[] slots;
+        private final int size;
+
+        Snapshot(Object[] slots, int size) {
+            this.slots = slots;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            Objects.checkIndex(index, size);
+            return (E) slots[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package company.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Applies a change to several entities all or nothing, without a lock shared
+ * by unrelated changes. An attempt first {@linkplain #read reads} the version
+ * stamp of every entity it will touch and decides what to do from what it sees,
+ * holding no lock. The commit then locks those entities in a fixed order, but
+ * only if none of their stamps moved; if one did, the attempt is thrown away
+ * and {@link #execute} starts a new one from fresh reads.
+ *
+ * <p>While the commit runs, every entity it read is locked, so other commits on
+ * any of them wait and later attempts that read them see the result as a whole.
+ */
+public final class OptimisticTransaction {
+    private static final LongAdder COMMITS = new LongAdder();
+    private static final LongAdder RETRIES = new LongAdder();
+
+    /** Reads the entities one attempt touches and returns the commit to run if none changed. */
+    @FunctionalInterface
+    public interface Attempt<T> {
+        Supplier<T> prepare(OptimisticTransaction transaction);
+    }
+
+    private VersionLock[] locks = new VersionLock[4];
+    private long[] versions = new long[4];
+    private int count;
+    private int attempts;
+
+    private OptimisticTransaction() {
+
+    }
+
+    /**
+     * Runs attempts until one commits and returns its result. An exception
+     * thrown by a commit is passed on after the locks are released.
+     */
+    public static <T> T execute(Attempt<T> attempt) {
+        OptimisticTransaction transaction = new OptimisticTransaction();
+        for (int round = 0; ; round++) {
+            transaction.count = 0;
+            transaction.attempts++;
+            Supplier<T> commit = attempt.prepare(transaction);
+            if (transaction.lockAll()) {
+                T result;
+                try {
+                    result = commit.get();
+                } finally {
+                    transaction.unlockAll(transaction.count);
+                }
+                COMMITS.increment();
+                return result;
+            }
+            RETRIES.increment();
+            VersionLock.backOff(round);
+        }
+    }
+
+    /**
+     * Notes the stamp of an entity this attempt depends on. Reads made before
+     * this call may predate the stamp, so read the entity's fields after it.
+     */
+    public void read(VersionLock lock) {
+        for (int i = 0; i < count; i++) {
+            if (locks[i] == lock) {
+                return;
+            }
+        }
+        if (count == locks.length) {
+            locks = Arrays.copyOf(locks, count * 2);
+            versions = Arrays.copyOf(versions, count * 2);
+        }
+        versions[count] = lock.awaitVersion();
+        locks[count++] = lock;
+    }
+
+    /** Attempts so far, counting the current one. */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    private boolean lockAll() {
+        // Insertion sort by lock id: a transaction touches only a few entities.
+        for (int i = 1; i < count; i++) {
+            VersionLock lock = locks[i];
+            long version = versions[i];
+            int j = i - 1;
+            for (; j >= 0 && locks[j].id > lock.id; j--) {
+                locks[j + 1] = locks[j];
+                versions[j + 1] = versions[j];
+            }
+            locks[j + 1] = lock;
+            versions[j + 1] = version;
+        }
+        for (int i = 0; i < count; i++) {
+            if (!locks[i].tryLock(versions[i])) {
+                unlockAll(i);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void unlockAll(int locked) {
+        for (int i = locked - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    public static long getCommitCount() { return COMMITS.sum(); }
+    public static long getRetryCount() { return RETRIES.sum(); }
+}
@@ -0,0 +1,111 @@
+package company.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A per-entity version stamp that doubles as the entity's lock. The stamp is
+ * even while the entity is free and odd while a thread holds it; every change
+ * moves it on, so a reader that noted the stamp before looking at the entity
+ * can tell afterwards whether anything changed in between.
+ * {@link OptimisticTransaction} locks several entities only if their stamps are
+ * still the ones it read.
+ *
+ * <p>The lock is reentrant. Waiting threads spin briefly, then yield; holders
+ * are expected to keep it for a handful of field updates.
+ */
+public final class VersionLock {
+    private static final AtomicLong IDS = new AtomicLong();
+
+    // Fixed order in which transactions take several locks, so they cannot deadlock.
+    final long id = IDS.incrementAndGet();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Thread owner;
+    // Only touched by the owner.
+    private int holds;
+
+    public long version() {
+        return version.get();
+    }
+
+    public static boolean isLocked(long version) {
+        return (version & 1) != 0;
+    }
+
+    public boolean isHeldByCurrentThread() {
+        return owner == Thread.currentThread();
+    }
+
+    /**
+     * The current stamp once no other thread holds the lock, for a reader about
+     * to look at the entity.
+     */
+    public long awaitVersion() {
+        for (int spins = 0; ; spins++) {
+            long v = version.get();
+            if (!isLocked(v) || isHeldByCurrentThread()) {
+                return v;
+            }
+            backOff(spins);
+        }
+    }
+
+    /**
+     * Locks only if the stamp is still {@code expected}; succeeds at once if the
+     * current thread already holds the lock.
+     */
+    public boolean tryLock(long expected) {
+        if (isHeldByCurrentThread()) {
+            holds++;
+            return true;
+        }
+        if (isLocked(expected) || !version.compareAndSet(expected, expected + 1)) {
+            return false;
+        }
+        owner = Thread.currentThread();
+        holds = 1;
+        return true;
+    }
+
+    public void lock() {
+        if (isHeldByCurrentThread()) {
+            holds++;
+            return;
+        }
+        for (int spins = 0; ; spins++) {
+            long v = version.get();
+            if (!isLocked(v) && version.compareAndSet(v, v + 1)) {
+                owner = Thread.currentThread();
+                holds = 1;
+                return;
+            }
+            backOff(spins);
+        }
+    }
+
+    /** Releases the lock; the last release moves the stamp on to a new even value. */
+    public void unlock() {
+        if (!isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException("Version lock is not held by this thread");
+        }
+        if (--holds == 0) {
+            owner = null;
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Moves the stamp on without locking, for a change that needs no lock of its
+     * own but must still fail transactions that read the old stamp.
+     */
+    public void bump() {
+        version.addAndGet(2);
+    }
+
+    static void backOff(int spins) {
+        if (spins < 64) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+}
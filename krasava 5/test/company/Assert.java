@@ -0,0 +1,56 @@
+package company;
+
+import java.util.Objects;
+
+/** Checks for the tests; each throws {@link AssertionError} when it fails. */
+public final class Assert {
+    private Assert() {
+
+    }
+
+    public static void assertTrue(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    public static void assertFalse(boolean condition, String message) {
+        assertTrue(!condition, message);
+    }
+
+    public static void assertEquals(Object expected, Object actual, String message) {
+        if (!Objects.equals(expected, actual)) {
+            throw new AssertionError(message + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    public static void assertEquals(double expected, double actual, double tolerance, String message) {
+        if (Math.abs(expected - actual) > tolerance) {
+            throw new AssertionError(message + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    public static void assertSame(Object expected, Object actual, String message) {
+        if (expected != actual) {
+            throw new AssertionError(message + ": expected the same instance as " + expected + " but was " + actual);
+        }
+    }
+
+    /** Runs {@code action} and returns what it threw; fails unless that is a {@code type}. */
+    public static <T extends Throwable> T assertThrows(Class<T> type, Action action, String message) {
+        try {
+            action.run();
+        } catch (Throwable t) {
+            if (type.isInstance(t)) {
+                return type.cast(t);
+            }
+            throw new AssertionError(message + ": expected " + type.getSimpleName() + " but got " + t, t);
+        }
+        throw new AssertionError(message + ": expected " + type.getSimpleName() + " but nothing was thrown");
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+}
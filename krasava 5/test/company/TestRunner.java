@@ -0,0 +1,60 @@
+package company;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Runs every public no-argument method whose name starts with {@code test} on
+ * a fresh instance of each listed class, and exits with status 1 if any fails.
+ * Pass class names to run only those.
+ *
+ * <pre>
+ * javac -d out $(find src test -name '*.java')
+ * java -cp out company.TestRunner
+ * </pre>
+ */
+public final class TestRunner {
+    private static final List<String> TESTS = List.of(
+        "company.util.MembershipSetTest",
+        "company.storage.CompanyIndexesTest",
+        "company.storage.ProjectHoursAggregatesTest",
+        "company.storage.CompanyDataLogTest",
+        "company.structure.DepartmentTransferTest",
+        "company.projects.TimeEntryColumnsTest"
+    );
+
+    public static void main(String[] args) throws Exception {
+        List<String> classes = args.length > 0 ? Arrays.asList(args) : TESTS;
+        int passed = 0;
+        int failed = 0;
+        for (String name : classes) {
+            Class<?> type = Class.forName(name);
+            Method[] methods = type.getMethods();
+            Arrays.sort(methods, Comparator.comparing(Method::getName));
+            for (Method method : methods) {
+                if (!method.getName().startsWith("test") || method.getParameterCount() != 0
+                        || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                String test = type.getSimpleName() + "." + method.getName();
+                try {
+                    method.invoke(type.getConstructor().newInstance());
+                    passed++;
+                    System.out.println("PASS " + test);
+                } catch (InvocationTargetException e) {
+                    failed++;
+                    System.out.println("FAIL " + test + ": " + e.getCause());
+                    e.getCause().printStackTrace(System.out);
+                }
+            }
+        }
+        System.out.printf("%d passed, %d failed%n", passed, failed);
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package company.projects;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static company.Assert.*;
+
+public class TimeEntryColumnsTest {
+    private final Department department = ObjectFactory.createDepartment("COL-D", "Columns", "");
+    private final Position position = ObjectFactory.createPosition("COL-P", "Columns", "", 1000, 9000);
+    private final WorkSchedule schedule = ObjectFactory.createWorkSchedule("COL-S", "Columns");
+
+    public void testApprovedEntriesKeepIdentityAndPrecision() {
+        Manager owner = ObjectFactory.createManager("COL-M1", "Yurii", "Owner", department, position, "2020-01-01", 5000, schedule);
+        Project project = ObjectFactory.createProject("COL-PR1", "Columns", owner);
+        Task task = ObjectFactory.createTask("COL-T1", "Work", project, owner);
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 9, 15, 42, 123_456_789);
+        LocalDateTime end = start.plusHours(2).plusSeconds(7).plusNanos(1);
+        TimeEntry entry = new TimeEntry("COL-E1", owner, project, task, start);
+        entry.stopWork(end);
+        entry.approve();
+
+        List<TimeEntry> entries = task.getTimeEntries();
+        assertEquals(1, entries.size(), "entries");
+        assertSame(entry, entries.get(0), "stored entry");
+        assertTrue(entries.contains(entry), "contains");
+        assertEquals(0, entries.indexOf(entry), "indexOf");
+
+        TimeEntryCursor cursor = task.scanTimeEntries();
+        assertTrue(cursor.next(), "cursor row");
+        assertEquals("COL-E1", cursor.getId(), "id");
+        assertSame(owner, cursor.getEmployee(), "employee");
+        assertEquals(start, cursor.getStartTime(), "start time");
+        assertEquals(end, cursor.getEndTime(), "end time");
+        assertFalse(cursor.next(), "one row");
+    }
+
+    public void testEntriesFarInTheFutureAreAccepted() {
+        Manager owner = ObjectFactory.createManager("COL-M2", "Yurii", "Owner", department, position, "2020-01-01", 5000, schedule);
+        Project project = new Project("COL-PR2", "Far future", null, LocalDateTime.of(9000, 1, 1, 0, 0), null, owner);
+        Task task = new Task("COL-T2", "Work", project, owner, null);
+        Employee worker = owner;
+        LocalDateTime start = LocalDateTime.of(9000, 6, 1, 8, 0);
+        TimeEntry entry = new TimeEntry("COL-E2", worker, project, task, start);
+        entry.stopWork(start.plusMinutes(90));
+        entry.approve();
+        TimeEntryCursor cursor = task.scanTimeEntries();
+        assertTrue(cursor.next(), "cursor row");
+        assertEquals(start, cursor.getStartTime(), "start time");
+        assertEquals(90L, cursor.getMinutes(), "minutes");
+    }
+}
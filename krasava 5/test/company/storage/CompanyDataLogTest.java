@@ -0,0 +1,161 @@
+package company.storage;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.structure.Department;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static company.Assert.*;
+
+public class CompanyDataLogTest {
+    private static final byte TYPE = 7;
+
+    public void testRecordsReadBackInOrder() throws IOException {
+        Path dir = Files.createTempDirectory("wal-test");
+        try {
+            try (CompanyDataLog log = new CompanyDataLog(dir, 100, new CompanyDataLog.Options())) {
+                for (int i = 0; i < 50; i++) {
+                    assertEquals(100L + i, log.append(TYPE, bytes("record " + i)).join(), "lsn of record " + i);
+                }
+            }
+            List<Path> segments = CompanyDataLog.listSegments(dir);
+            assertEquals(1, segments.size(), "segments");
+            CompanyDataLog.Segment segment = CompanyDataLog.readSegment(segments.get(0));
+            assertFalse(segment.isTorn(), "torn");
+            assertEquals(50, segment.records.size(), "records");
+            for (int i = 0; i < 50; i++) {
+                CompanyDataLog.Record r = segment.records.get(i);
+                assertEquals(100L + i, r.lsn, "lsn");
+                assertEquals(TYPE, r.type, "type");
+                assertEquals("record " + i, new String(r.payload, StandardCharsets.UTF_8), "payload");
+            }
+        } finally {
+            delete(dir);
+        }
+    }
+
+    public void testTornTailIsIgnoredAndCanBeCutOff() throws IOException {
+        Path dir = Files.createTempDirectory("wal-test");
+        try {
+            try (CompanyDataLog log = new CompanyDataLog(dir, 0, new CompanyDataLog.Options())) {
+                log.append(TYPE, bytes("kept")).join();
+            }
+            Path segment = CompanyDataLog.listSegments(dir).get(0);
+            long valid = Files.size(segment);
+            // A length prefix that promises more bytes than were written.
+            Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+            CompanyDataLog.Segment torn = CompanyDataLog.readSegment(segment);
+            assertTrue(torn.isTorn(), "torn");
+            assertEquals(valid, torn.validLength, "valid length");
+            assertEquals(1, torn.records.size(), "records before the tear");
+
+            CompanyDataLog.truncateTail(segment, torn.validLength);
+            CompanyDataLog.Segment repaired = CompanyDataLog.readSegment(segment);
+            assertFalse(repaired.isTorn(), "torn after truncation");
+            assertEquals(valid, Files.size(segment), "size after truncation");
+            assertEquals(1, repaired.records.size(), "records after truncation");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    public void testCorruptRecordEndsTheSegment() throws IOException {
+        Path dir = Files.createTempDirectory("wal-test");
+        try {
+            try (CompanyDataLog log = new CompanyDataLog(dir, 0, new CompanyDataLog.Options())) {
+                log.append(TYPE, bytes("first")).join();
+                log.append(TYPE, bytes("second")).join();
+            }
+            Path segment = CompanyDataLog.listSegments(dir).get(0);
+            byte[] contents = Files.readAllBytes(segment);
+            contents[contents.length - 6] ^= 0x55;
+            Files.write(segment, contents);
+            CompanyDataLog.Segment read = CompanyDataLog.readSegment(segment);
+            assertEquals(1, read.records.size(), "records before the corrupt one");
+            assertTrue(read.isTorn(), "torn");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    public void testRotationStartsANewSegment() throws IOException {
+        Path dir = Files.createTempDirectory("wal-test");
+        try {
+            try (CompanyDataLog log = new CompanyDataLog(dir, 0, new CompanyDataLog.Options())) {
+                log.append(TYPE, bytes("old")).join();
+                long next = log.rotate().join();
+                assertEquals(next, log.append(TYPE, bytes("new")).join(), "first lsn of the new segment");
+            }
+            List<Path> segments = CompanyDataLog.listSegments(dir);
+            assertEquals(2, segments.size(), "segments");
+            assertEquals(1, CompanyDataLog.readSegment(segments.get(1)).records.size(), "records in the new segment");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    public void testAppendAfterCloseFails() throws IOException {
+        Path dir = Files.createTempDirectory("wal-test");
+        try {
+            CompanyDataLog log = new CompanyDataLog(dir, 0, new CompanyDataLog.Options());
+            log.close();
+            assertThrows(IllegalStateException.class, () -> log.append(TYPE, bytes("late")), "append after close");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    public void testPersistenceReplaysTheLogAfterATornWrite() throws IOException {
+        Path dir = Files.createTempDirectory("wal-test");
+        try {
+            Department d = ObjectFactory.createDepartment("WAL-D", "Recovered", "");
+            Employee e = ObjectFactory.createEmployee("WAL-E1", "Roman", "Recovered", d,
+                ObjectFactory.createPosition("WAL-P", "Recovered", "", 1000, 9000), "2020-01-01", 2000,
+                ObjectFactory.createWorkSchedule("WAL-S", "Recovered"));
+            CompanyDataStore.enablePersistence(dir, new CompanyDataLog.Options()
+                .syncMode(CompanyDataLog.SyncMode.SYNC_EACH_BATCH), 0);
+            try {
+                CompanyDataStore.addEmployee(e);
+                e.adjustSalary(1500);
+            } finally {
+                CompanyDataStore.disablePersistence();
+            }
+            CompanyDataStore.removeEmployee(e);
+            Path segment = CompanyDataLog.listSegments(dir).get(0);
+            Files.write(segment, new byte[] {0, 0, 1}, StandardOpenOption.APPEND);
+
+            CompanyPersistence recovered = CompanyDataStore.enablePersistence(dir, new CompanyDataLog.Options(), 0);
+            try {
+                assertTrue(recovered.getRecoveredRecords() >= 2, "recovered records " + recovered.getRecoveredRecords());
+                Employee restored = CompanyDataStore.findEmployee("WAL-E1");
+                assertTrue(restored != null, "employee restored");
+                assertEquals(3500.0, restored.getSalary(), 1e-9, "salary after replay");
+            } finally {
+                CompanyDataStore.disablePersistence();
+            }
+            assertFalse(CompanyDataLog.readSegment(segment).isTorn(), "torn tail cut off on recovery");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package company.storage;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+import company.projects.Project;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static company.Assert.*;
+
+public class CompanyIndexesTest {
+    private final Position position = ObjectFactory.createPosition("IDX-P", "Indexed", "", 1000, 9000);
+    private final WorkSchedule schedule = ObjectFactory.createWorkSchedule("IDX-S", "Indexed");
+
+    public void testEmployeesAreIndexedByDepartment() {
+        Department d = ObjectFactory.createDepartment("IDX-D1", "Index One", "");
+        Employee a = register("IDX-E1", d);
+        Employee b = register("IDX-E2", d);
+        assertEquals(Set.of(a, b), new HashSet<>(CompanyDataStore.findEmployeesByDepartmentCode("IDX-D1")), "by code");
+        assertEquals(Set.of(a, b), new HashSet<>(CompanyDataStore.findEmployeesByDepartmentName("Index One")), "by name");
+        QueryResult<Employee> result = new EmployeeQuery().inDepartmentCode("IDX-D1").execute();
+        assertEquals(Set.of(a, b), new HashSet<>(result.getResults()), "query");
+        assertTrue(result.getTouched() <= 2, "query touched only the bucket, touched " + result.getTouched());
+    }
+
+    public void testTransferMovesEmployeeBetweenBuckets() {
+        Department from = ObjectFactory.createDepartment("IDX-D2", "Index Two", "");
+        Department to = ObjectFactory.createDepartment("IDX-D3", "Index Three", "");
+        Employee e = register("IDX-E3", from);
+        Department.transferEmployee(e, to);
+        assertEquals(List.of(), CompanyDataStore.findEmployeesByDepartmentCode("IDX-D2"), "old bucket");
+        assertEquals(List.of(e), CompanyDataStore.findEmployeesByDepartmentCode("IDX-D3"), "new bucket");
+    }
+
+    public void testReplacedAndRemovedEmployeesLeaveTheIndex() {
+        Department d = ObjectFactory.createDepartment("IDX-D4", "Index Four", "");
+        Employee first = register("IDX-E4", d);
+        Employee second = ObjectFactory.createEmployee("IDX-E4", "Olha", "Second", d, position, "2020-01-01", 2000, schedule);
+        CompanyDataStore.addEmployee(second);
+        assertEquals(List.of(second), CompanyDataStore.findEmployeesByDepartmentCode("IDX-D4"), "after replacement");
+        assertFalse(CompanyDataStore.removeEmployee(first), "replaced instance is not registered");
+        assertTrue(CompanyDataStore.removeEmployee(second), "remove");
+        assertEquals(List.of(), CompanyDataStore.findEmployeesByDepartmentCode("IDX-D4"), "after removal");
+    }
+
+    public void testProjectsAreIndexedByOwnerAndStatus() {
+        Department d = ObjectFactory.createDepartment("IDX-D5", "Index Five", "");
+        Manager owner = ObjectFactory.createManager("IDX-M1", "Taras", "Owner", d, position, "2020-01-01", 5000, schedule);
+        CompanyDataStore.addEmployee(owner);
+        Project p = ObjectFactory.createProject("IDX-PR1", "Indexed project", owner);
+        CompanyDataStore.addProject(p);
+        assertEquals(List.of(p), CompanyDataStore.findProjectsByOwner("IDX-M1"), "by owner");
+        assertTrue(CompanyDataStore.findProjectsByStatus("NEW").contains(p), "NEW bucket");
+        p.start();
+        assertFalse(CompanyDataStore.findProjectsByStatus("NEW").contains(p), "left NEW bucket");
+        assertTrue(CompanyDataStore.findProjectsByStatus("IN_PROGRESS").contains(p), "IN_PROGRESS bucket");
+    }
+
+    private Employee register(String id, Department department) {
+        Employee e = ObjectFactory.createEmployee(id, "Ivan", "Indexed", department, position, "2020-01-01", 2000, schedule);
+        CompanyDataStore.addEmployee(e);
+        return e;
+    }
+}
@@ -0,0 +1,94 @@
+package company.storage;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+import company.projects.Project;
+import company.projects.Task;
+import company.projects.TimeEntry;
+import company.structure.Department;
+import company.structure.Position;
+import company.structure.WorkSchedule;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static company.Assert.*;
+
+public class ProjectHoursAggregatesTest {
+    private final Department department = ObjectFactory.createDepartment("AGG-D", "Aggregates", "");
+    private final Position position = ObjectFactory.createPosition("AGG-P", "Aggregated", "", 1000, 9000);
+    private final WorkSchedule schedule = ObjectFactory.createWorkSchedule("AGG-S", "Aggregated");
+
+    public ProjectHoursAggregatesTest() {
+        CompanyDataStore.setConsistencyChecks(true);
+    }
+
+    public void testApprovedHoursReachTheTotals() {
+        Project p = project("AGG-1");
+        p.setEstimatedHours(10);
+        double before = CompanyDataStore.getTotalProjectHours();
+        approve(p, "AGG-1", 3);
+        assertEquals(before + 3, CompanyDataStore.getTotalProjectHours(), 1e-9, "total after approval");
+        assertEquals(p.getProgress(), CompanyDataStore.getProjectProgressById().get("AGG-1"), "progress by id");
+        CompanyDataStore.verifyAggregates();
+    }
+
+    public void testEstimateChangeUpdatesProgress() {
+        Project p = project("AGG-2");
+        p.setEstimatedHours(4);
+        approve(p, "AGG-2", 2);
+        double atFour = CompanyDataStore.getProjectProgressById().get("AGG-2");
+        p.setEstimatedHours(8);
+        double atEight = CompanyDataStore.getProjectProgressById().get("AGG-2");
+        assertTrue(atEight < atFour, "progress falls when the estimate grows");
+        CompanyDataStore.verifyAggregates();
+    }
+
+    public void testProjectsWithTheSameTitleKeepSeparateProgress() {
+        Project a = project("AGG-3", "Shared title");
+        Project b = project("AGG-4", "Shared title");
+        a.setEstimatedHours(2);
+        b.setEstimatedHours(100);
+        approve(a, "AGG-3", 1);
+        Map<String, Double> byId = CompanyDataStore.getProjectProgressById();
+        assertEquals(a.getProgress(), byId.get("AGG-3"), "first project");
+        assertEquals(b.getProgress(), byId.get("AGG-4"), "second project");
+        Map<String, Double> byTitle = new CompanyEntityManager().getProjectProgress();
+        assertTrue(byTitle.containsKey("Shared title"), "title-keyed copy");
+        assertThrows(UnsupportedOperationException.class, () -> byTitle.put("x", 0.0), "copy is read-only");
+    }
+
+    public void testReplacedAndRemovedProjectsLeaveTheTotals() {
+        Project first = project("AGG-5");
+        approve(first, "AGG-5", 5);
+        double withFirst = CompanyDataStore.getTotalProjectHours();
+        Project second = ObjectFactory.createProject("AGG-5", "Replacement", (Manager) first.getOwner());
+        CompanyDataStore.addProject(second);
+        assertEquals(withFirst - 5, CompanyDataStore.getTotalProjectHours(), 1e-9, "after replacement");
+        assertTrue(CompanyDataStore.removeProject(second), "remove");
+        assertFalse(CompanyDataStore.getProjectProgressById().containsKey("AGG-5"), "progress entry removed");
+        CompanyDataStore.verifyAggregates();
+    }
+
+    private Project project(String id) {
+        return project(id, "Project " + id);
+    }
+
+    private Project project(String id, String title) {
+        Manager owner = ObjectFactory.createManager(id + "-M", "Petro", "Owner", department, position, "2020-01-01", 5000, schedule);
+        CompanyDataStore.addEmployee(owner);
+        Project p = ObjectFactory.createProject(id, title, owner);
+        CompanyDataStore.addProject(p);
+        return p;
+    }
+
+    private static void approve(Project p, String id, int hours) {
+        Employee worker = p.getOwner();
+        Task task = ObjectFactory.createTask(id + "-T" + p.getTasks().size(), "Work", p, worker);
+        LocalDateTime start = LocalDateTime.now().minusHours(hours + 1);
+        TimeEntry entry = new TimeEntry(task.getId() + "-E", worker, p, task, start);
+        entry.stopWork(start.plusHours(hours));
+        entry.approve();
+    }
+}
@@ -0,0 +1,111 @@
+package company.structure;
+
+import company.ObjectFactory;
+import company.empoloyees.Employee;
+import company.empoloyees.Manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static company.Assert.*;
+
+public class DepartmentTransferTest {
+    private final Position position = ObjectFactory.createPosition("TRF-P", "Transferred", "", 1000, 9000);
+    private final WorkSchedule schedule = ObjectFactory.createWorkSchedule("TRF-S", "Transferred");
+
+    public void testRosterAndTotalsMove() {
+        Department from = new Department("TRF-D1", "From", "");
+        Department to = new Department("TRF-D2", "To", "");
+        Employee e = employee("TRF-E1", from, 2500);
+        Department.transferEmployee(e, to);
+        assertSame(to, e.getDepartment(), "department");
+        assertFalse(from.getEmployees().contains(e), "left the old roster");
+        assertTrue(to.getEmployees().contains(e), "joined the new roster");
+        assertEquals(0.0, from.getTotalSalaries(), 1e-9, "old total");
+        assertEquals(2500.0, to.getTotalSalaries(), 1e-9, "new total");
+    }
+
+    public void testSubtreeTotalsFollowATransfer() {
+        Department root = new Department("TRF-D3", "Root", "");
+        Department left = new Department("TRF-D4", "Left", "");
+        Department right = new Department("TRF-D5", "Right", "");
+        root.addSubDepartment(left);
+        root.addSubDepartment(right);
+        Employee e = employee("TRF-E2", left, 3000);
+        Department.transferEmployee(e, right);
+        assertEquals(1, root.getSubtreeHeadcount(), "root headcount");
+        assertEquals(3000.0, root.getSubtreeSalaries(), 1e-9, "root salaries");
+        assertEquals(0, left.getSubtreeHeadcount(), "left headcount");
+        assertEquals(1, right.getSubtreeHeadcount(), "right headcount");
+    }
+
+    public void testTransferToTheSameDepartmentKeepsOneMembership() {
+        Department d = new Department("TRF-D6", "Same", "");
+        Employee e = employee("TRF-E3", d, 2000);
+        Department.transferEmployee(e, d);
+        assertEquals(1, d.getEmployeeCount(), "headcount");
+        assertEquals(2000.0, d.getTotalSalaries(), 1e-9, "total");
+    }
+
+    public void testManagerKeepsTheOldDepartment() {
+        Department from = new Department("TRF-D7", "Managed", "");
+        Department to = new Department("TRF-D8", "Other", "");
+        Manager m = ObjectFactory.createManager("TRF-M1", "Iryna", "Manager", from, position, "2020-01-01", 5000, schedule);
+        from.setManager(m);
+        Department.transferEmployee(m, to);
+        assertSame(to, m.getDepartment(), "department");
+        assertSame(m, from.getManager(), "still manages the old department");
+        assertTrue(from.getEmployees().contains(m), "still on the old roster");
+        assertTrue(to.getEmployees().contains(m), "on the new roster");
+    }
+
+    public void testConcurrentTransfersKeepHeadcountConsistent() throws InterruptedException {
+        Department a = new Department("TRF-D9", "A", "");
+        Department b = new Department("TRF-D10", "B", "");
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            employees.add(employee("TRF-E" + (100 + i), a, 1000 + i));
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int round = 0; round < 200; round++) {
+                    Employee e = employees.get((round + offset) % employees.size());
+                    Department.transferEmployee(e, e.getDepartment() == a ? b : a);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double expectedA = 0;
+        int inA = 0;
+        for (Employee e : employees) {
+            Department d = e.getDepartment();
+            assertTrue(d.getEmployees().contains(e), e.getEmployeeId() + " on its department's roster");
+            assertFalse((d == a ? b : a).getEmployees().contains(e), e.getEmployeeId() + " on the other roster");
+            if (d == a) {
+                inA++;
+                expectedA += e.getSalary();
+            }
+        }
+        assertEquals(inA, a.getEmployeeCount(), "headcount of A");
+        assertEquals(employees.size() - inA, b.getEmployeeCount(), "headcount of B");
+        assertEquals(expectedA, a.getTotalSalaries(), 1e-6, "salaries of A");
+    }
+
+    private Employee employee(String id, Department department, double salary) {
+        return ObjectFactory.createEmployee(id, "Oksana", "Transferred", department, position, "2020-01-01", salary, schedule);
+    }
+}
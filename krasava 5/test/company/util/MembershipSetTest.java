@@ -0,0 +1,93 @@
+package company.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static company.Assert.*;
+
+public class MembershipSetTest {
+    public void testAddKeepsInsertionOrderAndRejectsDuplicates() {
+        MembershipSet<String> set = new MembershipSet<>();
+        assertTrue(set.add("b"), "first add");
+        assertTrue(set.add("a"), "second add");
+        assertFalse(set.add("b"), "duplicate add");
+        assertEquals(2, set.size(), "size");
+        assertEquals(List.of("b", "a"), set.snapshot(), "order");
+        assertTrue(set.contains("a"), "contains");
+    }
+
+    public void testRemoveFromMiddleAndEnd() {
+        MembershipSet<Integer> set = new MembershipSet<>();
+        for (int i = 0; i < 5; i++) {
+            set.add(i);
+        }
+        assertTrue(set.remove(2), "remove from the middle");
+        assertTrue(set.remove(4), "remove the last");
+        assertFalse(set.remove(4), "remove twice");
+        assertFalse(set.contains(2), "removed member is gone");
+        assertEquals(List.of(0, 1, 3), set.snapshot(), "members after removal");
+        set.add(2);
+        assertEquals(List.of(0, 1, 3, 2), set.snapshot(), "re-added member goes last");
+    }
+
+    public void testSnapshotIsNotAffectedByLaterChanges() {
+        MembershipSet<String> set = new MembershipSet<>();
+        set.add("a");
+        set.add("b");
+        List<String> before = set.snapshot();
+        set.add("c");
+        set.remove("a");
+        assertEquals(List.of("a", "b"), before, "snapshot after add and remove");
+        assertEquals(List.of("b", "c"), set.snapshot(), "current members");
+        assertThrows(UnsupportedOperationException.class, () -> before.add("x"), "snapshot is immutable");
+    }
+
+    public void testCompactionKeepsMembersFindable() {
+        MembershipSet<Integer> set = new MembershipSet<>();
+        for (int i = 0; i < 1000; i++) {
+            set.add(i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            if (i % 10 != 0) {
+                set.remove(i);
+            }
+        }
+        assertEquals(100, set.size(), "size after removals");
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i += 10) {
+            expected.add(i);
+            assertTrue(set.contains(i), "kept member " + i);
+        }
+        assertEquals(expected, set.snapshot(), "members after compaction");
+        for (int i = 0; i < 1000; i += 20) {
+            assertTrue(set.remove(i), "remove after compaction " + i);
+        }
+        assertEquals(50, set.size(), "size after second round");
+    }
+
+    public void testIteratorToleratesChanges() {
+        MembershipSet<String> set = new MembershipSet<>();
+        set.add("a");
+        set.add("b");
+        set.add("c");
+        List<String> seen = new ArrayList<>();
+        for (Iterator<String> it = set.iterator(); it.hasNext(); ) {
+            String member = it.next();
+            seen.add(member);
+            set.remove(member);
+        }
+        assertEquals(List.of("a", "b", "c"), seen, "iterated members");
+        assertTrue(set.isEmpty(), "all removed");
+    }
+
+    public void testClear() {
+        MembershipSet<String> set = new MembershipSet<>();
+        set.add("a");
+        List<String> before = set.snapshot();
+        set.clear();
+        assertTrue(set.isEmpty(), "cleared");
+        assertEquals(List.of("a"), before, "snapshot survives clear");
+        assertTrue(set.add("a"), "add after clear");
+    }
+}